@@ -0,0 +1,111 @@
+package salvo.jesus.graph.benchmarks;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import salvo.jesus.graph.DirectedGraphImpl;
+import salvo.jesus.graph.FrozenGraph;
+import salvo.jesus.graph.WeightedGraph;
+import salvo.jesus.graph.WeightedGraphImpl;
+import salvo.jesus.graph.algorithm.DijkstraEngine;
+import salvo.jesus.graph.algorithm.Distance;
+import salvo.jesus.graph.algorithm.MinimumSpanningTreeKruskalAlgorithm;
+import salvo.jesus.graph.algorithm.RivestSCC;
+import salvo.jesus.graph.algorithm.ShortestPathDijkstraAlgorithm;
+import salvo.jesus.graph.algorithm.TarjanSCC;
+import salvo.jesus.util.HeapNodeComparator;
+
+/**
+ * Strongly connected components, shortest paths and minimum spanning trees.
+ * Both strongly connected components algorithms recurse once per vertex, so
+ * they run with a large thread stack.
+ *
+ * @author nono
+ * @version $Id$
+ * @see SmallGraphBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xss256m")
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class AlgorithmBenchmark {
+
+	@Param( { "1000", "10000" })
+	public int vertices;
+
+	@Param( { "2", "8" })
+	public int degree;
+
+	private DirectedGraphImpl directed;
+
+	private WeightedGraphImpl weighted;
+
+	private FrozenGraph frozen;
+
+	private DijkstraEngine engine;
+
+	private int source;
+
+	@Setup
+	public void build() throws Exception {
+		directed = Graphs.directed(vertices, degree);
+		weighted = Graphs.weighted(vertices, degree);
+		frozen = weighted.freeze();
+		engine = new DijkstraEngine(frozen);
+	}
+
+	@Benchmark
+	public Set tarjan() {
+		return new TarjanSCC(directed).SCC();
+	}
+
+	@Benchmark
+	public Set rivest() {
+		return new RivestSCC(directed).SCC();
+	}
+
+	@Benchmark
+	public WeightedGraph dijkstra() throws Exception {
+		return new ShortestPathDijkstraAlgorithm(weighted,
+				new HeapNodeComparator(-1)).shortestPath(weighted
+				.getAllVertices().get(0));
+	}
+
+	/**
+	 * Single-source queries from successive vertices on a frozen graph, as a
+	 * routing service would run them.
+	 */
+	@Benchmark
+	public double dijkstraEngine() {
+		source = (source + 1) % vertices;
+		return engine.shortestPaths(source).distanceTo(vertices - 1 - source);
+	}
+
+	/**
+	 * Eccentricities from a search per vertex on all processors.
+	 */
+	@Benchmark
+	public double radius() {
+		return new Distance(frozen).radius();
+	}
+
+	@Benchmark
+	public WeightedGraph kruskal() throws Exception {
+		return new MinimumSpanningTreeKruskalAlgorithm(weighted)
+				.minimumSpanningTree();
+	}
+}
@@ -0,0 +1,40 @@
+package salvo.jesus.graph.benchmarks;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the usual JMH command line, writing results as
+ * JSON to <tt>results.json</tt> unless <tt>-rf</tt> or <tt>-rff</tt> say
+ * otherwise. For instance, to run the traversals on the largest graphs:
+ *
+ * <pre>
+ * java -jar target/benchmarks.jar Traversal -p vertices=10000
+ * </pre>
+ *
+ * @author nono
+ * @version $Id$
+ */
+public class BenchmarkMain {
+
+	public static void main(String[] args) throws Exception {
+		CommandLineOptions command = new CommandLineOptions(args);
+		if (command.shouldHelp()) {
+			command.showHelp();
+			return;
+		}
+		if (command.shouldList()) {
+			new Runner(command).list();
+			return;
+		}
+		ChainedOptionsBuilder options = new OptionsBuilder().parent(command);
+		if (!command.getResultFormat().hasValue())
+			options.resultFormat(ResultFormatType.JSON);
+		if (!command.getResult().hasValue())
+			options.result("results.json");
+		new Runner(options.build()).run();
+	}
+}
@@ -0,0 +1,102 @@
+package salvo.jesus.graph.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import salvo.jesus.graph.DirectedGraphImpl;
+import salvo.jesus.graph.GraphImpl;
+
+/**
+ * Building, querying and shrinking GraphImpl and DirectedGraphImpl.
+ *
+ * @author nono
+ * @version $Id$
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class GraphBenchmark {
+
+	@Param( { "1000", "10000" })
+	public int vertices;
+
+	@Param( { "2", "8" })
+	public int degree;
+
+	@Param( { "undirected", "directed" })
+	public String kind;
+
+	private Integer[] objects;
+
+	private int[][] edges;
+
+	private GraphImpl graph;
+
+	/**
+	 * A fresh graph for each invocation of removeVertices.
+	 */
+	@State(Scope.Thread)
+	public static class Copy {
+
+		GraphImpl graph;
+
+		@Setup(Level.Invocation)
+		public void build(GraphBenchmark benchmark) throws Exception {
+			graph = benchmark.addEdges();
+		}
+	}
+
+	@Setup(Level.Trial)
+	public void build() throws Exception {
+		objects = Graphs.vertices(vertices);
+		edges = Graphs.edges(vertices, degree, false, Graphs.SEED);
+		graph = addEdges();
+	}
+
+	private GraphImpl create() {
+		return "directed".equals(kind) ? new DirectedGraphImpl()
+				: new GraphImpl();
+	}
+
+	@Benchmark
+	public GraphImpl addEdges() throws Exception {
+		GraphImpl graph = create();
+		for (int i = 0; i < objects.length; i++)
+			graph.add(objects[i]);
+		for (int i = 0; i < edges.length; i++)
+			graph.addEdge(objects[edges[i][0]], objects[edges[i][1]]);
+		return graph;
+	}
+
+	/**
+	 * Removes 100 vertices spread over the graph, with their edges.
+	 */
+	@Benchmark
+	public GraphImpl removeVertices(Copy copy) throws Exception {
+		for (int i = 0; i < objects.length; i += objects.length / 100)
+			copy.graph.remove(objects[i]);
+		return copy.graph;
+	}
+
+	@Benchmark
+	public void getEdges(Blackhole hole) {
+		for (int i = 0; i < objects.length; i++)
+			hole.consume(graph.getEdges(objects[i]));
+	}
+}
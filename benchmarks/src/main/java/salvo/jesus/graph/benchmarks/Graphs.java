@@ -0,0 +1,131 @@
+package salvo.jesus.graph.benchmarks;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Random;
+import java.util.Set;
+
+import salvo.jesus.graph.DirectedAcyclicGraphImpl;
+import salvo.jesus.graph.DirectedGraphImpl;
+import salvo.jesus.graph.GraphImpl;
+import salvo.jesus.graph.WeightedGraphImpl;
+
+/**
+ * Random graphs for the benchmarks. A graph of <tt>n</tt> vertices and
+ * degree <tt>d</tt> has the Integers 0 to <tt>n - 1</tt> as vertices, and
+ * <tt>n * d</tt> edges between vertices drawn uniformly, without loops or
+ * parallel edges. Graphs are drawn from a fixed seed, so each run of a
+ * benchmark works on the same graphs.
+ *
+ * @author nono
+ * @version $Id$
+ */
+final class Graphs {
+
+	static final long SEED = 20061017L;
+
+	private Graphs() {
+	}
+
+	/**
+	 * Returns the vertices of a graph of <tt>n</tt> vertices. Edges must be
+	 * created with these very objects, as some algorithms compare vertices
+	 * by identity.
+	 */
+	static Integer[] vertices(int n) {
+		Integer[] vertices = new Integer[n];
+		for (int i = 0; i < n; i++)
+			vertices[i] = new Integer(i);
+		return vertices;
+	}
+
+	/**
+	 * Returns the edges of a random graph, as pairs of vertex indices.
+	 *
+	 * @param acyclic
+	 *            whether edges should all go from a lower to a higher index.
+	 */
+	static int[][] edges(int n, int degree, boolean acyclic, long seed) {
+		long count = Math.min((long) n * degree, (long) n * (n - 1) / 2);
+		int[][] edges = new int[(int) count][];
+		Set<Long> seen = new HashSet<Long>();
+		Random random = new Random(seed);
+		for (int i = 0; i < edges.length;) {
+			int a = random.nextInt(n);
+			int b = random.nextInt(n);
+			if (a == b)
+				continue;
+			int low = Math.min(a, b);
+			int high = Math.max(a, b);
+			if (!seen.add(new Long((long) low * n + high)))
+				continue;
+			edges[i++] = acyclic ? new int[] { low, high } : new int[] { a, b };
+		}
+		return edges;
+	}
+
+	/**
+	 * Fills a graph with a random graph.
+	 *
+	 * @return the graph
+	 */
+	static <G extends GraphImpl> G random(G graph, int n, int degree)
+			throws Exception {
+		Integer[] vertices = vertices(n);
+		for (int i = 0; i < n; i++)
+			graph.add(vertices[i]);
+		int[][] edges = edges(n, degree, graph instanceof DirectedAcyclicGraphImpl,
+				SEED);
+		for (int i = 0; i < edges.length; i++)
+			graph.addEdge(vertices[edges[i][0]], vertices[edges[i][1]]);
+		return graph;
+	}
+
+	/**
+	 * Returns the first vertex of a directed graph with the most outgoing
+	 * edges.
+	 */
+	static Object hub(DirectedGraphImpl graph) {
+		Object hub = null;
+		int max = -1;
+		for (Iterator it = graph.getVerticesIterator(); it.hasNext();) {
+			Object vertex = it.next();
+			int out = graph.getOutgoingEdges(vertex).size();
+			if (out > max) {
+				hub = vertex;
+				max = out;
+			}
+		}
+		return hub;
+	}
+
+	static GraphImpl undirected(int n, int degree) throws Exception {
+		return random(new GraphImpl(), n, degree);
+	}
+
+	static DirectedGraphImpl directed(int n, int degree) throws Exception {
+		return random(new DirectedGraphImpl(), n, degree);
+	}
+
+	static DirectedAcyclicGraphImpl acyclic(int n, int degree)
+			throws Exception {
+		return random(new DirectedAcyclicGraphImpl(), n, degree);
+	}
+
+	/**
+	 * Returns a random undirected graph with weights drawn uniformly in
+	 * [1, 100).
+	 */
+	static WeightedGraphImpl weighted(int n, int degree) throws Exception {
+		WeightedGraphImpl graph = new WeightedGraphImpl();
+		Integer[] vertices = vertices(n);
+		for (int i = 0; i < n; i++)
+			graph.add(vertices[i]);
+		int[][] edges = edges(n, degree, false, SEED);
+		Random random = new Random(SEED);
+		for (int i = 0; i < edges.length; i++)
+			graph.addEdge(vertices[edges[i][0]], vertices[edges[i][1]],
+					1 + random.nextDouble() * 99);
+		return graph;
+	}
+}
@@ -0,0 +1,77 @@
+package salvo.jesus.graph.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import salvo.jesus.graph.DirectedGraphImpl;
+import salvo.jesus.graph.visual.VisualGraph;
+import salvo.jesus.graph.visual.layout.DigraphLayeredLayout;
+import salvo.jesus.graph.visual.layout.ForceDirectedLayout;
+import salvo.jesus.graph.visual.layout.SimulatedAnnealingLayout;
+
+/**
+ * Layouts of a VisualGraph, run synchronously in a headless JVM. Each
+ * invocation lays out a new VisualGraph, so that it starts from the same
+ * positions.
+ *
+ * @author nono
+ * @version $Id$
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class LayoutBenchmark {
+
+	@Param( { "25", "100" })
+	public int vertices;
+
+	@Param( { "2" })
+	public int degree;
+
+	private DirectedGraphImpl directed;
+
+	private VisualGraph visual;
+
+	@Setup(Level.Trial)
+	public void build() throws Exception {
+		directed = Graphs.directed(vertices, degree);
+	}
+
+	@Setup(Level.Invocation)
+	public void show() {
+		visual = new VisualGraph(directed);
+	}
+
+	@Benchmark
+	public VisualGraph forceDirected() {
+		new ForceDirectedLayout(visual).doLayout();
+		return visual;
+	}
+
+	@Benchmark
+	public VisualGraph simulatedAnnealing() {
+		new SimulatedAnnealingLayout(visual, false).layout();
+		return visual;
+	}
+
+	@Benchmark
+	public VisualGraph layered() {
+		new DigraphLayeredLayout(visual).layout();
+		return visual;
+	}
+}
@@ -0,0 +1,58 @@
+package salvo.jesus.graph.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import salvo.jesus.graph.algorithm.DirectedGraphAdjacencyMatrix;
+import salvo.jesus.graph.algorithm.Distance;
+
+/**
+ * Dense all-pairs computations on the adjacency matrix of a directed graph:
+ * Floyd-Warshall distances and transitive closure.
+ *
+ * @author nono
+ * @version $Id$
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+public class MatrixBenchmark {
+
+	@Param( { "500", "2000" })
+	public int vertices;
+
+	@Param( { "2", "8" })
+	public int degree;
+
+	private DirectedGraphAdjacencyMatrix matrix;
+
+	@Setup
+	public void build() throws Exception {
+		matrix = new DirectedGraphAdjacencyMatrix(Graphs.directed(vertices,
+				degree));
+	}
+
+	@Benchmark
+	public double diameter() {
+		return new Distance(matrix).diameter();
+	}
+
+	@Benchmark
+	public double[][] transitiveClosure() {
+		return matrix.transitiveClosure();
+	}
+}
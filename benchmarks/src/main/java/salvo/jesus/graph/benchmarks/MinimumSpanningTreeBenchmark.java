@@ -0,0 +1,77 @@
+package salvo.jesus.graph.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import salvo.jesus.graph.FrozenGraph;
+import salvo.jesus.graph.WeightedGraph;
+import salvo.jesus.graph.algorithm.MinimumSpanningTreeBoruvkaAlgorithm;
+import salvo.jesus.graph.algorithm.MinimumSpanningTreeKruskalAlgorithm;
+
+/**
+ * Minimum spanning trees of frozen random graphs of increasing density, by
+ * Kruskal's and Bor&#367;vka's methods, on one thread and on all processors.
+ *
+ * @author nono
+ * @version $Id$
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class MinimumSpanningTreeBenchmark {
+
+	@Param( { "10000", "50000" })
+	public int vertices;
+
+	@Param( { "2", "8", "32" })
+	public int degree;
+
+	private FrozenGraph graph;
+
+	@Setup
+	public void build() throws Exception {
+		graph = Graphs.weighted(vertices, degree).freeze();
+	}
+
+	@Benchmark
+	public WeightedGraph kruskal() {
+		MinimumSpanningTreeKruskalAlgorithm kruskal = new MinimumSpanningTreeKruskalAlgorithm(
+				graph);
+		kruskal.setThreads(1);
+		return kruskal.minimumSpanningTree();
+	}
+
+	@Benchmark
+	public WeightedGraph kruskalParallelSort() {
+		return new MinimumSpanningTreeKruskalAlgorithm(graph)
+				.minimumSpanningTree();
+	}
+
+	@Benchmark
+	public WeightedGraph boruvka() {
+		MinimumSpanningTreeBoruvkaAlgorithm boruvka = new MinimumSpanningTreeBoruvkaAlgorithm(
+				graph);
+		boruvka.setThreads(1);
+		return boruvka.minimumSpanningTree();
+	}
+
+	@Benchmark
+	public WeightedGraph boruvkaParallel() {
+		return new MinimumSpanningTreeBoruvkaAlgorithm(graph)
+				.minimumSpanningTree();
+	}
+}
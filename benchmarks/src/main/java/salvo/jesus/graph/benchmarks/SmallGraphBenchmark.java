@@ -0,0 +1,76 @@
+package salvo.jesus.graph.benchmarks;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import salvo.jesus.graph.DirectedAcyclicGraphImpl;
+import salvo.jesus.graph.DirectedGraphImpl;
+import salvo.jesus.graph.algorithm.CycleBase;
+import salvo.jesus.graph.algorithm.DirectedGraphAdjacencyMatrix;
+import salvo.jesus.graph.algorithm.Distance;
+import salvo.jesus.graph.algorithm.TopologicalSorting;
+
+/**
+ * All-pairs distances, cycle bases and topological sorting, which are too
+ * slow to be measured on the graphs of AlgorithmBenchmark.
+ *
+ * @author nono
+ * @version $Id$
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class SmallGraphBenchmark {
+
+	@Param( { "50", "200" })
+	public int vertices;
+
+	@Param( { "2", "8" })
+	public int degree;
+
+	private DirectedGraphImpl directed;
+
+	private DirectedAcyclicGraphImpl acyclic;
+
+	@Setup
+	public void build() throws Exception {
+		directed = Graphs.directed(vertices, degree);
+		acyclic = Graphs.acyclic(vertices, degree);
+	}
+
+	/**
+	 * Distances from the adjacency matrix, which is built each time as
+	 * Distance overwrites it.
+	 */
+	@Benchmark
+	public double distance() {
+		return new Distance(new DirectedGraphAdjacencyMatrix(directed))
+				.diameter();
+	}
+
+	@Benchmark
+	public Set cycleBase() {
+		return new CycleBase(directed).base();
+	}
+
+	@Benchmark
+	public List topologicalSorting() {
+		return new TopologicalSorting(acyclic).traverse();
+	}
+}
@@ -0,0 +1,89 @@
+package salvo.jesus.graph.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import salvo.jesus.graph.DirectedGraphImpl;
+import salvo.jesus.graph.GraphImpl;
+import salvo.jesus.graph.algorithm.BreadthFirstDirectedGraphTraversal;
+import salvo.jesus.graph.algorithm.BreadthFirstTraversal;
+import salvo.jesus.graph.algorithm.DFDirectedGraphEdgeTraversal;
+import salvo.jesus.graph.algorithm.DepthFirstDirectedGraphTraversal;
+import salvo.jesus.graph.algorithm.DepthFirstGraphTraversal;
+
+/**
+ * Traversals of undirected and directed graphs, from the vertex with the most
+ * outgoing edges.
+ *
+ * @author nono
+ * @version $Id$
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class TraversalBenchmark {
+
+	@Param( { "1000", "10000" })
+	public int vertices;
+
+	@Param( { "2", "8" })
+	public int degree;
+
+	private GraphImpl undirected;
+
+	private DirectedGraphImpl directed;
+
+	/**
+	 * The start vertex, and the same vertex in the undirected graph.
+	 */
+	private Object start, undirectedStart;
+
+	@Setup
+	public void build() throws Exception {
+		undirected = Graphs.undirected(vertices, degree);
+		directed = Graphs.directed(vertices, degree);
+		start = Graphs.hub(directed);
+		undirectedStart = undirected.getAllVertices().get(
+				((Integer) start).intValue());
+	}
+
+	@Benchmark
+	public List breadthFirst() {
+		return new BreadthFirstTraversal(undirected).traverse(undirectedStart);
+	}
+
+	@Benchmark
+	public List depthFirst() {
+		return new DepthFirstGraphTraversal(undirected).traverse(undirectedStart);
+	}
+
+	@Benchmark
+	public List breadthFirstDirected() {
+		return new BreadthFirstDirectedGraphTraversal(directed).traverse(start);
+	}
+
+	@Benchmark
+	public List depthFirstDirected() {
+		return new DepthFirstDirectedGraphTraversal(directed).traverse(start);
+	}
+
+	@Benchmark
+	public List depthFirstEdges() {
+		return new DFDirectedGraphEdgeTraversal(directed).traverse(start);
+	}
+}
@@ -0,0 +1,838 @@
+package salvo.jesus.graph;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import salvo.jesus.graph.algorithm.DepthFirstGraphTraversal;
+import salvo.jesus.graph.algorithm.GraphTraversal;
+
+/**
+ * A DirectedGraph that may be read and modified by several threads at once
+ * without external synchronization.
+ * <p>
+ * The outgoing and incoming edges of each vertex are kept in copy-on-write
+ * snapshots: <tt>getOutgoingEdges()</tt> and <tt>getIncomingEdges()</tt>
+ * take no lock and return an immutable List that is not affected by later
+ * modifications. Adding an edge appends to the spare room of the snapshot
+ * arrays after looking for an equal edge, through an index of the outgoing
+ * edges by sink once there are many of them, so building a vertex of degree d
+ * costs O(d log d); removing an edge copies the Lists of its two vertices.
+ * Modifications lock the vertices they touch through a fixed number of
+ * striped locks, so that threads modifying unrelated vertices seldom wait
+ * for each other. The number of vertices and edges are maintained
+ * atomically.
+ * <p>
+ * Methods reading more than one vertex, such as <tt>getAllEdges()</tt>,
+ * <tt>getConnectedSet()</tt> or <tt>isPath()</tt>, see a weakly consistent
+ * view of the graph: they reflect every modification completed before they
+ * were called and may or may not reflect modifications made while they run.
+ * Connected sets are computed on demand in time linear in the size of the
+ * graph.
+ * <p>
+ * This implementation differs from DirectedGraphImpl in a few ways:
+ * <ul>
+ * <li>Adding an edge equal to an edge already in the graph, that is with the
+ * same source, sink and data, has no effect.</li>
+ * <li>Removal listeners are notified after the vertex or edge has been
+ * removed, and all listeners are notified outside of any lock, possibly
+ * concurrently from several threads.</li>
+ * <li>A batch holds all the locks from <tt>beginBatch()</tt> to
+ * <tt>commit()</tt> or <tt>rollback()</tt>, so that it only gathers the
+ * changes made by its own thread: the other threads may read the graph,
+ * including the changes of the batch, but wait to modify it until the batch
+ * is over. Batches do not nest, and a thread's second <tt>beginBatch()</tt>
+ * fails.</li>
+ * </ul>
+ *
+ * @author nono
+ * @version $Id$
+ */
+public class ConcurrentDirectedGraphImpl implements DirectedGraph {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * The edges of a vertex. The fields are only written under the lock of
+	 * the vertex.
+	 */
+	private static final class Adjacency {
+
+		final Object vertex;
+
+		/**
+		 * Position of the vertex in the order vertices were added.
+		 */
+		final long order;
+
+		volatile DirectedEdgeList outgoing = DirectedEdgeList.EMPTY_OUTGOING;
+
+		volatile DirectedEdgeList incoming = DirectedEdgeList.EMPTY;
+
+		Adjacency(Object vertex, long order) {
+			this.vertex = vertex;
+			this.order = order;
+		}
+	}
+
+	private static final Comparator ORDER = new Comparator() {
+		public int compare(Object o1, Object o2) {
+			long order1 = ((Adjacency) o1).order;
+			long order2 = ((Adjacency) o2).order;
+
+			return order1 < order2 ? -1 : (order1 == order2 ? 0 : 1);
+		}
+	};
+
+	/**
+	 * Edges of each vertex of the graph.
+	 */
+	private final ConcurrentHashMap<Object, Adjacency> adjacency = new ConcurrentHashMap<Object, Adjacency>();
+
+	/**
+	 * Locks guarding the modifications of the edges of vertices. The lock of
+	 * a vertex is chosen from the hash code of the vertex.
+	 */
+	private final ReentrantLock[] locks;
+
+	private final AtomicInteger verticesCount = new AtomicInteger();
+
+	private final AtomicInteger edgesCount = new AtomicInteger();
+
+	private final AtomicLong nextOrder = new AtomicLong();
+
+	protected volatile GraphFactory factory;
+
+	protected volatile GraphTraversal traversal;
+
+	protected final List addvertexlistener = new CopyOnWriteArrayList();
+
+	protected final List addedgelistener = new CopyOnWriteArrayList();
+
+	protected final List removevertexlistener = new CopyOnWriteArrayList();
+
+	protected final List removeedgelistener = new CopyOnWriteArrayList();
+
+	/**
+	 * Changes made since <tt>beginBatch()</tt>, or null if there is no batch
+	 * in progress. Only set and cleared by the thread making the batch, while
+	 * it holds all the locks.
+	 */
+	private transient GraphBatch batch;
+
+	/**
+	 * Creates a new, empty graph with 16 locks.
+	 */
+	public ConcurrentDirectedGraphImpl() {
+		this(16);
+	}
+
+	/**
+	 * Creates a new, empty graph.
+	 *
+	 * @param concurrencyLevel
+	 *            the estimated number of threads modifying the graph at once,
+	 *            rounded up to a power of two to give the number of locks.
+	 */
+	public ConcurrentDirectedGraphImpl(int concurrencyLevel) {
+		int stripes = 1;
+
+		while (stripes < concurrencyLevel)
+			stripes <<= 1;
+		locks = new ReentrantLock[stripes];
+		for (int i = 0; i < stripes; i++)
+			locks[i] = new ReentrantLock();
+		factory = new DirectedGraphImplFactory();
+		traversal = new DepthFirstGraphTraversal(this);
+	}
+
+	// ------------------------ locking
+
+	private int stripe(Object v) {
+		int h = v.hashCode();
+
+		h ^= (h >>> 16);
+		return h & (locks.length - 1);
+	}
+
+	/**
+	 * Locks the stripes of two vertices, lowest first so that threads
+	 * locking the same two stripes cannot deadlock.
+	 */
+	private void lock(int stripe1, int stripe2) {
+		locks[Math.min(stripe1, stripe2)].lock();
+		if (stripe1 != stripe2)
+			locks[Math.max(stripe1, stripe2)].lock();
+	}
+
+	private void unlock(int stripe1, int stripe2) {
+		if (stripe1 != stripe2)
+			locks[Math.max(stripe1, stripe2)].unlock();
+		locks[Math.min(stripe1, stripe2)].unlock();
+	}
+
+	/**
+	 * Returns the batch in progress if the current thread is making it, else
+	 * null. The thread making a batch is the only one holding the locks
+	 * while it is in progress.
+	 */
+	private GraphBatch ownBatch() {
+		return locks[0].isHeldByCurrentThread() ? batch : null;
+	}
+
+	private Adjacency checkAdjacency(Object v) {
+		Adjacency adj = adjacency.get(v);
+
+		if (adj == null)
+			throw new IllegalArgumentException("Vertex " + v
+					+ " not in graph");
+		return adj;
+	}
+
+	// ------------------------ Graph methods
+
+	public int getVerticesCount() {
+		return verticesCount.get();
+	}
+
+	/**
+	 * Returns the vertices of the graph in the order they were added.
+	 */
+	public List getAllVertices() {
+		List<Adjacency> adjs = new ArrayList<Adjacency>(adjacency.values());
+		List vertices = new ArrayList(adjs.size());
+
+		Collections.sort(adjs, ORDER);
+		for (Adjacency adj : adjs)
+			vertices.add(adj.vertex);
+		return vertices;
+	}
+
+	public int getEdgesCount() {
+		return edgesCount.get();
+	}
+
+	public Collection<Edge> getAllEdges() {
+		List<Edge> edges = new ArrayList<Edge>(edgesCount.get());
+
+		for (Adjacency adj : adjacency.values())
+			edges.addAll(adj.outgoing);
+		return edges;
+	}
+
+	public GraphFactory getGraphFactory() {
+		return factory;
+	}
+
+	public void setGraphFactory(GraphFactory factory) {
+		this.factory = factory;
+	}
+
+	public void add(Object v) throws GraphException {
+		if (v == null)
+			throw new GraphModificationException(
+					"Cannot add null vertices to graph");
+		if (adjacency.containsKey(v))
+			return;
+		int stripe = stripe(v);
+		locks[stripe].lock();
+		try {
+			if (adjacency.putIfAbsent(v, new Adjacency(v, nextOrder
+					.getAndIncrement())) != null)
+				return;
+		} finally {
+			locks[stripe].unlock();
+		}
+		verticesCount.incrementAndGet();
+
+		GraphBatch own = ownBatch();
+		Iterator iterator = addvertexlistener.iterator();
+		while (iterator.hasNext()) {
+			Object listener = iterator.next();
+			if (GraphBatch.notifies(own, listener))
+				((GraphAddVertexListener) listener)
+						.vertexAdded(new GraphAddVertexEvent(this, v));
+		}
+		if (own != null)
+			own.vertexAdded(v);
+	}
+
+	/**
+	 * Removes a vertex and its edges. The vertex is removed first, so that no
+	 * edge may be added to it, then its edges are removed one by one.
+	 */
+	public void remove(Object v) throws GraphException {
+		int stripe = stripe(v);
+		Adjacency adj;
+		List<Edge> removed = new ArrayList<Edge>();
+
+		locks[stripe].lock();
+		try {
+			adj = adjacency.remove(v);
+		} finally {
+			locks[stripe].unlock();
+		}
+		if (adj == null)
+			return;
+		verticesCount.decrementAndGet();
+
+		for (DirectedEdge edge : adj.outgoing)
+			if (unlink(edge, adj, null))
+				removed.add(edge);
+		for (DirectedEdge edge : adj.incoming)
+			if (unlink(edge, null, adj))
+				removed.add(edge);
+
+		for (Edge edge : removed)
+			fireEdgeRemoved(edge);
+		GraphBatch own = ownBatch();
+		Iterator iterator = removevertexlistener.iterator();
+		while (iterator.hasNext()) {
+			Object listener = iterator.next();
+			if (GraphBatch.notifies(own, listener))
+				((GraphRemoveVertexListener) listener)
+						.vertexRemoved(new GraphRemoveVertexEvent(this, v));
+		}
+		if (own != null)
+			own.vertexRemoved(v);
+	}
+
+	public Iterator getVerticesIterator() {
+		return getAllVertices().iterator();
+	}
+
+	/**
+	 * @deprecated
+	 */
+	@Deprecated
+	public Edge createEdge(Object v1, Object v2) {
+		return factory.createEdge(v1, v2);
+	}
+
+	/**
+	 * Adds an edge created by the GraphFactory from v1 to v2. If there is
+	 * already an edge equal to the new one, it is returned instead.
+	 */
+	public Edge addEdge(Object v1, Object v2) throws GraphException {
+		DirectedEdge edge = (DirectedEdge) factory.createEdge(v1, v2);
+		DirectedEdge added = link(edge);
+
+		return added == null ? edge : added;
+	}
+
+	/**
+	 * Adds a DirectedEdge, adding its vertices if they are not yet in the
+	 * graph. Does nothing if there is already an edge equal to this one.
+	 */
+	public void addEdge(Edge e) throws GraphException {
+		link((DirectedEdge) e);
+	}
+
+	/**
+	 * Adds an edge unless there is already an equal edge.
+	 *
+	 * @return the equal edge already in the graph, or null if the edge was
+	 *         added.
+	 */
+	private DirectedEdge link(DirectedEdge edge) throws GraphException {
+		Object source = edge.getSource();
+		Object sink = edge.getSink();
+
+		if (source == null || sink == null)
+			throw new GraphModificationException(
+					"Cannot add null vertices to graph");
+		int stripe1 = stripe(source);
+		int stripe2 = stripe(sink);
+
+		while (true) {
+			add(source);
+			add(sink);
+			lock(stripe1, stripe2);
+			try {
+				Adjacency from = adjacency.get(source);
+				Adjacency to = adjacency.get(sink);
+				// Either vertex may have been removed since it was added
+				if (from == null || to == null)
+					continue;
+				DirectedEdge existing = from.outgoing.find(sink, edge);
+				if (existing != null)
+					return existing;
+				from.outgoing = from.outgoing.with(edge);
+				to.incoming = to.incoming.with(edge);
+				edgesCount.incrementAndGet();
+				break;
+			} finally {
+				unlock(stripe1, stripe2);
+			}
+		}
+
+		GraphBatch own = ownBatch();
+		Iterator iterator = addedgelistener.iterator();
+		while (iterator.hasNext()) {
+			Object listener = iterator.next();
+			if (GraphBatch.notifies(own, listener))
+				((GraphAddEdgeListener) listener)
+						.edgeAdded(new GraphAddEdgeEvent(this, edge));
+		}
+		if (own != null)
+			own.edgeAdded(edge);
+		return null;
+	}
+
+	/**
+	 * Removes an edge, or the edge equal to it, from the graph.
+	 */
+	public void removeEdge(Edge e) throws GraphException {
+		DirectedEdge edge = (DirectedEdge) e;
+		Adjacency from = adjacency.get(edge.getSource());
+
+		if (from == null)
+			return;
+		DirectedEdge existing = from.outgoing.find(edge.getSink(), edge);
+		if (existing != null && unlink(existing, null, null))
+			fireEdgeRemoved(existing);
+	}
+
+	/**
+	 * Removes an edge from the outgoing edges of its source and the incoming
+	 * edges of its sink. The Adjacency of the source or sink is given if it
+	 * is known to the caller, which is the case when it has been removed from
+	 * the graph, else it is looked up under the lock.
+	 *
+	 * @return true if the edge was removed from its source, false if another
+	 *         thread removed it first.
+	 */
+	private boolean unlink(DirectedEdge edge, Adjacency source, Adjacency sink) {
+		int stripe1 = stripe(edge.getSource());
+		int stripe2 = stripe(edge.getSink());
+		boolean removed = false;
+
+		lock(stripe1, stripe2);
+		try {
+			Adjacency from = source != null ? source : adjacency.get(edge
+					.getSource());
+			Adjacency to = sink != null ? sink : adjacency.get(edge.getSink());
+			if (from != null && from.outgoing.indexOfSame(edge) >= 0) {
+				from.outgoing = from.outgoing.without(edge);
+				edgesCount.decrementAndGet();
+				removed = true;
+			}
+			if (to != null)
+				to.incoming = to.incoming.without(edge);
+		} finally {
+			unlock(stripe1, stripe2);
+		}
+		return removed;
+	}
+
+	private void fireEdgeRemoved(Edge edge) {
+		GraphBatch own = ownBatch();
+		Iterator iterator = removeedgelistener.iterator();
+		while (iterator.hasNext()) {
+			Object listener = iterator.next();
+			if (GraphBatch.notifies(own, listener))
+				((GraphRemoveEdgeListener) listener)
+						.edgeRemoved(new GraphRemoveEdgeEvent(this, edge));
+		}
+		if (own != null)
+			own.edgeRemoved(edge);
+	}
+
+	public void removeEdges(Object v) throws GraphException {
+		List edges = getEdges(v);
+
+		if (edges == null)
+			return;
+		Iterator iterator = edges.iterator();
+		while (iterator.hasNext())
+			removeEdge((Edge) iterator.next());
+	}
+
+	public int getDegree() {
+		int degree = 0;
+
+		for (Adjacency adj : adjacency.values())
+			degree = Math.max(degree, adj.outgoing.size()
+					+ adj.incoming.size());
+		return degree;
+	}
+
+	/**
+	 * @throws IllegalArgumentException
+	 *             if the vertex is not in the graph.
+	 */
+	public int getDegree(Object v) {
+		Adjacency adj = checkAdjacency(v);
+		return adj.outgoing.size() + adj.incoming.size();
+	}
+
+	public Set getVertices(int degree) {
+		Set verticesofsamedegree = new HashSet();
+
+		for (Adjacency adj : adjacency.values())
+			if (adj.outgoing.size() + adj.incoming.size() == degree)
+				verticesofsamedegree.add(adj.vertex);
+		return verticesofsamedegree;
+	}
+
+	/**
+	 * Returns the outgoing then incoming edges of a vertex, or null if the
+	 * vertex is not in the graph.
+	 */
+	public List getEdges(Object v) {
+		Adjacency adj = adjacency.get(v);
+
+		if (adj == null)
+			return null;
+		DirectedEdgeList outgoing = adj.outgoing;
+		DirectedEdgeList incoming = adj.incoming;
+		List edges = new ArrayList(outgoing.size() + incoming.size());
+		edges.addAll(outgoing);
+		edges.addAll(incoming);
+		return edges;
+	}
+
+	public List getAdjacentVertices(Object v) {
+		List adjacentVertices = getOutgoingAdjacentVertices(v);
+		adjacentVertices.addAll(getIncomingAdjacentVertices(v));
+		return adjacentVertices;
+	}
+
+	public HashSet getAdjacentVertices(List vertices) {
+		HashSet adjacentVertices = new HashSet(this
+				.getAdjacentVertices(vertices.get(0)));
+		int i, size = vertices.size();
+
+		for (i = 1; i < size; i++) {
+			adjacentVertices.retainAll(this
+					.getAdjacentVertices(vertices.get(i)));
+		}
+
+		return adjacentVertices;
+	}
+
+	/**
+	 * Computes the connected sets of the graph. Connected sets are ordered by
+	 * their first vertex, and list their vertices, in the order the vertices
+	 * were added.
+	 */
+	public List getConnectedSet() {
+		List vertices = getAllVertices();
+		Map<Object, Integer> setOf = new HashMap<Object, Integer>();
+		List sets = new ArrayList();
+		Iterator iterator = vertices.iterator();
+
+		while (iterator.hasNext()) {
+			Object start = iterator.next();
+			if (setOf.containsKey(start))
+				continue;
+			Integer set = new Integer(sets.size());
+			for (Object v : reachable(start, null))
+				setOf.put(v, set);
+			sets.add(new ArrayList());
+		}
+		iterator = vertices.iterator();
+		while (iterator.hasNext()) {
+			Object v = iterator.next();
+			Integer set = setOf.get(v);
+			// Vertices added since reachable() ran form their own set
+			if (set == null) {
+				set = new Integer(sets.size());
+				sets.add(new ArrayList());
+			}
+			((List) sets.get(set.intValue())).add(v);
+		}
+		return sets;
+	}
+
+	public List getConnectedSet(Object v) {
+		if (!adjacency.containsKey(v))
+			return null;
+		Set reachable = reachable(v, null);
+		List set = new ArrayList(reachable.size());
+		Iterator iterator = getAllVertices().iterator();
+
+		while (iterator.hasNext()) {
+			Object w = iterator.next();
+			if (reachable.contains(w))
+				set.add(w);
+		}
+		return set;
+	}
+
+	/**
+	 * Returns the vertices connected to a vertex regardless of the direction
+	 * of edges, stopping early if the given target is found.
+	 */
+	private Set reachable(Object start, Object target) {
+		Set visited = new HashSet();
+		List stack = new ArrayList();
+
+		visited.add(start);
+		stack.add(start);
+		while (!stack.isEmpty()) {
+			Adjacency adj = adjacency.get(stack.remove(stack.size() - 1));
+			if (adj == null)
+				continue;
+			for (DirectedEdge edge : adj.outgoing)
+				if (visited.add(edge.getSink()))
+					stack.add(edge.getSink());
+			for (DirectedEdge edge : adj.incoming)
+				if (visited.add(edge.getSource()))
+					stack.add(edge.getSource());
+			if (target != null && visited.contains(target))
+				break;
+		}
+		return visited;
+	}
+
+	/**
+	 * Does nothing, as connected sets are computed from the edges of the
+	 * graph.
+	 */
+	public void mergeconnectedSet(Object v1, Object v2) {
+	}
+
+	public List traverse(Object startat) {
+		return traversal.traverse(startat);
+	}
+
+	public GraphTraversal getTraversal() {
+		return traversal;
+	}
+
+	public void setTraversal(GraphTraversal traversal) {
+		this.traversal = traversal;
+	}
+
+	public boolean isConnected(Object v1, Object v2) {
+		if (!adjacency.containsKey(v1) || !adjacency.containsKey(v2))
+			return false;
+		return reachable(v1, v2).contains(v2);
+	}
+
+	public void addGraphAddVertexListener(GraphAddVertexListener listener) {
+		addvertexlistener.add(listener);
+	}
+
+	public void addGraphAddEdgeListener(GraphAddEdgeListener listener) {
+		addedgelistener.add(listener);
+	}
+
+	public void addGraphRemoveEdgeListener(GraphRemoveEdgeListener listener) {
+		removeedgelistener.add(listener);
+	}
+
+	public void addGraphRemoveVertexListener(GraphRemoveVertexListener listener) {
+		removevertexlistener.add(listener);
+	}
+
+	public void removeGraphAddVertexListener(GraphAddVertexListener listener) {
+		addvertexlistener.remove(listener);
+	}
+
+	public void removeGraphAddEdgeListener(GraphAddEdgeListener listener) {
+		addedgelistener.remove(listener);
+	}
+
+	public void removeGraphRemoveEdgeListener(GraphRemoveEdgeListener listener) {
+		removeedgelistener.remove(listener);
+	}
+
+	public void removeGraphRemoveVertexListener(
+			GraphRemoveVertexListener listener) {
+		removevertexlistener.remove(listener);
+	}
+
+	/**
+	 * Starts a batch of changes, waiting for the other threads to finish
+	 * their modifications and locking them out until the batch is over.
+	 *
+	 * @see Graph#beginBatch()
+	 */
+	public void beginBatch() {
+		if (ownBatch() != null)
+			throw new IllegalStateException("Batch already in progress");
+		for (int i = 0; i < locks.length; i++)
+			locks[i].lock();
+		batch = new GraphBatch(this);
+	}
+
+	/**
+	 * Ends the batch of changes in progress, lets the other threads modify
+	 * the graph again and notifies the GraphBatchListeners registered as any
+	 * kind of listener.
+	 *
+	 * @see Graph#commit()
+	 */
+	public void commit() {
+		GraphBatch committed = ownBatch();
+
+		if (committed == null)
+			throw new IllegalStateException("No batch in progress");
+		batch = null;
+		unlockAll();
+		GraphBatch.fire(committed.createEvent(), new List[] {
+				addvertexlistener, addedgelistener, removevertexlistener,
+				removeedgelistener });
+	}
+
+	/**
+	 * Ends the batch of changes in progress by undoing its changes, then lets
+	 * the other threads modify the graph again.
+	 *
+	 * @see Graph#rollback()
+	 */
+	public void rollback() throws GraphException {
+		GraphBatch rolledback = ownBatch();
+
+		if (rolledback == null)
+			throw new IllegalStateException("No batch in progress");
+		// The batch stays in progress while undoing so that
+		// GraphBatchListeners are not notified
+		try {
+			rolledback.undo();
+		} finally {
+			batch = null;
+			unlockAll();
+		}
+	}
+
+	private void unlockAll() {
+		for (int i = locks.length - 1; i >= 0; i--)
+			locks[i].unlock();
+	}
+
+	public Graph same() {
+		Graph g = new ConcurrentDirectedGraphImpl(locks.length);
+		g.setGraphFactory(this.getGraphFactory());
+		return g;
+	}
+
+	public Object findVertex(Object o) {
+		Adjacency adj = adjacency.get(o);
+		return adj == null ? null : adj.vertex;
+	}
+
+	public String toString() {
+		return "Vertices= " + this.getAllVertices().toString() + ", Edges= "
+				+ this.getAllEdges().toString();
+	}
+
+	// ------------------------ DirectedGraph methods
+
+	/**
+	 * Returns an immutable snapshot of the outgoing edges of a vertex,
+	 * without locking.
+	 *
+	 * @throws IllegalArgumentException
+	 *             if the vertex is not in the graph.
+	 */
+	public List<DirectedEdge> getOutgoingEdges(Object v) {
+		return checkAdjacency(v).outgoing;
+	}
+
+	/**
+	 * Returns an immutable snapshot of the incoming edges of a vertex,
+	 * without locking.
+	 *
+	 * @throws IllegalArgumentException
+	 *             if the vertex is not in the graph.
+	 */
+	public List<DirectedEdge> getIncomingEdges(Object v) {
+		return checkAdjacency(v).incoming;
+	}
+
+	public List getOutgoingAdjacentVertices(Object v) {
+		DirectedEdgeList outgoing = checkAdjacency(v).outgoing;
+		List adjacentVertices = new ArrayList(outgoing.size());
+
+		for (DirectedEdge edge : outgoing)
+			adjacentVertices.add(edge.getSink());
+		return adjacentVertices;
+	}
+
+	public List getIncomingAdjacentVertices(Object v) {
+		DirectedEdgeList incoming = checkAdjacency(v).incoming;
+		List adjacentVertices = new ArrayList(incoming.size());
+
+		for (DirectedEdge edge : incoming)
+			adjacentVertices.add(edge.getSource());
+		return adjacentVertices;
+	}
+
+	public DirectedEdge getEdge(Object fromvertex, Object tovertex) {
+		Adjacency from = adjacency.get(fromvertex);
+
+		return from == null ? null : from.outgoing.findFirst(tovertex);
+	}
+
+	public boolean containsEdge(Object fromvertex, Object tovertex) {
+		return getEdge(fromvertex, tovertex) != null;
+	}
+
+	/**
+	 * Returns the Edges from fromvertex to tovertex, looked up by sink in the
+	 * outgoing edges of fromvertex.
+	 */
+	public List<DirectedEdge> getEdges(Object fromvertex, Object tovertex) {
+		Adjacency from = adjacency.get(fromvertex);
+
+		if (from == null)
+			return new ArrayList<DirectedEdge>(1);
+		return from.outgoing.findAll(tovertex);
+	}
+
+	public boolean isPath(Object fromVertex, Object toVertex) {
+		if (!adjacency.containsKey(fromVertex)
+				|| !adjacency.containsKey(toVertex))
+			return false;
+		return fromVertex.equals(toVertex) || reaches(fromVertex, toVertex);
+	}
+
+	/**
+	 * @throws IllegalArgumentException
+	 *             if the vertex is not in the graph.
+	 */
+	public boolean isCycle(Object fromVertex) {
+		checkAdjacency(fromVertex);
+		return reaches(fromVertex, fromVertex);
+	}
+
+	/**
+	 * Determines if there is a path of at least one edge from a vertex to
+	 * another, following the direction of edges.
+	 */
+	private boolean reaches(Object from, Object to) {
+		Set visited = new HashSet();
+		List stack = new ArrayList();
+
+		visited.add(from);
+		stack.add(from);
+		while (!stack.isEmpty()) {
+			Adjacency adj = adjacency.get(stack.remove(stack.size() - 1));
+			if (adj == null)
+				continue;
+			for (DirectedEdge edge : adj.outgoing) {
+				Object w = edge.getSink();
+				if (w.equals(to))
+					return true;
+				if (visited.add(w))
+					stack.add(w);
+			}
+		}
+		return false;
+	}
+}
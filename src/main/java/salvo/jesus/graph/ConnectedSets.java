@@ -0,0 +1,228 @@
+package salvo.jesus.graph;
+
+import java.io.Serializable;
+
+/**
+ * Disjoint-set forest keeping track of the connected sets of a graph. Sets are
+ * made of the slots allocated to vertices by a {@link VertexIndex}, and are
+ * merged using union by rank and path compression so that adding an edge or
+ * determining if two vertices are connected takes almost constant time.
+ * <p>
+ * A disjoint-set forest cannot undo a merge. When removing an edge splits a
+ * connected set in two, the caller computes both halves and hands them to
+ * {@link #split(int[], int[])}, which rebuilds only the two trees
+ * involved.
+ *
+ * @author nono
+ * @version $Id$
+ */
+class ConnectedSets implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Parent of each slot in the forest. A slot is the root of its set if it
+	 * is its own parent.
+	 */
+	private int[] parent;
+
+	/**
+	 * Upper bound of the height of the tree rooted at each slot.
+	 */
+	private int[] rank;
+
+	/**
+	 * Visit stamp of each slot, used by graph traversals relabeling a set.
+	 */
+	private int[] visited;
+
+	/**
+	 * Current visit stamp.
+	 */
+	private int stamp;
+
+	/**
+	 * Number of disjoint sets.
+	 */
+	private int count;
+
+	/**
+	 * Incremented each time the sets are modified.
+	 */
+	private int version;
+
+	/**
+	 * Creates a new, empty forest.
+	 */
+	public ConnectedSets() {
+		parent = new int[10];
+		rank = new int[10];
+		visited = new int[10];
+	}
+
+	/**
+	 * Puts the given slot into its own set.
+	 *
+	 * @param slot
+	 *            the slot of a vertex just added to the graph
+	 */
+	public void add(int slot) {
+		if (slot >= parent.length) {
+			int length = Math.max(slot + 1, parent.length * 2);
+			parent = grow(parent, length);
+			rank = grow(rank, length);
+			visited = grow(visited, length);
+		}
+		parent[slot] = slot;
+		rank[slot] = 0;
+		visited[slot] = 0;
+		count++;
+		version++;
+	}
+
+	/**
+	 * Removes the given slot from the forest. The slot must be alone in its
+	 * set, which is the case once all the edges of its vertex are removed.
+	 *
+	 * @param slot
+	 *            the slot of a vertex being removed from the graph
+	 */
+	public void remove(int slot) {
+		parent[slot] = slot;
+		rank[slot] = 0;
+		count--;
+		version++;
+	}
+
+	/**
+	 * Returns the root of the set the given slot belongs to, compressing the
+	 * path from the slot to the root along the way.
+	 */
+	public int find(int slot) {
+		while (parent[slot] != slot) {
+			parent[slot] = parent[parent[slot]];
+			slot = parent[slot];
+		}
+		return slot;
+	}
+
+	/**
+	 * Merges the sets the two slots belong to, attaching the shallower tree
+	 * to the root of the deeper one.
+	 *
+	 * @return true if the slots were in different sets.
+	 */
+	public boolean union(int slot1, int slot2) {
+		int root1 = find(slot1);
+		int root2 = find(slot2);
+
+		if (root1 == root2)
+			return false;
+		if (rank[root1] < rank[root2]) {
+			int swap = root1;
+			root1 = root2;
+			root2 = swap;
+		}
+		parent[root2] = root1;
+		if (rank[root1] == rank[root2])
+			rank[root1]++;
+		count--;
+		version++;
+		return true;
+	}
+
+	/**
+	 * Splits a set in two. The slots given must be exactly the members of
+	 * one set, partitioned in two non-empty halves.
+	 *
+	 * @param half1
+	 *            slots of the first half
+	 * @param half2
+	 *            slots of the second half
+	 */
+	public void split(int[] half1, int[] half2) {
+		relabel(half1);
+		relabel(half2);
+		count++;
+		version++;
+	}
+
+	/**
+	 * Makes the first slot the root of a flat tree holding all the slots.
+	 */
+	private void relabel(int[] slots) {
+		int root = slots[0];
+
+		for (int i = 0; i < slots.length; i++) {
+			parent[slots[i]] = root;
+			rank[slots[i]] = 0;
+		}
+		rank[root] = slots.length > 1 ? 1 : 0;
+	}
+
+	/**
+	 * Starts a new traversal. All slots are considered unvisited afterwards.
+	 */
+	public void startVisit() {
+		stamp++;
+	}
+
+	/**
+	 * Marks the given slot as visited by the current traversal.
+	 *
+	 * @return true if the slot had not been visited yet.
+	 */
+	public boolean visit(int slot) {
+		if (visited[slot] == stamp)
+			return false;
+		visited[slot] = stamp;
+		return true;
+	}
+
+	/**
+	 * Returns the number of disjoint sets.
+	 */
+	public int count() {
+		return count;
+	}
+
+	/**
+	 * Returns a number that changes each time sets are added, removed, merged
+	 * or split.
+	 */
+	public int version() {
+		return version;
+	}
+
+	/**
+	 * Releases the room of the slots at and above the given capacity, which
+	 * must not be in use.
+	 */
+	void trimToSize(int capacity) {
+		if (parent.length > capacity) {
+			parent = shrink(parent, capacity);
+			rank = shrink(rank, capacity);
+			visited = shrink(visited, capacity);
+		}
+	}
+
+	/**
+	 * Returns the estimated size of this forest.
+	 */
+	long memorySize() {
+		return GraphMemoryStats.shallowSizeOf(getClass()) + 3
+				* GraphMemoryStats.sizeOfArray(int.class, parent.length);
+	}
+
+	private static int[] shrink(int[] array, int length) {
+		int[] shrunk = new int[length];
+		System.arraycopy(array, 0, shrunk, 0, length);
+		return shrunk;
+	}
+
+	private static int[] grow(int[] array, int length) {
+		int[] grown = new int[length];
+		System.arraycopy(array, 0, grown, 0, array.length);
+		return grown;
+	}
+}
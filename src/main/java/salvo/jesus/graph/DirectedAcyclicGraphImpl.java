@@ -1,10 +1,14 @@
 package salvo.jesus.graph;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 import salvo.jesus.graph.algorithm.TopologicalSorting;
+import salvo.jesus.graph.primitive.IntDirectedGraph;
 
 /**
  * The DirectedAcyclicGraph class represents a directed acyclic graph (DAG)
@@ -30,6 +34,36 @@ public class DirectedAcyclicGraphImpl extends DirectedGraphImpl implements Direc
     topologicalsorting = new TopologicalSorting( this );
   }
 
+  /**
+   * Position of each vertex in the topological order maintained as edges are
+   * added, indexed by slot. Only meaningful for slots of vertices in the graph.
+   */
+  int         position[];
+
+  /**
+   * Slot of the vertex at each position of the topological order, or -1 if
+   * the vertex at that position has been removed.
+   */
+  int         slotAt[];
+
+  /**
+   * Number of positions in use, including those of removed vertices.
+   */
+  int         positions;
+
+  /**
+   * Number of positions of removed vertices.
+   */
+  int         freePositions;
+
+  /**
+   * Marks of the vertices visited by the searches of <tt>order()</tt>, by slot.
+   * A vertex is visited by the current search if its mark is the search's epoch.
+   */
+  int         mark[];
+
+  int         epoch;
+
   /**
     * Adds an Edge into the DirectedAcyclicGraph. This will only add the Edge
     * if there is currently no path from the Object toObject to Object fromVertex.
@@ -41,14 +75,13 @@ public class DirectedAcyclicGraphImpl extends DirectedGraphImpl implements Direc
     * @param		toVertex		Object that will be the destination of the Edge
     *           that will be added into the Graph.
     * @return   The Edge object added to the Graph. The Edge object will be
-    *           an instance of DirectedEdge. If there is already a path
-    *           from fromObject to toVertex, then this method returns null.
+    *           an instance of DirectedEdge.
+    * @throws   CycleException if there is already a path from toObject to
+    *           fromObject.
     */
   public Edge addEdge( Object fromObject, Object toObject ) throws GraphException {
-    if( !isPath( toObject, fromObject ))
-        return super.addEdge( fromObject, toObject );
-    else
-        throw new CycleException();
+    order( fromObject, toObject );
+    return super.addEdge( fromObject, toObject );
   }
 
   /**
@@ -58,16 +91,272 @@ public class DirectedAcyclicGraphImpl extends DirectedGraphImpl implements Direc
     * violating the property of a directed acyclic graph.
     *
     * @param	e   The edge to be added to the Graph.
+    * @throws   CycleException if the edge would create a cycle.
     */
   public void addEdge( Edge edge ) throws GraphException {
     DirectedEdge dEdge = ( DirectedEdge ) edge;
-    Object  fromObject = dEdge.getSource();
-    Object  toObject = dEdge.getSink();
 
-    if( !isPath( toObject, fromObject ))
-        super.addEdge( dEdge );
-    else
-        throw new CycleException();
+    order( dEdge.getSource(), dEdge.getSink() );
+    super.addEdge( dEdge );
+  }
+
+  /**
+    * Makes the topological order ready for an edge from fromObject to
+    * toObject, adding the vertices if they are not in the graph. This is the
+    * algorithm of Pearce and Kelly: if fromObject comes after toObject, only
+    * the vertices whose position lies between theirs are searched, forward
+    * from toObject and backward from fromObject. Reaching fromObject from
+    * toObject means the edge would close a cycle. Otherwise the vertices
+    * found are moved to the positions they occupied, those reaching
+    * fromObject first, so that the edge can be added.
+    *
+    * @throws CycleException if the edge would create a cycle.
+    */
+  private void order( Object fromObject, Object toObject ) throws GraphException {
+    // Let the ancestor reject null vertices
+    if( fromObject == null || toObject == null )
+      return;
+    if( fromObject.equals( toObject ))
+      throw new CycleException();
+    add( fromObject );
+    add( toObject );
+
+    int from = vertexIndex.slotOf( fromObject );
+    int to = vertexIndex.slotOf( toObject );
+    int lower = position[to], upper = position[from];
+    if( upper < lower )
+      return;
+
+    if( epoch > Integer.MAX_VALUE - 2 ) {
+      java.util.Arrays.fill( mark, 0 );
+      epoch = 0;
+    }
+    int forwardEpoch = ++epoch;
+    int backwardEpoch = ++epoch;
+    int forward[] = search( to, forwardEpoch, lower, upper, true );
+    if( forward == null )
+      throw new CycleException();
+    int backward[] = search( from, backwardEpoch, lower, upper, false );
+
+    // Both sets take back their positions, backward set first
+    int moved = forward[0] + backward[0];
+    int slots[] = new int[ moved ];
+    int free[] = new int[ moved ];
+    sortByPosition( backward );
+    sortByPosition( forward );
+    System.arraycopy( backward, 1, slots, 0, backward[0] );
+    System.arraycopy( forward, 1, slots, backward[0], forward[0] );
+    for( int i = 0; i < moved; i++ )
+      free[i] = position[ slots[i] ];
+    java.util.Arrays.sort( free );
+    for( int i = 0; i < moved; i++ ) {
+      position[ slots[i] ] = free[i];
+      slotAt[ free[i] ] = slots[i];
+    }
+  }
+
+  /**
+    * Searches the vertices reachable from a vertex whose position lies strictly
+    * between lower and upper, following outgoing edges if forward is true or
+    * incoming edges otherwise.
+    *
+    * @return the slots found, including start, after their count at index 0,
+    *         or null if the forward search reaches the vertex at upper.
+    */
+  private int[] search( int start, int searchEpoch, int lower, int upper, boolean forward ) {
+    int found[] = new int[ 9 ];
+    int stack[] = new int[ 8 ];
+    int top = 0;
+
+    mark[start] = searchEpoch;
+    stack[top++] = start;
+    found[++found[0]] = start;
+    while( top > 0 ) {
+      int slot = stack[--top];
+      List<DirectedEdge> incident = forward
+          ? graphDirectionDelegate.outgoingEdges.get( slot )
+          : graphDirectionDelegate.incomingEdges.get( slot );
+      for( int i = 0; i < incident.size(); i++ ) {
+        DirectedEdge edge = incident.get( i );
+        int next = vertexIndex.slotOf( forward ? edge.getSink() : edge.getSource() );
+        int at = position[next];
+        if( forward && at == upper )
+          return null;
+        if( mark[next] == searchEpoch || at <= lower || at >= upper )
+          continue;
+        mark[next] = searchEpoch;
+        if( top == stack.length )
+          stack = grow( stack );
+        stack[top++] = next;
+        if( found[0] + 1 == found.length )
+          found = grow( found );
+        found[++found[0]] = next;
+      }
+    }
+    return found;
+  }
+
+  private static int[] grow( int array[] ) {
+    int grown[] = new int[ array.length * 2 ];
+    System.arraycopy( array, 0, grown, 0, array.length );
+    return grown;
+  }
+
+  /**
+    * Sorts the slots of a search result by position, with an insertion sort
+    * as the affected regions are usually small.
+    */
+  private void sortByPosition( int found[] ) {
+    for( int i = 2; i <= found[0]; i++ ) {
+      int slot = found[i];
+      int j = i - 1;
+      while( j >= 1 && position[ found[j] ] > position[slot] ) {
+        found[j + 1] = found[j];
+        j--;
+      }
+      found[j + 1] = slot;
+    }
+  }
+
+  /**
+    * Gives a newly added vertex the last position of the topological order.
+    */
+  protected void initSlot( int slot ) {
+    super.initSlot( slot );
+    if( positions == slotAt.length )
+      slotAt = grow( slotAt );
+    if( slot >= position.length ) {
+      position = grow( position );
+      mark = grow( mark );
+    }
+    position[slot] = positions;
+    slotAt[ positions++ ] = slot;
+  }
+
+  /**
+    * Frees the position of a removed vertex, and renumbers the positions once
+    * most of them are free.
+    */
+  protected void clearSlot( int slot ) {
+    super.clearSlot( slot );
+    slotAt[ position[slot] ] = -1;
+    freePositions++;
+    if( freePositions > 16 && freePositions * 2 > positions ) {
+      int used = 0;
+      for( int i = 0; i < positions; i++ ) {
+        if( slotAt[i] == -1 ) continue;
+        slotAt[used] = slotAt[i];
+        position[ slotAt[i] ] = used++;
+      }
+      positions = used;
+      freePositions = 0;
+    }
+  }
+
+  /**
+    * Links a batch of edges checked by <tt>checkAddAll()</tt>, then sorts
+    * the whole graph again, in time linear in its size.
+    */
+  protected void linkEdges( List<Edge> newedges ) {
+    super.linkEdges( newedges );
+    int indegree[] = new int[ position.length ];
+    int sorted = 0, head = 0;
+
+    for( int i = 0; i < positions; i++ ) {
+      int slot = slotAt[i];
+      if( slot == -1 ) continue;
+      indegree[slot] = graphDirectionDelegate.incomingEdges.get( slot ).size();
+    }
+    // Roots keep their relative order, followed by the vertices they reach
+    for( int i = 0; i < positions; i++ )
+      if( slotAt[i] != -1 && indegree[ slotAt[i] ] == 0 )
+        mark[ sorted++ ] = slotAt[i];
+    while( head < sorted ) {
+      List<DirectedEdge> outgoing = graphDirectionDelegate.outgoingEdges.get( mark[ head++ ] );
+      for( int i = 0; i < outgoing.size(); i++ ) {
+        int next = vertexIndex.slotOf( outgoing.get( i ).getSink() );
+        if( --indegree[next] == 0 )
+          mark[ sorted++ ] = next;
+      }
+    }
+    for( int i = 0; i < sorted; i++ ) {
+      slotAt[i] = mark[i];
+      position[ mark[i] ] = i;
+    }
+    positions = sorted;
+    freePositions = 0;
+    // The sort used the marks as a queue
+    java.util.Arrays.fill( mark, 0 );
+    epoch = 0;
+  }
+
+  protected void initData() {
+    super.initData();
+    position = new int[ 16 ];
+    slotAt = new int[ 16 ];
+    mark = new int[ 16 ];
+    positions = 0;
+    freePositions = 0;
+    epoch = 0;
+  }
+
+  protected void addMemoryStats( GraphMemoryStats stats ) {
+    super.addMemoryStats( stats );
+    stats.add( GraphMemoryStats.TOPOLOGICAL_ORDER,
+      GraphMemoryStats.sizeOfArray( int.class, position.length )
+      + GraphMemoryStats.sizeOfArray( int.class, slotAt.length )
+      + GraphMemoryStats.sizeOfArray( int.class, mark.length ) );
+  }
+
+  /**
+    * Checks that adding a batch of edges keeps the graph acyclic. Instead of
+    * looking for a path for each edge as <tt>addEdge()</tt> does, this sorts
+    * the graph with the batch added once, in time linear in the size of the
+    * graph and of the batch.
+    *
+    * @throws CycleException if the batch would create a cycle.
+    */
+  protected void checkAddAll( List newvertices, List<Edge> newedges ) throws GraphException {
+    super.checkAddAll( newvertices, newedges );
+    if( newedges.isEmpty() ) return;
+
+    // Existing vertices keep their slot as id, new endpoints are numbered after
+    Map<Object,Integer> newids = new HashMap<Object,Integer>();
+    int n = vertexIndex.capacity();
+    int  from[] = new int[ newedges.size() ];
+    int  to[] = new int[ newedges.size() ];
+
+    for( int i = 0; i < from.length; i++ ) {
+      DirectedEdge  dedge = ( DirectedEdge ) newedges.get( i );
+      from[i] = idOf( dedge.getSource(), newids, n );
+      to[i] = idOf( dedge.getSink(), newids, n );
+    }
+
+    IntDirectedGraph  check = new IntDirectedGraph( n + newids.size() );
+    for( int id = 0; id < n + newids.size(); id++ )
+      check.addVertex();
+    for( int slot = 0; slot < n; slot++ ) {
+      if( vertexIndex.vertexAt( slot ) == null ) continue;
+      Iterator iterator = getOutgoingEdges( vertexIndex.vertexAt( slot )).iterator();
+      while( iterator.hasNext() )
+        check.addEdge( slot, vertexIndex.slotOf( (( DirectedEdge ) iterator.next()).getSink() ));
+    }
+    for( int i = 0; i < from.length; i++ )
+      check.addEdge( from[i], to[i] );
+
+    TopologicalSorting.sort( check );
+  }
+
+  private int idOf( Object v, Map<Object,Integer> newids, int n ) {
+    int slot = vertexIndex.slotOf( v );
+    if( slot >= 0 ) return slot;
+
+    Integer id = newids.get( v );
+    if( id == null ) {
+      id = new Integer( n + newids.size() );
+      newids.put( v, id );
+    }
+    return id.intValue();
   }
 
   /**
@@ -78,26 +367,17 @@ public class DirectedAcyclicGraphImpl extends DirectedGraphImpl implements Direc
     */
   public List getRoot( ){
     Iterator  iterator;
-    Iterator  edgeiterator;
-    List        currentedges;
-    List        rootVertices;
-    DirectedEdge  dedge;
+    List        rootVertices = new ArrayList( 10 );
+    Object      vertex;
 
-    // Initially assume all vertices as root vertices
-    rootVertices = (List) ((ArrayList) vertices).clone();
-
-    iterator = this.getOutgoingEdges().iterator();
+    // Root vertices are those that are not the sink of any edge
+    iterator = vertices.iterator();
     while( iterator.hasNext() ){
-      currentedges = (List) iterator.next();
-      // Then remove all vertices that are sinks of an edge
-      edgeiterator = currentedges.iterator();
-      while( edgeiterator.hasNext() ){
-        dedge = (DirectedEdge) edgeiterator.next();
-        rootVertices.remove( dedge.getSink() );
-      }
+      vertex = iterator.next();
+      if( this.getIncomingEdges( vertex ).isEmpty() )
+        rootVertices.add( vertex );
     }
 
-    // The remaining verices in the vector will be the root vertices.
     return rootVertices;
   }
 
@@ -106,14 +386,19 @@ public class DirectedAcyclicGraphImpl extends DirectedGraphImpl implements Direc
    * Note that the sequence of vertices in the return List will not distinguish
    * between connected components of the graph.
    *
-   * This method is not part of the GraphTraversal abstract class, but is added
-   * here for convenience.
+   * The order is maintained as edges are added, so this takes time linear
+   * in the number of vertices.
    *
    * @return List containing the sequence of the vertices visited in the
    * entire directed acyclic graph, regardless of the connected components of the graph.
    */
   public List topologicalSort( ){
-    return this.topologicalsorting.traverse();
+    List  sorted = new ArrayList( vertices.size() );
+
+    for( int i = 0; i < positions; i++ )
+      if( slotAt[i] != -1 )
+        sorted.add( vertexIndex.vertexAt( slotAt[i] ));
+    return sorted;
   }
 
   /**
@@ -128,7 +413,9 @@ public class DirectedAcyclicGraphImpl extends DirectedGraphImpl implements Direc
    * entire directed acyclic graph, regardless of the connected components of the graph.
    */
   public List reverseTopologicalSort( ){
-    return this.topologicalsorting.reverseTraverse();
+    List  sorted = topologicalSort();
+    Collections.reverse( sorted );
+    return sorted;
   }
 
   /**
@@ -0,0 +1,235 @@
+package salvo.jesus.graph;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Immutable snapshot of the outgoing or incoming edges of a vertex, used by
+ * graphs whose readers do not lock. The array may be shared with later
+ * snapshots, which only write past the size of this one, into slots no
+ * snapshot has written yet.
+ * <p>
+ * Snapshots of outgoing edges grown from <tt>EMPTY_OUTGOING</tt> also index
+ * their edges by sink once they have <tt>INDEX_THRESHOLD</tt> of them, in a
+ * PersistentMap shared with the next snapshots. <tt>find()</tt> then looks
+ * up the sink instead of scanning the edges, so that adding d edges to a
+ * vertex without duplicates takes O(d log d) time instead of
+ * O(d<sup>2</sup>).
+ *
+ * @author nono
+ * @version $Id$
+ */
+final class DirectedEdgeList extends AbstractList<DirectedEdge> implements
+		RandomAccess {
+
+	/**
+	 * Size from which the edges are indexed by sink, as in DirectedGraphImpl.
+	 */
+	static final int INDEX_THRESHOLD = DirectedGraphWeakImpl.DEFAULT_INDEX_THRESHOLD;
+
+	/**
+	 * The empty snapshot, whose successors are not indexed.
+	 */
+	static final DirectedEdgeList EMPTY = new DirectedEdgeList(
+			new DirectedEdge[0], 0, false, null);
+
+	/**
+	 * The empty snapshot of outgoing edges, whose successors are indexed by
+	 * sink once they are large enough.
+	 */
+	static final DirectedEdgeList EMPTY_OUTGOING = new DirectedEdgeList(
+			new DirectedEdge[0], 0, true, null);
+
+	private final DirectedEdge[] edges;
+
+	private final int size;
+
+	private final boolean indexed;
+
+	/**
+	 * The edges by sink, each sink mapped to its DirectedEdge or to an array
+	 * of its parallel DirectedEdges, or null if there are fewer than
+	 * <tt>INDEX_THRESHOLD</tt> edges.
+	 */
+	private final PersistentMap<Object, Object> sinks;
+
+	private DirectedEdgeList(DirectedEdge[] edges, int size, boolean indexed,
+			PersistentMap<Object, Object> sinks) {
+		this.edges = edges;
+		this.size = size;
+		this.indexed = indexed;
+		this.sinks = sinks;
+	}
+
+	public DirectedEdge get(int index) {
+		if (index >= size)
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: "
+					+ size);
+		return edges[index];
+	}
+
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns a snapshot with an edge appended. Must only be called by the
+	 * only thread modifying the vertex. The array is copied if a later
+	 * snapshot, since dropped as by a rolled back batch, already wrote past
+	 * this one.
+	 */
+	DirectedEdgeList with(DirectedEdge edge) {
+		DirectedEdge[] array = edges;
+
+		if (size == array.length || array[size] != null) {
+			array = new DirectedEdge[Math.max(4, size * 2)];
+			System.arraycopy(edges, 0, array, 0, size);
+		}
+		array[size] = edge;
+		PersistentMap<Object, Object> index = sinks;
+		if (indexed && index == null && size + 1 >= INDEX_THRESHOLD) {
+			index = PersistentMap.empty();
+			for (int i = 0; i < size; i++)
+				index = index(index, array[i]);
+		}
+		if (index != null)
+			index = index(index, edge);
+		return new DirectedEdgeList(array, size + 1, indexed, index);
+	}
+
+	/**
+	 * Returns a snapshot without an edge, compared by identity, or this
+	 * snapshot if the edge is not in it.
+	 */
+	DirectedEdgeList without(DirectedEdge edge) {
+		int index = indexOfSame(edge);
+
+		if (index < 0)
+			return this;
+		if (size == 1)
+			return indexed ? EMPTY_OUTGOING : EMPTY;
+		DirectedEdge[] array = new DirectedEdge[size - 1];
+		System.arraycopy(edges, 0, array, 0, index);
+		System.arraycopy(edges, index + 1, array, index, size - index - 1);
+		return new DirectedEdgeList(array, size - 1, indexed, sinks == null
+				|| size - 1 < INDEX_THRESHOLD ? null : unindex(sinks, edge));
+	}
+
+	int indexOfSame(DirectedEdge edge) {
+		for (int i = 0; i < size; i++)
+			if (edges[i] == edge)
+				return i;
+		return -1;
+	}
+
+	/**
+	 * Returns the edge, if any, whose sink is the given one and that is the
+	 * same as or equal to the given edge.
+	 */
+	DirectedEdge find(Object sink, DirectedEdge edge) {
+		if (sinks != null) {
+			Object found = sinks.get(sink);
+			if (found instanceof DirectedEdge)
+				return found == edge || found.equals(edge) ? (DirectedEdge) found
+						: null;
+			if (found != null)
+				for (DirectedEdge candidate : (DirectedEdge[]) found)
+					if (candidate == edge || candidate.equals(edge))
+						return candidate;
+			return null;
+		}
+		for (int i = 0; i < size; i++) {
+			DirectedEdge candidate = edges[i];
+			if (candidate == edge
+					|| (candidate.getSink().equals(sink) && candidate
+							.equals(edge)))
+				return candidate;
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the first edge whose sink is the given one, or null if there
+	 * is none.
+	 */
+	DirectedEdge findFirst(Object sink) {
+		if (sinks != null) {
+			Object found = sinks.get(sink);
+			return found instanceof DirectedEdge[] ? ((DirectedEdge[]) found)[0]
+					: (DirectedEdge) found;
+		}
+		for (int i = 0; i < size; i++)
+			if (edges[i].getSink().equals(sink))
+				return edges[i];
+		return null;
+	}
+
+	/**
+	 * Returns the edges whose sink is the given one, in the order they were
+	 * added.
+	 */
+	List<DirectedEdge> findAll(Object sink) {
+		List<DirectedEdge> found = new ArrayList<DirectedEdge>(1);
+
+		if (sinks != null) {
+			Object indexed = sinks.get(sink);
+			if (indexed instanceof DirectedEdge[])
+				found.addAll(Arrays.asList((DirectedEdge[]) indexed));
+			else if (indexed != null)
+				found.add((DirectedEdge) indexed);
+			return found;
+		}
+		for (int i = 0; i < size; i++)
+			if (edges[i].getSink().equals(sink))
+				found.add(edges[i]);
+		return found;
+	}
+
+	/**
+	 * Returns a sink index with an edge added.
+	 */
+	private static PersistentMap<Object, Object> index(
+			PersistentMap<Object, Object> index, DirectedEdge edge) {
+		Object sink = edge.getSink();
+		Object found = index.get(sink);
+
+		if (found == null)
+			return index.with(sink, edge);
+		if (found instanceof DirectedEdge)
+			return index.with(sink, new DirectedEdge[] { (DirectedEdge) found,
+					edge });
+		DirectedEdge[] parallel = (DirectedEdge[]) found;
+		DirectedEdge[] grown = new DirectedEdge[parallel.length + 1];
+		System.arraycopy(parallel, 0, grown, 0, parallel.length);
+		grown[parallel.length] = edge;
+		return index.with(sink, grown);
+	}
+
+	/**
+	 * Returns a sink index without an edge, compared by identity.
+	 */
+	private static PersistentMap<Object, Object> unindex(
+			PersistentMap<Object, Object> index, DirectedEdge edge) {
+		Object sink = edge.getSink();
+		Object found = index.get(sink);
+
+		if (found == edge)
+			return index.without(sink);
+		if (!(found instanceof DirectedEdge[]))
+			return index;
+		DirectedEdge[] parallel = (DirectedEdge[]) found;
+		for (int i = 0; i < parallel.length; i++)
+			if (parallel[i] == edge) {
+				if (parallel.length == 2)
+					return index.with(sink, parallel[1 - i]);
+				DirectedEdge[] shrunk = new DirectedEdge[parallel.length - 1];
+				System.arraycopy(parallel, 0, shrunk, 0, i);
+				System.arraycopy(parallel, i + 1, shrunk, i, shrunk.length - i);
+				return index.with(sink, shrunk);
+			}
+		return index;
+	}
+}
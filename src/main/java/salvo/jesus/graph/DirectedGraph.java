@@ -62,6 +62,30 @@ public interface DirectedGraph extends Graph{
 	 */
 	public DirectedEdge getEdge(Object fromvertex, Object tovertex);
 
+	/**
+	 * Determines if there is an Edge whose origin is fromvertex and
+	 * destination is tovertex.
+	 * 
+	 * @param fromvertex
+	 *            Object that is the origin of the directed Edge
+	 * @param tovertex
+	 *            Object that is the destination of the directed Edge
+	 * @return true if there is at least one such Edge.
+	 */
+	public boolean containsEdge(Object fromvertex, Object tovertex);
+
+	/**
+	 * Returns all the Edges in the Graph whose origin is fromvertex and
+	 * destination is tovertex. There may be more than one in multigraphs.
+	 * 
+	 * @param fromvertex
+	 *            Object that is the origin of the directed Edges
+	 * @param tovertex
+	 *            Object that is the destination of the directed Edges
+	 * @return List of the matching Edges, empty if there is none.
+	 */
+	public List<DirectedEdge> getEdges(Object fromvertex, Object tovertex);
+
 	/**
 	 * Determines if there is a path from Object fromObject to Object toVertex.
 	 * This will not return true if the only path has at least one Edge pointing
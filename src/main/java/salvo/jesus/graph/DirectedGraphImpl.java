@@ -1,5 +1,7 @@
 package salvo.jesus.graph;
 
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 
 import salvo.jesus.graph.algorithm.DepthFirstDirectedGraphTraversal;
@@ -33,8 +35,8 @@ public class DirectedGraphImpl extends GraphImpl implements DirectedGraph,
 
 	/**
 	 * Returns the outgoing EdgeSets of the Graph. Each element in the return
-	 * List is of type EdgeSet. The index of a Object in the vertices List
-	 * matches the Vertex's EdgeSet index in the outgoingEdges List.
+	 * List is of type EdgeSet, stored at the slot of its Vertex. Elements at
+	 * free slots are null.
 	 * 
 	 * @return List containing the outgoing EdgeSets in the Graph. This simply
 	 *         returns this.adjacentEdges.
@@ -45,8 +47,8 @@ public class DirectedGraphImpl extends GraphImpl implements DirectedGraph,
 
 	/**
 	 * Returns the incoming EdgeSets of the Graph. Each element in the return
-	 * List is of type EdgeSet. The index of a Object in the vertices List
-	 * matches the Vertex's EdgeSet index in the incomingEdges List.
+	 * List is of type EdgeSet, stored at the slot of its Vertex. Elements at
+	 * free slots are null.
 	 * 
 	 * @return List containing the incoming EdgeSets in the Graph. This simply
 	 *         returns this.adjacentEdges.
@@ -122,22 +124,145 @@ public class DirectedGraphImpl extends GraphImpl implements DirectedGraph,
 	}
 
 	/**
-	 * Adds a Object into the Graph. This will also create a new entry in the
-	 * edges List and add the newly added Object to its own connected set,
-	 * thereby adding a new List in the connectedSet List. Finally, all
-	 * GraphAddVertexListeners are informed of the event that a Object has been
-	 * added to the Graph.
+	 * Determines if there is an Edge whose origin is fromvertex and
+	 * destination is tovertex. Once fromvertex has
+	 * <tt>getEdgeIndexThreshold()</tt> outgoing edges, this takes constant
+	 * time.
+	 * 
+	 * @param fromvertex
+	 *            Object that is the origin of the directed Edge
+	 * @param tovertex
+	 *            Object that is the destination of the directed Edge
+	 * @return true if there is at least one such Edge.
+	 */
+	public boolean containsEdge(Object fromvertex, Object tovertex) {
+		return this.graphDirectionDelegate.containsEdge(fromvertex, tovertex);
+	}
+
+	/**
+	 * Returns all the Edges in the Graph whose origin is fromvertex and
+	 * destination is tovertex, in the order they were added.
 	 * 
-	 * @param newvertex
-	 *            The Object object to be added to the graph.
+	 * @param fromvertex
+	 *            Object that is the origin of the directed Edges
+	 * @param tovertex
+	 *            Object that is the destination of the directed Edges
+	 * @return List of the matching Edges, empty if there is none.
 	 */
-	public void add(Object newvertex) throws GraphException {
+	public List<DirectedEdge> getEdges(Object fromvertex, Object tovertex) {
+		return this.graphDirectionDelegate.getEdges(fromvertex, tovertex);
+	}
+
+	/**
+	 * Returns the vertices adjacent to all the vertices in the given List.
+	 * The vertices adjacent to the vertex with the fewest edges are kept if
+	 * they share an Edge with each of the other vertices, which is looked up
+	 * through <tt>containsEdge()</tt> instead of intersecting Sets of
+	 * adjacent vertices.
+	 * 
+	 * @param vertices
+	 *            List of Object where each vertex in the returned Set must be
+	 *            adjacent to.
+	 * @return Set of vertices adjacent to all the vertices in the supplied
+	 *         List.
+	 */
+	public HashSet getAdjacentVertices(List vertices) {
+		HashSet adjacentVertices = new HashSet();
+		Object first = vertices.get(0);
+		Iterator iterator;
+
+		for (Object v : vertices)
+			if (this.getDegree(v) < this.getDegree(first))
+				first = v;
+		iterator = this.getAdjacentVertices(first).iterator();
+		candidates: while (iterator.hasNext()) {
+			Object candidate = iterator.next();
+			for (Object v : vertices)
+				if (v != first && !this.containsEdge(v, candidate)
+						&& !this.containsEdge(candidate, v))
+					continue candidates;
+			adjacentVertices.add(candidate);
+		}
+		return adjacentVertices;
+	}
+
+	/**
+	 * Returns the out-degree from which the outgoing edges of a vertex are
+	 * indexed by sink, so that <tt>getEdge()</tt>, <tt>containsEdge()</tt>
+	 * and <tt>getEdges(from, to)</tt> take constant time instead of scanning
+	 * them.
+	 * 
+	 * @return the threshold, 64 by default.
+	 */
+	public int getEdgeIndexThreshold() {
+		return this.graphDirectionDelegate.indexThreshold;
+	}
+
+	/**
+	 * Sets the out-degree from which the outgoing edges of a vertex are
+	 * indexed by sink. The index of a vertex is built the first time its
+	 * edges are looked up, and is then kept up to date when edges are added
+	 * or removed. <tt>Integer.MAX_VALUE</tt> disables indexing.
+	 * 
+	 * @param threshold
+	 *            the out-degree from which vertices are indexed.
+	 */
+	public void setEdgeIndexThreshold(int threshold) {
+		this.graphDirectionDelegate.setIndexThreshold(threshold);
+	}
+
+	/**
+	 * Initialises the incident, outgoing and incoming edge lists of a newly
+	 * added vertex.
+	 * 
+	 * @param slot
+	 *            The slot allocated to the vertex being added
+	 */
+	protected void initSlot(int slot) {
+		super.initSlot(slot);
 		// Whenever a new vertex is added, we also need to create
-		// a blank adjacenct edge list for the new vertex
-		this.graphDirectionDelegate.add(newvertex);
+		// blank outgoing and incoming edge lists for the new vertex
+		this.graphDirectionDelegate.initSlot(slot);
+	}
 
-		// Call the ancestor add() so that listeners are notified.
-		super.add(newvertex);
+	/**
+	 * Releases the incident, outgoing and incoming edge lists of a vertex
+	 * being removed.
+	 * 
+	 * @param slot
+	 *            The slot of the vertex being removed
+	 */
+	protected void clearSlot(int slot) {
+		super.clearSlot(slot);
+		this.graphDirectionDelegate.clearSlot(slot);
+	}
+
+	/**
+	 * Releases the spare room of the incident, outgoing and incoming edge
+	 * lists.
+	 */
+	@Override
+	public void trimToSize() {
+		super.trimToSize();
+		this.graphDirectionDelegate.trimToSize();
+	}
+
+	@Override
+	protected void addMemoryStats(GraphMemoryStats stats) {
+		super.addMemoryStats(stats);
+		this.graphDirectionDelegate.addMemoryStats(stats);
+	}
+
+	/**
+	 * Links a batch of edges as incident edges of their vertices, then as
+	 * outgoing edges of their sources and incoming edges of their sinks.
+	 * 
+	 * @param newedges
+	 *            DirectedEdges being added by <tt>addAll()</tt>
+	 */
+	protected void linkEdges(List<Edge> newedges) {
+		super.linkEdges(newedges);
+		this.graphDirectionDelegate.addEdges(newedges);
 	}
 
 	/**
@@ -218,23 +343,6 @@ public class DirectedGraphImpl extends GraphImpl implements DirectedGraph,
 		super.removeEdge(edge);
 	}
 
-	/**
-	 * Removes a Object from the Graph.
-	 * 
-	 * @param vertex
-	 *            Object to be removed
-	 */
-	public void remove(Object vertex) throws GraphException {
-		// System.out.println("[DirectedGraphImpl] remove");
-		int index = this.vertices.indexOf(vertex);
-
-		// Call the ancestor method to remove the vertex
-		super.remove(vertex);
-
-		// Remove the adjacent edges entry of the vertex.
-		this.graphDirectionDelegate.remove(index);
-	}
-
 	/**
 	 * Determines if there is a path from Object fromObject to Object toVertex.
 	 * This will not return true if the only path has at least one Edge pointing
@@ -248,7 +356,8 @@ public class DirectedGraphImpl extends GraphImpl implements DirectedGraph,
 	 */
 	public boolean isPath(Object fromVertex, Object toVertex) {
 		// System.out.println("[DirectedGraphImpl] isPath");
-		if (!vertices.contains(fromVertex) || !vertices.contains(toVertex))
+		if (!vertexIndex.contains(fromVertex)
+				|| !vertexIndex.contains(toVertex))
 			return false;
 		return this.graphDirectionDelegate.isPath(fromVertex, toVertex);
 	}
@@ -280,10 +389,24 @@ public class DirectedGraphImpl extends GraphImpl implements DirectedGraph,
 		return g;
 	}
 
+	/**
+	 * Returns an immutable snapshot of the DirectedGraph, storing its outgoing
+	 * and incoming edges in flat arrays.
+	 * 
+	 * @return a FrozenDirectedGraph with the same vertices and edges.
+	 */
+	public FrozenDirectedGraph freeze() {
+		return new FrozenDirectedGraph(this);
+	}
+
 	@Override
 	protected void initData() {
 		super.initData();
+		DirectedGraphWeakImpl previous = this.graphDirectionDelegate;
 		this.graphDirectionDelegate = new DirectedGraphWeakImpl(this);
+		// Clones keep the index threshold of their original
+		if (previous != null)
+			this.graphDirectionDelegate.indexThreshold = previous.indexThreshold;
 	}
 
 	@Override
@@ -0,0 +1,633 @@
+package salvo.jesus.graph;
+
+import java.util.AbstractCollection;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import salvo.jesus.graph.algorithm.AndGraphFilter;
+import salvo.jesus.graph.algorithm.DepthFirstDirectedGraphTraversal;
+import salvo.jesus.graph.algorithm.GraphFilter;
+import salvo.jesus.graph.algorithm.GraphTraversal;
+
+/**
+ * A read-only view of the subgraph of a DirectedGraph made of the vertices
+ * and edges accepted by a GraphFilter. An edge is in the view if the filter
+ * accepts it and both its endpoints.
+ * <p>
+ * Creating a view copies nothing: the Lists it returns filter the Lists of
+ * the underlying graph as they are iterated, and reflect its later changes.
+ * Counting methods such as <tt>getVerticesCount()</tt> and the
+ * <tt>size()</tt> of the returned Lists therefore take linear time. A view
+ * may be copied into a modifiable graph with {@link #materialize()}.
+ * <p>
+ * A view of a view filters the underlying graph of the latter with both
+ * filters, so that views do not pile up.
+ * <p>
+ * All methods modifying the view throw a <tt>GraphModificationException</tt>
+ * or an <tt>UnsupportedOperationException</tt>. Listeners should be
+ * registered with the underlying graph: registering them with the view has no
+ * effect.
+ *
+ * @author nono
+ * @version $Id$
+ * @see GraphOps#view(DirectedGraph, GraphFilter)
+ */
+public class DirectedGraphView implements DirectedGraph {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * The graph this is a view of.
+	 */
+	protected final DirectedGraph graph;
+
+	/**
+	 * The filter selecting vertices and edges of graph.
+	 */
+	protected final GraphFilter filter;
+
+	/**
+	 * Factory used by <tt>same()</tt> and <tt>materialize()</tt>.
+	 */
+	protected GraphFactory factory;
+
+	/**
+	 * Delegate object for implementing graph traversal. The default
+	 * implementation is DepthFirstDirectedGraphTraversal.
+	 */
+	protected GraphTraversal traversal;
+
+	/**
+	 * Creates a view of the vertices and edges of a graph accepted by a
+	 * filter.
+	 *
+	 * @param graph
+	 *            the graph to view. May not be null
+	 * @param filter
+	 *            the filter of its vertices and edges. May not be null
+	 */
+	public DirectedGraphView(DirectedGraph graph, GraphFilter filter) {
+		if (graph instanceof DirectedGraphView) {
+			DirectedGraphView view = (DirectedGraphView) graph;
+			graph = view.graph;
+			filter = new AndGraphFilter(view.filter, filter);
+		}
+		this.graph = graph;
+		this.filter = filter;
+		this.factory = graph.getGraphFactory();
+		this.traversal = new DepthFirstDirectedGraphTraversal(this);
+	}
+
+	/**
+	 * Returns the graph this is a view of.
+	 */
+	public DirectedGraph getGraph() {
+		return graph;
+	}
+
+	/**
+	 * Returns the filter of the vertices and edges of the underlying graph.
+	 */
+	public GraphFilter getFilter() {
+		return filter;
+	}
+
+	/**
+	 * Determines if a vertex is in the view.
+	 */
+	public boolean containsVertex(Object v) {
+		return v != null && graph.findVertex(v) != null && filter.filter(v);
+	}
+
+	/**
+	 * Determines if an edge of the underlying graph is in the view.
+	 */
+	protected boolean accepts(Edge e) {
+		return filter.filter(e) && filter.filter(e.getVertexA())
+				&& filter.filter(e.getVertexB());
+	}
+
+	/**
+	 * Returns a new graph of the same kind as the underlying graph with the
+	 * vertices and edges of this view. Edges are shared with the underlying
+	 * graph.
+	 */
+	public DirectedGraph materialize() throws GraphException {
+		DirectedGraph copy = (DirectedGraph) this.same();
+
+		for (Iterator i = getVerticesIterator(); i.hasNext();)
+			copy.add(i.next());
+		for (Iterator<Edge> i = getAllEdges().iterator(); i.hasNext();)
+			copy.addEdge(i.next());
+		return copy;
+	}
+
+	private void checkVertex(Object v) {
+		if (!containsVertex(v))
+			throw new IllegalArgumentException("Object " + v
+					+ " is not in this graph");
+	}
+
+	// ------------------------ Graph methods
+
+	public int getVerticesCount() {
+		return getAllVertices().size();
+	}
+
+	/**
+	 * Returns a read-only List of the vertices of the view, in the order of
+	 * the underlying graph.
+	 */
+	public List getAllVertices() {
+		return new FilteredList<Object>(graph.getAllVertices()) {
+			boolean accepts(Object v) {
+				return filter.filter(v);
+			}
+		};
+	}
+
+	public int getEdgesCount() {
+		return getAllEdges().size();
+	}
+
+	/**
+	 * Returns a read-only Collection of the edges of the view.
+	 */
+	public Collection<Edge> getAllEdges() {
+		final Collection<Edge> edges = graph.getAllEdges();
+
+		return new AbstractCollection<Edge>() {
+			public Iterator<Edge> iterator() {
+				return new FilteredIterator<Edge>(edges.iterator()) {
+					boolean accepts(Object e) {
+						return DirectedGraphView.this.accepts((Edge) e);
+					}
+				};
+			}
+
+			public int size() {
+				int size = 0;
+				for (Iterator<Edge> i = iterator(); i.hasNext(); i.next())
+					size++;
+				return size;
+			}
+		};
+	}
+
+	public GraphFactory getGraphFactory() {
+		return factory;
+	}
+
+	public void setGraphFactory(GraphFactory factory) {
+		this.factory = factory;
+	}
+
+	public Iterator getVerticesIterator() {
+		return getAllVertices().iterator();
+	}
+
+	/**
+	 * @deprecated
+	 */
+	@Deprecated
+	public Edge createEdge(Object v1, Object v2) {
+		return factory.createEdge(v1, v2);
+	}
+
+	/**
+	 * Always throws a GraphModificationException.
+	 */
+	public void add(Object v) throws GraphException {
+		throw new GraphModificationException("Cannot modify a graph view");
+	}
+
+	/**
+	 * Always throws a GraphModificationException.
+	 */
+	public void remove(Object v) throws GraphException {
+		throw new GraphModificationException("Cannot modify a graph view");
+	}
+
+	/**
+	 * Always throws a GraphModificationException.
+	 */
+	public Edge addEdge(Object v1, Object v2) throws GraphException {
+		throw new GraphModificationException("Cannot modify a graph view");
+	}
+
+	/**
+	 * Always throws a GraphModificationException.
+	 */
+	public void addEdge(Edge e) throws GraphException {
+		throw new GraphModificationException("Cannot modify a graph view");
+	}
+
+	/**
+	 * Always throws a GraphModificationException.
+	 */
+	public void removeEdge(Edge e) throws GraphException {
+		throw new GraphModificationException("Cannot modify a graph view");
+	}
+
+	/**
+	 * Always throws a GraphModificationException.
+	 */
+	public void removeEdges(Object v) throws GraphException {
+		throw new GraphModificationException("Cannot modify a graph view");
+	}
+
+	public int getDegree() {
+		int degree = 0;
+
+		for (Iterator i = getVerticesIterator(); i.hasNext();)
+			degree = Math.max(degree, getDegree(i.next()));
+		return degree;
+	}
+
+	public int getDegree(Object v) {
+		return getEdges(v).size();
+	}
+
+	public Set getVertices(int degree) {
+		Set verticesofsamedegree = new HashSet();
+
+		for (Iterator i = getVerticesIterator(); i.hasNext();) {
+			Object v = i.next();
+			if (getDegree(v) == degree)
+				verticesofsamedegree.add(v);
+		}
+		return verticesofsamedegree;
+	}
+
+	/**
+	 * Returns a read-only List of the incident edges of a vertex, or null if
+	 * the vertex is not in the view.
+	 */
+	public List getEdges(Object v) {
+		if (!containsVertex(v))
+			return null;
+		return edges(graph.getEdges(v));
+	}
+
+	private List<DirectedEdge> edges(List<DirectedEdge> edges) {
+		return new FilteredList<DirectedEdge>(edges) {
+			boolean accepts(Object e) {
+				return DirectedGraphView.this.accepts((Edge) e);
+			}
+		};
+	}
+
+	public List getAdjacentVertices(Object v) {
+		List adjacentVertices = new ArrayList(10);
+
+		if (containsVertex(v))
+			for (Iterator i = getEdges(v).iterator(); i.hasNext();)
+				adjacentVertices.add(((Edge) i.next()).getOppositeVertex(v));
+		return adjacentVertices;
+	}
+
+	public HashSet getAdjacentVertices(List vertices) {
+		HashSet adjacentVertices = new HashSet(this
+				.getAdjacentVertices(vertices.get(0)));
+		int i, size = vertices.size();
+
+		for (i = 1; i < size; i++) {
+			adjacentVertices.retainAll(this
+					.getAdjacentVertices(vertices.get(i)));
+		}
+
+		return adjacentVertices;
+	}
+
+	/**
+	 * Returns the Lists of connected vertices of the view, computed on each
+	 * call.
+	 */
+	public List getConnectedSet() {
+		List connectedSets = new ArrayList();
+		Set visited = new HashSet();
+
+		for (Iterator i = getVerticesIterator(); i.hasNext();) {
+			Object v = i.next();
+			if (!visited.contains(v))
+				connectedSets.add(connectedSet(v, visited));
+		}
+		return connectedSets;
+	}
+
+	public List getConnectedSet(Object v) {
+		if (!containsVertex(v))
+			return null;
+		return connectedSet(v, new HashSet());
+	}
+
+	/**
+	 * Returns the vertices connected to a vertex, ignoring the direction of
+	 * edges, and marks them as visited.
+	 */
+	private List connectedSet(Object v, Set visited) {
+		List connected = new ArrayList();
+
+		visited.add(v);
+		connected.add(v);
+		for (int next = 0; next < connected.size(); next++) {
+			Object vertex = connected.get(next);
+			for (Iterator i = getEdges(vertex).iterator(); i.hasNext();) {
+				Object opposite = ((Edge) i.next()).getOppositeVertex(vertex);
+				if (visited.add(opposite))
+					connected.add(opposite);
+			}
+		}
+		return connected;
+	}
+
+	/**
+	 * Always throws an UnsupportedOperationException.
+	 */
+	public void mergeconnectedSet(Object v1, Object v2) {
+		throw new UnsupportedOperationException("Cannot modify a graph view");
+	}
+
+	public List traverse(Object startat) {
+		return traversal.traverse(startat);
+	}
+
+	public GraphTraversal getTraversal() {
+		return traversal;
+	}
+
+	public void setTraversal(GraphTraversal traversal) {
+		this.traversal = traversal;
+	}
+
+	public boolean isConnected(Object v1, Object v2) {
+		if (!containsVertex(v1) || !containsVertex(v2))
+			return false;
+		return connectedSet(v1, new HashSet()).contains(v2);
+	}
+
+	public void addGraphAddVertexListener(GraphAddVertexListener listener) {
+	}
+
+	public void addGraphAddEdgeListener(GraphAddEdgeListener listener) {
+	}
+
+	public void addGraphRemoveEdgeListener(GraphRemoveEdgeListener listener) {
+	}
+
+	public void addGraphRemoveVertexListener(GraphRemoveVertexListener listener) {
+	}
+
+	public void removeGraphAddVertexListener(GraphAddVertexListener listener) {
+	}
+
+	public void removeGraphAddEdgeListener(GraphAddEdgeListener listener) {
+	}
+
+	public void removeGraphRemoveEdgeListener(GraphRemoveEdgeListener listener) {
+	}
+
+	public void removeGraphRemoveVertexListener(
+			GraphRemoveVertexListener listener) {
+	}
+
+	/**
+	 * Does nothing: batches belong to the underlying graph.
+	 */
+	public void beginBatch() {
+	}
+
+	/**
+	 * Does nothing: batches belong to the underlying graph.
+	 */
+	public void commit() {
+	}
+
+	/**
+	 * Does nothing: batches belong to the underlying graph.
+	 */
+	public void rollback() throws GraphException {
+	}
+
+	/**
+	 * Returns a new, empty and modifiable graph of the same kind as the
+	 * underlying graph.
+	 */
+	public Graph same() {
+		Graph g = graph.same();
+		g.setGraphFactory(this.getGraphFactory());
+		return g;
+	}
+
+	public Object findVertex(Object o) {
+		Object v = graph.findVertex(o);
+		return v != null && filter.filter(v) ? v : null;
+	}
+
+	public String toString() {
+		return "Vertices= " + this.getAllVertices().toString() + ", Edges= "
+				+ this.getAllEdges().toString();
+	}
+
+	// ------------------------ DirectedGraph methods
+
+	/**
+	 * Returns a read-only List of the outgoing edges of a vertex.
+	 *
+	 * @throws IllegalArgumentException
+	 *             if the vertex is not in the view.
+	 */
+	public List<DirectedEdge> getOutgoingEdges(Object v) {
+		checkVertex(v);
+		return edges(graph.getOutgoingEdges(v));
+	}
+
+	/**
+	 * Returns a read-only List of the incoming edges of a vertex.
+	 *
+	 * @throws IllegalArgumentException
+	 *             if the vertex is not in the view.
+	 */
+	public List<DirectedEdge> getIncomingEdges(Object v) {
+		checkVertex(v);
+		return edges(graph.getIncomingEdges(v));
+	}
+
+	public List getOutgoingAdjacentVertices(Object v) {
+		List adjacentVertices = new ArrayList(10);
+
+		for (Iterator<DirectedEdge> i = getOutgoingEdges(v).iterator(); i
+				.hasNext();)
+			adjacentVertices.add(i.next().getSink());
+		return adjacentVertices;
+	}
+
+	public List getIncomingAdjacentVertices(Object v) {
+		List adjacentVertices = new ArrayList(10);
+
+		for (Iterator<DirectedEdge> i = getIncomingEdges(v).iterator(); i
+				.hasNext();)
+			adjacentVertices.add(i.next().getSource());
+		return adjacentVertices;
+	}
+
+	public DirectedEdge getEdge(Object fromvertex, Object tovertex) {
+		if (!containsVertex(fromvertex) || !containsVertex(tovertex))
+			return null;
+		for (Iterator<DirectedEdge> i = graph.getEdges(fromvertex, tovertex)
+				.iterator(); i.hasNext();) {
+			DirectedEdge edge = i.next();
+			if (filter.filter(edge))
+				return edge;
+		}
+		return null;
+	}
+
+	public boolean containsEdge(Object fromvertex, Object tovertex) {
+		return getEdge(fromvertex, tovertex) != null;
+	}
+
+	public List<DirectedEdge> getEdges(Object fromvertex, Object tovertex) {
+		List<DirectedEdge> found = new ArrayList<DirectedEdge>(1);
+
+		if (containsVertex(fromvertex) && containsVertex(tovertex))
+			for (Iterator<DirectedEdge> i = graph.getEdges(fromvertex,
+					tovertex).iterator(); i.hasNext();) {
+				DirectedEdge edge = i.next();
+				if (filter.filter(edge))
+					found.add(edge);
+			}
+		return found;
+	}
+
+	public boolean isPath(Object fromVertex, Object toVertex) {
+		if (!containsVertex(fromVertex) || !containsVertex(toVertex))
+			return false;
+		return fromVertex.equals(toVertex)
+				|| reaches(getOutgoingAdjacentVertices(fromVertex), toVertex);
+	}
+
+	public boolean isCycle(Object fromVertex) {
+		return reaches(getOutgoingAdjacentVertices(fromVertex), fromVertex);
+	}
+
+	/**
+	 * Determines if the target vertex is one of the starting vertices or can
+	 * be reached from one of them.
+	 */
+	private boolean reaches(List starts, Object target) {
+		Set visited = new HashSet(starts);
+		List stack = new ArrayList(visited);
+
+		while (!stack.isEmpty()) {
+			Object v = stack.remove(stack.size() - 1);
+			if (v.equals(target))
+				return true;
+			for (Iterator<DirectedEdge> i = getOutgoingEdges(v).iterator(); i
+					.hasNext();) {
+				Object sink = i.next().getSink();
+				if (visited.add(sink))
+					stack.add(sink);
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Iterator over the elements of another Iterator accepted by a filter.
+	 */
+	private abstract static class FilteredIterator<E> implements Iterator<E> {
+
+		private final Iterator<E> iterator;
+
+		private E next;
+
+		private boolean hasNext;
+
+		FilteredIterator(Iterator<E> iterator) {
+			this.iterator = iterator;
+		}
+
+		abstract boolean accepts(Object element);
+
+		public boolean hasNext() {
+			while (!hasNext && iterator.hasNext()) {
+				E element = iterator.next();
+				if (accepts(element)) {
+					next = element;
+					hasNext = true;
+				}
+			}
+			return hasNext;
+		}
+
+		public E next() {
+			if (!hasNext())
+				throw new NoSuchElementException();
+			hasNext = false;
+			return next;
+		}
+
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+	}
+
+	/**
+	 * Read-only List of the elements of another List accepted by a filter.
+	 * Its elements are filtered anew on each access, so that <tt>get()</tt>
+	 * and <tt>size()</tt> take linear time and iterating is preferable.
+	 */
+	private abstract static class FilteredList<E> extends AbstractList<E> {
+
+		private final List<E> list;
+
+		FilteredList(List<E> list) {
+			this.list = list;
+		}
+
+		abstract boolean accepts(Object element);
+
+		public Iterator<E> iterator() {
+			return new FilteredIterator<E>(list.iterator()) {
+				boolean accepts(Object element) {
+					return FilteredList.this.accepts(element);
+				}
+			};
+		}
+
+		public E get(int index) {
+			int i = index;
+			for (Iterator<E> it = iterator(); it.hasNext();) {
+				E element = it.next();
+				if (i-- == 0)
+					return element;
+			}
+			throw new IndexOutOfBoundsException("Index: " + index);
+		}
+
+		public int size() {
+			int size = 0;
+			for (Iterator<E> it = iterator(); it.hasNext(); it.next())
+				size++;
+			return size;
+		}
+
+		public boolean isEmpty() {
+			return !iterator().hasNext();
+		}
+
+		public boolean contains(Object o) {
+			for (Iterator<E> it = iterator(); it.hasNext();)
+				if (it.next().equals(o))
+					return true;
+			return false;
+		}
+	}
+}
@@ -1,9 +1,12 @@
 package salvo.jesus.graph;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import salvo.jesus.graph.algorithm.GraphTraversal;
@@ -22,34 +25,55 @@ class DirectedGraphWeakImpl implements DirectedGraph {
 	GraphImpl graph;
 
 	/**
-	 * List of outgoing edges in the graph. The index of a Object in the
-	 * vertices List matches the Vertex's outgoing edges index in the List
-	 * outgoingEdges.
+	 * List of outgoing edges in the graph. The outgoing edges of a Vertex are
+	 * stored at the slot of the Vertex in the graph's vertex index.
 	 * 
 	 */
 	List<List<DirectedEdge>> outgoingEdges;
 
 	/**
-	 * List of incoming edges in the graph. The index of a Object in the
-	 * vertices List matches the Vertex's incoming edges index in the List
-	 * incomingEdges.
+	 * List of incoming edges in the graph. The incoming edges of a Vertex are
+	 * stored at the slot of the Vertex in the graph's vertex index.
 	 * 
 	 */
 	List<List<DirectedEdge>> incomingEdges;
 
+	/**
+	 * Default out-degree from which the outgoing edges of a vertex are indexed
+	 * by sink.
+	 */
+	static final int DEFAULT_INDEX_THRESHOLD = 64;
+
+	/**
+	 * Out-degree from which the outgoing edges of a vertex are indexed by
+	 * sink.
+	 */
+	int indexThreshold = DEFAULT_INDEX_THRESHOLD;
+
+	/**
+	 * Index of the outgoing edges of a Vertex by their sink, stored at the
+	 * slot of the Vertex. The value of a sink is the only DirectedEdge to it,
+	 * or a List of the DirectedEdges to it. The index of a Vertex is null
+	 * until it is looked up while the Vertex has at least indexThreshold
+	 * outgoing edges, and is then kept up to date until the Vertex is
+	 * removed.
+	 */
+	List<Map<Object, Object>> sinkIndex;
+
 	/**
 	 * Creates a new instance of DirectedGraphWeakImpl.
 	 */
 	public DirectedGraphWeakImpl(GraphImpl graph) {
 		outgoingEdges = new ArrayList<List<DirectedEdge>>(10);
 		incomingEdges = new ArrayList<List<DirectedEdge>>(10);
+		sinkIndex = new ArrayList<Map<Object, Object>>(10);
 		this.graph = graph;
 	}
 
 	/**
 	 * Returns the outgoing EdgeSets of the Graph. Each element in the return
-	 * List is of type EdgeSet. The index of a Object in the vertices List
-	 * matches the Vertex's EdgeSet index in the outgoingEdges List.
+	 * List is of type EdgeSet, stored at the slot of its Vertex. Elements at
+	 * free slots are null.
 	 * 
 	 * @return List containing the outgoing EdgeSets in the Graph. This simply
 	 *         returns this.adjacentEdges.
@@ -60,8 +84,8 @@ class DirectedGraphWeakImpl implements DirectedGraph {
 
 	/**
 	 * Returns the incoming EdgeSets of the Graph. Each element in the return
-	 * List is of type EdgeSet. The index of a Object in the vertices List
-	 * matches the Vertex's EdgeSet index in the incomingEdges List.
+	 * List is of type EdgeSet, stored at the slot of its Vertex. Elements at
+	 * free slots are null.
 	 * 
 	 * @return List containing the incoming EdgeSets in the Graph. This simply
 	 *         returns this.adjacentEdges.
@@ -80,7 +104,7 @@ class DirectedGraphWeakImpl implements DirectedGraph {
 	public List<DirectedEdge> getOutgoingEdges(Object v) {
 		int indexObject;
 
-		indexObject = this.graph.vertices.indexOf(v);
+		indexObject = this.graph.vertexIndex.slotOf(v);
 		if (indexObject == -1)
 			throw new IllegalArgumentException("Object " + v
 					+ " is not in this graph");
@@ -97,7 +121,7 @@ class DirectedGraphWeakImpl implements DirectedGraph {
 	public List<DirectedEdge> getIncomingEdges(Object v) {
 		int indexObject;
 
-		indexObject = this.graph.vertices.indexOf(v);
+		indexObject = this.graph.vertexIndex.slotOf(v);
 		if (indexObject == -1)
 			throw new IllegalArgumentException("Object " + v
 					+ " is not in this graph");
@@ -176,24 +200,139 @@ class DirectedGraphWeakImpl implements DirectedGraph {
 	 * @see salvo.jesus.graph.Edge
 	 */
 	public DirectedEdge getEdge(Object fromvertex, Object tovertex) {
-		List outIncidentEdges;
-		Iterator iterator;
-		DirectedEdge edge;
+		Object edges = this.findEdges(fromvertex, tovertex);
 
-		// Get the adjacent edge set of the from vertex
-		outIncidentEdges = this.getOutgoingEdges(fromvertex);
+		if (edges instanceof List)
+			return ((List<DirectedEdge>) edges).get(0);
+		return (DirectedEdge) edges;
+	}
 
-		// Find the edge where the direction is to the tovertex
-		iterator = outIncidentEdges.iterator();
-		while (iterator.hasNext()) {
-			edge = (DirectedEdge) iterator.next();
-			if (edge.getSink() == tovertex) {
-				// Edge is found.
-				iterator = null;
-				return edge;
+	/**
+	 * Determines if there is an Edge from a vertex to another.
+	 * 
+	 * @param fromvertex
+	 *            Object that is the origin of the directed Edge
+	 * @param tovertex
+	 *            Object that is the destination of the directed Edge
+	 * @return true if there is at least one Edge from fromvertex to tovertex.
+	 */
+	public boolean containsEdge(Object fromvertex, Object tovertex) {
+		return this.findEdges(fromvertex, tovertex) != null;
+	}
+
+	/**
+	 * Returns all the Edges from a vertex to another, in the order they were
+	 * added.
+	 * 
+	 * @param fromvertex
+	 *            Object that is the origin of the directed Edges
+	 * @param tovertex
+	 *            Object that is the destination of the directed Edges
+	 * @return List of the Edges from fromvertex to tovertex, empty if there is
+	 *         none.
+	 */
+	public List<DirectedEdge> getEdges(Object fromvertex, Object tovertex) {
+		Object edges = this.findEdges(fromvertex, tovertex);
+
+		if (edges == null)
+			return Collections.emptyList();
+		if (edges instanceof List)
+			return new ArrayList<DirectedEdge>((List<DirectedEdge>) edges);
+		return Collections.singletonList((DirectedEdge) edges);
+	}
+
+	/**
+	 * Finds the Edges from a vertex to another, through the sink index of
+	 * fromvertex if it has at least indexThreshold outgoing edges, else by
+	 * scanning them.
+	 * 
+	 * @return null if there is no such Edge, the Edge if there is only one,
+	 *         else a List of the Edges.
+	 */
+	private Object findEdges(Object fromvertex, Object tovertex) {
+		int slot = this.graph.vertexIndex.slotOf(fromvertex);
+		if (slot == -1)
+			throw new IllegalArgumentException("Object " + fromvertex
+					+ " is not in this graph");
+		List<DirectedEdge> outIncidentEdges = this.outgoingEdges.get(slot);
+		Map<Object, Object> index = this.sinkIndex.get(slot);
+
+		if (index == null && outIncidentEdges.size() >= this.indexThreshold) {
+			// Index the outgoing edges the first time they are looked up
+			index = new HashMap<Object, Object>(outIncidentEdges.size() * 2);
+			for (DirectedEdge edge : outIncidentEdges)
+				index(index, edge);
+			this.sinkIndex.set(slot, index);
+		}
+		if (index != null)
+			return index.get(tovertex);
+
+		Object found = null;
+		for (DirectedEdge edge : outIncidentEdges) {
+			if (edge.getSink() == tovertex || edge.getSink().equals(tovertex)) {
+				if (found == null)
+					found = edge;
+				else if (found instanceof List)
+					((List<DirectedEdge>) found).add(edge);
+				else {
+					List<DirectedEdge> edges = new ArrayList<DirectedEdge>(2);
+					edges.add((DirectedEdge) found);
+					edges.add(edge);
+					found = edges;
+				}
 			}
 		}
-		return null;
+		return found;
+	}
+
+	/**
+	 * Adds an Edge to a sink index.
+	 */
+	private static void index(Map<Object, Object> index, DirectedEdge edge) {
+		Object sink = edge.getSink();
+		Object edges = index.put(sink, edge);
+
+		if (edges instanceof List) {
+			((List<DirectedEdge>) edges).add(edge);
+			index.put(sink, edges);
+		} else if (edges != null) {
+			List<DirectedEdge> list = new ArrayList<DirectedEdge>(2);
+			list.add((DirectedEdge) edges);
+			list.add(edge);
+			index.put(sink, list);
+		}
+	}
+
+	/**
+	 * Removes an Edge, compared by identity, from a sink index.
+	 */
+	private static void unindex(Map<Object, Object> index, DirectedEdge edge) {
+		Object sink = edge.getSink();
+		Object edges = index.get(sink);
+
+		if (edges == edge)
+			index.remove(sink);
+		else if (edges instanceof List) {
+			List<DirectedEdge> list = (List<DirectedEdge>) edges;
+			for (int i = 0; i < list.size(); i++) {
+				if (list.get(i) == edge) {
+					list.remove(i);
+					break;
+				}
+			}
+			if (list.size() == 1)
+				index.put(sink, list.get(0));
+		}
+	}
+
+	/**
+	 * Sets the out-degree from which the outgoing edges of a vertex are
+	 * indexed by sink. Existing indexes are dropped and rebuilt when needed.
+	 */
+	void setIndexThreshold(int threshold) {
+		this.indexThreshold = threshold;
+		for (int i = 0; i < this.sinkIndex.size(); i++)
+			this.sinkIndex.set(i, null);
 	}
 
 	/**
@@ -251,29 +390,61 @@ class DirectedGraphWeakImpl implements DirectedGraph {
 
 	// --- NON-DELEGATION METHODS
 	/**
-	 * Adds a new List in both the incoming and outgoing List of Edges. The two
-	 * new vectors added will hold the new vertex's incoming and outgoing edges.
+	 * Stores a new List in both the incoming and outgoing List of Edges at the
+	 * slot of a new vertex. The two new Lists will hold the new vertex's
+	 * incoming and outgoing edges.
 	 * 
-	 * @param newvertex
-	 *            The Object object to be added to the graph.
+	 * @param slot
+	 *            The slot allocated to the vertex added to the graph.
 	 */
-	public void add(Object newvertex) throws GraphException {
+	protected void initSlot(int slot) {
 		// Whenever a new vertex is added, we also need to create
 		// a blank adjacenct edge list for the new vertex
-		outgoingEdges.add(new ArrayList<DirectedEdge>(10));
-		incomingEdges.add(new ArrayList<DirectedEdge>(10));
+		VertexIndex.put(outgoingEdges, slot, new ArrayList<DirectedEdge>(10));
+		VertexIndex.put(incomingEdges, slot, new ArrayList<DirectedEdge>(10));
+		VertexIndex.put(sinkIndex, slot, null);
 	}
 
 	/**
-	 * Removes the vertex's vectors of incoming and outgoing edges..
+	 * Releases the vertex's Lists of incoming and outgoing edges.
 	 * 
-	 * @param index
-	 *            index of Object to be removed
+	 * @param slot
+	 *            slot of the Object being removed
 	 */
-	protected void remove(int index) {
+	protected void clearSlot(int slot) {
 		// Remove the adjacent edges entry of the vertex
-		this.outgoingEdges.remove(index);
-		this.incomingEdges.remove(index);
+		this.outgoingEdges.set(slot, null);
+		this.incomingEdges.set(slot, null);
+		this.sinkIndex.set(slot, null);
+	}
+
+	/**
+	 * Releases the spare room of the outgoing and incoming edge lists.
+	 */
+	void trimToSize() {
+		GraphImpl.trimLists(outgoingEdges);
+		GraphImpl.trimLists(incomingEdges);
+		((ArrayList) sinkIndex).trimToSize();
+	}
+
+	/**
+	 * Adds the estimated size of the outgoing and incoming edge lists and of
+	 * the sink index.
+	 */
+	void addMemoryStats(GraphMemoryStats stats) {
+		stats.add(GraphMemoryStats.ADJACENCY, graph.sizeOfLists(outgoingEdges)
+				+ graph.sizeOfLists(incomingEdges));
+		long size = GraphMemoryStats.sizeOfList(sinkIndex, graph.trimmed);
+		for (int i = 0; i < sinkIndex.size(); i++) {
+			Map<Object, Object> index = sinkIndex.get(i);
+			if (index == null)
+				continue;
+			size += GraphMemoryStats.sizeOfHashMap(index.size());
+			for (Object edges : index.values())
+				if (edges instanceof List)
+					size += GraphMemoryStats.sizeOfList((List) edges, false);
+		}
+		stats.add(GraphMemoryStats.SINK_INDEX, size);
 	}
 
 	/**
@@ -298,6 +469,42 @@ class DirectedGraphWeakImpl implements DirectedGraph {
 		// Add the edge as an outgoing edge of v1 and as an incoming edge of v2
 		v1outIncidentEdges.add(dedge);
 		v2inIncidentEdges.add(dedge);
+
+		Map<Object, Object> index = this.sinkIndex.get(this.graph.vertexIndex
+				.slotOf(dedge.getSource()));
+		if (index != null)
+			index(index, dedge);
+	}
+
+	/**
+	 * Adds each Edge of a batch as an outgoing edge of its source and as an
+	 * incoming edge of its sink. The Lists of both are grown once to their
+	 * final size from the out and in degrees of the batch.
+	 * 
+	 * @param newedges
+	 *            DirectedEdges whose vertices are already in the graph
+	 */
+	protected void addEdges(List<Edge> newedges) {
+		int[] outdegree = new int[graph.vertexIndex.capacity()];
+		int[] indegree = new int[outdegree.length];
+		DirectedEdge dedge;
+
+		for (Edge edge : newedges) {
+			dedge = (DirectedEdge) edge;
+			outdegree[graph.vertexIndex.slotOf(dedge.getSource())]++;
+			indegree[graph.vertexIndex.slotOf(dedge.getSink())]++;
+		}
+		GraphImpl.reserve(outgoingEdges, outdegree);
+		GraphImpl.reserve(incomingEdges, indegree);
+		for (Edge edge : newedges) {
+			dedge = (DirectedEdge) edge;
+			int source = graph.vertexIndex.slotOf(dedge.getSource());
+			outgoingEdges.get(source).add(dedge);
+			incomingEdges.get(graph.vertexIndex.slotOf(dedge.getSink())).add(
+					dedge);
+			if (sinkIndex.get(source) != null)
+				index(sinkIndex.get(source), dedge);
+		}
 	}
 
 	/**
@@ -323,7 +530,14 @@ class DirectedGraphWeakImpl implements DirectedGraph {
 		inIncidentEdges = this.getIncomingEdges(tovertex);
 
 		// Remove the edge from the source's outgoing edges
-		outIncidentEdges.remove(dedge);
+		int i = outIncidentEdges.indexOf(dedge);
+		if (i != -1) {
+			DirectedEdge removed = (DirectedEdge) outIncidentEdges.remove(i);
+			Map<Object, Object> index = this.sinkIndex.get(this.graph.vertexIndex
+					.slotOf(fromvertex));
+			if (index != null)
+				unindex(index, removed);
+		}
 		// Remove the edge from the sink's incoming edges
 		inIncidentEdges.remove(dedge);
 	}
@@ -377,6 +591,14 @@ class DirectedGraphWeakImpl implements DirectedGraph {
 		return 0;
 	}
 
+	/**
+	 * Empty method implemetation that does nothing. This method should never
+	 * be called or delegated to for whatever reason. Per-vertex lists are
+	 * created through <tt>initSlot()</tt>.
+	 */
+	public void add(Object v) throws GraphException {
+	}
+
 	/**
 	 * Empty method implemetation that returns null. This method should never be
 	 * called or delegated to for whatever reason.
@@ -599,6 +821,27 @@ class DirectedGraphWeakImpl implements DirectedGraph {
 			GraphRemoveVertexListener listener) {
 	}
 
+	/**
+	 * Empty method implementation. This method should never be called or
+	 * delegated to for whatever reason.
+	 */
+	public void beginBatch() {
+	}
+
+	/**
+	 * Empty method implementation. This method should never be called or
+	 * delegated to for whatever reason.
+	 */
+	public void commit() {
+	}
+
+	/**
+	 * Empty method implementation. This method should never be called or
+	 * delegated to for whatever reason.
+	 */
+	public void rollback() throws GraphException {
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
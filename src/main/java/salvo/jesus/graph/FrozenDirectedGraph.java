@@ -0,0 +1,191 @@
+package salvo.jesus.graph;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An immutable, read-only snapshot of a DirectedGraph stored in compressed
+ * sparse row form. Outgoing entries of a vertex are its outgoing edges and
+ * incoming entries its incoming edges, each stored in their own set of arrays.
+ *
+ * @author nono
+ * @version $Id$
+ * @see DirectedGraphImpl#freeze()
+ */
+public class FrozenDirectedGraph extends FrozenGraph implements DirectedGraph {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Creates a frozen copy of a DirectedGraph. The DirectedGraph is not
+	 * modified and may be modified afterwards without affecting the copy.
+	 *
+	 * @param graph
+	 *            the DirectedGraph to freeze
+	 */
+	public FrozenDirectedGraph(DirectedGraph graph) {
+		super(graph);
+	}
+
+	protected List getRow(Graph graph, Object v, boolean outgoing) {
+		DirectedGraph dgraph = (DirectedGraph) graph;
+
+		return outgoing ? dgraph.getOutgoingEdges(v) : dgraph
+				.getIncomingEdges(v);
+	}
+
+	protected boolean isDirected() {
+		return true;
+	}
+
+	/**
+	 * Returns a read-only List of the outgoing edges of a vertex, empty if the
+	 * vertex is not in the graph.
+	 */
+	public List<DirectedEdge> getOutgoingEdges(Object v) {
+		int id = getVertexId(v);
+
+		if (id < 0)
+			return Collections.emptyList();
+		return new EntryList(outEdges, outOffsets[id], outOffsets[id + 1],
+				inEdges, 0, 0);
+	}
+
+	/**
+	 * Returns a read-only List of the incoming edges of a vertex, empty if the
+	 * vertex is not in the graph.
+	 */
+	public List<DirectedEdge> getIncomingEdges(Object v) {
+		int id = getVertexId(v);
+
+		if (id < 0)
+			return Collections.emptyList();
+		return new EntryList(inEdges, inOffsets[id], inOffsets[id + 1],
+				outEdges, 0, 0);
+	}
+
+	public List getOutgoingAdjacentVertices(Object v) {
+		int id = getVertexId(v);
+		List adjacentVertices = new ArrayList(10);
+
+		if (id < 0)
+			return adjacentVertices;
+		for (int e = outOffsets[id]; e < outOffsets[id + 1]; e++)
+			adjacentVertices.add(vertices[outTargets[e]]);
+		return adjacentVertices;
+	}
+
+	public List getIncomingAdjacentVertices(Object v) {
+		int id = getVertexId(v);
+		List adjacentVertices = new ArrayList(10);
+
+		if (id < 0)
+			return adjacentVertices;
+		for (int e = inOffsets[id]; e < inOffsets[id + 1]; e++)
+			adjacentVertices.add(vertices[inSources[e]]);
+		return adjacentVertices;
+	}
+
+	/**
+	 * Returns the first Edge whose origin is fromvertex and destination is
+	 * tovertex, or null if there is none.
+	 */
+	public DirectedEdge getEdge(Object fromvertex, Object tovertex) {
+		int from = getVertexId(fromvertex);
+		int to = getVertexId(tovertex);
+
+		if (from < 0 || to < 0)
+			return null;
+		for (int e = outOffsets[from]; e < outOffsets[from + 1]; e++)
+			if (outTargets[e] == to)
+				return (DirectedEdge) edges[outEdges[e]];
+		return null;
+	}
+
+	public boolean containsEdge(Object fromvertex, Object tovertex) {
+		return getEdge(fromvertex, tovertex) != null;
+	}
+
+	/**
+	 * Returns the Edges whose origin is fromvertex and destination is
+	 * tovertex, in the order they were added.
+	 */
+	public List<DirectedEdge> getEdges(Object fromvertex, Object tovertex) {
+		int from = getVertexId(fromvertex);
+		int to = getVertexId(tovertex);
+		List<DirectedEdge> found = new ArrayList<DirectedEdge>(1);
+
+		if (from < 0 || to < 0)
+			return found;
+		for (int e = outOffsets[from]; e < outOffsets[from + 1]; e++)
+			if (outTargets[e] == to)
+				found.add((DirectedEdge) edges[outEdges[e]]);
+		return found;
+	}
+
+	/**
+	 * Determines if there is a path from fromVertex to toVertex following the
+	 * direction of edges.
+	 */
+	public boolean isPath(Object fromVertex, Object toVertex) {
+		int from = getVertexId(fromVertex);
+		int to = getVertexId(toVertex);
+
+		if (from < 0 || to < 0)
+			return false;
+		return from == to || reaches(new int[] { from }, to);
+	}
+
+	/**
+	 * Determines if there is a path from fromVertex back to itself following
+	 * the direction of edges.
+	 */
+	public boolean isCycle(Object fromVertex) {
+		int from = getVertexId(fromVertex);
+
+		if (from < 0)
+			return false;
+		int[] targets = new int[outOffsets[from + 1] - outOffsets[from]];
+
+		System.arraycopy(outTargets, outOffsets[from], targets, 0,
+				targets.length);
+		return reaches(targets, from);
+	}
+
+	/**
+	 * Determines if the target vertex is one of the starting vertices or can
+	 * be reached from one of them.
+	 */
+	private boolean reaches(int[] starts, int target) {
+		boolean[] visited = new boolean[vertices.length];
+		int[] stack = new int[vertices.length];
+		int top = 0;
+
+		for (int i = 0; i < starts.length; i++)
+			if (!visited[starts[i]]) {
+				visited[starts[i]] = true;
+				stack[top++] = starts[i];
+			}
+		while (top > 0) {
+			int id = stack[--top];
+			if (id == target)
+				return true;
+			for (int e = outOffsets[id]; e < outOffsets[id + 1]; e++)
+				if (!visited[outTargets[e]]) {
+					visited[outTargets[e]] = true;
+					stack[top++] = outTargets[e];
+				}
+		}
+		return false;
+	}
+
+	/**
+	 * Returns a new, empty and modifiable DirectedGraphImpl.
+	 */
+	public Graph same() {
+		Graph g = new DirectedGraphImpl();
+		g.setGraphFactory(this.getGraphFactory());
+		return g;
+	}
+}
@@ -0,0 +1,801 @@
+package salvo.jesus.graph;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import salvo.jesus.graph.algorithm.BidirectionalDijkstraEngine;
+import salvo.jesus.graph.algorithm.DepthFirstGraphTraversal;
+import salvo.jesus.graph.algorithm.GraphTraversal;
+import salvo.jesus.graph.algorithm.MinimumSpanningTreeKruskalAlgorithm;
+import salvo.jesus.graph.algorithm.ShortestPathDijkstraAlgorithm;
+import salvo.jesus.util.HeapNodeComparator;
+
+/**
+ * An immutable, read-only snapshot of a Graph stored in compressed sparse row
+ * form. Vertices are numbered from 0 to <tt>getVerticesCount() - 1</tt> in
+ * the order of the original Graph, and the adjacency of each vertex is stored
+ * as a range of entries in flat <tt>int</tt> arrays instead of a List of
+ * edges per vertex.
+ * <p>
+ * A FrozenGraph implements the whole Graph and WeightedGraph interfaces, so
+ * that existing algorithms run on it unchanged, and returns the Edge objects
+ * of the original Graph. Algorithms that want to avoid the Object-facing
+ * methods may use the int-id accessors instead:
+ *
+ * <pre>
+ * int id = frozen.getVertexId(v);
+ * for (int e = frozen.getOutgoingStart(id); e &lt; frozen.getOutgoingEnd(id); e++)
+ * 	visit(frozen.getOutgoingTarget(e), frozen.getOutgoingWeight(e));
+ * </pre>
+ *
+ * In a FrozenGraph, outgoing and incoming entries are both the incident edges
+ * of a vertex. They only differ in a {@link FrozenDirectedGraph}.
+ * <p>
+ * All methods modifying the graph throw a <tt>GraphModificationException</tt>
+ * or an <tt>UnsupportedOperationException</tt>. Since a FrozenGraph never
+ * changes, listeners are never notified and registering them has no effect.
+ *
+ * @author nono
+ * @version $Id$
+ * @see GraphImpl#freeze()
+ */
+public class FrozenGraph implements WeightedGraph {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Vertex of each id.
+	 */
+	protected final Object[] vertices;
+
+	/**
+	 * Id of each vertex.
+	 */
+	protected final Map<Object, Integer> ids;
+
+	/**
+	 * Distinct edges of the graph, in the order they were first found.
+	 */
+	protected final Edge[] edges;
+
+	/**
+	 * Outgoing entries of vertex <tt>id</tt> are stored at indices
+	 * <tt>outOffsets[id]</tt> to <tt>outOffsets[id + 1]</tt> (exclusive) of
+	 * the other outgoing arrays.
+	 */
+	protected final int[] outOffsets;
+
+	/**
+	 * Id of the vertex at the other end of each outgoing entry.
+	 */
+	protected final int[] outTargets;
+
+	/**
+	 * Index in edges of the Edge of each outgoing entry.
+	 */
+	protected final int[] outEdges;
+
+	/**
+	 * Weight of each outgoing entry, or null if not all edges are weighted.
+	 */
+	protected final double[] outWeights;
+
+	/**
+	 * Same as outOffsets for incoming entries.
+	 */
+	protected final int[] inOffsets;
+
+	/**
+	 * Id of the vertex at the other end of each incoming entry.
+	 */
+	protected final int[] inSources;
+
+	/**
+	 * Index in edges of the Edge of each incoming entry.
+	 */
+	protected final int[] inEdges;
+
+	/**
+	 * Weight of each incoming entry, or null if not all edges are weighted.
+	 */
+	protected final double[] inWeights;
+
+	/**
+	 * Weight changes counted by WeightedEdgeWeakImpl before the graph was
+	 * frozen, or -1 if some edges do not keep their weight there and must be
+	 * compared. Counts of another virtual machine mean nothing, hence 0 once
+	 * deserialized.
+	 */
+	private final transient long weightChanges;
+
+	/**
+	 * Index in connectedSets of the connected set of each vertex.
+	 */
+	private final int[] connectedSetOf;
+
+	/**
+	 * Read-only List of read-only Lists of connected vertices.
+	 */
+	private final List connectedSets;
+
+	/**
+	 * Factory of the original Graph, used by <tt>same()</tt>.
+	 */
+	protected GraphFactory factory;
+
+	/**
+	 * Delegate object for implementing graph traversal. The default
+	 * implementation is DepthFirstGraphTraversal.
+	 */
+	protected GraphTraversal traversal;
+
+	/**
+	 * Creates a frozen copy of a Graph. The Graph is not modified and may be
+	 * modified afterwards without affecting the copy.
+	 *
+	 * @param graph
+	 *            the Graph to freeze
+	 */
+	public FrozenGraph(Graph graph) {
+		int n = graph.getVerticesCount();
+		Map<Edge, Integer> edgeIds = new IdentityHashMap<Edge, Integer>();
+		List<Edge> distinct = new ArrayList<Edge>(graph.getEdgesCount());
+		long changes = WeightedEdgeWeakImpl.changes.get();
+
+		vertices = graph.getAllVertices().toArray();
+		ids = new HashMap<Object, Integer>(n * 4 / 3 + 1);
+		for (int i = 0; i < n; i++)
+			ids.put(vertices[i], new Integer(i));
+
+		outOffsets = new int[n + 1];
+		outTargets = rows(graph, true, outOffsets);
+		outEdges = new int[outTargets.length];
+		outWeights = fill(graph, true, outOffsets, outTargets, outEdges,
+				edgeIds, distinct);
+		if (isDirected()) {
+			inOffsets = new int[n + 1];
+			inSources = rows(graph, false, inOffsets);
+			inEdges = new int[inSources.length];
+			inWeights = fill(graph, false, inOffsets, inSources, inEdges,
+					edgeIds, distinct);
+		} else {
+			inOffsets = outOffsets;
+			inSources = outTargets;
+			inEdges = outEdges;
+			inWeights = outWeights;
+		}
+		edges = distinct.toArray(new Edge[distinct.size()]);
+		for (int i = 0; i < edges.length && changes >= 0; i++)
+			if (!(edges[i] instanceof WeightedEdgeImpl)
+					&& !(edges[i] instanceof DirectedWeightedEdgeImpl))
+				changes = -1;
+		weightChanges = changes;
+
+		connectedSetOf = new int[n];
+		connectedSets = Collections.unmodifiableList(findConnectedSets());
+
+		factory = graph.getGraphFactory();
+		traversal = new DepthFirstGraphTraversal(this);
+	}
+
+	/**
+	 * Returns the edges making up the outgoing or incoming entries of a vertex
+	 * of the Graph being frozen. In an undirected graph, these are the
+	 * incident edges of the vertex.
+	 */
+	protected List getRow(Graph graph, Object v, boolean outgoing) {
+		return graph.getEdges(v);
+	}
+
+	/**
+	 * Determines if outgoing and incoming entries differ.
+	 */
+	protected boolean isDirected() {
+		return false;
+	}
+
+	/**
+	 * Fills offsets with the start of each row and allocates the array of
+	 * entries.
+	 */
+	private int[] rows(Graph graph, boolean outgoing, int[] offsets) {
+		for (int i = 0; i < vertices.length; i++)
+			offsets[i + 1] = offsets[i]
+					+ getRow(graph, vertices[i], outgoing).size();
+		return new int[offsets[vertices.length]];
+	}
+
+	/**
+	 * Fills the opposite vertex and edge of each entry, numbering edges as
+	 * they are found.
+	 *
+	 * @return the weight of each entry, or null if some edge is not a
+	 *         WeightedEdge.
+	 */
+	private double[] fill(Graph graph, boolean outgoing, int[] offsets,
+			int[] opposites, int[] edgeIndices, Map<Edge, Integer> edgeIds,
+			List<Edge> distinct) {
+		double[] weights = new double[opposites.length];
+		boolean weighted = true;
+
+		for (int i = 0; i < vertices.length; i++) {
+			int entry = offsets[i];
+			Iterator iterator = getRow(graph, vertices[i], outgoing)
+					.iterator();
+			while (iterator.hasNext()) {
+				Edge edge = (Edge) iterator.next();
+				Integer edgeId = edgeIds.get(edge);
+				if (edgeId == null) {
+					edgeId = new Integer(distinct.size());
+					edgeIds.put(edge, edgeId);
+					distinct.add(edge);
+				}
+				int a = getVertexId(edge.getVertexA());
+				opposites[entry] = a == i ? getVertexId(edge.getVertexB()) : a;
+				edgeIndices[entry] = edgeId.intValue();
+				if (edge instanceof WeightedEdge)
+					weights[entry] = ((WeightedEdge) edge).getWeight();
+				else
+					weighted = false;
+				entry++;
+			}
+		}
+		return weighted ? weights : null;
+	}
+
+	/**
+	 * Labels the connected set of each vertex by traversing entries in both
+	 * directions.
+	 */
+	private List findConnectedSets() {
+		List sets = new ArrayList();
+		int[] stack = new int[vertices.length];
+
+		Arrays.fill(connectedSetOf, -1);
+		for (int start = 0; start < vertices.length; start++) {
+			if (connectedSetOf[start] >= 0)
+				continue;
+			List set = new ArrayList();
+			int top = 0;
+			connectedSetOf[start] = sets.size();
+			stack[top++] = start;
+			while (top > 0) {
+				int id = stack[--top];
+				set.add(vertices[id]);
+				top = push(outOffsets, outTargets, id, sets.size(), stack, top);
+				top = push(inOffsets, inSources, id, sets.size(), stack, top);
+			}
+			// List the vertices in the order of the original graph
+			Collections.sort(set, new java.util.Comparator() {
+				public int compare(Object v1, Object v2) {
+					return getVertexId(v1) - getVertexId(v2);
+				}
+			});
+			sets.add(Collections.unmodifiableList(set));
+		}
+		return sets;
+	}
+
+	private int push(int[] offsets, int[] opposites, int id, int set,
+			int[] stack, int top) {
+		for (int e = offsets[id]; e < offsets[id + 1]; e++) {
+			int opposite = opposites[e];
+			if (connectedSetOf[opposite] < 0) {
+				connectedSetOf[opposite] = set;
+				stack[top++] = opposite;
+			}
+		}
+		return top;
+	}
+
+	// ------------------------ int-id accessors
+
+	/**
+	 * Returns the id of a vertex.
+	 *
+	 * @return the id of the vertex, or -1 if it is not in the graph.
+	 */
+	public int getVertexId(Object v) {
+		Integer id = ids.get(v);
+		return id == null ? -1 : id.intValue();
+	}
+
+	/**
+	 * Returns the vertex with the given id.
+	 */
+	public Object getVertex(int id) {
+		return vertices[id];
+	}
+
+	/**
+	 * Returns the index of the first outgoing entry of a vertex.
+	 */
+	public int getOutgoingStart(int id) {
+		return outOffsets[id];
+	}
+
+	/**
+	 * Returns the index following the last outgoing entry of a vertex.
+	 */
+	public int getOutgoingEnd(int id) {
+		return outOffsets[id + 1];
+	}
+
+	/**
+	 * Returns the id of the vertex an outgoing entry leads to.
+	 */
+	public int getOutgoingTarget(int entry) {
+		return outTargets[entry];
+	}
+
+	/**
+	 * Returns the weight of the edge of an outgoing entry, which is 1 if the
+	 * graph is not weighted.
+	 */
+	public double getOutgoingWeight(int entry) {
+		return outWeights == null ? 1.0 : outWeights[entry];
+	}
+
+	/**
+	 * Returns the Edge of an outgoing entry.
+	 */
+	public Edge getOutgoingEdge(int entry) {
+		return edges[outEdges[entry]];
+	}
+
+	/**
+	 * Returns the index of the first incoming entry of a vertex.
+	 */
+	public int getIncomingStart(int id) {
+		return inOffsets[id];
+	}
+
+	/**
+	 * Returns the index following the last incoming entry of a vertex.
+	 */
+	public int getIncomingEnd(int id) {
+		return inOffsets[id + 1];
+	}
+
+	/**
+	 * Returns the id of the vertex an incoming entry comes from.
+	 */
+	public int getIncomingSource(int entry) {
+		return inSources[entry];
+	}
+
+	/**
+	 * Returns the weight of the edge of an incoming entry, which is 1 if the
+	 * graph is not weighted.
+	 */
+	public double getIncomingWeight(int entry) {
+		return inWeights == null ? 1.0 : inWeights[entry];
+	}
+
+	/**
+	 * Returns the Edge of an incoming entry.
+	 */
+	public Edge getIncomingEdge(int entry) {
+		return edges[inEdges[entry]];
+	}
+
+	/**
+	 * Determines if all the edges of the graph are WeightedEdges.
+	 */
+	public boolean isWeighted() {
+		return outWeights != null;
+	}
+
+	/**
+	 * Determines if each entry still has the weight of its edge. Weights are
+	 * copied when the graph is frozen, and WeightedEdges of the original graph
+	 * may be given other weights afterwards. This takes constant time if the
+	 * edges are WeightedEdgeImpls or DirectedWeightedEdgeImpls, and then
+	 * returns false once the weight of any edge has been set, even in another
+	 * graph; it takes O(m) time otherwise.
+	 */
+	boolean hasCurrentWeights() {
+		if (outWeights == null)
+			return true;
+		if (weightChanges >= 0)
+			return weightChanges == WeightedEdgeWeakImpl.changes.get();
+		// every edge has an outgoing entry
+		for (int e = 0; e < outEdges.length; e++)
+			if (Double.compare(((WeightedEdge) edges[outEdges[e]]).getWeight(),
+					outWeights[e]) != 0)
+				return false;
+		return true;
+	}
+
+	// ------------------------ Graph methods
+
+	public int getVerticesCount() {
+		return vertices.length;
+	}
+
+	public List getAllVertices() {
+		return Collections.unmodifiableList(Arrays.asList(vertices));
+	}
+
+	public int getEdgesCount() {
+		return edges.length;
+	}
+
+	public Collection<Edge> getAllEdges() {
+		return Collections.unmodifiableList(Arrays.asList(edges));
+	}
+
+	public GraphFactory getGraphFactory() {
+		return factory;
+	}
+
+	public void setGraphFactory(GraphFactory factory) {
+		this.factory = factory;
+	}
+
+	public Iterator getVerticesIterator() {
+		return getAllVertices().iterator();
+	}
+
+	/**
+	 * @deprecated
+	 */
+	@Deprecated
+	public Edge createEdge(Object v1, Object v2) {
+		return factory.createEdge(v1, v2);
+	}
+
+	/**
+	 * Always throws a GraphModificationException.
+	 */
+	public void add(Object v) throws GraphException {
+		throw new GraphModificationException("Cannot modify a frozen graph");
+	}
+
+	/**
+	 * Always throws a GraphModificationException.
+	 */
+	public void remove(Object v) throws GraphException {
+		throw new GraphModificationException("Cannot modify a frozen graph");
+	}
+
+	/**
+	 * Always throws a GraphModificationException.
+	 */
+	public Edge addEdge(Object v1, Object v2) throws GraphException {
+		throw new GraphModificationException("Cannot modify a frozen graph");
+	}
+
+	/**
+	 * Always throws a GraphModificationException.
+	 */
+	public void addEdge(Edge e) throws GraphException {
+		throw new GraphModificationException("Cannot modify a frozen graph");
+	}
+
+	/**
+	 * Always throws a GraphModificationException.
+	 */
+	public void removeEdge(Edge e) throws GraphException {
+		throw new GraphModificationException("Cannot modify a frozen graph");
+	}
+
+	/**
+	 * Always throws a GraphModificationException.
+	 */
+	public void removeEdges(Object v) throws GraphException {
+		throw new GraphModificationException("Cannot modify a frozen graph");
+	}
+
+	public int getDegree() {
+		int degree = 0;
+
+		for (int id = 0; id < vertices.length; id++)
+			degree = Math.max(degree, getDegree(id));
+		return degree;
+	}
+
+	/**
+	 * Returns the number of edges incident to a vertex, or 0 if the vertex is
+	 * not in the graph.
+	 */
+	public int getDegree(Object v) {
+		int id = getVertexId(v);
+
+		return id < 0 ? 0 : getDegree(id);
+	}
+
+	/**
+	 * Returns the number of edges incident to a vertex.
+	 */
+	public int getDegree(int id) {
+		int degree = outOffsets[id + 1] - outOffsets[id];
+
+		if (isDirected())
+			degree += inOffsets[id + 1] - inOffsets[id];
+		return degree;
+	}
+
+	public Set getVertices(int degree) {
+		Set verticesofsamedegree = new HashSet();
+
+		for (int id = 0; id < vertices.length; id++)
+			if (getDegree(id) == degree)
+				verticesofsamedegree.add(vertices[id]);
+		return verticesofsamedegree;
+	}
+
+	/**
+	 * Returns a read-only List of the incident edges of a vertex, or null if
+	 * the vertex is not in the graph.
+	 */
+	public List getEdges(Object v) {
+		int id = getVertexId(v);
+
+		if (id < 0)
+			return null;
+		if (isDirected())
+			return new EntryList(outEdges, outOffsets[id], outOffsets[id + 1],
+					inEdges, inOffsets[id], inOffsets[id + 1]);
+		return new EntryList(outEdges, outOffsets[id], outOffsets[id + 1],
+				inEdges, 0, 0);
+	}
+
+	public List getAdjacentVertices(Object v) {
+		List adjacentVertices = new ArrayList(10);
+		int id = getVertexId(v);
+
+		if (id >= 0) {
+			for (int e = outOffsets[id]; e < outOffsets[id + 1]; e++)
+				adjacentVertices.add(vertices[outTargets[e]]);
+			if (isDirected())
+				for (int e = inOffsets[id]; e < inOffsets[id + 1]; e++)
+					adjacentVertices.add(vertices[inSources[e]]);
+		}
+		return adjacentVertices;
+	}
+
+	public HashSet getAdjacentVertices(List vertices) {
+		HashSet adjacentVertices = new HashSet(this
+				.getAdjacentVertices(vertices.get(0)));
+		int i, size = vertices.size();
+
+		for (i = 1; i < size; i++) {
+			adjacentVertices.retainAll(this
+					.getAdjacentVertices(vertices.get(i)));
+		}
+
+		return adjacentVertices;
+	}
+
+	public List getConnectedSet() {
+		return connectedSets;
+	}
+
+	public List getConnectedSet(Object v) {
+		int id = getVertexId(v);
+
+		return id < 0 ? null : (List) connectedSets.get(connectedSetOf[id]);
+	}
+
+	/**
+	 * Always throws an UnsupportedOperationException.
+	 */
+	public void mergeconnectedSet(Object v1, Object v2) {
+		throw new UnsupportedOperationException("Cannot modify a frozen graph");
+	}
+
+	public List traverse(Object startat) {
+		return traversal.traverse(startat);
+	}
+
+	public GraphTraversal getTraversal() {
+		return traversal;
+	}
+
+	public void setTraversal(GraphTraversal traversal) {
+		this.traversal = traversal;
+	}
+
+	public boolean isConnected(Object v1, Object v2) {
+		int id1 = getVertexId(v1);
+		int id2 = getVertexId(v2);
+
+		return id1 >= 0 && id2 >= 0
+				&& connectedSetOf[id1] == connectedSetOf[id2];
+	}
+
+	public void addGraphAddVertexListener(GraphAddVertexListener listener) {
+	}
+
+	public void addGraphAddEdgeListener(GraphAddEdgeListener listener) {
+	}
+
+	public void addGraphRemoveEdgeListener(GraphRemoveEdgeListener listener) {
+	}
+
+	public void addGraphRemoveVertexListener(GraphRemoveVertexListener listener) {
+	}
+
+	public void removeGraphAddVertexListener(GraphAddVertexListener listener) {
+	}
+
+	public void removeGraphAddEdgeListener(GraphAddEdgeListener listener) {
+	}
+
+	public void removeGraphRemoveEdgeListener(GraphRemoveEdgeListener listener) {
+	}
+
+	public void removeGraphRemoveVertexListener(
+			GraphRemoveVertexListener listener) {
+	}
+
+	/**
+	 * Does nothing: a frozen graph cannot change, so its batches are always
+	 * empty.
+	 */
+	public void beginBatch() {
+	}
+
+	/**
+	 * Does nothing, as there are no changes to notify.
+	 */
+	public void commit() {
+	}
+
+	/**
+	 * Does nothing, as there are no changes to undo.
+	 */
+	public void rollback() throws GraphException {
+	}
+
+	/**
+	 * Returns a new, empty and modifiable GraphImpl.
+	 */
+	public Graph same() {
+		Graph g = new GraphImpl();
+		g.setGraphFactory(this.getGraphFactory());
+		return g;
+	}
+
+	public Object findVertex(Object o) {
+		int id = getVertexId(o);
+		return id < 0 ? null : vertices[id];
+	}
+
+	public String toString() {
+		return "Vertices= " + this.getAllVertices().toString() + ", Edges= "
+				+ this.getAllEdges().toString();
+	}
+
+	// ------------------------ WeightedGraph methods
+
+	/**
+	 * Always throws a GraphModificationException.
+	 */
+	public WeightedEdge addEdge(Object v1, Object v2, double weight)
+			throws Exception {
+		throw new GraphModificationException("Cannot modify a frozen graph");
+	}
+
+	/**
+	 * Returns the vertex adjacent to v through its incident edge of least
+	 * weight, or null if v has no edges or is not in the graph.
+	 */
+	public Object getClosest(Object v) {
+		int id = getVertexId(v);
+		int closest = -1;
+		double weight = Double.POSITIVE_INFINITY;
+
+		if (id < 0)
+			return null;
+
+		for (int e = outOffsets[id]; e < outOffsets[id + 1]; e++)
+			if (closest < 0 || getOutgoingWeight(e) < weight) {
+				closest = outTargets[e];
+				weight = getOutgoingWeight(e);
+			}
+		if (isDirected())
+			for (int e = inOffsets[id]; e < inOffsets[id + 1]; e++)
+				if (closest < 0 || getIncomingWeight(e) < weight) {
+					closest = inSources[e];
+					weight = getIncomingWeight(e);
+				}
+		return closest < 0 ? null : vertices[closest];
+	}
+
+	/**
+	 * Returns the minimum spanning tree of the graph, using Kruskal's
+	 * algorithm.
+	 *
+	 * @throws IllegalStateException
+	 *             if the graph is not weighted.
+	 */
+	public WeightedGraph minimumSpanningTree() {
+		checkWeighted();
+		return new MinimumSpanningTreeKruskalAlgorithm(this)
+				.minimumSpanningTree();
+	}
+
+	/**
+	 * Returns the shortest path spanning tree from a vertex, using Dijkstra's
+	 * algorithm.
+	 *
+	 * @throws IllegalStateException
+	 *             if the graph is not weighted.
+	 */
+	public WeightedGraph shortestPath(Object vertex) {
+		checkWeighted();
+		return new ShortestPathDijkstraAlgorithm(this, new HeapNodeComparator(
+				-1)).shortestPath(vertex);
+	}
+
+	/**
+	 * Returns a shortest path between two vertices, following outgoing
+	 * entries, using a bidirectional Dijkstra search. Each call creates a
+	 * BidirectionalDijkstraEngine; keep one to run many queries.
+	 *
+	 * @throws IllegalStateException
+	 *             if the graph is not weighted.
+	 */
+	public Path shortestPath(Object from, Object to) {
+		checkWeighted();
+		return new BidirectionalDijkstraEngine(this).shortestPath(from, to);
+	}
+
+	private void checkWeighted() {
+		if (!isWeighted())
+			throw new IllegalStateException("Not all edges are weighted");
+	}
+
+	/**
+	 * Read-only List of the Edges of two ranges of entries.
+	 */
+	class EntryList extends AbstractList {
+
+		private final int[] edges1;
+
+		private final int start1;
+
+		private final int size1;
+
+		private final int[] edges2;
+
+		private final int start2;
+
+		private final int size;
+
+		EntryList(int[] edges1, int start1, int end1, int[] edges2,
+				int start2, int end2) {
+			this.edges1 = edges1;
+			this.start1 = start1;
+			this.size1 = end1 - start1;
+			this.edges2 = edges2;
+			this.start2 = start2;
+			this.size = size1 + end2 - start2;
+		}
+
+		public Object get(int index) {
+			if (index < 0 || index >= size)
+				throw new IndexOutOfBoundsException("Index: " + index
+						+ ", Size: " + size);
+			if (index < size1)
+				return edges[edges1[start1 + index]];
+			return edges[edges2[start2 + index - size1]];
+		}
+
+		public int size() {
+			return size;
+		}
+	}
+}
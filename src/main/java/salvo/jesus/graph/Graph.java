@@ -398,6 +398,51 @@ public interface Graph extends Serializable, Cloneable {
 	public void removeGraphRemoveVertexListener(
 			GraphRemoveVertexListener listener);
 
+	// ------------------------ Batch methods
+	/**
+	 * Starts a batch of changes. Until <tt>commit()</tt> or
+	 * <tt>rollback()</tt> is called, registered listeners implementing
+	 * GraphBatchListener are not notified of each vertex and edge added or
+	 * removed; other listeners are notified as usual.
+	 *
+	 * @throws IllegalStateException
+	 *             if a batch is already in progress.
+	 * @see GraphBatchListener
+	 */
+	public void beginBatch();
+
+	/**
+	 * Ends the batch of changes in progress and notifies the registered
+	 * GraphBatchListeners once of the vertices and edges added and removed
+	 * during the batch, if there are any.
+	 *
+	 * @throws IllegalStateException
+	 *             if there is no batch in progress.
+	 */
+	public void commit();
+
+	/**
+	 * Ends the batch of changes in progress by undoing its changes, most
+	 * recent first. GraphBatchListeners are not notified, while other
+	 * listeners are notified of the changes made to undo the batch. The
+	 * vertices and edges are restored, but not necessarily in their original
+	 * order. A typical use is:
+	 *
+	 * <pre>
+	 * graph.beginBatch();
+	 * try {
+	 * 	// modify graph
+	 * 	graph.commit();
+	 * } catch (GraphException e) {
+	 * 	graph.rollback();
+	 * }
+	 * </pre>
+	 *
+	 * @throws IllegalStateException
+	 *             if there is no batch in progress.
+	 */
+	public void rollback() throws GraphException;
+
 	/**
 	 * A generic construction method that returns an new Graph instance
 	 * according to concrete implementation. The basic contract is that the type
@@ -0,0 +1,245 @@
+package salvo.jesus.graph;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Records the changes made to a Graph between its <tt>beginBatch()</tt> and
+ * <tt>commit()</tt> or <tt>rollback()</tt>. Graph implementations create a
+ * GraphBatch in <tt>beginBatch()</tt>, report each change to it, and on
+ * commit send the resulting {@link GraphBatchEvent} to their
+ * GraphBatchListeners through {@link #fire(GraphBatchEvent, List[])}.
+ * <p>
+ * The event carries the net changes of the batch: a vertex or edge added then
+ * removed during the batch appears in neither list, while a vertex removed
+ * then added again appears in both. Vertices are matched with
+ * <tt>equals()</tt>, as in the graph's vertex index, and edges by identity.
+ *
+ * @author nono
+ * @version $Id$
+ * @see Graph#beginBatch()
+ */
+public class GraphBatch implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private static final int ADD_VERTEX = 0;
+
+	private static final int REMOVE_VERTEX = 1;
+
+	private static final int ADD_EDGE = 2;
+
+	private static final int REMOVE_EDGE = 3;
+
+	/**
+	 * A change made to the graph.
+	 */
+	private static class Change implements Serializable {
+		private static final long serialVersionUID = 1L;
+
+		final int kind;
+
+		final Object element;
+
+		Change(int kind, Object element) {
+			this.kind = kind;
+			this.element = element;
+		}
+	}
+
+	private final Graph graph;
+
+	/**
+	 * Changes in the order they were made.
+	 */
+	private final List<Change> changes = new ArrayList<Change>();
+
+	/**
+	 * True while the changes are being undone.
+	 */
+	private boolean undoing;
+
+	/**
+	 * Creates an empty batch of changes to a graph.
+	 */
+	public GraphBatch(Graph graph) {
+		this.graph = graph;
+	}
+
+	/**
+	 * Records that a vertex was added to the graph.
+	 */
+	public void vertexAdded(Object v) {
+		record(ADD_VERTEX, v);
+	}
+
+	/**
+	 * Records that a vertex was removed from the graph.
+	 */
+	public void vertexRemoved(Object v) {
+		record(REMOVE_VERTEX, v);
+	}
+
+	/**
+	 * Records that an edge was added to the graph.
+	 */
+	public void edgeAdded(Edge edge) {
+		record(ADD_EDGE, edge);
+	}
+
+	/**
+	 * Records that an edge was removed from the graph.
+	 */
+	public void edgeRemoved(Edge edge) {
+		record(REMOVE_EDGE, edge);
+	}
+
+	private void record(int kind, Object element) {
+		// Changes made while undoing are the inverse of recorded ones
+		if (!undoing)
+			changes.add(new Change(kind, element));
+	}
+
+	/**
+	 * Returns the number of changes recorded.
+	 */
+	public int size() {
+		return changes.size();
+	}
+
+	/**
+	 * Creates the event describing the net changes of the batch.
+	 *
+	 * @return the event, or null if the batch made no net change.
+	 */
+	public GraphBatchEvent createEvent() {
+		List addedvertices = new ArrayList();
+		List removedvertices = new ArrayList();
+		List<Edge> addededges = new ArrayList<Edge>();
+		List<Edge> removededges = new ArrayList<Edge>();
+
+		net(ADD_VERTEX, REMOVE_VERTEX, new HashMap(), new HashMap(),
+				addedvertices, removedvertices);
+		net(ADD_EDGE, REMOVE_EDGE, new IdentityHashMap(),
+				new IdentityHashMap(), addededges, removededges);
+		if (addedvertices.isEmpty() && removedvertices.isEmpty()
+				&& addededges.isEmpty() && removededges.isEmpty())
+			return null;
+		return new GraphBatchEvent(graph, addedvertices, addededges,
+				removedvertices, removededges);
+	}
+
+	/**
+	 * Computes the net additions and removals of one kind of element from
+	 * the first and last change made to each element.
+	 */
+	private void net(int add, int remove, Map first, Map last, List added,
+			List removed) {
+		List order = new ArrayList();
+		Iterator iterator;
+
+		for (Change change : changes) {
+			if (change.kind != add && change.kind != remove)
+				continue;
+			if (!first.containsKey(change.element)) {
+				first.put(change.element, change);
+				order.add(change.element);
+			}
+			last.put(change.element, change);
+		}
+		iterator = order.iterator();
+		while (iterator.hasNext()) {
+			Object element = iterator.next();
+			Change firstchange = (Change) first.get(element);
+			Change lastchange = (Change) last.get(element);
+
+			// Present before the batch: the first change is a removal
+			if (firstchange.kind == remove)
+				removed.add(firstchange.element);
+			// Present after the batch: the last change is an addition
+			if (lastchange.kind == add)
+				added.add(lastchange.element);
+		}
+	}
+
+	/**
+	 * Undoes the recorded changes, most recent first, through the graph's
+	 * own <tt>add()</tt>, <tt>addEdge()</tt>, <tt>remove()</tt> and
+	 * <tt>removeEdge()</tt> methods. Changes made while undoing are not
+	 * recorded, but listeners not implementing GraphBatchListener are
+	 * notified of them as usual.
+	 */
+	public void undo() throws GraphException {
+		undoing = true;
+		try {
+			for (int i = changes.size() - 1; i >= 0; i--) {
+				Change change = changes.get(i);
+				switch (change.kind) {
+				case ADD_VERTEX:
+					graph.remove(change.element);
+					break;
+				case REMOVE_VERTEX:
+					graph.add(change.element);
+					break;
+				case ADD_EDGE:
+					graph.removeEdge((Edge) change.element);
+					break;
+				case REMOVE_EDGE:
+					graph.addEdge((Edge) change.element);
+					break;
+				}
+			}
+			changes.clear();
+		} finally {
+			undoing = false;
+		}
+	}
+
+	/**
+	 * Determines if a listener is notified of each change while this batch
+	 * is in progress: only listeners not implementing GraphBatchListener are.
+	 *
+	 * @param batch
+	 *            the batch in progress, or null if there is none
+	 */
+	public static boolean notifies(GraphBatch batch, Object listener) {
+		return batch == null || !(listener instanceof GraphBatchListener);
+	}
+
+	/**
+	 * Sends an event to each GraphBatchListener found in the given lists of
+	 * listeners, once even if it is registered in several of them.
+	 *
+	 * @param event
+	 *            the event to send. Nothing is sent if it is null.
+	 * @param listeners
+	 *            Lists of registered GraphAddVertexListeners,
+	 *            GraphAddEdgeListeners, GraphRemoveVertexListeners or
+	 *            GraphRemoveEdgeListeners
+	 */
+	public static void fire(GraphBatchEvent event, List[] listeners) {
+		List batchlisteners = new ArrayList(10);
+		Iterator iterator;
+		Object listener;
+
+		if (event == null)
+			return;
+		for (int i = 0; i < listeners.length; i++) {
+			iterator = listeners[i].iterator();
+			while (iterator.hasNext()) {
+				listener = iterator.next();
+				if (listener instanceof GraphBatchListener
+						&& !batchlisteners.contains(listener))
+					batchlisteners.add(listener);
+			}
+		}
+		iterator = batchlisteners.iterator();
+		while (iterator.hasNext())
+			((GraphBatchListener) iterator.next()).batchCommitted(event);
+	}
+}
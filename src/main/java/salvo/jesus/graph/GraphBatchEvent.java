@@ -0,0 +1,120 @@
+package salvo.jesus.graph;
+
+import java.util.Collections;
+import java.util.EventObject;
+import java.util.List;
+
+/**
+ * This event is used to notify interested parties that a batch of vertices
+ * and edges has been added to and removed from a Graph object at once, either
+ * by a {@link GraphBuilder} or between the Graph's <tt>beginBatch()</tt> and
+ * <tt>commit()</tt>.
+ * <p>
+ * Listeners applying the event to their own structures should apply the
+ * removals before the additions: a vertex removed and then added again during
+ * the batch is in both lists.
+ *
+ * @author nono
+ * @version $Id$
+ * @see GraphBatchListener
+ */
+public class GraphBatchEvent extends EventObject {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * The vertices that were added, in the order they were added.
+	 */
+	private final List addedVertices;
+
+	/**
+	 * The edges that were added, in the order they were added.
+	 */
+	private final List<Edge> addedEdges;
+
+	/**
+	 * The vertices that were removed, in the order they were removed.
+	 */
+	private final List removedVertices;
+
+	/**
+	 * The edges that were removed, in the order they were removed.
+	 */
+	private final List<Edge> removedEdges;
+
+	/**
+	 * Creates a GraphBatchEvent object indicating the source of the event and
+	 * the vertices and edges that were added to a Graph object.
+	 *
+	 * @param source
+	 *            source of the event. This is usually the Graph object where
+	 *            the vertices and edges were added.
+	 * @param addedVertices
+	 *            vertices added to the Graph, not including those already in
+	 *            it
+	 * @param addedEdges
+	 *            edges added to the Graph
+	 */
+	public GraphBatchEvent(Object source, List addedVertices,
+			List<Edge> addedEdges) {
+		this(source, addedVertices, addedEdges, Collections.EMPTY_LIST,
+				Collections.<Edge> emptyList());
+	}
+
+	/**
+	 * Creates a GraphBatchEvent object indicating the source of the event and
+	 * the vertices and edges that were added to and removed from a Graph
+	 * object.
+	 *
+	 * @param source
+	 *            source of the event. This is usually the Graph object where
+	 *            the vertices and edges were added and removed.
+	 * @param addedVertices
+	 *            vertices added to the Graph, not including those already in
+	 *            it
+	 * @param addedEdges
+	 *            edges added to the Graph
+	 * @param removedVertices
+	 *            vertices removed from the Graph
+	 * @param removedEdges
+	 *            edges removed from the Graph
+	 */
+	public GraphBatchEvent(Object source, List addedVertices,
+			List<Edge> addedEdges, List removedVertices,
+			List<Edge> removedEdges) {
+		super(source);
+		this.addedVertices = Collections.unmodifiableList(addedVertices);
+		this.addedEdges = Collections.unmodifiableList(addedEdges);
+		this.removedVertices = Collections.unmodifiableList(removedVertices);
+		this.removedEdges = Collections.unmodifiableList(removedEdges);
+	}
+
+	/**
+	 * Returns a read-only List of the vertices added to the Graph.
+	 */
+	public List getAddedVertices() {
+		return addedVertices;
+	}
+
+	/**
+	 * Returns a read-only List of the edges added to the Graph.
+	 */
+	public List<Edge> getAddedEdges() {
+		return addedEdges;
+	}
+
+	/**
+	 * Returns a read-only List of the vertices removed from the Graph.
+	 */
+	public List getRemovedVertices() {
+		return removedVertices;
+	}
+
+	/**
+	 * Returns a read-only List of the edges removed from the Graph. The edges
+	 * incident to a removed vertex are in this List.
+	 */
+	public List<Edge> getRemovedEdges() {
+		return removedEdges;
+	}
+}
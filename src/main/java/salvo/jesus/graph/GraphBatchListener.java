@@ -0,0 +1,37 @@
+package salvo.jesus.graph;
+
+import java.io.Serializable;
+import java.util.EventListener;
+
+/**
+ * The listener interface for receiving a single notification when a batch of
+ * vertices and edges is added to or removed from a Graph.
+ * <p>
+ * This interface is meant to be implemented together with one or more of
+ * <tt>GraphAddVertexListener</tt>, <tt>GraphAddEdgeListener</tt>,
+ * <tt>GraphRemoveVertexListener</tt> and <tt>GraphRemoveEdgeListener</tt>: a
+ * listener registered with a Graph through the corresponding
+ * <tt>addGraph...Listener()</tt> method that also implements this interface
+ * is notified once per batch through
+ * {@link #batchCommitted(GraphBatchEvent)}, instead of once per vertex and
+ * once per edge. Outside of batches, it is notified of each change as usual.
+ * Listeners that do not implement this interface always receive one event
+ * per vertex and per edge.
+ *
+ * @author nono
+ * @version $Id$
+ * @see GraphBuilder
+ * @see Graph#beginBatch()
+ */
+public interface GraphBatchListener extends EventListener, Serializable {
+
+	/**
+	 * Called once when a batch of changes has been made to the Graph. The
+	 * changes are already made when this method is called.
+	 *
+	 * @param e
+	 *            GraphBatchEvent object that specifies the vertices and edges
+	 *            added to and removed from the graph
+	 */
+	public void batchCommitted(GraphBatchEvent e);
+}
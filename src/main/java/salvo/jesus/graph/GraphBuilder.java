@@ -0,0 +1,163 @@
+package salvo.jesus.graph;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Loads vertices and edges into a GraphImpl in bulk. Vertices and edges are
+ * collected, one by one or in batches, until {@link #build()} adds them all
+ * at once:
+ * <ul>
+ * <li>incident, outgoing and incoming edge lists are sized once from the
+ * degree of each vertex in the batch instead of growing edge by edge,</li>
+ * <li>connected sets are merged in a single sweep at the end,</li>
+ * <li>listeners are notified once: a listener implementing
+ * <tt>GraphBatchListener</tt> receives a single <tt>GraphBatchEvent</tt>,
+ * other listeners still receive one event per vertex and per edge,</li>
+ * <li>a DirectedAcyclicGraphImpl checks for cycles once for the whole batch
+ * instead of looking for a path for each edge.</li>
+ * </ul>
+ * If the batch is rejected, <tt>build()</tt> throws and the graph is left
+ * unchanged.
+ * <p>
+ * A GraphBuilder works with GraphImpl, DirectedGraphImpl, WeightedGraphImpl
+ * and DirectedAcyclicGraphImpl, and their subclasses. Trees and paths must be
+ * built through their own methods. Typical use is:
+ *
+ * <pre>
+ * DirectedGraphImpl graph = new GraphBuilder&lt;DirectedGraphImpl&gt;(
+ * 		new DirectedGraphImpl()).addEdges(edges).build();
+ * </pre>
+ *
+ * @author nono
+ * @version $Id$
+ */
+public class GraphBuilder<G extends GraphImpl> {
+
+	private final G graph;
+
+	/**
+	 * Vertices collected since the last build.
+	 */
+	private List vertices = new ArrayList();
+
+	/**
+	 * Edges collected since the last build.
+	 */
+	private List<Edge> edges = new ArrayList<Edge>();
+
+	/**
+	 * Creates a builder adding vertices and edges to a graph, which may
+	 * already contain vertices and edges.
+	 *
+	 * @throws IllegalArgumentException
+	 *             if the graph is a Tree or a Path.
+	 */
+	public GraphBuilder(G graph) {
+		if (graph instanceof Tree || graph instanceof Path)
+			throw new IllegalArgumentException("Cannot bulk load a "
+					+ graph.getClass().getName());
+		this.graph = graph;
+	}
+
+	/**
+	 * Returns the graph this builder adds to.
+	 */
+	public G getGraph() {
+		return graph;
+	}
+
+	/**
+	 * Collects a vertex to add.
+	 */
+	public GraphBuilder<G> addVertex(Object v) {
+		vertices.add(v);
+		return this;
+	}
+
+	/**
+	 * Collects a batch of vertices to add.
+	 */
+	public GraphBuilder<G> addVertices(Object[] batch) {
+		for (int i = 0; i < batch.length; i++)
+			vertices.add(batch[i]);
+		return this;
+	}
+
+	/**
+	 * Collects a batch of vertices to add.
+	 */
+	public GraphBuilder<G> addVertices(Iterable batch) {
+		Iterator iterator = batch.iterator();
+
+		while (iterator.hasNext())
+			vertices.add(iterator.next());
+		return this;
+	}
+
+	/**
+	 * Collects an edge between two vertices, created by the graph's
+	 * GraphFactory. Vertices not in the graph are added along with the edge.
+	 *
+	 * @return this builder.
+	 */
+	public GraphBuilder<G> addEdge(Object v1, Object v2) {
+		edges.add(graph.getGraphFactory().createEdge(v1, v2));
+		return this;
+	}
+
+	/**
+	 * Collects a weighted edge between two vertices, created by the graph's
+	 * GraphFactory, which must create WeightedEdges.
+	 *
+	 * @return this builder.
+	 */
+	public GraphBuilder<G> addEdge(Object v1, Object v2, double weight) {
+		WeightedEdge edge = (WeightedEdge) graph.getGraphFactory().createEdge(
+				v1, v2);
+
+		edge.setWeight(weight);
+		edges.add(edge);
+		return this;
+	}
+
+	/**
+	 * Collects a batch of edges, which must be of the type expected by the
+	 * graph (for example DirectedEdges for a DirectedGraphImpl).
+	 */
+	public GraphBuilder<G> addEdges(Edge[] batch) {
+		for (int i = 0; i < batch.length; i++)
+			edges.add(batch[i]);
+		return this;
+	}
+
+	/**
+	 * Collects a batch of edges, which must be of the type expected by the
+	 * graph (for example DirectedEdges for a DirectedGraphImpl).
+	 */
+	public GraphBuilder<G> addEdges(Iterable<? extends Edge> batch) {
+		for (Edge edge : batch)
+			edges.add(edge);
+		return this;
+	}
+
+	/**
+	 * Adds all the vertices and edges collected since the last build to the
+	 * graph. The builder is then empty and may be used to add another batch.
+	 * If the batch is rejected, the builder keeps it.
+	 *
+	 * @return the graph.
+	 * @throws GraphModificationException
+	 *             if a vertex is null.
+	 * @throws CycleException
+	 *             if the graph is a DirectedAcyclicGraphImpl and the edges
+	 *             would create a cycle.
+	 */
+	public G build() throws GraphException {
+		graph.addAll(vertices, edges);
+		vertices = new ArrayList();
+		edges = new ArrayList<Edge>();
+		return graph;
+	}
+}
@@ -1,12 +1,15 @@
 package salvo.jesus.graph;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import salvo.jesus.graph.algorithm.DepthFirstGraphTraversal;
@@ -25,15 +28,22 @@ public class GraphImpl implements Graph {
 	protected GraphFactory factory;
 
 	/**
-	 * List of vertices in the graph.
+	 * Read-only List of vertices in the graph, in the order they were added.
+	 * It is a VertexList, from which vertices are removed by slot.
 	 */
 	protected List vertices;
 
+	/**
+	 * Index mapping each vertex of the graph to the slot where its per-vertex
+	 * structures are stored.
+	 */
+	VertexIndex vertexIndex;
+
 	/**
 	 * List of edges in the graph. Each element in the List is a List in itself,
-	 * such that each element is are the incident edges of a Vertex. The index
-	 * of the Object in vertices is the same index as that incident edges of the
-	 * Object in edges.
+	 * such that each element is are the incident edges of a Vertex. The
+	 * incident edges of a Vertex are stored at the slot of the Vertex in
+	 * vertexIndex. Elements at free slots are null.
 	 */
 	protected List edges;
 
@@ -44,20 +54,39 @@ public class GraphImpl implements Graph {
 	protected Set<Edge> allEdges;
 
 	/**
-	 * List of Lists (no, that was not a typo!) of vertices that are connected.
-	 * The term connected here means that, if there is an Edge from Object A to
-	 * B, then Object A is connected to Object B and vice-versa, regardless of
-	 * the direction of the Edge connecting the two vertices.
+	 * Disjoint sets of vertices that are connected. The term connected here
+	 * means that, if there is an Edge from Object A to B, then Object A is
+	 * connected to Object B and vice-versa, regardless of the direction of the
+	 * Edge connecting the two vertices.
 	 * 
 	 * Therefore, if not all vertices are connected to each other, then you have
 	 * a forest of graphs. The simplest forest of graphs contains two vertices
 	 * and no edges, in which case you have a one forest that has only one
-	 * Vertex and another forest also with only one Vertex. That simplest forest
-	 * of graphs will be represented here as one List containing two Lists, each
-	 * of which has only one Vertex.
+	 * Vertex and another forest also with only one Vertex.
+	 * 
+	 * Vertices are identified by their slot in vertexIndex.
+	 */
+	ConnectedSets connectedSets;
+
+	/**
+	 * List of Lists (no, that was not a typo!) of vertices that are connected,
+	 * materialized from connectedSets when first needed.
 	 * 
+	 * @see #getConnectedSet()
+	 */
+	private transient ConnectedSetView connectedSetView;
+
+	/**
+	 * Changes made since <tt>beginBatch()</tt>, or null if there is no batch
+	 * in progress.
 	 */
-	protected List connectedSet;
+	private transient GraphBatch batch;
+
+	/**
+	 * Whether the lists of this Graph have no spare room, which is the case
+	 * after <tt>trimToSize()</tt> until a vertex or edge is added.
+	 */
+	transient boolean trimmed;
 
 	/**
 	 * List of GraphAddVertexListeners that are interested in listening when new
@@ -103,9 +132,12 @@ public class GraphImpl implements Graph {
 	}
 
 	protected void initData() {
-		vertices = new ArrayList(10);
+		vertices = new VertexList();
+		vertexIndex = new VertexIndex();
 		edges = new ArrayList(10);
-		connectedSet = new ArrayList(10);
+		connectedSets = new ConnectedSets();
+		connectedSetView = null;
+		batch = null;
 		allEdges = new HashSet<Edge>();
 
 		addvertexlistener = new ArrayList(10);
@@ -166,18 +198,30 @@ public class GraphImpl implements Graph {
 	public List getEdges(Object v) {
 		// System.out.println("[GraphImpl] getEdges");
 		List incidentedges = null;
-		int index = this.vertices.indexOf(v);
+		int slot = this.vertexIndex.slotOf(v);
 
-		if (index >= 0) {
-			incidentedges = (List) this.edges.get(index);
+		if (slot >= 0) {
+			incidentedges = (List) this.edges.get(slot);
 		}
 		return incidentedges;
 	}
 
+	/**
+	 * Determines if the specified vertex is in the Graph. This is a constant
+	 * time lookup.
+	 * 
+	 * @param v
+	 *            The vertex to look for
+	 * @return true if the vertex is in the Graph.
+	 */
+	public boolean containsVertex(Object v) {
+		return this.vertexIndex.contains(v);
+	}
+
 	/**
 	 * Adds a Object into the Graph. This will also create a new entry in the
-	 * edges List and add the newly added Object to its own connected set,
-	 * thereby adding a new List in the connectedSet List. Finally, all
+	 * edges List and add the newly added Object to its own connected set.
+	 * Finally, all
 	 * GraphAddVertexListeners are informed of the event that a Object has been
 	 * added to the Graph.
 	 * 
@@ -186,30 +230,118 @@ public class GraphImpl implements Graph {
 	 */
 	public void add(Object newvertex) throws GraphException {
 		// System.out.println("[GraphImpl] add ");
-		ArrayList newconnectedSet;
 		Iterator iterator;
 		GraphAddVertexListener listener;
 
-		if (vertices.contains(newvertex))
+		if (vertexIndex.contains(newvertex))
 			return;
 		// Add the vertex
-		vertices.add(newvertex);
+		int slot = vertexIndex.add(newvertex);
+		((VertexList) vertices).add(newvertex, slot);
+		trimmed = false;
 
 		// Whenever a new vertex is added, we also need to create
 		// a blank adjacenct edge list for the new vertex
-		edges.add(new ArrayList(10));
+		initSlot(slot);
 
 		// By default, add the new vertex to its own connected set
-		newconnectedSet = new ArrayList(10);
-		newconnectedSet.add(newvertex);
-		connectedSet.add(newconnectedSet);
+		connectedSets.add(slot);
 
 		// Notify all addvertexlisteners that a vertex was added
 		iterator = addvertexlistener.iterator();
 		while (iterator.hasNext()) {
 			listener = (GraphAddVertexListener) iterator.next();
-			listener.vertexAdded(new GraphAddVertexEvent(this, newvertex));
+			if (GraphBatch.notifies(batch, listener))
+				listener.vertexAdded(new GraphAddVertexEvent(this, newvertex));
 		}
+		if (batch != null)
+			batch.vertexAdded(newvertex);
+	}
+
+	/**
+	 * Initialises the per-vertex structures stored at a newly allocated slot.
+	 * This creates a blank incident edge list for the slot. Subclasses keeping
+	 * other per-vertex structures indexed by slot should override this method
+	 * and call the ancestor.
+	 * 
+	 * @param slot
+	 *            The slot allocated to the vertex being added
+	 */
+	protected void initSlot(int slot) {
+		VertexIndex.put(edges, slot, new ArrayList(10));
+	}
+
+	/**
+	 * Releases the per-vertex structures stored at the slot of a vertex being
+	 * removed. Subclasses overriding <tt>initSlot()</tt> should also override
+	 * this method and call the ancestor.
+	 * 
+	 * @param slot
+	 *            The slot of the vertex being removed
+	 */
+	protected void clearSlot(int slot) {
+		edges.set(slot, null);
+	}
+
+	/**
+	 * Releases the spare room of the lists and arrays of this Graph, such as
+	 * the incident edge lists of its vertices, which are created with room
+	 * for 10 edges. This is best called once a graph is loaded, since lists
+	 * grow again as vertices and edges are added. Subclasses keeping other
+	 * per-vertex structures should override this method and call the
+	 * ancestor.
+	 *
+	 * @see GraphMemoryStats
+	 */
+	public void trimToSize() {
+		((VertexList) vertices).trimToSize();
+		trimLists(edges);
+		vertexIndex.trimToSize();
+		connectedSets.trimToSize(vertexIndex.capacity());
+		trimmed = true;
+	}
+
+	/**
+	 * Trims a list of ArrayLists indexed by slot, and each of its ArrayLists.
+	 */
+	static void trimLists(List lists) {
+		if (lists instanceof ArrayList)
+			((ArrayList) lists).trimToSize();
+		for (int i = 0; i < lists.size(); i++)
+			if (lists.get(i) instanceof ArrayList)
+				((ArrayList) lists.get(i)).trimToSize();
+	}
+
+	/**
+	 * Adds the estimated size of the structures of this Graph to a
+	 * GraphMemoryStats. Subclasses keeping other structures should override
+	 * this method and call the ancestor.
+	 *
+	 * @see GraphMemoryStats#of(Graph)
+	 */
+	protected void addMemoryStats(GraphMemoryStats stats) {
+		long size = ((VertexList) vertices).memorySize();
+		for (int i = 0; i < vertices.size(); i++)
+			size += GraphMemoryStats.sizeOf(vertices.get(i));
+		stats.add(GraphMemoryStats.VERTICES, size);
+		stats.add(GraphMemoryStats.VERTEX_INDEX, vertexIndex.memorySize());
+		stats.add(GraphMemoryStats.ADJACENCY, sizeOfLists(edges));
+		stats.add(GraphMemoryStats.EDGES, GraphMemoryStats
+				.sizeOfEdges(allEdges));
+		stats.add(GraphMemoryStats.EDGE_SET, GraphMemoryStats
+				.shallowSizeOf(allEdges.getClass())
+				+ GraphMemoryStats.sizeOfHashMap(allEdges.size()));
+		stats.add(GraphMemoryStats.CONNECTED_SETS, connectedSets.memorySize());
+	}
+
+	/**
+	 * Returns the estimated size of a list of lists indexed by slot.
+	 */
+	long sizeOfLists(List lists) {
+		long size = GraphMemoryStats.sizeOfList(lists, trimmed);
+		for (int i = 0; i < lists.size(); i++)
+			size += GraphMemoryStats.sizeOfList((List) lists.get(i), trimmed);
+		return size;
 	}
 
 	/**
@@ -231,7 +363,7 @@ public class GraphImpl implements Graph {
 	 * Adds an Edge into the Graph. The vertices of the Edge need not already be
 	 * existing in the Graph for this method to work properly. The vertices in
 	 * both ends of the Edge are merged into one connected set, thereby possibly
-	 * decreasing the number of Lists in the coonectedSet List. Finally, all
+	 * decreasing the number of connected sets. Finally, all
 	 * GraphAddEdgeListeners are informed of the event that a Edge has been
 	 * added to the Graph.
 	 * 
@@ -251,12 +383,13 @@ public class GraphImpl implements Graph {
 			throw new GraphModificationException(
 					"Cannot add null vertices to graph");
 		// If the vertices of the edge are not in the Graph, add them.
-		if (!this.vertices.contains(v1))
+		if (!this.vertexIndex.contains(v1))
 			this.add(v1);
-		if (!this.vertices.contains(v2))
+		if (!this.vertexIndex.contains(v2))
 			this.add(v2);
 
 		edge = this.factory.createEdge(v1, v2);
+		trimmed = false;
 
 		v1edges = this.getEdges(v1);
 		v2edges = this.getEdges(v2);
@@ -273,8 +406,11 @@ public class GraphImpl implements Graph {
 		iterator = this.addedgelistener.iterator();
 		while (iterator.hasNext()) {
 			listener = (GraphAddEdgeListener) iterator.next();
-			listener.edgeAdded(new GraphAddEdgeEvent(this, edge));
+			if (GraphBatch.notifies(batch, listener))
+				listener.edgeAdded(new GraphAddEdgeEvent(this, edge));
 		}
+		if (batch != null)
+			batch.edgeAdded(edge);
 
 		return edge;
 	}
@@ -283,7 +419,7 @@ public class GraphImpl implements Graph {
 	 * Adds an Edge into the Graph. The vertices of the Edge need not be
 	 * existing in the Graph for this method to work properly. The vertices in
 	 * both ends of the Edge are merged into one connected set, thereby possibly
-	 * decreasing the number of Lists in the coonectedSet List. Finally, all
+	 * decreasing the number of connected sets. Finally, all
 	 * GraphAddEdgeListeners are informed of the event that a Edge has been
 	 * added to the Graph.
 	 * <p>
@@ -306,13 +442,14 @@ public class GraphImpl implements Graph {
 		v2 = edge.getVertexB();
 
 		// If the vertices of the edge are not in the Graph, add them.
-		if (!this.vertices.contains(v1))
+		if (!this.vertexIndex.contains(v1))
 			this.add(v1);
-		if (!this.vertices.contains(v2))
+		if (!this.vertexIndex.contains(v2))
 			this.add(v2);
 
 		// Only then should we call getEdges, since add( Object ) will
 		// initialise these edgelist of a vertex.
+		trimmed = false;
 		v1edges = this.getEdges(v1);
 		v2edges = this.getEdges(v2);
 
@@ -328,8 +465,172 @@ public class GraphImpl implements Graph {
 		iterator = this.addedgelistener.iterator();
 		while (iterator.hasNext()) {
 			listener = (GraphAddEdgeListener) iterator.next();
-			listener.edgeAdded(new GraphAddEdgeEvent(this, edge));
+			if (GraphBatch.notifies(batch, listener))
+				listener.edgeAdded(new GraphAddEdgeEvent(this, edge));
+		}
+		if (batch != null)
+			batch.edgeAdded(edge);
+	}
+
+	/**
+	 * Adds a batch of vertices and edges into the Graph. This is the bulk
+	 * counterpart of <tt>add()</tt> and <tt>addEdge()</tt> used by
+	 * {@link GraphBuilder}: the batch is first checked by
+	 * <tt>checkAddAll()</tt>, then the vertices and the missing endpoints of
+	 * the edges are added, the edges are linked by <tt>linkEdges()</tt>,
+	 * connected sets are merged in a single sweep, and listeners are notified
+	 * once by <tt>fireBatchAdded()</tt>.
+	 *
+	 * @param newvertices
+	 *            vertices to add. Those already in the Graph are ignored.
+	 * @param newedges
+	 *            edges to add
+	 * @throws GraphException
+	 *             if <tt>checkAddAll()</tt> rejects the batch, in which case
+	 *             the Graph is left unchanged.
+	 */
+	void addAll(List newvertices, List<Edge> newedges) throws GraphException {
+		List addedvertices = new ArrayList(newvertices.size());
+		Iterator iterator;
+
+		checkAddAll(newvertices, newedges);
+		trimmed = false;
+
+		iterator = newvertices.iterator();
+		while (iterator.hasNext())
+			addSlot(iterator.next(), addedvertices);
+		for (Edge edge : newedges) {
+			addSlot(edge.getVertexA(), addedvertices);
+			addSlot(edge.getVertexB(), addedvertices);
+		}
+
+		linkEdges(newedges);
+		allEdges.addAll(newedges);
+
+		// Merge the connected sets once all edges are in
+		for (Edge edge : newedges)
+			connectedSets.union(vertexIndex.slotOf(edge.getVertexA()),
+					vertexIndex.slotOf(edge.getVertexB()));
+
+		fireBatchAdded(addedvertices, newedges);
+	}
+
+	/**
+	 * Checks that a batch of vertices and edges may be added by
+	 * <tt>addAll()</tt>. This implementation only rejects null vertices.
+	 * Subclasses with further constraints on their structure should override
+	 * this method and call the ancestor.
+	 *
+	 * @throws GraphException
+	 *             if the batch cannot be added
+	 */
+	protected void checkAddAll(List newvertices, List<Edge> newedges)
+			throws GraphException {
+		if (newvertices.contains(null))
+			throw new GraphModificationException(
+					"Cannot add null vertices to graph");
+		for (Edge edge : newedges)
+			if (edge.getVertexA() == null || edge.getVertexB() == null)
+				throw new GraphModificationException(
+						"Cannot add null vertices to graph");
+	}
+
+	/**
+	 * Adds a vertex to the index and initialises its slot, without notifying
+	 * listeners. Does nothing if the vertex is already in the Graph.
+	 */
+	private void addSlot(Object v, List addedvertices) {
+		if (vertexIndex.contains(v))
+			return;
+		int slot = vertexIndex.add(v);
+		((VertexList) vertices).add(v, slot);
+		initSlot(slot);
+		connectedSets.add(slot);
+		addedvertices.add(v);
+	}
+
+	/**
+	 * Adds each edge of a batch as an incident edge of both its vertices,
+	 * which must already have a slot. The incident edge lists are grown once
+	 * to their final size from the degree of each vertex in the batch.
+	 * Subclasses keeping other per-vertex edge lists should override this
+	 * method and call the ancestor.
+	 *
+	 * @param newedges
+	 *            edges to link
+	 */
+	protected void linkEdges(List<Edge> newedges) {
+		int[] degree = new int[vertexIndex.capacity()];
+
+		for (Edge edge : newedges) {
+			degree[vertexIndex.slotOf(edge.getVertexA())]++;
+			degree[vertexIndex.slotOf(edge.getVertexB())]++;
+		}
+		reserve(edges, degree);
+		for (Edge edge : newedges) {
+			((List) edges.get(vertexIndex.slotOf(edge.getVertexA()))).add(edge);
+			((List) edges.get(vertexIndex.slotOf(edge.getVertexB()))).add(edge);
+		}
+	}
+
+	/**
+	 * Ensures each ArrayList stored at a slot has room for the given number
+	 * of additional elements.
+	 *
+	 * @param lists
+	 *            List of ArrayLists indexed by slot
+	 * @param extra
+	 *            number of elements about to be added at each slot
+	 */
+	static void reserve(List lists, int[] extra) {
+		for (int slot = 0; slot < extra.length; slot++)
+			if (extra[slot] > 0) {
+				ArrayList list = (ArrayList) lists.get(slot);
+				list.ensureCapacity(list.size() + extra[slot]);
+			}
+	}
+
+	/**
+	 * Notifies the listeners that a batch of vertices and edges was added.
+	 * Listeners implementing <tt>GraphBatchListener</tt> receive a single
+	 * GraphBatchEvent, even if they are registered as both
+	 * GraphAddVertexListener and GraphAddEdgeListener, or nothing yet if a
+	 * batch is in progress. The other listeners receive one event per vertex
+	 * and per edge, as if they had been added one by one.
+	 */
+	protected void fireBatchAdded(List addedvertices, List<Edge> addededges) {
+		Iterator iterator;
+		Object listener;
+
+		if (addedvertices.isEmpty() && addededges.isEmpty())
+			return;
+
+		iterator = addvertexlistener.iterator();
+		while (iterator.hasNext()) {
+			listener = iterator.next();
+			if (!(listener instanceof GraphBatchListener))
+				for (Object v : addedvertices)
+					((GraphAddVertexListener) listener)
+							.vertexAdded(new GraphAddVertexEvent(this, v));
+		}
+		iterator = addedgelistener.iterator();
+		while (iterator.hasNext()) {
+			listener = iterator.next();
+			if (!(listener instanceof GraphBatchListener))
+				for (Edge edge : addededges)
+					((GraphAddEdgeListener) listener)
+							.edgeAdded(new GraphAddEdgeEvent(this, edge));
 		}
+
+		if (batch != null) {
+			for (Object v : addedvertices)
+				batch.vertexAdded(v);
+			for (Edge edge : addededges)
+				batch.edgeAdded(edge);
+		} else
+			GraphBatch.fire(new GraphBatchEvent(this, addedvertices,
+					addededges), new List[] { addvertexlistener,
+					addedgelistener });
 	}
 
 	public void remove(Object v) throws GraphException {
@@ -337,32 +638,28 @@ public class GraphImpl implements Graph {
 		Iterator iterator;
 		Edge edgetoremove;
 		Edge adjacentedge;
-		List connectedsetofvertex;
 
 		GraphRemoveVertexListener listener;
 
-		// Remove all the edges of the vertex.
+		// Remove all the edges of the vertex. This leaves the vertex alone
+		// in its connected set.
 		this.removeEdges(v);
 
-		// Remove the vertex from its connected set
-		connectedsetofvertex = this.getConnectedSet(v);
-		connectedsetofvertex.remove(v);
-		// If the connected set is now empty, remove the connectedset
-		if (connectedsetofvertex.size() == 0)
-			this.connectedSet.remove(connectedsetofvertex);
-
-		// Remove the adjacent edges entry of the vertex
-		this.edges.remove(this.vertices.indexOf(v));
-
 		// Notify all interested listeners that we are about to remove a vertex
-		iterator = this.removeedgelistener.iterator();
+		iterator = this.removevertexlistener.iterator();
 		while (iterator.hasNext()) {
 			listener = (GraphRemoveVertexListener) iterator.next();
-			listener.vertexRemoved(new GraphRemoveVertexEvent(this, v));
+			if (GraphBatch.notifies(batch, listener))
+				listener.vertexRemoved(new GraphRemoveVertexEvent(this, v));
 		}
 
-		// Finally, remove the vertex
-		this.vertices.remove(v);
+		// Finally, remove the vertex, its connected set and free its slot.
+		int slot = this.vertexIndex.remove(v);
+		connectedSets.remove(slot);
+		clearSlot(slot);
+		((VertexList) this.vertices).removeSlot(slot);
+		if (batch != null)
+			batch.vertexRemoved(v);
 	}
 
 	/**
@@ -383,7 +680,8 @@ public class GraphImpl implements Graph {
 		iterator = removeedgelistener.iterator();
 		while (iterator.hasNext()) {
 			listener = (GraphRemoveEdgeListener) iterator.next();
-			listener.edgeRemoved(new GraphRemoveEdgeEvent(this, edge));
+			if (GraphBatch.notifies(batch, listener))
+				listener.edgeRemoved(new GraphRemoveEdgeEvent(this, edge));
 		}
 
 		// Remove the edge from the vertices incident edges.
@@ -398,24 +696,65 @@ public class GraphImpl implements Graph {
 		allEdges.remove(edge);
 
 		// Determine if we need to unmerge a connected set.
-		// If there is no path from fromvertex to tovertex in either
-		// direction...
-		if (!this.isConnected(v1, v2)) {
-			// ... unmerge the connected sets. Do this by creating a new
-			// connected set starting with the tovertex ....
-			List newconnectedset = new ArrayList(10);
-			List v1connectedset;
-
-			newconnectedset = this.traverse(v2);
-
-			// ... and removing elements from the existing set that are in the
-			// new set.
-			v1connectedset = this.getConnectedSet(v1);
-			v1connectedset.removeAll(newconnectedset);
-
-			// .. and finally adding the new set to the set of connected sets.
-			connectedSet.add(newconnectedset);
+		// If there is no longer a path from v1 to v2 in either direction...
+		int slot1 = this.vertexIndex.slotOf(v1);
+		int slot2 = this.vertexIndex.slotOf(v2);
+		int[] half2 = this.reachableSlots(slot2, slot1);
+
+		if (half2 != null) {
+			// ... unmerge the connected set. Only the vertices of the set
+			// that contained the edge are relabeled.
+			int[] half1 = this.reachableSlots(slot1, -1);
+			connectedSets.split(half1, half2);
 		}
+		if (batch != null)
+			batch.edgeRemoved(edge);
+	}
+
+	/**
+	 * Collects the slots of the vertices reachable from a vertex, regardless
+	 * of the direction of edges. The traversal stops as soon as the stop
+	 * vertex is reached.
+	 * 
+	 * @param start
+	 *            slot of the vertex to start from
+	 * @param stop
+	 *            slot of the vertex to stop at, or -1 to collect all the
+	 *            vertices in the connected set of start
+	 * @return the reachable slots, or null if stop was reached.
+	 */
+	private int[] reachableSlots(int start, int stop) {
+		int[] reached = new int[10];
+		int head = 0, tail = 0;
+
+		if (start == stop)
+			return null;
+		connectedSets.startVisit();
+		connectedSets.visit(start);
+		reached[tail++] = start;
+		while (head < tail) {
+			int slot = reached[head++];
+			Iterator iterator = ((List) edges.get(slot)).iterator();
+			while (iterator.hasNext()) {
+				Edge edge = (Edge) iterator.next();
+				int opposite = this.vertexIndex.slotOf(edge.getVertexA());
+				if (opposite == slot)
+					opposite = this.vertexIndex.slotOf(edge.getVertexB());
+				if (opposite == stop)
+					return null;
+				if (connectedSets.visit(opposite)) {
+					if (tail == reached.length) {
+						int[] grown = new int[tail * 2];
+						System.arraycopy(reached, 0, grown, 0, tail);
+						reached = grown;
+					}
+					reached[tail++] = opposite;
+				}
+			}
+		}
+		int[] trimmed = new int[tail];
+		System.arraycopy(reached, 0, trimmed, 0, tail);
+		return trimmed;
 	}
 
 	/**
@@ -542,12 +881,19 @@ public class GraphImpl implements Graph {
 	 * Returns the connected sets in the Graph. Each List in the return List is
 	 * a List of vertices that are connected to each other, regardless of the
 	 * direction of the Edge conneting them together.
+	 * <p>
+	 * The returned List is a read-only view that follows the modifications of
+	 * the Graph. Its elements are only computed when the view is read after
+	 * the Graph has been modified, and list the vertices in the order they
+	 * were added.
 	 * 
 	 * @return List of List of connected vertices.
 	 */
 	public List getConnectedSet() {
 		// System.out.println("[GraphImpl] getConnectedSet");
-		return connectedSet;
+		if (connectedSetView == null)
+			connectedSetView = new ConnectedSetView();
+		return connectedSetView;
 	}
 
 	/**
@@ -559,23 +905,18 @@ public class GraphImpl implements Graph {
 	 */
 	public List getConnectedSet(Object v) {
 		// System.out.println("[GraphImpl] getConnectedSet");
-		Iterator iterator;
-		List currentconnectedSet;
+		int slot = vertexIndex.slotOf(v);
 
-		iterator = connectedSet.iterator();
-		while (iterator.hasNext()) {
-			currentconnectedSet = (List) iterator.next();
-			if (currentconnectedSet.contains(v))
-				return currentconnectedSet;
-		}
-
-		return null;
+		if (slot < 0)
+			return null;
+		return ((ConnectedSetView) getConnectedSet()).setOf(connectedSets
+				.find(slot));
 	}
 
 	/**
 	 * Merges the connected sets to which Object v1 and Object v2 belongs, if
-	 * they are not yet connected. This ma result in decreasing the number of
-	 * Lists in the connectedSet List.
+	 * they are not yet connected. This may result in decreasing the number of
+	 * connected sets.
 	 * 
 	 * @param v1
 	 *            Object whose connected set you want merged with the connected
@@ -586,26 +927,11 @@ public class GraphImpl implements Graph {
 	 */
 	public void mergeconnectedSet(Object v1, Object v2) {
 		// System.out.println("[GraphImpl] mergeconnectedSet");
-		Iterator iterator;
-		List connectedSetv1;
-		List connectedSetv2;
+		int slot1 = vertexIndex.slotOf(v1);
+		int slot2 = vertexIndex.slotOf(v2);
 
-		// First, find to which connected component set vertices v1 and v2
-		// belong
-		connectedSetv1 = this.getConnectedSet(v1);
-		connectedSetv2 = this.getConnectedSet(v2);
-
-		// Then merge one to the other. Merge the smaller set to the bigger set
-		// Then reduce the size of the connectedSet vector by 1.
-		if (connectedSetv1 == connectedSetv2)
-			return;
-		else if (connectedSetv1.size() < connectedSetv2.size()) {
-			connectedSetv2.addAll(connectedSetv1);
-			connectedSet.remove(connectedSet.indexOf(connectedSetv1));
-		} else {
-			connectedSetv1.addAll(connectedSetv2);
-			connectedSet.remove(connectedSet.indexOf(connectedSetv2));
-		}
+		if (slot1 >= 0 && slot2 >= 0)
+			connectedSets.union(slot1, slot2);
 	}
 
 	/**
@@ -650,12 +976,12 @@ public class GraphImpl implements Graph {
 	 */
 	public boolean isConnected(Object v1, Object v2) {
 		// System.out.println("[GraphImpl] isConnected");
-		List connectedsetv1 = this.getConnectedSet(v1);
+		int slot1 = vertexIndex.slotOf(v1);
+		int slot2 = vertexIndex.slotOf(v2);
 
-		if (connectedsetv1 != null && connectedsetv1.contains(v2))
-			return true;
-		else
+		if (slot1 < 0 || slot2 < 0)
 			return false;
+		return connectedSets.find(slot1) == connectedSets.find(slot2);
 	}
 
 	/**
@@ -830,6 +1156,51 @@ public class GraphImpl implements Graph {
 		removevertexlistener.remove(listener);
 	}
 
+	/**
+	 * Starts a batch of changes.
+	 * 
+	 * @see Graph#beginBatch()
+	 */
+	public void beginBatch() {
+		if (batch != null)
+			throw new IllegalStateException("Batch already in progress");
+		batch = new GraphBatch(this);
+	}
+
+	/**
+	 * Ends the batch of changes in progress and notifies the
+	 * GraphBatchListeners registered as any kind of listener.
+	 * 
+	 * @see Graph#commit()
+	 */
+	public void commit() {
+		GraphBatch committed = batch;
+
+		if (committed == null)
+			throw new IllegalStateException("No batch in progress");
+		batch = null;
+		GraphBatch.fire(committed.createEvent(), new List[] {
+				addvertexlistener, addedgelistener, removevertexlistener,
+				removeedgelistener });
+	}
+
+	/**
+	 * Ends the batch of changes in progress by undoing its changes.
+	 * 
+	 * @see Graph#rollback()
+	 */
+	public void rollback() throws GraphException {
+		if (batch == null)
+			throw new IllegalStateException("No batch in progress");
+		// The batch stays in progress while undoing so that
+		// GraphBatchListeners are not notified
+		try {
+			batch.undo();
+		} finally {
+			batch = null;
+		}
+	}
+
 	/**
 	 * Returns a String representation of the Graph. The string returned in the
 	 * form: "Vertices: " + this.vertices.toString() + "\n " + "Edges: " +
@@ -862,25 +1233,25 @@ public class GraphImpl implements Graph {
 	 */
 	public Object findVertex(Object o) {
 		// System.out.println("[GraphImpl] findVertex");
-		Iterator it = vertices.iterator();
-		while (it.hasNext()) {
-			Object v = it.next();
-			Object data = v;
-			if ((data == null)) {
-				if (o == null)
-					return v;
-			} else {
-				if (data.equals(o))
-					return v;
-			}
-		}
-		return null;
+		int slot = vertexIndex.slotOf(o);
+		return slot < 0 ? null : vertexIndex.vertexAt(slot);
 	}
 
 	public Collection<Edge> getAllEdges() {
 		return allEdges;
 	}
 
+	/**
+	 * Returns an immutable snapshot of the Graph, storing its adjacency in
+	 * flat arrays. The snapshot implements Graph and WeightedGraph and can be
+	 * given to algorithms in place of the Graph when it is no longer modified.
+	 * 
+	 * @return a FrozenGraph with the same vertices and edges.
+	 */
+	public FrozenGraph freeze() {
+		return new FrozenGraph(this);
+	}
+
 	@Override
 	public Object clone() {
 		try {
@@ -902,4 +1273,62 @@ public class GraphImpl implements Graph {
 		assert false;
 		return null;
 	}
+
+	/**
+	 * Read-only List of the connected sets of the Graph. The connected sets
+	 * are materialized from connectedSets the first time the List is read
+	 * after a modification of the Graph.
+	 */
+	private class ConnectedSetView extends AbstractList {
+
+		/**
+		 * Version of connectedSets the materialized sets correspond to.
+		 */
+		private int version = -1;
+
+		/**
+		 * Materialized connected sets, in the order of their first vertex.
+		 */
+		private List sets;
+
+		/**
+		 * Materialized connected set of each root slot.
+		 */
+		private Map setsByRoot;
+
+		private void materialize() {
+			if (version == connectedSets.version())
+				return;
+			sets = new ArrayList(connectedSets.count());
+			setsByRoot = new HashMap();
+			Iterator iterator = vertices.iterator();
+			while (iterator.hasNext()) {
+				Object vertex = iterator.next();
+				Integer root = new Integer(connectedSets.find(vertexIndex
+						.slotOf(vertex)));
+				List set = (List) setsByRoot.get(root);
+				if (set == null) {
+					set = new ArrayList();
+					setsByRoot.put(root, set);
+					sets.add(set);
+				}
+				set.add(vertex);
+			}
+			version = connectedSets.version();
+		}
+
+		List setOf(int root) {
+			materialize();
+			return (List) setsByRoot.get(new Integer(root));
+		}
+
+		public Object get(int index) {
+			materialize();
+			return sets.get(index);
+		}
+
+		public int size() {
+			return connectedSets.count();
+		}
+	}
 }
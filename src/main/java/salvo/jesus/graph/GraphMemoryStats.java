@@ -0,0 +1,289 @@
+package salvo.jesus.graph;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Estimated heap footprint of a graph, in bytes per structure. Typical use
+ * is:
+ *
+ * <pre>
+ * GraphMemoryStats stats = GraphMemoryStats.of(graph);
+ * long adjacency = stats.getBytes(GraphMemoryStats.ADJACENCY);
+ * </pre>
+ *
+ * Sizes are estimated for a 64-bit JVM with compressed references: 12 byte
+ * object headers, 16 byte array headers, 4 byte references and objects
+ * aligned on 8 bytes. Objects are counted by their shallow size, computed
+ * from their declared fields, except Strings, which are counted with their
+ * characters. The objects referenced by vertices and edge data are not
+ * counted.
+ * <p>
+ * An ArrayList is counted with the capacity it reaches when grown from the
+ * default capacity of 10, or with its size if the graph was trimmed by
+ * <tt>GraphImpl.trimToSize()</tt> and nothing was added since.
+ * <p>
+ * The stats of a GraphImpl cover all its structures, each subclass adding
+ * its own. For other graphs, only the vertices and edges are counted.
+ *
+ * @author nono
+ * @version $Id$
+ * @see GraphImpl#trimToSize()
+ */
+public class GraphMemoryStats {
+
+	/**
+	 * The vertices and the list holding them.
+	 */
+	public static final String VERTICES = "vertices";
+
+	/**
+	 * The index from vertices to their slot.
+	 */
+	public static final String VERTEX_INDEX = "vertex index";
+
+	/**
+	 * The lists of incident, outgoing and incoming edges of each vertex.
+	 */
+	public static final String ADJACENCY = "adjacency";
+
+	/**
+	 * The edges and their data.
+	 */
+	public static final String EDGES = "edges";
+
+	/**
+	 * The set of all the edges of the graph.
+	 */
+	public static final String EDGE_SET = "edge set";
+
+	/**
+	 * The union-find forest of connected sets.
+	 */
+	public static final String CONNECTED_SETS = "connected sets";
+
+	/**
+	 * The index of outgoing edges by sink of directed graphs.
+	 */
+	public static final String SINK_INDEX = "sink index";
+
+	/**
+	 * The topological order of directed acyclic graphs.
+	 */
+	public static final String TOPOLOGICAL_ORDER = "topological order";
+
+	/**
+	 * The parents, children and depths of the nodes of trees.
+	 */
+	public static final String TREE_INDEX = "tree index";
+
+	/**
+	 * The visual vertices and edges of a VisualGraph.
+	 */
+	public static final String VISUAL_COMPONENTS = "visual components";
+
+	static final int OBJECT_HEADER = 12;
+
+	static final int ARRAY_HEADER = 16;
+
+	static final int REFERENCE = 4;
+
+	private static final int DEFAULT_CAPACITY = 10;
+
+	private static final Map<Class, Long> SHALLOW_SIZES = new ConcurrentHashMap<Class, Long>();
+
+	private final Map<String, Long> bytes = new LinkedHashMap<String, Long>();
+
+	/**
+	 * Returns the estimated footprint of a graph.
+	 */
+	public static GraphMemoryStats of(Graph graph) {
+		GraphMemoryStats stats = new GraphMemoryStats();
+
+		if (graph instanceof GraphImpl)
+			((GraphImpl) graph).addMemoryStats(stats);
+		else {
+			long size = 0;
+			for (Iterator vertices = graph.getVerticesIterator(); vertices
+					.hasNext();)
+				size += sizeOf(vertices.next());
+			stats.add(VERTICES, size);
+			stats.add(EDGES, sizeOfEdges(graph.getAllEdges()));
+		}
+		return stats;
+	}
+
+	/**
+	 * Adds bytes to a structure.
+	 */
+	public void add(String structure, long size) {
+		Long previous = bytes.get(structure);
+		bytes.put(structure, new Long(previous == null ? size : previous
+				.longValue()
+				+ size));
+	}
+
+	/**
+	 * Returns the bytes of a structure, or 0 if the graph has no such
+	 * structure.
+	 */
+	public long getBytes(String structure) {
+		Long size = bytes.get(structure);
+		return size == null ? 0 : size.longValue();
+	}
+
+	/**
+	 * Returns the bytes of all the structures.
+	 */
+	public long getTotalBytes() {
+		long total = 0;
+		for (Long size : bytes.values())
+			total += size.longValue();
+		return total;
+	}
+
+	/**
+	 * Returns the bytes of each structure, in the order they were added.
+	 */
+	public Map<String, Long> toMap() {
+		return Collections.unmodifiableMap(bytes);
+	}
+
+	public String toString() {
+		StringBuffer buffer = new StringBuffer();
+		for (Map.Entry<String, Long> entry : bytes.entrySet())
+			buffer.append(entry.getKey()).append(": ").append(entry.getValue())
+					.append('\n');
+		return buffer.append("total: ").append(getTotalBytes()).toString();
+	}
+
+	// ------------------------ estimates
+
+	/**
+	 * Returns the estimated size of an object: the shallow size of its class,
+	 * or the size of an array or String. Returns 0 for null.
+	 */
+	public static long sizeOf(Object object) {
+		if (object == null)
+			return 0;
+		if (object instanceof String)
+			return sizeOf((String) object);
+		Class type = object.getClass();
+		if (type.isArray())
+			return sizeOfArray(type.getComponentType(), java.lang.reflect.Array
+					.getLength(object));
+		return shallowSizeOf(type);
+	}
+
+	/**
+	 * Returns the estimated size of a String and its characters, stored one
+	 * byte each if they are all Latin-1. Returns 0 for null.
+	 */
+	public static long sizeOf(String string) {
+		if (string == null)
+			return 0;
+		int length = string.length();
+		int width = 1;
+		for (int i = 0; i < length && width == 1; i++)
+			if (string.charAt(i) > 0xFF)
+				width = 2;
+		return shallowSizeOf(String.class) + align(ARRAY_HEADER + length * width);
+	}
+
+	/**
+	 * Returns the estimated size of an instance of a class, from the fields
+	 * it declares and inherits.
+	 */
+	public static long shallowSizeOf(Class type) {
+		Long size = SHALLOW_SIZES.get(type);
+		if (size == null) {
+			long fields = 0;
+			for (Class c = type; c != null; c = c.getSuperclass()) {
+				Field[] declared = c.getDeclaredFields();
+				for (int i = 0; i < declared.length; i++)
+					if (!Modifier.isStatic(declared[i].getModifiers()))
+						fields += sizeOfField(declared[i].getType());
+			}
+			size = new Long(align(OBJECT_HEADER + fields));
+			SHALLOW_SIZES.put(type, size);
+		}
+		return size.longValue();
+	}
+
+	private static int sizeOfField(Class type) {
+		if (type == long.class || type == double.class)
+			return 8;
+		if (type == int.class || type == float.class)
+			return 4;
+		if (type == short.class || type == char.class)
+			return 2;
+		if (type == byte.class || type == boolean.class)
+			return 1;
+		return REFERENCE;
+	}
+
+	/**
+	 * Returns the estimated size of an array.
+	 */
+	public static long sizeOfArray(Class componentType, int length) {
+		return align(ARRAY_HEADER + (long) length * sizeOfField(componentType));
+	}
+
+	/**
+	 * Returns the estimated size of a list, not counting its elements. Lists
+	 * other than ArrayLists are counted as linked lists.
+	 *
+	 * @param trimmed
+	 *            whether an ArrayList is known to have no spare room.
+	 */
+	public static long sizeOfList(List list, boolean trimmed) {
+		if (list == null)
+			return 0;
+		int size = list.size();
+		if (!(list instanceof ArrayList))
+			return shallowSizeOf(list.getClass()) + (long) size
+					* align(OBJECT_HEADER + 3 * REFERENCE);
+		int capacity = size;
+		if (!trimmed) {
+			capacity = DEFAULT_CAPACITY;
+			while (capacity < size)
+				capacity += capacity >> 1;
+		}
+		return shallowSizeOf(ArrayList.class)
+				+ sizeOfArray(Object.class, capacity);
+	}
+
+	/**
+	 * Returns the estimated size of a HashMap or HashSet of a given size, not
+	 * counting its keys and values: the map, its table and its entries.
+	 */
+	public static long sizeOfHashMap(int size) {
+		int table = 16;
+		while (table * 3 / 4 < size)
+			table <<= 1;
+		return shallowSizeOf(java.util.HashMap.class)
+				+ sizeOfArray(Object.class, table) + (long) size
+				* align(OBJECT_HEADER + 4 + 3 * REFERENCE);
+	}
+
+	/**
+	 * Returns the estimated size of edges and of their data.
+	 */
+	static long sizeOfEdges(Iterable<? extends Edge> edges) {
+		long size = 0;
+		for (Edge edge : edges)
+			size += sizeOf(edge) + sizeOf(edge.getData());
+		return size;
+	}
+
+	static long align(long size) {
+		return (size + 7) & ~7L;
+	}
+}
@@ -75,10 +75,29 @@ public class GraphOps {
 
 	}
 
+	/**
+	 * Returns a read-only view of the subgraph of <code>graph</code> made of
+	 * the vertices and edges matching filter. Unlike
+	 * {@link #filter(DirectedGraph, GraphFilter)}, nothing is copied: the view
+	 * filters the graph as it is read and reflects its later changes.
+	 * 
+	 * @param graph
+	 *            graph object to view. May not be null
+	 * @param filter
+	 * @return a view of a subgraph of graph
+	 * @see DirectedGraphView#materialize()
+	 */
+	public static DirectedGraphView view(DirectedGraph graph,
+			GraphFilter filter) {
+		return new DirectedGraphView(graph, filter);
+	}
+
 	/**
 	 * Construct a new Graph object from a given Graph and a filter. The
 	 * resultant graph has edges and vertices from original graph which match
-	 * filter in effect being a subgraph of <code>graph</code>
+	 * filter in effect being a subgraph of <code>graph</code>. Algorithms that
+	 * only read the subgraph should rather use
+	 * {@link #view(DirectedGraph, GraphFilter)}.
 	 * 
 	 * @param graph
 	 *            graph object to filter. May not be null
@@ -70,7 +70,7 @@ public class PathImpl extends GraphImpl implements Path {
         }
 
         // Add the vertex to the Graph only if it is not existing yet.
-        if( !this.vertices.contains( newObject )) {
+        if( !this.containsVertex( newObject )) {
             super.add( newObject );
         }
 
@@ -98,7 +98,9 @@ public class PathImpl extends GraphImpl implements Path {
     /**
      * Adds an <tt>Edge</tt> into <tt>Path</tt> if and only if the
      * <tt>vertexA</tt> property of the <tt>Edge</tt> being added
-     * is the last <tt>Vertex</tt> added to the path.
+     * is the last <tt>Vertex</tt> added to the path. An <tt>Edge</tt> that
+     * is not a <tt>DirectedEdge</tt> may also be added from its
+     * <tt>vertexB</tt>, the path then going on to its <tt>vertexA</tt>.
      *
      * @params      edge       The Edge to be added to the Path
      * @throws      IllegalPathException    Thrown when the <tt>vertexA</tt>
@@ -106,24 +108,43 @@ public class PathImpl extends GraphImpl implements Path {
      * in the path.
      */
     public void addEdge( Edge edge ) throws GraphException {
-        Object  lastObject = null;
-        Object  v1 = edge.getVertexA();
-        boolean isStackEmpty = this.vertexStack.empty();
-
-        // Add the Edge only if the Edge's vertexA is the last Object in the stack.
-        if( !isStackEmpty ) {
-            lastObject =  this.vertexStack.peek();
-        }
+        Object  nextObject = this.nextVertex( edge );
 
-        if( lastObject != null && lastObject == v1 ) {
+        if( nextObject != null ) {
+            // Add the vertex ourselves, as the ancestor's addEdge() would
+            // call our add( Object )
+            if( !this.containsVertex( nextObject )) {
+                super.add( nextObject );
+            }
             super.addEdge( edge );
-            this.vertexStack.push( edge.getVertexB() );
+            this.vertexStack.push( nextObject );
         }
         else {
             throw new IllegalPathException();
         }
     }
 
+    /**
+     * Returns the <tt>Vertex</tt> the path would go on to if the <tt>Edge</tt>
+     * were added, or null if the <tt>Edge</tt> does not start from the last
+     * <tt>Vertex</tt> of the path.
+     */
+    Object nextVertex( Edge edge ) {
+        Object  lastObject;
+
+        if( this.vertexStack.empty() ) {
+            return null;
+        }
+        lastObject = this.vertexStack.peek();
+        if( lastObject == edge.getVertexA() ) {
+            return edge.getVertexB();
+        }
+        if( lastObject == edge.getVertexB() && !( edge instanceof DirectedEdge )) {
+            return edge.getVertexA();
+        }
+        return null;
+    }
+
     /**
      * Throws a NoSuchMethodException as this method is not directly supported by the
      * <tt>Path</tt>. You should use the method <tt>remove()</tt> instead.
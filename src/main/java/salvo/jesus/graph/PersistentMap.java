@@ -0,0 +1,266 @@
+package salvo.jesus.graph;
+
+import java.util.Collection;
+
+/**
+ * An immutable hash map whose modifications return a new map sharing all
+ * but O(log n) of its structure with the old one. It is a hash array mapped
+ * trie: each level of the trie is indexed by 5 bits of the hash code of the
+ * keys, and only the nodes on the path to a key are copied when it is added
+ * or removed. Keys whose hash codes are equal are chained in the same leaf.
+ * <p>
+ * Keys must not be null.
+ *
+ * @author nono
+ * @version $Id$
+ */
+final class PersistentMap<K, V> {
+
+	private static final int BITS = 5;
+
+	private static final int MASK = (1 << BITS) - 1;
+
+	/**
+	 * A key and its value, followed by the entries whose keys have the same
+	 * hash code.
+	 */
+	private static final class Entry {
+
+		final Object key;
+
+		final int hash;
+
+		final Object value;
+
+		final Entry next;
+
+		Entry(Object key, int hash, Object value, Entry next) {
+			this.key = key;
+			this.hash = hash;
+			this.value = value;
+			this.next = next;
+		}
+	}
+
+	/**
+	 * A level of the trie. Each bit set in the bitmap has an Entry or a Node
+	 * in the array, in the order of the bits.
+	 */
+	private static final class Node {
+
+		static final Node EMPTY = new Node(0, new Object[0]);
+
+		final int bitmap;
+
+		final Object[] array;
+
+		Node(int bitmap, Object[] array) {
+			this.bitmap = bitmap;
+			this.array = array;
+		}
+
+		int index(int bit) {
+			return Integer.bitCount(bitmap & (bit - 1));
+		}
+
+		Node replace(int bit, Object slot) {
+			Object[] copy = array.clone();
+			copy[index(bit)] = slot;
+			return new Node(bitmap, copy);
+		}
+
+		Node insert(int bit, Object slot) {
+			int index = index(bit);
+			Object[] copy = new Object[array.length + 1];
+			System.arraycopy(array, 0, copy, 0, index);
+			copy[index] = slot;
+			System.arraycopy(array, index, copy, index + 1, array.length
+					- index);
+			return new Node(bitmap | bit, copy);
+		}
+
+		Node delete(int bit) {
+			int index = index(bit);
+			Object[] copy = new Object[array.length - 1];
+			System.arraycopy(array, 0, copy, 0, index);
+			System.arraycopy(array, index + 1, copy, index, copy.length
+					- index);
+			return new Node(bitmap & ~bit, copy);
+		}
+	}
+
+	private static final PersistentMap EMPTY = new PersistentMap(Node.EMPTY,
+			0);
+
+	private final Node root;
+
+	private final int size;
+
+	private PersistentMap(Node root, int size) {
+		this.root = root;
+		this.size = size;
+	}
+
+	/**
+	 * Returns the empty map.
+	 */
+	@SuppressWarnings("unchecked")
+	static <K, V> PersistentMap<K, V> empty() {
+		return EMPTY;
+	}
+
+	private static int hash(Object key) {
+		int h = key.hashCode();
+		return h ^ (h >>> 16);
+	}
+
+	private static int bit(int hash, int shift) {
+		return 1 << ((hash >>> shift) & MASK);
+	}
+
+	int size() {
+		return size;
+	}
+
+	@SuppressWarnings("unchecked")
+	V get(Object key) {
+		int hash = hash(key);
+		Node node = root;
+
+		for (int shift = 0;; shift += BITS) {
+			int bit = bit(hash, shift);
+			if ((node.bitmap & bit) == 0)
+				return null;
+			Object slot = node.array[node.index(bit)];
+			if (slot instanceof Node) {
+				node = (Node) slot;
+				continue;
+			}
+			for (Entry e = (Entry) slot; e != null; e = e.next)
+				if (e.hash == hash && e.key.equals(key))
+					return (V) e.value;
+			return null;
+		}
+	}
+
+	/**
+	 * Returns a map where the key has the given value.
+	 */
+	PersistentMap<K, V> with(K key, V value) {
+		int hash = hash(key);
+		boolean[] added = new boolean[1];
+		Node node = put(root, 0, new Entry(key, hash, value, null), added);
+		return new PersistentMap<K, V>(node, added[0] ? size + 1 : size);
+	}
+
+	/**
+	 * Returns a map without the key, or this map if it has no such key.
+	 */
+	PersistentMap<K, V> without(Object key) {
+		Node node = remove(root, 0, key, hash(key));
+
+		if (node == root)
+			return this;
+		return new PersistentMap<K, V>(node, size - 1);
+	}
+
+	/**
+	 * Adds the values of this map to a Collection, in no particular order.
+	 */
+	@SuppressWarnings("unchecked")
+	void values(Collection<? super V> values) {
+		values(root, (Collection) values);
+	}
+
+	private static void values(Node node, Collection values) {
+		for (Object slot : node.array) {
+			if (slot instanceof Node)
+				values((Node) slot, values);
+			else
+				for (Entry e = (Entry) slot; e != null; e = e.next)
+					values.add(e.value);
+		}
+	}
+
+	private static Node put(Node node, int shift, Entry entry,
+			boolean[] added) {
+		int bit = bit(entry.hash, shift);
+
+		if ((node.bitmap & bit) == 0) {
+			added[0] = true;
+			return node.insert(bit, entry);
+		}
+		Object slot = node.array[node.index(bit)];
+		if (slot instanceof Node)
+			return node.replace(bit, put((Node) slot, shift + BITS, entry,
+					added));
+		Entry chain = (Entry) slot;
+		if (chain.hash == entry.hash)
+			return node.replace(bit, putInChain(chain, entry, added));
+		added[0] = true;
+		return node.replace(bit, split(shift + BITS, chain, entry));
+	}
+
+	private static Entry putInChain(Entry chain, Entry entry, boolean[] added) {
+		if (chain == null) {
+			added[0] = true;
+			return entry;
+		}
+		if (chain.key.equals(entry.key))
+			return new Entry(entry.key, entry.hash, entry.value, chain.next);
+		return new Entry(chain.key, chain.hash, chain.value, putInChain(
+				chain.next, entry, added));
+	}
+
+	/**
+	 * Returns a Node holding two chains whose hash codes differ.
+	 */
+	private static Node split(int shift, Entry chain1, Entry chain2) {
+		int bit1 = bit(chain1.hash, shift);
+		int bit2 = bit(chain2.hash, shift);
+
+		if (bit1 == bit2)
+			return new Node(bit1, new Object[] { split(shift + BITS, chain1,
+					chain2) });
+		// bit1 comes first if it is below bit2, bit2 may be the sign bit
+		return new Node(bit1 | bit2, (bit1 & (bit2 - 1)) != 0 ? new Object[] {
+				chain1, chain2 } : new Object[] { chain2, chain1 });
+	}
+
+	private static Node remove(Node node, int shift, Object key, int hash) {
+		int bit = bit(hash, shift);
+
+		if ((node.bitmap & bit) == 0)
+			return node;
+		Object slot = node.array[node.index(bit)];
+		if (slot instanceof Node) {
+			Node child = remove((Node) slot, shift + BITS, key, hash);
+			if (child == slot)
+				return node;
+			if (child.array.length == 0)
+				return node.delete(bit);
+			// A single chain left moves up in place of its Node
+			if (child.array.length == 1 && child.array[0] instanceof Entry)
+				return node.replace(bit, child.array[0]);
+			return node.replace(bit, child);
+		}
+		Entry chain = (Entry) slot;
+		if (chain.hash != hash)
+			return node;
+		Entry removed = removeFromChain(chain, key);
+		if (removed == chain)
+			return node;
+		return removed == null ? node.delete(bit) : node.replace(bit, removed);
+	}
+
+	private static Entry removeFromChain(Entry chain, Object key) {
+		if (chain == null)
+			return null;
+		if (chain.key.equals(key))
+			return chain.next;
+		Entry next = removeFromChain(chain.next, key);
+		if (next == chain.next)
+			return chain;
+		return new Entry(chain.key, chain.hash, chain.value, next);
+	}
+}
@@ -50,8 +50,11 @@ public class SimplePathImpl extends PathImpl implements SimplePath {
      */
     public void addEdge( Edge edge ) throws GraphException {
 
-        // Make sure the vertexB() is not in the Path already
-        this.validatePath( edge.getVertexB() );
+        // Make sure the vertex the edge leads to is not in the Path already
+        Object  nextObject = this.nextVertex( edge );
+        if( nextObject != null ) {
+            this.validatePath( nextObject );
+        }
         // The ancestor method will make sure that the last
         // Object in the stack is the same as vertexA()
         super.addEdge( edge );
@@ -62,7 +65,7 @@ public class SimplePathImpl extends PathImpl implements SimplePath {
      * Otherwise, returns true.
      */
     private void validatePath( Object vertex ) throws IllegalPathException {
-        if( this.vertices.contains( vertex )) {
+        if( this.containsVertex( vertex )) {
             throw new IllegalPathException( "Adding the Object will result in a non-simple Path.");
         }
     }
@@ -57,6 +57,24 @@ public interface Tree extends Graph {
      */
     public int getDepth( Object node ) throws GraphException;
 
+    /**
+     * Returns the ancestor of a node at some distance: its parent at distance
+     * 1, its grandparent at distance 2, and so on. Returns null if the node is
+     * not that deep.
+     */
+    public Object getAncestor( Object node, int distance ) throws GraphException;
+
+    /**
+     * Determines if a node is on the path from the root to another node.
+     * A node is an ancestor of itself.
+     */
+    public boolean isAncestor( Object ancestor, Object node ) throws GraphException;
+
+    /**
+     * Returns the deepest node that is an ancestor of both nodes.
+     */
+    public Object getLowestCommonAncestor( Object node1, Object node2 ) throws GraphException;
+
     /**
      * Returns a <tt>List</tt> of the leaves of ths <tt>Tree</tt>.
      */
@@ -29,6 +29,13 @@ public class TreeImpl extends GraphImpl implements Tree {
      */
     Object  rootVertex;
 
+    /**
+     * Parent, depth, children and ancestors of each node relative to the
+     * root, maintained by <tt>addNode()</tt> and <tt>remove()</tt> and
+     * rebuilt when the <tt>Tree</tt> is otherwise modified.
+     */
+    transient TreeIndex  index;
+
     /**
      * Creates an instance of a <tt>TreeImpl</tt>
      */
@@ -36,16 +43,61 @@ public class TreeImpl extends GraphImpl implements Tree {
         super();
     }
 
+    protected void initData() {
+        super.initData();
+        this.index = new TreeIndex();
+    }
+
+    protected void initSlot( int slot ) {
+        super.initSlot( slot );
+        if( this.index != null )
+            this.index.grow( slot );
+    }
+
+    protected void clearSlot( int slot ) {
+        super.clearSlot( slot );
+        if( this.index != null )
+            this.index.clear( slot );
+    }
+
+    protected void addMemoryStats( GraphMemoryStats stats ) {
+        super.addMemoryStats( stats );
+        if( this.index != null )
+            stats.add( GraphMemoryStats.TREE_INDEX, this.index.memorySize() );
+    }
+
+    /**
+     * Returns the index of the <tt>Tree</tt>, rebuilding it from the root
+     * if it has been invalidated.
+     */
+    private TreeIndex index() {
+        if( this.index == null ) {
+            // Deserialized trees rebuild their index
+            this.index = new TreeIndex();
+            for( int slot = 0; slot < this.vertexIndex.capacity(); slot++ )
+                this.index.grow( slot );
+        }
+        if( !this.index.isValid() )
+            this.index.rebuild( this, this.rootVertex );
+        return this.index;
+    }
+
+    private void invalidate() {
+        if( this.index != null )
+            this.index.invalidate();
+    }
+
     /**
      * Sets the root of the <tt>Tree</tt>. The
      * <tt>Vertex</tt> specified must already be in the <tt>Tree</tt>.
      * Otherwise, a <tt>NoSuchVertexException</tt> is returned.
      */
     public void setRoot( Object rootVertex ) throws GraphException {
-        if( !this.vertices.contains( rootVertex  )) {
+        if( !this.containsVertex( rootVertex )) {
             throw new NoSuchVertexException();
         }
         this.rootVertex = rootVertex;
+        this.invalidate();
     }
 
     /**
@@ -74,7 +126,9 @@ public class TreeImpl extends GraphImpl implements Tree {
     }
 
     /**
-     * Returns the parent node of the node specified by the argument.
+     * Returns the parent node of the node specified by the argument, or null
+     * if it is the root or is not connected to the root. This takes constant
+     * time.
      * @throws  EmptyTreeException is the <tt>Tree</tt> is empty.
      */
     public Object getParent( Object vertex ) throws GraphException {
@@ -83,28 +137,17 @@ public class TreeImpl extends GraphImpl implements Tree {
             throw new EmptyTreeException();
         }
 
-        List    visited = new ArrayList( 10 );
-        GraphTraversal  traversal = new DepthFirstGraphTraversal( this );
-        Object  parent = null;
-        List    adjacentVertices = this.getAdjacentVertices( vertex );
-
-        // Now do a depth-first traversal until we stop at our vertex
-        traversal.traverse( this.rootVertex, visited, new StopAtVisitor( vertex ));
-
-        // Now starting from the last element in the vertices that were visited,
-        // find the first Object which is adjacent to the Object we are interested in.
-        int size = visited.size();
-        for( int i = size; i > 0; i-- ) {
-            parent =  visited.get( i - 1 );
-            if( adjacentVertices.contains( parent )) {
-                return parent;
-            }
-        }
-        return null;
+        int slot = this.vertexIndex.slotOf( vertex );
+        if( slot == -1 )
+            return null;
+        int parent = this.index().parentOf( slot );
+        return parent == -1 ? null : this.vertexIndex.vertexAt( parent );
     }
 
     /**
-     * Returns the child nodes of the node specified by the argument.
+     * Returns the child nodes of the node specified by the argument, in the
+     * order they were added. The children of a node not connected to the root
+     * are all its adjacent nodes.
      * @throws  EmptyTreeException is the <tt>Tree</tt> is empty.
      */
     public List getChildren( Object vertex ) throws GraphException {
@@ -113,12 +156,13 @@ public class TreeImpl extends GraphImpl implements Tree {
             throw new EmptyTreeException();
         }
 
-        // The children of a node is all its adjacent vertices
-        // minus its parent.
-        List    children = this.getAdjacentVertices( vertex );
-
-        children.remove( this.getParent( vertex ) );
-        return children;
+        int slot = this.vertexIndex.slotOf( vertex );
+        if( slot == -1 )
+            return new ArrayList( 0 );
+        List    children = this.index().childrenOf( slot );
+        if( children == null )
+            return this.getAdjacentVertices( vertex );
+        return new ArrayList( children );
     }
 
     /**
@@ -191,23 +235,87 @@ public class TreeImpl extends GraphImpl implements Tree {
     }
 
     /**
-     * Returns the depth of the node in the <tt>Tree</tt>.
+     * Returns the depth of the node in the <tt>Tree</tt>, 1 for the root. Nodes
+     * not connected to the root have a depth of 1 too. This takes constant time.
      * @throws  NoSuchVertexException if the specified vertex is not in the <tt>Tree</tt>.
+     * @throws  EmptyTreeException is the <tt>Tree</tt> is empty.
      */
     public int getDepth( Object node ) throws GraphException {
-        if( !this.vertices.contains( node )) {
+        if( !this.containsVertex( node )) {
             throw new NoSuchVertexException();
         }
+        if( this.rootVertex == null ) {
+            throw new EmptyTreeException();
+        }
 
-        Object  parent = this.getParent( node );
-        int     depth = 1;
+        return Math.max( 1, this.index().depthOf( this.vertexIndex.slotOf( node )));
+    }
 
-        while( parent != null ) {
-            parent = this.getParent( parent );
-            depth++;
-        }
+    /**
+     * Returns the ancestor of a node at some distance: its parent at distance
+     * 1, its grandparent at distance 2, and so on. This takes O(log depth) time.
+     *
+     * @param   node        the node whose ancestor is wanted
+     * @param   distance    the number of edges between the node and its ancestor
+     * @return  the ancestor, or null if the node is not connected to the root or
+     *          is not that deep.
+     * @throws  NoSuchVertexException if the specified vertex is not in the <tt>Tree</tt>.
+     * @throws  EmptyTreeException is the <tt>Tree</tt> is empty.
+     */
+    public Object getAncestor( Object node, int distance ) throws GraphException {
+        int slot = this.slotOfNode( node );
+
+        if( distance < 0 )
+            throw new IllegalArgumentException( "Negative distance: " + distance );
+        int ancestor = this.index().ancestor( slot, distance );
+        return ancestor == -1 ? null : this.vertexIndex.vertexAt( ancestor );
+    }
+
+    /**
+     * Determines if a node is on the path from the root to another node,
+     * that other node included. This takes O(log depth) time.
+     *
+     * @throws  NoSuchVertexException if either vertex is not in the <tt>Tree</tt>.
+     * @throws  EmptyTreeException is the <tt>Tree</tt> is empty.
+     */
+    public boolean isAncestor( Object ancestor, Object node ) throws GraphException {
+        int ancestorSlot = this.slotOfNode( ancestor );
+        int slot = this.slotOfNode( node );
+        TreeIndex   index = this.index();
+        int distance = index.depthOf( slot ) - index.depthOf( ancestorSlot );
+
+        if( index.depthOf( ancestorSlot ) == 0 || distance < 0 )
+            return false;
+        return index.ancestor( slot, distance ) == ancestorSlot;
+    }
 
-        return depth;
+    /**
+     * Returns the deepest node that is an ancestor of both nodes, as defined by
+     * <tt>isAncestor()</tt>. This takes O(log depth) time.
+     *
+     * @return  the lowest common ancestor, or null if either node is not
+     *          connected to the root.
+     * @throws  NoSuchVertexException if either vertex is not in the <tt>Tree</tt>.
+     * @throws  EmptyTreeException is the <tt>Tree</tt> is empty.
+     */
+    public Object getLowestCommonAncestor( Object node1, Object node2 ) throws GraphException {
+        int slot1 = this.slotOfNode( node1 );
+        int slot2 = this.slotOfNode( node2 );
+        int ancestor = this.index().lowestCommonAncestor( slot1, slot2 );
+
+        return ancestor == -1 ? null : this.vertexIndex.vertexAt( ancestor );
+    }
+
+    private int slotOfNode( Object node ) throws GraphException {
+        int slot = this.vertexIndex.slotOf( node );
+
+        if( slot == -1 ) {
+            throw new NoSuchVertexException();
+        }
+        if( this.rootVertex == null ) {
+            throw new EmptyTreeException();
+        }
+        return slot;
     }
 
     /**
@@ -229,26 +337,13 @@ public class TreeImpl extends GraphImpl implements Tree {
     }
 
     /**
-     * Returns the height of the <tt>Tree</tt>.
+     * Returns the height of the <tt>Tree</tt>, that is the greatest depth of its
+     * nodes, or 0 if it has no root.
      */
     public int getHeight() {
-        List    leaves = this.getLeaves();
-        int    size = leaves.size();
-        int    maxHeight = 0;
-        int    currentVertexHeight = 0;
-
-        for( int i = 0; i < size; i++ ) {
-            try {
-                currentVertexHeight = this.getDepth(  leaves.get( i ));
-            }
-            catch( Exception ex ) {
-                ex.printStackTrace();
-            }
-            maxHeight = Math.max( currentVertexHeight, maxHeight );
-        }
-        leaves = null;
-
-        return maxHeight;
+        if( this.rootVertex == null )
+            return 0;
+        return Math.max( 1, this.index().height() );
     }
 
     /**
@@ -260,6 +355,8 @@ public class TreeImpl extends GraphImpl implements Tree {
 
     /**
      * Determines if there is a path from Object fromObject to Object toVertex.
+     * This looks up the connected sets of the <tt>Tree</tt> instead of
+     * traversing it.
      * <p>
      * Directionality of Edges along the path are ignored. Therefore,
      * <tt>isPath( a, b )</tt> is the same as <tt>isPath( b, a )</tt>.
@@ -272,18 +369,12 @@ public class TreeImpl extends GraphImpl implements Tree {
      * @return	true if there is a path from v1 to v2 or vice-versa. false otherwise.
      */
     public boolean isPath( Object v1, Object v2 ) {
-        if( !this.vertices.contains( v1 ) || !this.vertices.contains( v2 )) {
+        if( !this.containsVertex( v1 ) || !this.containsVertex( v2 )) {
             return false;
         }
 
-        List    visited = new ArrayList( 10 );
-        GraphTraversal  traversal = new DepthFirstGraphTraversal( this );
-
-        traversal.traverse( v1, visited, new StopAtVisitor( v2 ));
-        if( v2 ==  visited.get( visited.size() - 1 ) )
-            return true;
-        else
-            return false;
+        // In a tree or a forest, there is a path between connected nodes
+        return this.isConnected( v1, v2 );
     }
 
     /**
@@ -310,23 +401,26 @@ public class TreeImpl extends GraphImpl implements Tree {
         if( this.rootVertex != null && parent == null ) {
             throw new GraphException( "There is already a root for this Tree" );
         }
-        if( parent != null && !this.vertices.contains( parent )) {
+        if( parent != null && !this.containsVertex( parent )) {
             throw new NoSuchVertexException();
         }
-        if( this.vertices.contains( childNode )) {
+        if( this.containsVertex( childNode )) {
             throw new GraphException( "Child node already exists in Tree" );
         }
 
         super.add( childNode );
         if( parent == null ) {
             this.rootVertex = childNode;
+            this.invalidate();
             return null;
         }
         else {
-            // It is important here to call this.addEdge() instead of super.addEdge(),
-            // since this.addEdge() has additional checking to make sure the edge
-            // will not result in a cycle.
-            return this.addEdge( parent, childNode );
+            // The child is new, so the edge cannot result in a cycle
+            TreeIndex   index = this.index();
+            Edge        edge = super.addEdge( parent, childNode );
+            index.link( this.vertexIndex.slotOf( parent ),
+                this.vertexIndex.slotOf( childNode ), childNode );
+            return edge;
         }
     }
 
@@ -339,8 +433,10 @@ public class TreeImpl extends GraphImpl implements Tree {
     * @throws   <tt>CycleException</tt> if adding the <tt>Edge</tt> will result in a cycle.
     */
     public void addEdge( Edge edge ) throws GraphException {
-        if( !this.isPath( edge.getVertexA(), edge.getVertexB() ))
+        if( !this.isPath( edge.getVertexA(), edge.getVertexB() )) {
             super.addEdge( edge );
+            this.invalidate();
+        }
         else
             throw new CycleException();
     }
@@ -356,8 +452,11 @@ public class TreeImpl extends GraphImpl implements Tree {
     * @throws   <tt>CycleException</tt> if creating the <tt>Edge</tt> will result in a cycle.
     */
     public Edge addEdge( Object v1, Object v2 ) throws GraphException {
-        if( !isPath( v2, v1 ))
-            return super.addEdge( v1, v2 );
+        if( !isPath( v2, v1 )) {
+            Edge edge = super.addEdge( v1, v2 );
+            this.invalidate();
+            return edge;
+        }
         else
             throw new CycleException();
     }
@@ -380,8 +479,23 @@ public class TreeImpl extends GraphImpl implements Tree {
         if( this.getEdges( v ).size() > 1 ) {
             throw new IllegalTreeException();
         }
-        // Safe to remove now
+        // Safe to remove now. A leaf other than the root is simply removed
+        // from the children of its parent
+        int     slot = this.vertexIndex.slotOf( v );
+        boolean keep = slot != -1 && !v.equals( this.rootVertex );
+        if( keep )
+            this.index().unlink( slot, v );
         super.remove( v );
+        if( keep )
+            this.index.validate();
+    }
+
+    /**
+     * Removes an Edge from the <tt>Tree</tt>, splitting it in two.
+     */
+    public void removeEdge( Edge edge ) throws GraphException {
+        super.removeEdge( edge );
+        this.invalidate();
     }
 
     /**
@@ -0,0 +1,253 @@
+package salvo.jesus.graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Parent, depth and children of the nodes of a TreeImpl relative to its
+ * root, stored by slot. The ancestors of each node at distances 1, 2, 4, ...
+ * are kept too, so that the ancestor at any distance and the lowest common
+ * ancestor of two nodes are found in O(log depth) time by binary lifting.
+ * <p>
+ * Nodes not connected to the root have no parent and a depth of 0. The
+ * index is rebuilt from the root in linear time when it has been
+ * invalidated, and is otherwise maintained as nodes are added and removed.
+ *
+ * @author nono
+ * @version $Id$
+ */
+final class TreeIndex {
+
+	/**
+	 * Depth of each node, 1 for the root, 0 for nodes not connected to it.
+	 */
+	private int[] depth = new int[16];
+
+	/**
+	 * Children of each node, in the order they were added. Null for nodes not
+	 * connected to the root.
+	 */
+	private List[] children = new List[16];
+
+	/**
+	 * Ancestors of each node: up[k][slot] is the slot of the ancestor at
+	 * distance 2^k, or -1 if there is none. up[0] holds the parents.
+	 */
+	private int[][] up = { newRow(16) };
+
+	private boolean valid;
+
+	private static int[] newRow(int length) {
+		int[] row = new int[length];
+		Arrays.fill(row, -1);
+		return row;
+	}
+
+	boolean isValid() {
+		return valid;
+	}
+
+	void invalidate() {
+		valid = false;
+	}
+
+	void validate() {
+		valid = true;
+	}
+
+	/**
+	 * Makes room for a new node, not connected to the root.
+	 */
+	void grow(int slot) {
+		if (slot >= depth.length) {
+			int length = Math.max(slot + 1, depth.length * 2);
+			depth = copyOf(depth, length, 0);
+			List[] grown = new List[length];
+			System.arraycopy(children, 0, grown, 0, children.length);
+			children = grown;
+			for (int k = 0; k < up.length; k++)
+				up[k] = copyOf(up[k], length, -1);
+		}
+		clear(slot);
+	}
+
+	private static int[] copyOf(int[] array, int length, int fill) {
+		int[] copy = new int[length];
+		System.arraycopy(array, 0, copy, 0, array.length);
+		Arrays.fill(copy, array.length, length, fill);
+		return copy;
+	}
+
+	/**
+	 * Returns the estimated size of this index.
+	 */
+	long memorySize() {
+		long size = GraphMemoryStats.shallowSizeOf(getClass())
+				+ GraphMemoryStats.sizeOfArray(int.class, depth.length)
+				+ GraphMemoryStats.sizeOfArray(List.class, children.length)
+				+ GraphMemoryStats.sizeOfArray(int[].class, up.length);
+		for (int k = 0; k < up.length; k++)
+			size += GraphMemoryStats.sizeOfArray(int.class, up[k].length);
+		for (int i = 0; i < children.length; i++)
+			size += GraphMemoryStats.sizeOfList(children[i], false);
+		return size;
+	}
+
+	void clear(int slot) {
+		depth[slot] = 0;
+		children[slot] = null;
+		for (int k = 0; k < up.length; k++)
+			up[k][slot] = -1;
+	}
+
+	/**
+	 * Computes the index from the root with a breadth-first traversal.
+	 */
+	void rebuild(GraphImpl tree, Object root) {
+		VertexIndex vertexIndex = tree.vertexIndex;
+		for (int slot = 0; slot < depth.length; slot++)
+			clear(slot);
+		valid = true;
+		if (root == null)
+			return;
+		int rootSlot = vertexIndex.slotOf(root);
+		if (rootSlot == -1)
+			return;
+		int[] queue = new int[vertexIndex.capacity()];
+		int head = 0, tail = 0, height = 1;
+		depth[rootSlot] = 1;
+		children[rootSlot] = new ArrayList(4);
+		queue[tail++] = rootSlot;
+		while (head < tail) {
+			int slot = queue[head++];
+			Object vertex = vertexIndex.vertexAt(slot);
+			Iterator iterator = tree.getEdges(vertex).iterator();
+			while (iterator.hasNext()) {
+				Object child = ((Edge) iterator.next())
+						.getOppositeVertex(vertex);
+				int childSlot = vertexIndex.slotOf(child);
+				if (depth[childSlot] != 0)
+					continue;
+				depth[childSlot] = depth[slot] + 1;
+				height = Math.max(height, depth[childSlot]);
+				children[childSlot] = new ArrayList(4);
+				children[slot].add(child);
+				up[0][childSlot] = slot;
+				queue[tail++] = childSlot;
+			}
+		}
+		int levels = 1;
+		while ((1 << levels) < height)
+			levels++;
+		up = new int[][] { up[0] };
+		while (up.length < levels)
+			addLevel();
+	}
+
+	/**
+	 * Adds the row of ancestors at the next power of two.
+	 */
+	private void addLevel() {
+		int[] previous = up[up.length - 1];
+		int[] row = newRow(previous.length);
+		for (int slot = 0; slot < row.length; slot++)
+			if (previous[slot] != -1)
+				row[slot] = previous[previous[slot]];
+		int[][] grown = new int[up.length + 1][];
+		System.arraycopy(up, 0, grown, 0, up.length);
+		grown[up.length] = row;
+		up = grown;
+	}
+
+	/**
+	 * Adds a new node as the last child of a node. The child is connected to
+	 * the root only if its parent is.
+	 */
+	void link(int parentSlot, int childSlot, Object child) {
+		if (depth[parentSlot] == 0)
+			return;
+		depth[childSlot] = depth[parentSlot] + 1;
+		children[childSlot] = new ArrayList(4);
+		children[parentSlot].add(child);
+		up[0][childSlot] = parentSlot;
+		while ((1 << up.length) < depth[childSlot])
+			addLevel();
+		for (int k = 1; k < up.length; k++) {
+			int half = up[k - 1][childSlot];
+			up[k][childSlot] = half == -1 ? -1 : up[k - 1][half];
+		}
+	}
+
+	/**
+	 * Removes a leaf from the children of its parent.
+	 */
+	void unlink(int slot, Object leaf) {
+		int parentSlot = up[0][slot];
+		if (parentSlot != -1)
+			children[parentSlot].remove(leaf);
+	}
+
+	int depthOf(int slot) {
+		return depth[slot];
+	}
+
+	int parentOf(int slot) {
+		return up[0][slot];
+	}
+
+	/**
+	 * Returns the children of a node connected to the root, or null.
+	 */
+	List childrenOf(int slot) {
+		return children[slot];
+	}
+
+	/**
+	 * Returns the greatest depth of the nodes connected to the root.
+	 */
+	int height() {
+		int height = 0;
+		for (int slot = 0; slot < depth.length; slot++)
+			height = Math.max(height, depth[slot]);
+		return height;
+	}
+
+	/**
+	 * Returns the slot of the ancestor of a node at some distance, or -1 if
+	 * the node is not that deep.
+	 */
+	int ancestor(int slot, int distance) {
+		if (distance >= depth[slot])
+			return -1;
+		for (int k = 0; distance != 0; k++, distance >>>= 1)
+			if ((distance & 1) != 0)
+				slot = up[k][slot];
+		return slot;
+	}
+
+	/**
+	 * Returns the slot of the lowest common ancestor of two nodes, or -1 if
+	 * either is not connected to the root.
+	 */
+	int lowestCommonAncestor(int slot1, int slot2) {
+		if (depth[slot1] == 0 || depth[slot2] == 0)
+			return -1;
+		if (depth[slot1] < depth[slot2]) {
+			int swap = slot1;
+			slot1 = slot2;
+			slot2 = swap;
+		}
+		slot1 = ancestor(slot1, depth[slot1] - depth[slot2]);
+		if (slot1 == slot2)
+			return slot1;
+		for (int k = up.length - 1; k >= 0; k--) {
+			if (up[k][slot1] != up[k][slot2]) {
+				slot1 = up[k][slot1];
+				slot2 = up[k][slot2];
+			}
+		}
+		return up[0][slot1];
+	}
+}
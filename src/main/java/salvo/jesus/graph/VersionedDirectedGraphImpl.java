@@ -0,0 +1,918 @@
+package salvo.jesus.graph;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
+
+import salvo.jesus.graph.algorithm.DepthFirstGraphTraversal;
+import salvo.jesus.graph.algorithm.GraphTraversal;
+
+/**
+ * A DirectedGraph keeping immutable versions of itself, so that readers see
+ * a consistent graph while writers modify it.
+ * <p>
+ * Each modification builds a new version of the graph sharing most of its
+ * structure with the previous one: the vertices are kept in a persistent
+ * hash trie, so that only the O(log n) nodes leading to the modified
+ * vertices are copied, along with the edge Lists of the modified vertices.
+ * The new version is then published atomically. Every read method works on
+ * the version current when it is called, without locking.
+ * <p>
+ * <tt>snapshot()</tt> returns the current version as a read-only
+ * DirectedGraph in O(1). Long-running algorithms should work on a snapshot
+ * instead of a clone of the graph: the snapshot does not change when the
+ * graph is modified, and costs nothing to take. A version is reclaimed by
+ * the garbage collector once neither the graph nor any snapshot refers to
+ * it.
+ * <p>
+ * Modifications are serialized by a lock and notify listeners after the
+ * new version is published, outside of the lock. As with
+ * ConcurrentDirectedGraphImpl, adding an edge equal to an edge already in
+ * the graph has no effect and removal listeners are notified after the
+ * removal.
+ * <p>
+ * A batch holds the lock from <tt>beginBatch()</tt> to <tt>commit()</tt> or
+ * <tt>rollback()</tt>, and its changes build a single pending version that
+ * only the thread making the batch reads. <tt>commit()</tt> publishes it, so
+ * that other threads see all the changes of the batch at once, and
+ * <tt>rollback()</tt> drops it. The outgoing edges of a vertex with many of
+ * them are indexed by sink, so that looking for an equal edge does not scan
+ * them all.
+ *
+ * @author nono
+ * @version $Id$
+ */
+public class VersionedDirectedGraphImpl implements DirectedGraph {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * The edges of a vertex in a version.
+	 */
+	private static final class Adjacency {
+
+		final Object vertex;
+
+		/**
+		 * Position of the vertex in the order vertices were added.
+		 */
+		final long order;
+
+		final DirectedEdgeList outgoing;
+
+		final DirectedEdgeList incoming;
+
+		Adjacency(Object vertex, long order, DirectedEdgeList outgoing,
+				DirectedEdgeList incoming) {
+			this.vertex = vertex;
+			this.order = order;
+			this.outgoing = outgoing;
+			this.incoming = incoming;
+		}
+
+		Adjacency withOutgoing(DirectedEdgeList outgoing) {
+			return new Adjacency(vertex, order, outgoing, incoming);
+		}
+
+		Adjacency withIncoming(DirectedEdgeList incoming) {
+			return new Adjacency(vertex, order, outgoing, incoming);
+		}
+	}
+
+	/**
+	 * An immutable state of the graph.
+	 */
+	private static final class Version {
+
+		static final Version EMPTY = new Version(PersistentMap
+				.<Object, Adjacency> empty(), 0, 0);
+
+		final PersistentMap<Object, Adjacency> adjacency;
+
+		final int edgesCount;
+
+		final long nextOrder;
+
+		/**
+		 * The Adjacency of every vertex in the order vertices were added,
+		 * computed on the first call to <tt>adjacencies()</tt>. Threads racing
+		 * to compute it store equal Lists.
+		 */
+		private volatile List<Adjacency> ordered;
+
+		Version(PersistentMap<Object, Adjacency> adjacency, int edgesCount,
+				long nextOrder) {
+			this.adjacency = adjacency;
+			this.edgesCount = edgesCount;
+			this.nextOrder = nextOrder;
+		}
+
+		Adjacency check(Object v) {
+			Adjacency adj = adjacency.get(v);
+
+			if (adj == null)
+				throw new IllegalArgumentException("Vertex " + v
+						+ " not in graph");
+			return adj;
+		}
+
+		/**
+		 * Returns the read-only List of the Adjacency of every vertex, in the
+		 * order vertices were added. It is sorted once per version.
+		 */
+		List<Adjacency> adjacencies() {
+			List<Adjacency> adjs = ordered;
+
+			if (adjs == null) {
+				adjs = new ArrayList<Adjacency>(adjacency.size());
+				adjacency.values(adjs);
+				Collections.sort(adjs, ORDER);
+				ordered = adjs = Collections.unmodifiableList(adjs);
+			}
+			return adjs;
+		}
+	}
+
+	private static final Comparator<Adjacency> ORDER = new Comparator<Adjacency>() {
+		public int compare(Adjacency adj1, Adjacency adj2) {
+			return adj1.order < adj2.order ? -1 : (adj1.order == adj2.order ? 0
+					: 1);
+		}
+	};
+
+	/**
+	 * The current version of the graph.
+	 */
+	private volatile Version version;
+
+	/**
+	 * Lock serializing modifications, or null if this graph is a snapshot.
+	 */
+	private final ReentrantLock writeLock;
+
+	/**
+	 * Changes made since <tt>beginBatch()</tt>, or null if there is no batch
+	 * in progress. Only set and cleared by the thread making the batch, while
+	 * it holds the write lock.
+	 */
+	private transient GraphBatch batch;
+
+	/**
+	 * The version built by the batch in progress, not yet published.
+	 */
+	private transient Version pending;
+
+	protected volatile GraphFactory factory;
+
+	protected volatile GraphTraversal traversal;
+
+	protected final List addvertexlistener = new CopyOnWriteArrayList();
+
+	protected final List addedgelistener = new CopyOnWriteArrayList();
+
+	protected final List removevertexlistener = new CopyOnWriteArrayList();
+
+	protected final List removeedgelistener = new CopyOnWriteArrayList();
+
+	/**
+	 * Creates a new, empty graph.
+	 */
+	public VersionedDirectedGraphImpl() {
+		this(Version.EMPTY, new ReentrantLock(),
+				new DirectedGraphImplFactory());
+	}
+
+	private VersionedDirectedGraphImpl(Version version,
+			ReentrantLock writeLock, GraphFactory factory) {
+		this.version = version;
+		this.writeLock = writeLock;
+		this.factory = factory;
+		this.traversal = new DepthFirstGraphTraversal(this);
+	}
+
+	/**
+	 * Returns a read-only view of the graph as it is now. The view is not
+	 * affected by later modifications of the graph. All methods modifying the
+	 * view throw a GraphModificationException.
+	 *
+	 * @return the current version of the graph, including the changes of the
+	 *         batch in progress if the current thread is making it.
+	 */
+	public DirectedGraph snapshot() {
+		return new VersionedDirectedGraphImpl(current(), null, factory);
+	}
+
+	/**
+	 * Determines if this graph is a snapshot returned by
+	 * <tt>snapshot()</tt>.
+	 */
+	public boolean isSnapshot() {
+		return writeLock == null;
+	}
+
+	private void checkWritable() throws GraphModificationException {
+		if (writeLock == null)
+			throw new GraphModificationException("Cannot modify a snapshot");
+	}
+
+	/**
+	 * Returns the batch in progress if the current thread is making it, else
+	 * null.
+	 */
+	private GraphBatch ownBatch() {
+		return writeLock != null && writeLock.isHeldByCurrentThread() ? batch
+				: null;
+	}
+
+	/**
+	 * Returns the version read by the current thread: the pending version of
+	 * its batch if it is making one, else the published version.
+	 */
+	private Version current() {
+		return ownBatch() != null ? pending : version;
+	}
+
+	/**
+	 * Makes a version current, publishing it unless a batch is in progress.
+	 * Must be called under the write lock.
+	 */
+	private void publish(Version next) {
+		if (batch != null)
+			pending = next;
+		else
+			version = next;
+	}
+
+	// ------------------------ Graph methods
+
+	public int getVerticesCount() {
+		return current().adjacency.size();
+	}
+
+	/**
+	 * Returns the vertices of the graph in the order they were added.
+	 */
+	public List getAllVertices() {
+		List<Adjacency> adjs = current().adjacencies();
+		List vertices = new ArrayList(adjs.size());
+
+		for (Adjacency adj : adjs)
+			vertices.add(adj.vertex);
+		return vertices;
+	}
+
+	public int getEdgesCount() {
+		return current().edgesCount;
+	}
+
+	public Collection<Edge> getAllEdges() {
+		List<Edge> edges = new ArrayList<Edge>(current().edgesCount);
+
+		for (Adjacency adj : current().adjacencies())
+			edges.addAll(adj.outgoing);
+		return edges;
+	}
+
+	public GraphFactory getGraphFactory() {
+		return factory;
+	}
+
+	public void setGraphFactory(GraphFactory factory) {
+		this.factory = factory;
+	}
+
+	public void add(Object v) throws GraphException {
+		checkWritable();
+		if (v == null)
+			throw new GraphModificationException(
+					"Cannot add null vertices to graph");
+		writeLock.lock();
+		try {
+			Version current = current();
+			Version added = addVertex(current, v);
+			if (added == current)
+				return;
+			publish(added);
+		} finally {
+			writeLock.unlock();
+		}
+		fireVertexAdded(v);
+	}
+
+	/**
+	 * Returns a version with the vertex added, or the given version if the
+	 * vertex is in it.
+	 */
+	private static Version addVertex(Version current, Object v) {
+		if (current.adjacency.get(v) != null)
+			return current;
+		return new Version(current.adjacency.with(v, new Adjacency(v,
+				current.nextOrder, DirectedEdgeList.EMPTY_OUTGOING,
+				DirectedEdgeList.EMPTY)), current.edgesCount,
+				current.nextOrder + 1);
+	}
+
+	private void fireVertexAdded(Object v) {
+		GraphBatch own = ownBatch();
+		Iterator iterator = addvertexlistener.iterator();
+		while (iterator.hasNext()) {
+			Object listener = iterator.next();
+			if (GraphBatch.notifies(own, listener))
+				((GraphAddVertexListener) listener)
+						.vertexAdded(new GraphAddVertexEvent(this, v));
+		}
+		if (own != null)
+			own.vertexAdded(v);
+	}
+
+	/**
+	 * Removes a vertex and its edges in a single version.
+	 */
+	public void remove(Object v) throws GraphException {
+		checkWritable();
+		List<Edge> removed = new ArrayList<Edge>();
+
+		writeLock.lock();
+		try {
+			Version current = current();
+			Adjacency adj = current.adjacency.get(v);
+			if (adj == null)
+				return;
+			PersistentMap<Object, Adjacency> adjacency = current.adjacency
+					.without(v);
+			for (DirectedEdge edge : adj.outgoing) {
+				removed.add(edge);
+				Adjacency sink = adjacency.get(edge.getSink());
+				if (sink != null)
+					adjacency = adjacency.with(sink.vertex, sink
+							.withIncoming(sink.incoming.without(edge)));
+			}
+			for (DirectedEdge edge : adj.incoming) {
+				Adjacency source = adjacency.get(edge.getSource());
+				// Loops were removed with the outgoing edges
+				if (source == null)
+					continue;
+				removed.add(edge);
+				adjacency = adjacency.with(source.vertex, source
+						.withOutgoing(source.outgoing.without(edge)));
+			}
+			publish(new Version(adjacency, current.edgesCount
+					- removed.size(), current.nextOrder));
+		} finally {
+			writeLock.unlock();
+		}
+
+		for (Edge edge : removed)
+			fireEdgeRemoved(edge);
+		GraphBatch own = ownBatch();
+		Iterator iterator = removevertexlistener.iterator();
+		while (iterator.hasNext()) {
+			Object listener = iterator.next();
+			if (GraphBatch.notifies(own, listener))
+				((GraphRemoveVertexListener) listener)
+						.vertexRemoved(new GraphRemoveVertexEvent(this, v));
+		}
+		if (own != null)
+			own.vertexRemoved(v);
+	}
+
+	public Iterator getVerticesIterator() {
+		return getAllVertices().iterator();
+	}
+
+	/**
+	 * @deprecated
+	 */
+	@Deprecated
+	public Edge createEdge(Object v1, Object v2) {
+		return factory.createEdge(v1, v2);
+	}
+
+	/**
+	 * Adds an edge created by the GraphFactory from v1 to v2. If there is
+	 * already an edge equal to the new one, it is returned instead.
+	 */
+	public Edge addEdge(Object v1, Object v2) throws GraphException {
+		checkWritable();
+		DirectedEdge edge = (DirectedEdge) factory.createEdge(v1, v2);
+		DirectedEdge added = link(edge);
+
+		return added == null ? edge : added;
+	}
+
+	/**
+	 * Adds a DirectedEdge, adding its vertices if they are not yet in the
+	 * graph. Does nothing if there is already an edge equal to this one.
+	 */
+	public void addEdge(Edge e) throws GraphException {
+		checkWritable();
+		link((DirectedEdge) e);
+	}
+
+	/**
+	 * Adds an edge and its vertices in a single version, unless there is
+	 * already an equal edge.
+	 *
+	 * @return the equal edge already in the graph, or null if the edge was
+	 *         added.
+	 */
+	private DirectedEdge link(DirectedEdge edge) throws GraphException {
+		Object source = edge.getSource();
+		Object sink = edge.getSink();
+		boolean sourceAdded, sinkAdded;
+
+		if (source == null || sink == null)
+			throw new GraphModificationException(
+					"Cannot add null vertices to graph");
+		writeLock.lock();
+		try {
+			Version current = current();
+			Adjacency from = current.adjacency.get(source);
+			if (from != null) {
+				DirectedEdge existing = from.outgoing.find(sink, edge);
+				if (existing != null)
+					return existing;
+			}
+			Version added = addVertex(current, source);
+			sourceAdded = added != current;
+			current = added;
+			added = addVertex(current, sink);
+			sinkAdded = added != current;
+			current = added;
+
+			PersistentMap<Object, Adjacency> adjacency = current.adjacency;
+			from = adjacency.get(source);
+			adjacency = adjacency.with(source, from.withOutgoing(from.outgoing
+					.with(edge)));
+			Adjacency to = adjacency.get(sink);
+			adjacency = adjacency.with(sink, to.withIncoming(to.incoming
+					.with(edge)));
+			publish(new Version(adjacency, current.edgesCount + 1,
+					current.nextOrder));
+		} finally {
+			writeLock.unlock();
+		}
+
+		if (sourceAdded)
+			fireVertexAdded(source);
+		if (sinkAdded)
+			fireVertexAdded(sink);
+		GraphBatch own = ownBatch();
+		Iterator iterator = addedgelistener.iterator();
+		while (iterator.hasNext()) {
+			Object listener = iterator.next();
+			if (GraphBatch.notifies(own, listener))
+				((GraphAddEdgeListener) listener)
+						.edgeAdded(new GraphAddEdgeEvent(this, edge));
+		}
+		if (own != null)
+			own.edgeAdded(edge);
+		return null;
+	}
+
+	/**
+	 * Removes an edge, or the edge equal to it, from the graph.
+	 */
+	public void removeEdge(Edge e) throws GraphException {
+		checkWritable();
+		DirectedEdge edge = (DirectedEdge) e;
+		DirectedEdge existing;
+
+		writeLock.lock();
+		try {
+			Version current = current();
+			PersistentMap<Object, Adjacency> adjacency = current.adjacency;
+			Adjacency from = adjacency.get(edge.getSource());
+			if (from == null)
+				return;
+			existing = from.outgoing.find(edge.getSink(), edge);
+			if (existing == null)
+				return;
+			adjacency = adjacency.with(from.vertex, from
+					.withOutgoing(from.outgoing.without(existing)));
+			Adjacency to = adjacency.get(edge.getSink());
+			adjacency = adjacency.with(to.vertex, to.withIncoming(to.incoming
+					.without(existing)));
+			publish(new Version(adjacency, current.edgesCount - 1,
+					current.nextOrder));
+		} finally {
+			writeLock.unlock();
+		}
+		fireEdgeRemoved(existing);
+	}
+
+	private void fireEdgeRemoved(Edge edge) {
+		GraphBatch own = ownBatch();
+		Iterator iterator = removeedgelistener.iterator();
+		while (iterator.hasNext()) {
+			Object listener = iterator.next();
+			if (GraphBatch.notifies(own, listener))
+				((GraphRemoveEdgeListener) listener)
+						.edgeRemoved(new GraphRemoveEdgeEvent(this, edge));
+		}
+		if (own != null)
+			own.edgeRemoved(edge);
+	}
+
+	public void removeEdges(Object v) throws GraphException {
+		checkWritable();
+		List edges = getEdges(v);
+
+		if (edges == null)
+			return;
+		Iterator iterator = edges.iterator();
+		while (iterator.hasNext())
+			removeEdge((Edge) iterator.next());
+	}
+
+	public int getDegree() {
+		List<Adjacency> adjs = new ArrayList<Adjacency>();
+		int degree = 0;
+
+		current().adjacency.values(adjs);
+		for (Adjacency adj : adjs)
+			degree = Math.max(degree, adj.outgoing.size()
+					+ adj.incoming.size());
+		return degree;
+	}
+
+	/**
+	 * @throws IllegalArgumentException
+	 *             if the vertex is not in the graph.
+	 */
+	public int getDegree(Object v) {
+		Adjacency adj = current().check(v);
+		return adj.outgoing.size() + adj.incoming.size();
+	}
+
+	public Set getVertices(int degree) {
+		List<Adjacency> adjs = new ArrayList<Adjacency>();
+		Set verticesofsamedegree = new HashSet();
+
+		current().adjacency.values(adjs);
+		for (Adjacency adj : adjs)
+			if (adj.outgoing.size() + adj.incoming.size() == degree)
+				verticesofsamedegree.add(adj.vertex);
+		return verticesofsamedegree;
+	}
+
+	/**
+	 * Returns the outgoing then incoming edges of a vertex, or null if the
+	 * vertex is not in the graph.
+	 */
+	public List getEdges(Object v) {
+		Adjacency adj = current().adjacency.get(v);
+
+		if (adj == null)
+			return null;
+		List edges = new ArrayList(adj.outgoing.size() + adj.incoming.size());
+		edges.addAll(adj.outgoing);
+		edges.addAll(adj.incoming);
+		return edges;
+	}
+
+	public List getAdjacentVertices(Object v) {
+		Adjacency adj = current().check(v);
+		List adjacentVertices = new ArrayList(adj.outgoing.size()
+				+ adj.incoming.size());
+
+		for (DirectedEdge edge : adj.outgoing)
+			adjacentVertices.add(edge.getSink());
+		for (DirectedEdge edge : adj.incoming)
+			adjacentVertices.add(edge.getSource());
+		return adjacentVertices;
+	}
+
+	public HashSet getAdjacentVertices(List vertices) {
+		HashSet adjacentVertices = new HashSet(this
+				.getAdjacentVertices(vertices.get(0)));
+		int i, size = vertices.size();
+
+		for (i = 1; i < size; i++) {
+			adjacentVertices.retainAll(this
+					.getAdjacentVertices(vertices.get(i)));
+		}
+
+		return adjacentVertices;
+	}
+
+	/**
+	 * Computes the connected sets of the graph. Connected sets are ordered by
+	 * their first vertex, and list their vertices, in the order the vertices
+	 * were added.
+	 */
+	public List getConnectedSet() {
+		Version current = current();
+		Map<Object, List> setOf = new HashMap<Object, List>();
+		List sets = new ArrayList();
+
+		for (Adjacency adj : current.adjacencies()) {
+			List set = setOf.get(adj.vertex);
+			if (set == null) {
+				set = new ArrayList();
+				for (Object v : reachable(current, adj.vertex, null))
+					setOf.put(v, set);
+				sets.add(set);
+			}
+			set.add(adj.vertex);
+		}
+		return sets;
+	}
+
+	public List getConnectedSet(Object v) {
+		Version current = current();
+
+		if (current.adjacency.get(v) == null)
+			return null;
+		Set reachable = reachable(current, v, null);
+		List set = new ArrayList(reachable.size());
+		for (Adjacency adj : current.adjacencies())
+			if (reachable.contains(adj.vertex))
+				set.add(adj.vertex);
+		return set;
+	}
+
+	/**
+	 * Returns the vertices connected to a vertex regardless of the direction
+	 * of edges, stopping early if the given target is found.
+	 */
+	private static Set reachable(Version current, Object start, Object target) {
+		Set visited = new HashSet();
+		List stack = new ArrayList();
+
+		visited.add(start);
+		stack.add(start);
+		while (!stack.isEmpty()) {
+			Adjacency adj = current.adjacency
+					.get(stack.remove(stack.size() - 1));
+			for (DirectedEdge edge : adj.outgoing)
+				if (visited.add(edge.getSink()))
+					stack.add(edge.getSink());
+			for (DirectedEdge edge : adj.incoming)
+				if (visited.add(edge.getSource()))
+					stack.add(edge.getSource());
+			if (target != null && visited.contains(target))
+				break;
+		}
+		return visited;
+	}
+
+	/**
+	 * Does nothing, as connected sets are computed from the edges of the
+	 * graph.
+	 */
+	public void mergeconnectedSet(Object v1, Object v2) {
+	}
+
+	public List traverse(Object startat) {
+		return traversal.traverse(startat);
+	}
+
+	public GraphTraversal getTraversal() {
+		return traversal;
+	}
+
+	public void setTraversal(GraphTraversal traversal) {
+		this.traversal = traversal;
+	}
+
+	public boolean isConnected(Object v1, Object v2) {
+		Version current = current();
+
+		if (current.adjacency.get(v1) == null
+				|| current.adjacency.get(v2) == null)
+			return false;
+		return reachable(current, v1, v2).contains(v2);
+	}
+
+	public void addGraphAddVertexListener(GraphAddVertexListener listener) {
+		addvertexlistener.add(listener);
+	}
+
+	public void addGraphAddEdgeListener(GraphAddEdgeListener listener) {
+		addedgelistener.add(listener);
+	}
+
+	public void addGraphRemoveEdgeListener(GraphRemoveEdgeListener listener) {
+		removeedgelistener.add(listener);
+	}
+
+	public void addGraphRemoveVertexListener(GraphRemoveVertexListener listener) {
+		removevertexlistener.add(listener);
+	}
+
+	public void removeGraphAddVertexListener(GraphAddVertexListener listener) {
+		addvertexlistener.remove(listener);
+	}
+
+	public void removeGraphAddEdgeListener(GraphAddEdgeListener listener) {
+		addedgelistener.remove(listener);
+	}
+
+	public void removeGraphRemoveEdgeListener(GraphRemoveEdgeListener listener) {
+		removeedgelistener.remove(listener);
+	}
+
+	public void removeGraphRemoveVertexListener(
+			GraphRemoveVertexListener listener) {
+		removevertexlistener.remove(listener);
+	}
+
+	/**
+	 * Starts a batch of changes, waiting for the modifications of other
+	 * threads to end and locking them out until the batch is over.
+	 *
+	 * @throws UnsupportedOperationException
+	 *             if this graph is a snapshot.
+	 * @see Graph#beginBatch()
+	 */
+	public void beginBatch() {
+		if (writeLock == null)
+			throw new UnsupportedOperationException("Cannot modify a snapshot");
+		if (ownBatch() != null)
+			throw new IllegalStateException("Batch already in progress");
+		writeLock.lock();
+		pending = version;
+		batch = new GraphBatch(this);
+	}
+
+	/**
+	 * Ends the batch of changes in progress, publishes the version it built
+	 * and notifies the GraphBatchListeners registered as any kind of
+	 * listener.
+	 *
+	 * @see Graph#commit()
+	 */
+	public void commit() {
+		GraphBatch committed = ownBatch();
+
+		if (committed == null)
+			throw new IllegalStateException("No batch in progress");
+		version = pending;
+		endBatch();
+		GraphBatch.fire(committed.createEvent(), new List[] {
+				addvertexlistener, addedgelistener, removevertexlistener,
+				removeedgelistener });
+	}
+
+	/**
+	 * Ends the batch of changes in progress by dropping the version it
+	 * built. Listeners not implementing GraphBatchListener are notified of
+	 * the changes undoing the batch, as with the other graphs.
+	 *
+	 * @see Graph#rollback()
+	 */
+	public void rollback() throws GraphException {
+		GraphBatch rolledback = ownBatch();
+
+		if (rolledback == null)
+			throw new IllegalStateException("No batch in progress");
+		// The batch stays in progress while undoing so that
+		// GraphBatchListeners are not notified
+		try {
+			rolledback.undo();
+		} finally {
+			endBatch();
+		}
+	}
+
+	private void endBatch() {
+		batch = null;
+		pending = null;
+		writeLock.unlock();
+	}
+
+	public Graph same() {
+		Graph g = new VersionedDirectedGraphImpl();
+		g.setGraphFactory(this.getGraphFactory());
+		return g;
+	}
+
+	public Object findVertex(Object o) {
+		Adjacency adj = current().adjacency.get(o);
+		return adj == null ? null : adj.vertex;
+	}
+
+	public String toString() {
+		return "Vertices= " + this.getAllVertices().toString() + ", Edges= "
+				+ this.getAllEdges().toString();
+	}
+
+	// ------------------------ DirectedGraph methods
+
+	/**
+	 * Returns the immutable List of the outgoing edges of a vertex in the
+	 * current version, without locking.
+	 *
+	 * @throws IllegalArgumentException
+	 *             if the vertex is not in the graph.
+	 */
+	public List<DirectedEdge> getOutgoingEdges(Object v) {
+		return current().check(v).outgoing;
+	}
+
+	/**
+	 * Returns the immutable List of the incoming edges of a vertex in the
+	 * current version, without locking.
+	 *
+	 * @throws IllegalArgumentException
+	 *             if the vertex is not in the graph.
+	 */
+	public List<DirectedEdge> getIncomingEdges(Object v) {
+		return current().check(v).incoming;
+	}
+
+	public List getOutgoingAdjacentVertices(Object v) {
+		DirectedEdgeList outgoing = current().check(v).outgoing;
+		List adjacentVertices = new ArrayList(outgoing.size());
+
+		for (DirectedEdge edge : outgoing)
+			adjacentVertices.add(edge.getSink());
+		return adjacentVertices;
+	}
+
+	public List getIncomingAdjacentVertices(Object v) {
+		DirectedEdgeList incoming = current().check(v).incoming;
+		List adjacentVertices = new ArrayList(incoming.size());
+
+		for (DirectedEdge edge : incoming)
+			adjacentVertices.add(edge.getSource());
+		return adjacentVertices;
+	}
+
+	public DirectedEdge getEdge(Object fromvertex, Object tovertex) {
+		Adjacency from = current().adjacency.get(fromvertex);
+
+		return from == null ? null : from.outgoing.findFirst(tovertex);
+	}
+
+	public boolean containsEdge(Object fromvertex, Object tovertex) {
+		return getEdge(fromvertex, tovertex) != null;
+	}
+
+	/**
+	 * Returns the Edges from fromvertex to tovertex, looked up by sink in the
+	 * outgoing edges of fromvertex.
+	 */
+	public List<DirectedEdge> getEdges(Object fromvertex, Object tovertex) {
+		Adjacency from = current().adjacency.get(fromvertex);
+
+		if (from == null)
+			return new ArrayList<DirectedEdge>(1);
+		return from.outgoing.findAll(tovertex);
+	}
+
+	public boolean isPath(Object fromVertex, Object toVertex) {
+		Version current = current();
+
+		if (current.adjacency.get(fromVertex) == null
+				|| current.adjacency.get(toVertex) == null)
+			return false;
+		return fromVertex.equals(toVertex)
+				|| reaches(current, fromVertex, toVertex);
+	}
+
+	/**
+	 * @throws IllegalArgumentException
+	 *             if the vertex is not in the graph.
+	 */
+	public boolean isCycle(Object fromVertex) {
+		Version current = current();
+
+		current.check(fromVertex);
+		return reaches(current, fromVertex, fromVertex);
+	}
+
+	/**
+	 * Determines if there is a path of at least one edge from a vertex to
+	 * another, following the direction of edges.
+	 */
+	private static boolean reaches(Version current, Object from, Object to) {
+		Set visited = new HashSet();
+		List stack = new ArrayList();
+
+		visited.add(from);
+		stack.add(from);
+		while (!stack.isEmpty()) {
+			Adjacency adj = current.adjacency
+					.get(stack.remove(stack.size() - 1));
+			for (DirectedEdge edge : adj.outgoing) {
+				Object w = edge.getSink();
+				if (w.equals(to))
+					return true;
+				if (visited.add(w))
+					stack.add(w);
+			}
+		}
+		return false;
+	}
+}
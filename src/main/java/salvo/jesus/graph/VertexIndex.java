@@ -0,0 +1,197 @@
+package salvo.jesus.graph;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maps the vertices of a graph to stable integer slots. A slot is allocated
+ * when a vertex is added and stays the same for as long as the vertex is in
+ * the graph, so that per-vertex structures (incident edges, outgoing and
+ * incoming edges, ...) can be stored in lists indexed by slot and looked up in
+ * constant time instead of through <tt>List.indexOf()</tt>.
+ * <p>
+ * Slots freed by removing a vertex are reused by the next vertex added, so
+ * the number of slots never exceeds the highest number of vertices the graph
+ * ever held at once.
+ *
+ * @author nono
+ * @version $Id$
+ */
+class VertexIndex implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Slot of each vertex in the graph.
+	 */
+	private Map<Object, Integer> slots;
+
+	/**
+	 * Vertex stored at each slot, or null if the slot is free.
+	 */
+	private Object[] vertices;
+
+	/**
+	 * Stack of free slots that can be reused.
+	 */
+	private int[] free;
+
+	/**
+	 * Number of slots on the free stack.
+	 */
+	private int freeCount;
+
+	/**
+	 * Number of slots allocated so far, free or not.
+	 */
+	private int capacity;
+
+	/**
+	 * Creates a new, empty VertexIndex.
+	 */
+	public VertexIndex() {
+		slots = new HashMap<Object, Integer>();
+		vertices = new Object[10];
+		free = new int[10];
+	}
+
+	/**
+	 * Returns the slot of the specified vertex.
+	 *
+	 * @param v
+	 *            the vertex whose slot we want
+	 * @return the slot of the vertex, or -1 if it is not indexed.
+	 */
+	public int slotOf(Object v) {
+		Integer slot = slots.get(v);
+		return slot == null ? -1 : slot.intValue();
+	}
+
+	/**
+	 * Determines if the specified vertex is indexed.
+	 */
+	public boolean contains(Object v) {
+		return slots.containsKey(v);
+	}
+
+	/**
+	 * Returns the vertex stored at the given slot, or null if the slot is
+	 * free.
+	 */
+	public Object vertexAt(int slot) {
+		return vertices[slot];
+	}
+
+	/**
+	 * Allocates a slot for a vertex that is not yet indexed. The most recently
+	 * freed slot is reused if there is one.
+	 *
+	 * @param v
+	 *            the vertex to index
+	 * @return the slot allocated for the vertex.
+	 */
+	public int add(Object v) {
+		int slot;
+
+		if (freeCount > 0)
+			slot = free[--freeCount];
+		else {
+			slot = capacity++;
+			if (slot == vertices.length) {
+				Object[] grown = new Object[Math.max(slot * 2, 10)];
+				System.arraycopy(vertices, 0, grown, 0, slot);
+				vertices = grown;
+			}
+		}
+		vertices[slot] = v;
+		slots.put(v, new Integer(slot));
+		return slot;
+	}
+
+	/**
+	 * Removes a vertex from the index and makes its slot available for reuse.
+	 *
+	 * @param v
+	 *            the vertex to remove
+	 * @return the slot the vertex was stored at, or -1 if it was not indexed.
+	 */
+	public int remove(Object v) {
+		Integer slot = slots.remove(v);
+
+		if (slot == null)
+			return -1;
+		vertices[slot.intValue()] = null;
+		if (freeCount == free.length) {
+			int[] grown = new int[Math.max(freeCount * 2, 10)];
+			System.arraycopy(free, 0, grown, 0, freeCount);
+			free = grown;
+		}
+		free[freeCount++] = slot.intValue();
+		return slot.intValue();
+	}
+
+	/**
+	 * Returns the number of vertices indexed.
+	 */
+	public int size() {
+		return slots.size();
+	}
+
+	/**
+	 * Returns the number of slots allocated so far. Every slot returned by
+	 * {@link #slotOf(Object)} is strictly less than this value.
+	 */
+	public int capacity() {
+		return capacity;
+	}
+
+	/**
+	 * Releases the spare room of the arrays of this index.
+	 */
+	void trimToSize() {
+		if (vertices.length > capacity) {
+			Object[] trimmed = new Object[capacity];
+			System.arraycopy(vertices, 0, trimmed, 0, capacity);
+			vertices = trimmed;
+		}
+		if (free.length > freeCount) {
+			int[] trimmed = new int[freeCount];
+			System.arraycopy(free, 0, trimmed, 0, freeCount);
+			free = trimmed;
+		}
+	}
+
+	/**
+	 * Returns the estimated size of this index, not counting the vertices.
+	 */
+	long memorySize() {
+		long size = GraphMemoryStats.shallowSizeOf(getClass())
+				+ GraphMemoryStats.sizeOfHashMap(slots.size())
+				+ GraphMemoryStats.sizeOfArray(Object.class, vertices.length)
+				+ GraphMemoryStats.sizeOfArray(int.class, free.length);
+		// Integers above 127 are not cached
+		size += Math.max(0, capacity - 128)
+				* GraphMemoryStats.shallowSizeOf(Integer.class);
+		return size;
+	}
+
+	/**
+	 * Stores a value at the given slot of a slot-indexed list, growing the
+	 * list by one if the slot has just been allocated.
+	 *
+	 * @param list
+	 *            a list indexed by the slots of this index
+	 * @param slot
+	 *            the slot to store the value at
+	 * @param value
+	 *            the value to store
+	 */
+	static <T> void put(List<T> list, int slot, T value) {
+		if (slot == list.size())
+			list.add(value);
+		else
+			list.set(slot, value);
+	}
+}
@@ -0,0 +1,146 @@
+package salvo.jesus.graph;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+
+/**
+ * The read-only List of the vertices of a graph, in the order they were
+ * added, with removal in amortized constant time. Each vertex is added along
+ * with its slot in the graph's {@link VertexIndex}, which locates it in the
+ * list without searching. Removing a vertex leaves a hole, and holes are
+ * squeezed out when they outnumber the vertices or when a vertex is looked up
+ * by position.
+ *
+ * @author nono
+ * @version $Id$
+ */
+class VertexList extends AbstractList implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Vertices in the order they were added, null at holes.
+	 */
+	private Object[] elements;
+
+	/**
+	 * Slot of the vertex at each position.
+	 */
+	private int[] slots;
+
+	/**
+	 * Position of the vertex at each slot.
+	 */
+	private int[] positions;
+
+	/**
+	 * Number of positions used, holes included.
+	 */
+	private int end;
+
+	private int size;
+
+	/**
+	 * Creates a new, empty VertexList.
+	 */
+	public VertexList() {
+		elements = new Object[10];
+		slots = new int[10];
+		positions = new int[10];
+	}
+
+	/**
+	 * Appends a vertex stored at a slot of the graph's index.
+	 */
+	public void add(Object v, int slot) {
+		if (end == elements.length) {
+			if (size < end)
+				compact();
+			else {
+				int capacity = Math.max(end * 2, 10);
+				Object[] grownElements = new Object[capacity];
+				int[] grownSlots = new int[capacity];
+				System.arraycopy(elements, 0, grownElements, 0, end);
+				System.arraycopy(slots, 0, grownSlots, 0, end);
+				elements = grownElements;
+				slots = grownSlots;
+			}
+		}
+		if (slot >= positions.length) {
+			int[] grown = new int[Math.max(slot + 1, positions.length * 2)];
+			System.arraycopy(positions, 0, grown, 0, positions.length);
+			positions = grown;
+		}
+		elements[end] = v;
+		slots[end] = slot;
+		positions[slot] = end++;
+		size++;
+		modCount++;
+	}
+
+	/**
+	 * Removes the vertex stored at a slot of the graph's index.
+	 */
+	public void removeSlot(int slot) {
+		elements[positions[slot]] = null;
+		size--;
+		modCount++;
+		if (size < end / 2)
+			compact();
+	}
+
+	/**
+	 * Moves the vertices over the holes, keeping their order.
+	 */
+	private void compact() {
+		int at = 0;
+
+		for (int i = 0; i < end; i++)
+			if (elements[i] != null) {
+				elements[at] = elements[i];
+				slots[at] = slots[i];
+				positions[slots[at]] = at++;
+			}
+		for (int i = at; i < end; i++)
+			elements[i] = null;
+		end = at;
+	}
+
+	public Object get(int index) {
+		if (index < 0 || index >= size)
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: "
+					+ size);
+		if (size < end)
+			compact();
+		return elements[index];
+	}
+
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Releases the holes and the spare room of the arrays of this list.
+	 */
+	void trimToSize() {
+		compact();
+		if (elements.length > end) {
+			Object[] trimmedElements = new Object[end];
+			int[] trimmedSlots = new int[end];
+			System.arraycopy(elements, 0, trimmedElements, 0, end);
+			System.arraycopy(slots, 0, trimmedSlots, 0, end);
+			elements = trimmedElements;
+			slots = trimmedSlots;
+		}
+	}
+
+	/**
+	 * Returns the estimated size of this list, not counting the vertices.
+	 */
+	long memorySize() {
+		return GraphMemoryStats.shallowSizeOf(getClass())
+				+ GraphMemoryStats.sizeOfArray(Object.class, elements.length)
+				+ GraphMemoryStats.sizeOfArray(int.class, slots.length)
+				+ GraphMemoryStats.sizeOfArray(int.class, positions.length);
+	}
+}
@@ -1,5 +1,7 @@
 package salvo.jesus.graph;
 
+import java.util.concurrent.atomic.AtomicLong;
+
 /**
  * A weak implementation a weighted edge in a graph. This is only used internally
  * to implement the weight of an edge without having an actual edge.
@@ -8,6 +10,13 @@ package salvo.jesus.graph;
  */
 class WeightedEdgeWeakImpl implements WeightedEdge {
 
+  /**
+   * Number of times the weight of any edge was set, so that copies of the
+   * weights, such as those of a FrozenGraph, can tell they may be stale
+   * without comparing them.
+   */
+  static final AtomicLong changes = new AtomicLong();
+
   /**
    * The weight of the edge
    */
@@ -29,6 +38,7 @@ class WeightedEdgeWeakImpl implements WeightedEdge {
    */
   public void setWeight( double weight ) {
     this.weight = weight;
+    changes.incrementAndGet();
   }
 
   /**
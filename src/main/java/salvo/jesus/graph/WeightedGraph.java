@@ -61,4 +61,20 @@ public interface WeightedGraph extends Graph {
    * as the vertex.
    */
   public WeightedGraph shortestPath( Object vertex );
+
+  /**
+   * Determine a shortest path between two vertices of the weighted graph,
+   * by a bidirectional search that stops as soon as the searches from
+   * both vertices meet.
+   * <p>
+   * The edges of the returned <tt>Path</tt> are those of this WeightedGraph.
+   * To run many queries on a graph that does not change, freeze it once
+   * and use a <tt>BidirectionalDijkstraEngine</tt>.
+   *
+   * @param from  The Object where the path starts.
+   * @param to    The Object where the path ends.
+   * @return  A shortest path from the first vertex to the second,
+   * or null if there is none.
+   */
+  public Path shortestPath( Object from, Object to );
 }
\ No newline at end of file
@@ -103,6 +103,20 @@ public class WeightedGraphImpl extends GraphImpl implements WeightedGraph {
     return this.graphWeightDelegate.shortestPath( vertex );
   }
 
+  /**
+   * Determine a shortest path between two vertices of the weighted graph.
+   * The graph is frozen, then searched from both vertices by a
+   * <tt>BidirectionalDijkstraEngine</tt>. The frozen graph and the engine
+   * are kept for the next calls until the graph or the weight of an edge
+   * changes.
+   *
+   * @return  A shortest path from the first vertex to the second,
+   * or null if there is none.
+   */
+  public Path shortestPath( Object from, Object to ) {
+    return this.graphWeightDelegate.shortestPath( from, to );
+  }
+
   /**
    * Sets the algorithm used to determine the minimum spanning tree.
    */
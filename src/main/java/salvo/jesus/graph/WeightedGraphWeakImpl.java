@@ -7,6 +7,7 @@ import java.util.List;
 import java.util.Set;
 import java.util.TreeSet;
 
+import salvo.jesus.graph.algorithm.BidirectionalDijkstraEngine;
 import salvo.jesus.graph.algorithm.GraphTraversal;
 import salvo.jesus.graph.algorithm.MinimumSpanningTreeAlgorithm;
 import salvo.jesus.graph.algorithm.ShortestPathAlgorithm;
@@ -36,15 +37,55 @@ class WeightedGraphWeakImpl implements WeightedGraph {
      */
     ShortestPathAlgorithm shortestPathAlgorithm;
 
+    /**
+     * Engine running the shortest path queries between two vertices on a
+     * frozen copy of the graph, or null if the graph changed since it was
+     * frozen.
+     */
+    private transient BidirectionalDijkstraEngine shortestPathEngine;
+
     /**
      * Creates a new instance of WeightedGraphWeakImpl.
      */
     public WeightedGraphWeakImpl(GraphImpl graph,
             MinimumSpanningTreeAlgorithm minspantreealgo,
             ShortestPathAlgorithm shortestpathalgo) {
+        ShortestPathEngineInvalidator invalidator = new ShortestPathEngineInvalidator();
+
         this.graph = graph;
         this.minimumSpanningTreeAlgorithm = minspantreealgo;
         this.shortestPathAlgorithm = shortestpathalgo;
+        graph.addGraphAddVertexListener(invalidator);
+        graph.addGraphAddEdgeListener(invalidator);
+        graph.addGraphRemoveVertexListener(invalidator);
+        graph.addGraphRemoveEdgeListener(invalidator);
+    }
+
+    /**
+     * Drops the shortest path engine whenever a vertex or an edge is added to
+     * or removed from the graph.
+     */
+    private class ShortestPathEngineInvalidator implements
+            GraphAddVertexListener, GraphAddEdgeListener,
+            GraphRemoveVertexListener, GraphRemoveEdgeListener {
+
+        private static final long serialVersionUID = 1L;
+
+        public void vertexAdded(GraphAddVertexEvent e) {
+            shortestPathEngine = null;
+        }
+
+        public void edgeAdded(GraphAddEdgeEvent e) {
+            shortestPathEngine = null;
+        }
+
+        public void vertexRemoved(GraphRemoveVertexEvent e) {
+            shortestPathEngine = null;
+        }
+
+        public void edgeRemoved(GraphRemoveEdgeEvent e) {
+            shortestPathEngine = null;
+        }
     }
 
     /**
@@ -164,6 +205,26 @@ class WeightedGraphWeakImpl implements WeightedGraph {
         return this.shortestPathAlgorithm.shortestPath(vertex);
     }
 
+    /**
+     * Determine a shortest path between two vertices of the weighted graph,
+     * by a bidirectional Dijkstra search on a frozen copy of the graph. The
+     * copy and its engine are kept for the next queries, until a vertex or an
+     * edge is added or removed, or the weight of an edge changes. Weight
+     * changes of WeightedEdgeImpls and DirectedWeightedEdgeImpls are noticed
+     * in constant time, from a count of the weights set on any of them; the
+     * weights of other WeightedEdges are compared, in O(m) time.
+     * 
+     * @return A shortest path from the first vertex to the second, or null if
+     *         there is none.
+     */
+    public synchronized Path shortestPath(Object from, Object to) {
+        if (this.shortestPathEngine == null
+                || !this.shortestPathEngine.getGraph().hasCurrentWeights())
+            this.shortestPathEngine = new BidirectionalDijkstraEngine(
+                    this.graph.freeze());
+        return this.shortestPathEngine.shortestPath(from, to);
+    }
+
     /**
      * Empty method implementation. This method should never be called or
      * delegated to for whatever reason.
@@ -435,6 +496,27 @@ class WeightedGraphWeakImpl implements WeightedGraph {
             GraphRemoveVertexListener listener) {
     }
 
+    /**
+     * Empty method implementation. This method should never be called or
+     * delegated to for whatever reason.
+     */
+    public void beginBatch() {
+    }
+
+    /**
+     * Empty method implementation. This method should never be called or
+     * delegated to for whatever reason.
+     */
+    public void commit() {
+    }
+
+    /**
+     * Empty method implementation. This method should never be called or
+     * delegated to for whatever reason.
+     */
+    public void rollback() throws GraphException {
+    }
+
     /*
      * (non-Javadoc)
      * 
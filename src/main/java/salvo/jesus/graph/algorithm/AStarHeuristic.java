@@ -0,0 +1,25 @@
+package salvo.jesus.graph.algorithm;
+
+/**
+ * Estimates the length of the shortest path between two vertices of a
+ * FrozenGraph, identified by their ids, to guide an A* search.
+ * <p>
+ * The estimate must be consistent: never more than the length of an edge
+ * between two vertices, nor than the length of any path through a third
+ * vertex, that is <tt>estimate(u, w) &lt;= weight(u, v) + estimate(v, w)</tt>
+ * for each edge from <tt>u</tt> to <tt>v</tt>, and the same with the edge
+ * at the other end. A consistent estimate never exceeds the length of the
+ * shortest path.
+ *
+ * @author nono
+ * @version $Id$
+ * @see BidirectionalDijkstraEngine
+ */
+public interface AStarHeuristic {
+
+	/**
+	 * Returns a lower bound of the length of the shortest path from a vertex
+	 * to another.
+	 */
+	public double estimate(int from, int to);
+}
@@ -19,7 +19,7 @@ import salvo.jesus.graph.*;
  * Default implementation of populate matrix stores symetric values.
  * <p> 
  * This implementation can computes the transitive closure of the 
- * Matrix using Ffloyd-Warshall algorithm.
+ * Matrix using Ffloyd-Warshall algorithm, on rows of bits.
  * <p>
  * Subclasses of adjacency matrix gives particular values
  * @author nono
@@ -93,19 +93,20 @@ public class AdjacencyMatrix extends GraphMatrix {
     public double[][] transitiveClosure() {
         double[][] from = getMatrix();
         int n = from.length;
+        int words = FloydWarshall.words(n);
+        long[] bits = new long[n * words];
+        for (int i = 0; i < n; i++)
+            for (int j = 0; j < n; j++)
+                if (i == j || from[i][j] == 1)
+                    bits[i * words + (j >>> 6)] |= 1L << j;
+        FloydWarshall.transitiveClosure(bits, n, Runtime.getRuntime()
+                .availableProcessors());
         double[][] to = new double[n][n];
         for (int i = 0; i < n; i++)
-            from[i][i] = 1;
-        for (int k = 0; k < n; k++) {
-            for (int i = 0; i < n; i++)
-                for (int j = 0; j < n; j++)
-                    to[i][j] = (from[i][j] == 1 || (from[i][k] == 1 && from[k][j] == 1)) ? 1
-                            : 0;
-            double[][] tmp = from;
-            from = to;
-            to = tmp;
-        }
-        return from;
+            for (int j = 0; j < n; j++)
+                if ((bits[i * words + (j >>> 6)] & 1L << j) != 0)
+                    to[i][j] = 1;
+        return to;
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,308 @@
+package salvo.jesus.graph.algorithm;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+import salvo.jesus.graph.FrozenGraph;
+import salvo.jesus.util.IndexedHeap;
+import salvo.jesus.util.TaskPool;
+
+/**
+ * Computes the distances between all pairs of vertices of a FrozenGraph,
+ * following its outgoing entries, by a search from each vertex: a Dijkstra
+ * search if the graph is weighted, and a breadth-first search otherwise. The
+ * searches run on several threads, each with arrays of one entry per vertex,
+ * and each row of distances is handed to a {@link DistanceRowSink} as soon as
+ * it is computed, so that the whole matrix need not be kept in memory. This
+ * takes O(n m log n) time for n vertices and m edges, and is much faster than
+ * Floyd-Warshall's O(n<sup>3</sup>) for sparse graphs.
+ * <p>
+ * If some edges weigh less than 0, they are reweighted as in Johnson's
+ * algorithm: Bellman-Ford's algorithm gives each vertex a potential making
+ * all the weights positive, and distances are corrected back as each row is
+ * computed.
+ *
+ * @author nono
+ * @version $Id$
+ */
+public class AllPairsShortestPaths {
+
+	/**
+	 * Largest region of a result file mapped at once.
+	 */
+	private static final long MAX_MAPPING = 1 << 30;
+
+	private final FrozenGraph graph;
+
+	/**
+	 * Weight of each outgoing entry, reweighted if some are negative, or null
+	 * if the graph is not weighted.
+	 */
+	private final double[] weights;
+
+	/**
+	 * Potential of each vertex, or null if no weight is negative.
+	 */
+	private final double[] potential;
+
+	private int threads = Runtime.getRuntime().availableProcessors();
+
+	/**
+	 * Prepares the searches of a graph, reweighting its edges if some weigh
+	 * less than 0.
+	 *
+	 * @throws IllegalArgumentException
+	 *             if the graph has a cycle of negative weight, which is the
+	 *             case of an undirected graph with a negative weight.
+	 */
+	public AllPairsShortestPaths(FrozenGraph graph) {
+		int n = graph.getVerticesCount();
+		int m = n == 0 ? 0 : graph.getOutgoingEnd(n - 1);
+		boolean negative = false;
+
+		this.graph = graph;
+		if (!graph.isWeighted()) {
+			weights = null;
+			potential = null;
+			return;
+		}
+		weights = new double[m];
+		for (int e = 0; e < m; e++) {
+			weights[e] = graph.getOutgoingWeight(e);
+			negative |= weights[e] < 0;
+		}
+		if (!negative) {
+			potential = null;
+			return;
+		}
+		potential = bellmanFord();
+		for (int v = 0; v < n; v++)
+			for (int e = graph.getOutgoingStart(v); e < graph
+					.getOutgoingEnd(v); e++)
+				// rounding errors may leave tiny negative weights
+				weights[e] = Math.max(0, weights[e] + potential[v]
+						- potential[graph.getOutgoingTarget(e)]);
+	}
+
+	/**
+	 * Returns the distance from a virtual vertex with an edge of weight 0 to
+	 * each vertex, found by Bellman-Ford's algorithm with a queue of the
+	 * vertices whose distance changed.
+	 */
+	private double[] bellmanFord() {
+		int n = graph.getVerticesCount();
+		double[] dist = new double[n];
+		int[] queue = new int[n];
+		boolean[] queued = new boolean[n];
+		int[] passes = new int[n];
+		int head = 0, size = n;
+
+		for (int v = 0; v < n; v++) {
+			queue[v] = v;
+			queued[v] = true;
+		}
+		while (size > 0) {
+			int v = queue[head];
+			head = (head + 1) % n;
+			size--;
+			queued[v] = false;
+			if (++passes[v] > n)
+				throw new IllegalArgumentException("Negative cycle through "
+						+ graph.getVertex(v));
+			for (int e = graph.getOutgoingStart(v); e < graph
+					.getOutgoingEnd(v); e++) {
+				int w = graph.getOutgoingTarget(e);
+				if (dist[v] + weights[e] < dist[w]) {
+					dist[w] = dist[v] + weights[e];
+					if (!queued[w]) {
+						queue[(head + size++) % n] = w;
+						queued[w] = true;
+					}
+				}
+			}
+		}
+		return dist;
+	}
+
+	public FrozenGraph getGraph() {
+		return graph;
+	}
+
+	/**
+	 * Sets the number of threads running searches, by default the number of
+	 * processors.
+	 */
+	public void setThreads(int threads) {
+		if (threads < 1)
+			throw new IllegalArgumentException("Threads: " + threads);
+		this.threads = threads;
+	}
+
+	public int getThreads() {
+		return threads;
+	}
+
+	/**
+	 * Computes the distances from each vertex and hands them to a sink, from
+	 * several threads. An exception thrown by the sink stops the searches and
+	 * is thrown back.
+	 */
+	public void run(final DistanceRowSink sink) {
+		int n = graph.getVerticesCount();
+		// each thread searches with its own arrays
+		final ThreadLocal<Searcher> searchers = new ThreadLocal<Searcher>() {
+			protected Searcher initialValue() {
+				return new Searcher(sink);
+			}
+		};
+		TaskPool pool = new TaskPool(Math.min(threads, n));
+
+		try {
+			pool.run(n, new TaskPool.Task() {
+				public void run(int source) {
+					searchers.get().search(source);
+				}
+			});
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Returns the matrix of the distances between all pairs of vertices, by
+	 * id. This takes O(n<sup>2</sup>) memory.
+	 */
+	public double[][] toMatrix() {
+		final double[][] matrix = new double[graph.getVerticesCount()][];
+
+		run(new DistanceRowSink() {
+			public void row(int source, double[] distances) {
+				matrix[source] = distances.clone();
+			}
+		});
+		return matrix;
+	}
+
+	/**
+	 * Writes the matrix of the distances between all pairs of vertices to a
+	 * file, as rows of big-endian doubles, through memory mappings of the
+	 * file. The distance from vertex <tt>i</tt> to vertex <tt>j</tt> is at
+	 * offset <tt>8 * (i * n + j)</tt>.
+	 */
+	public void write(File file) throws IOException {
+		final int n = graph.getVerticesCount();
+		final long rowBytes = 8L * n;
+		RandomAccessFile output = new RandomAccessFile(file, "rw");
+
+		try {
+			FileChannel channel = output.getChannel();
+			output.setLength(rowBytes * n);
+			if (n == 0)
+				return;
+			final int rowsPerMapping = (int) Math.max(1, Math.min(n,
+					MAX_MAPPING / rowBytes));
+			final MappedByteBuffer[] mappings = new MappedByteBuffer[(n
+					+ rowsPerMapping - 1)
+					/ rowsPerMapping];
+			for (int i = 0; i < mappings.length; i++) {
+				int rows = Math.min(rowsPerMapping, n - i * rowsPerMapping);
+				mappings[i] = channel.map(FileChannel.MapMode.READ_WRITE,
+						(long) i * rowsPerMapping * rowBytes, rows * rowBytes);
+			}
+			run(new DistanceRowSink() {
+				public void row(int source, double[] distances) {
+					// threads write disjoint rows through their own views
+					ByteBuffer view = mappings[source / rowsPerMapping]
+							.duplicate();
+					view.position((int) (source % rowsPerMapping * rowBytes));
+					view.asDoubleBuffer().put(distances, 0, n);
+				}
+			});
+			for (int i = 0; i < mappings.length; i++)
+				mappings[i].force();
+		} finally {
+			output.close();
+		}
+	}
+
+	/**
+	 * Searches from one vertex at a time, handing each row to a sink.
+	 */
+	private class Searcher {
+
+		private final DistanceRowSink sink;
+
+		private final double[] dist;
+
+		private final IndexedHeap heap;
+
+		private final int[] queue;
+
+		Searcher(DistanceRowSink sink) {
+			int n = graph.getVerticesCount();
+			this.sink = sink;
+			dist = new double[n];
+			heap = weights == null ? null : new IndexedHeap(n);
+			queue = weights == null ? new int[n] : null;
+		}
+
+		void search(int source) {
+			Arrays.fill(dist, Double.POSITIVE_INFINITY);
+			dist[source] = 0;
+			if (weights == null)
+				breadthFirst(source);
+			else
+				dijkstra(source);
+			sink.row(source, dist);
+		}
+
+		private void breadthFirst(int source) {
+			int head = 0, tail = 0;
+
+			queue[tail++] = source;
+			while (head < tail) {
+				int v = queue[head++];
+				double d = dist[v] + 1;
+				for (int e = graph.getOutgoingStart(v), end = graph
+						.getOutgoingEnd(v); e < end; e++) {
+					int w = graph.getOutgoingTarget(e);
+					if (dist[w] == Double.POSITIVE_INFINITY) {
+						dist[w] = d;
+						queue[tail++] = w;
+					}
+				}
+			}
+		}
+
+		private void dijkstra(int source) {
+			heap.insert(source, 0);
+			while (!heap.isEmpty()) {
+				int v = heap.removeMin();
+				double d = dist[v];
+				for (int e = graph.getOutgoingStart(v), end = graph
+						.getOutgoingEnd(v); e < end; e++) {
+					int w = graph.getOutgoingTarget(e);
+					double dw = d + weights[e];
+					if (dw == Double.POSITIVE_INFINITY)
+						continue;
+					if (dist[w] == Double.POSITIVE_INFINITY) {
+						dist[w] = dw;
+						heap.insert(w, dw);
+					} else if (dw < dist[w] && heap.contains(w)) {
+						dist[w] = dw;
+						heap.decreaseKey(w, dw);
+					}
+				}
+			}
+			if (potential != null)
+				for (int v = 0; v < dist.length; v++)
+					if (dist[v] != Double.POSITIVE_INFINITY)
+						dist[v] += potential[v] - potential[source];
+		}
+	}
+}
@@ -0,0 +1,357 @@
+package salvo.jesus.graph.algorithm;
+
+import java.util.Arrays;
+import java.util.LinkedList;
+
+import salvo.jesus.graph.Edge;
+import salvo.jesus.graph.FrozenGraph;
+import salvo.jesus.graph.GraphException;
+import salvo.jesus.graph.Path;
+import salvo.jesus.graph.PathImpl;
+import salvo.jesus.util.IndexedHeap;
+
+/**
+ * Finds shortest paths between two vertices of a FrozenGraph by searching
+ * forward from the source over outgoing entries and backward from the target
+ * over incoming entries, until the two searches meet. Edges of a graph that
+ * is not weighted weigh 1.
+ * <p>
+ * Given an {@link AStarHeuristic}, the searches are A* searches, each
+ * heading towards the other end. Both use the average of the estimates from
+ * the source and to the target, as in A. V. Goldberg and C. Harrelson,
+ * <i>Computing the shortest path: A* search meets graph theory</i>, SODA
+ * 2005, so that the searches stop as soon as they meet.
+ * <p>
+ * As a {@link DijkstraEngine}, an engine keeps its state in arrays of one
+ * entry per vertex, reset between queries in time proportional to the
+ * number of vertices reached. Engines are not thread-safe, but several
+ * engines may share a FrozenGraph:
+ *
+ * <pre>
+ * BidirectionalDijkstraEngine engine = new BidirectionalDijkstraEngine(
+ * 		frozen, new EuclideanHeuristic(frozen, visualGraph, 1.0));
+ * Path path = engine.shortestPath(from, to);
+ * </pre>
+ *
+ * @author nono
+ * @version $Id$
+ */
+public class BidirectionalDijkstraEngine {
+
+	private final FrozenGraph graph;
+
+	private final AStarHeuristic heuristic;
+
+	private final Side forward;
+
+	private final Side backward;
+
+	/**
+	 * Potential of each vertex for the current query, valid if its stamp is
+	 * the query's.
+	 */
+	private final double[] potential;
+
+	private final int[] stamp;
+
+	private int query;
+
+	private int source;
+
+	private int target;
+
+	private int settled;
+
+	/**
+	 * Length of the shortest path found so far.
+	 */
+	private double best;
+
+	/**
+	 * Edge where the searches met on the shortest path found so far, from a
+	 * vertex reached forward to a vertex reached backward.
+	 */
+	private Edge meeting;
+
+	private int meetingForward;
+
+	private int meetingBackward;
+
+	/**
+	 * Creates an engine running bidirectional Dijkstra searches.
+	 *
+	 * @throws IllegalArgumentException
+	 *             if an edge has a negative weight.
+	 */
+	public BidirectionalDijkstraEngine(FrozenGraph graph) {
+		this(graph, null);
+	}
+
+	/**
+	 * Creates an engine running bidirectional A* searches.
+	 *
+	 * @param heuristic
+	 *            a consistent estimate of the length of shortest paths, or
+	 *            null to run Dijkstra searches.
+	 * @throws IllegalArgumentException
+	 *             if an edge has a negative weight.
+	 */
+	public BidirectionalDijkstraEngine(FrozenGraph graph,
+			AStarHeuristic heuristic) {
+		int n = graph.getVerticesCount();
+		if (n > 0)
+			for (int e = 0; e < graph.getOutgoingEnd(n - 1); e++)
+				if (graph.getOutgoingWeight(e) < 0)
+					throw new IllegalArgumentException("Negative weight: "
+							+ graph.getOutgoingEdge(e));
+		this.graph = graph;
+		this.heuristic = heuristic;
+		forward = new Side(n);
+		backward = new Side(n);
+		potential = new double[heuristic == null ? 0 : n];
+		stamp = new int[potential.length];
+	}
+
+	public FrozenGraph getGraph() {
+		return graph;
+	}
+
+	public AStarHeuristic getHeuristic() {
+		return heuristic;
+	}
+
+	/**
+	 * Returns a shortest path between two vertices, made of the edges of the
+	 * graph, or null if there is none.
+	 *
+	 * @throws IllegalArgumentException
+	 *             if a vertex is not in the graph.
+	 */
+	public Path shortestPath(Object from, Object to) {
+		run(id(from), id(to));
+		if (best == Double.POSITIVE_INFINITY)
+			return null;
+
+		LinkedList edges = new LinkedList();
+		if (meeting != null) {
+			for (int v = meetingForward; forward.pred[v] >= 0; v = forward.pred[v])
+				edges.addFirst(graph.getOutgoingEdge(forward.predEntry[v]));
+			edges.addLast(meeting);
+			for (int v = meetingBackward; backward.pred[v] >= 0; v = backward.pred[v])
+				edges.addLast(graph.getIncomingEdge(backward.predEntry[v]));
+		}
+		PathImpl path = new PathImpl();
+		try {
+			path.add(from);
+			while (!edges.isEmpty())
+				path.addEdge((Edge) edges.removeFirst());
+		} catch (GraphException e) {
+			throw new IllegalStateException(e.toString());
+		}
+		return path;
+	}
+
+	/**
+	 * Returns the length of the shortest path between two vertices, or
+	 * <tt>Double.POSITIVE_INFINITY</tt> if there is none.
+	 *
+	 * @throws IllegalArgumentException
+	 *             if a vertex is not in the graph.
+	 */
+	public double distance(Object from, Object to) {
+		run(id(from), id(to));
+		return best;
+	}
+
+	/**
+	 * Returns the length of the shortest path between two vertex ids, or
+	 * <tt>Double.POSITIVE_INFINITY</tt> if there is none.
+	 */
+	public double distance(int from, int to) {
+		run(from, to);
+		return best;
+	}
+
+	/**
+	 * Returns the number of vertices settled by the last query, in both
+	 * directions.
+	 */
+	public int getSettledCount() {
+		return settled;
+	}
+
+	private int id(Object v) {
+		int id = graph.getVertexId(v);
+		if (id < 0)
+			throw new IllegalArgumentException("Not in the graph: " + v);
+		return id;
+	}
+
+	/**
+	 * Returns the forward potential of a vertex: half the difference between
+	 * its estimated distance to the target and its estimated distance from
+	 * the source. The backward potential is its opposite.
+	 */
+	private double potential(int v) {
+		if (heuristic == null)
+			return 0;
+		if (stamp[v] != query) {
+			stamp[v] = query;
+			potential[v] = (heuristic.estimate(v, target) - heuristic
+					.estimate(source, v)) / 2;
+		}
+		return potential[v];
+	}
+
+	private void run(int source, int target) {
+		this.source = source;
+		this.target = target;
+		if (++query == 0) {
+			Arrays.fill(stamp, 0);
+			query = 1;
+		}
+		forward.reset();
+		backward.reset();
+		settled = 0;
+		meeting = null;
+		if (source == target) {
+			best = 0;
+			return;
+		}
+		best = Double.POSITIVE_INFINITY;
+
+		forward.reach(source, 0, -1, -1, potential(source));
+		backward.reach(target, 0, -1, -1, -potential(target));
+		// the searches have met on a shortest path when no vertex left in
+		// either heap can be on a shorter one
+		while (!forward.heap.isEmpty() && !backward.heap.isEmpty()
+				&& forward.top() + backward.top() < best) {
+			settled++;
+			if (forward.heap.size() <= backward.heap.size())
+				scanForward();
+			else
+				scanBackward();
+		}
+		forward.heap.clear();
+		backward.heap.clear();
+	}
+
+	private void scanForward() {
+		int v = forward.heap.removeMin();
+		double d = forward.dist[v];
+
+		for (int e = graph.getOutgoingStart(v), end = graph.getOutgoingEnd(v); e < end; e++) {
+			int w = graph.getOutgoingTarget(e);
+			double dw = d + graph.getOutgoingWeight(e);
+			if (dw == Double.POSITIVE_INFINITY)
+				continue;
+			if (forward.dist[w] == Double.POSITIVE_INFINITY)
+				forward.reach(w, dw, v, e, dw + potential(w));
+			else if (dw < forward.dist[w] && forward.heap.contains(w))
+				forward.improve(w, dw, v, e, dw + potential(w));
+			double length = dw + backward.dist[w];
+			if (length < best) {
+				best = length;
+				meeting = graph.getOutgoingEdge(e);
+				meetingForward = v;
+				meetingBackward = w;
+			}
+		}
+	}
+
+	private void scanBackward() {
+		int v = backward.heap.removeMin();
+		double d = backward.dist[v];
+
+		for (int e = graph.getIncomingStart(v), end = graph.getIncomingEnd(v); e < end; e++) {
+			int w = graph.getIncomingSource(e);
+			double dw = d + graph.getIncomingWeight(e);
+			if (dw == Double.POSITIVE_INFINITY)
+				continue;
+			if (backward.dist[w] == Double.POSITIVE_INFINITY)
+				backward.reach(w, dw, v, e, dw - potential(w));
+			else if (dw < backward.dist[w] && backward.heap.contains(w))
+				backward.improve(w, dw, v, e, dw - potential(w));
+			double length = dw + forward.dist[w];
+			if (length < best) {
+				best = length;
+				meeting = graph.getIncomingEdge(e);
+				meetingForward = w;
+				meetingBackward = v;
+			}
+		}
+	}
+
+	/**
+	 * The state of the search in one direction.
+	 */
+	private static class Side {
+
+		final double[] dist;
+
+		/**
+		 * Vertex before each vertex on its path from the start of the search,
+		 * or -1.
+		 */
+		final int[] pred;
+
+		/**
+		 * Entry of the predecessor leading to each vertex.
+		 */
+		final int[] predEntry;
+
+		final IndexedHeap heap;
+
+		private int[] reached;
+
+		private int reachedCount;
+
+		Side(int n) {
+			dist = new double[n];
+			pred = new int[n];
+			predEntry = new int[n];
+			heap = new IndexedHeap(n);
+			reached = new int[Math.min(n, 16)];
+			Arrays.fill(dist, Double.POSITIVE_INFINITY);
+			Arrays.fill(pred, -1);
+		}
+
+		void reset() {
+			for (int i = 0; i < reachedCount; i++) {
+				dist[reached[i]] = Double.POSITIVE_INFINITY;
+				pred[reached[i]] = -1;
+			}
+			reachedCount = 0;
+		}
+
+		double top() {
+			return heap.getPriority(heap.peek());
+		}
+
+		/**
+		 * Queues a vertex reached for the first time.
+		 */
+		void reach(int v, double d, int from, int entry, double priority) {
+			if (reachedCount == reached.length) {
+				int[] grown = new int[Math.min(reachedCount * 2, dist.length)];
+				System.arraycopy(reached, 0, grown, 0, reachedCount);
+				reached = grown;
+			}
+			reached[reachedCount++] = v;
+			dist[v] = d;
+			pred[v] = from;
+			predEntry[v] = entry;
+			heap.insert(v, priority);
+		}
+
+		/**
+		 * Records a shorter path to a queued vertex.
+		 */
+		void improve(int v, double d, int from, int entry, double priority) {
+			dist[v] = d;
+			pred[v] = from;
+			predEntry[v] = entry;
+			heap.decreaseKey(v, priority);
+		}
+	}
+}
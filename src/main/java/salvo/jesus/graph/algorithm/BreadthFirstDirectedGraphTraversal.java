@@ -46,6 +46,7 @@ import salvo.jesus.graph.Edge;
 import salvo.jesus.graph.Graph;
 import salvo.jesus.graph.NullVisitor;
 import salvo.jesus.graph.Visitor;
+import salvo.jesus.graph.primitive.IntDirectedGraph;
 import salvo.jesus.util.EmptyQueueException;
 import salvo.jesus.util.Queue;
 
@@ -119,6 +120,41 @@ public class BreadthFirstDirectedGraphTraversal extends GraphTraversal{
     return visited;
   }
 
+
+  /**
+   * Performs a breadth first traversal of an IntDirectedGraph, respecting the
+   * direction of edges, without creating any object per vertex or edge.
+   *
+   * @param graph     IntDirectedGraph on which the traversal will be performed.
+   * @param startat   Id of the vertex to start the traversal at.
+   * @return  Ids of the vertices in the order they were visited.
+   */
+  public static int[] traverse( IntDirectedGraph graph, int startat ) {
+    boolean queued[] = new boolean[ graph.getVertexCapacity() ];
+    int queue[] = new int[ graph.getVerticesCount() ];
+    int head = 0, tail = 0;
+
+    queue[tail++] = startat;
+    queued[startat] = true;
+    while( head < tail ) {
+      int next = queue[head++];
+
+      // Queue the adjacent vertices that have never been queued
+      int degree = graph.getOutDegree( next );
+      for( int i = 0; i < degree; i++ ) {
+        int adjacent = graph.getOutgoing( next, i );
+        if( !queued[adjacent] ) {
+          queued[adjacent] = true;
+          queue[tail++] = adjacent;
+        }
+      }
+    }
+
+    // The queue holds the vertices in the order they were visited
+    int result[] = new int[ tail ];
+    System.arraycopy( queue, 0, result, 0, tail );
+    return result;
+  }
 }
 
 /* 
@@ -36,14 +36,14 @@
 package salvo.jesus.graph.algorithm;
 
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
-import java.util.Stack;
-import java.util.TreeSet;
 
 import salvo.jesus.graph.DirectedEdge;
 import salvo.jesus.graph.DirectedGraph;
@@ -54,57 +54,39 @@ import salvo.jesus.graph.GraphException;
 /**
  * Compute the cycle/cocycle bases of a given directed graph. 
  * <p />
- * The cycle base of a  * directed graph is a set of elementary cycles of a the graph such that every
- * other elementary cycle of the graph is a linear combination of cycles from
- * the base. The "vectors" are made from each edge of the graph.
+ * The cycle base of a directed graph is a set of elementary cycles of the
+ * graph such that every other elementary cycle of the graph is a linear
+ * combination of cycles from the base. The "vectors" are made from each edge
+ * of the graph. Only the edges of a strongly connected component are in
+ * cycles.
  * <p />
- * The cocycle or cuts of a directed graph is a set of elementary paths of the graph such
- * that any two strongly connected component is separated by a linear combination
- * of cocycles.
+ * The cocycles of a directed graph are the edges between its strongly
+ * connected components, which separate them.
  * <p /> 
  * The algorithm works as follows :
  * <ul>
- * <li>Compute a tree cover for all vertices in the graph, which is 
- * a subset of graph' edges ;</li>
- * <li>Any edge that is not in the tree cover makes a possible 
- * cycle in the graph: 
- * <ol>
- * <li>A cycle base is made from the minimal cycle this edge creates 
- * by adding it to edges in the tree,
- * </li>
- * <li>A cocycle base is made from 
- * </li>
- * </ol></li>
+ * <li>Compute the strongly connected components of the graph ;</li>
+ * <li>Grow each component from one of its vertices by directed ears:
+ * an edge leaving the part already grown, followed by the shortest path
+ * back to this part. Each ear closes a cycle with a path inside the part
+ * already grown, and this cycle is the first to contain the edges of the
+ * ear, so that the cycles are independent. A component of m edges and n
+ * vertices has m - n + 1 ears ;</li>
+ * <li>Each edge between two components makes a cocycle.</li>
  * </ul>
+ * The base thus has as many elements as the cyclomatic number of the graph.
  * 
  * @author nono
  * @version $Id$
  * @see <a href="">Graph Theory</a>, V. Diestel, Springer-Verlag
+ * @see CyclomaticComplexity
  */
 public class CycleBase {
 
     private DirectedGraph digraph;
 
-    /* cycles base */
-    private Set cycles = new HashSet();
-
-    private Comparator edgecomp = new Comparator() {
-        public boolean equals(Object obj) {
-            return false;
-        }
-
-        public int compare(Object o1, Object o2) {
-            DirectedEdge de1 = (DirectedEdge) o1;
-            DirectedEdge de2 = (DirectedEdge) o2;
-            boolean d1d2 = de1.getSink().equals(de2.getSource());
-            boolean d2d1 = de1.getSource().equals(de2.getSink());
-            if (d1d2 && !d2d1)
-                return -1;
-            if (!d1d2 && d2d1)
-                return 1;
-            return 0;
-        }
-    };
+    /* cycles and cocycles base */
+    private Set cycles;
 
     public CycleBase(DirectedGraph digraph) {
         this.digraph = digraph;
@@ -117,113 +99,132 @@ public class CycleBase {
      * exists so this algorithm may not always produce the same base for
      * isomorph graphs.
      * 
+     * @return a Set of DirectedGraph objects, each one a cycle or a single
+     *         edge between two strongly connected components.
      */
     public Set base() {
-        List edges = new ArrayList(digraph.getAllEdges());
-        List /* < Edge > */base = new ArrayList();
-        Set todo;
-        int ne = digraph.getEdgesCount();
-        /* traverse the graph */
-        if (digraph.getConnectedSet().size() == 0
-                || digraph.getConnectedSet().size() > 1)
-            return null;
-        List con = (List) digraph.getConnectedSet().get(0);
-        if (con.isEmpty())
-            return null;
-        /* start at any vertex */
-        Object v =  con.get(0);
-        Object next;
-        Stack stack = new Stack();
-        Set visited = new HashSet();
-        /* get a vertex coverage */
-        // Push the starting vertex onto the stack
-        stack.push(v);
-        do {
-            // Get the next vertex in the queue and add it to the visited
-            next =  stack.pop();
-            visited.add(next);
+        Map /* < Object, Integer > */component = new HashMap();
+        List /* < Map > */internal = new ArrayList();
+
+        cycles = new HashSet();
+        for (Iterator i = new TarjanSCC(digraph).SCC().iterator(); i.hasNext();) {
+            DirectedGraph scc = (DirectedGraph) i.next();
+            for (Iterator i2 = scc.getVerticesIterator(); i2.hasNext();)
+                component.put(i2.next(), new Integer(internal.size()));
+            /* edges are compared by identity, as EdgeImpl.equals() is loose */
+            internal.add(new IdentityHashMap());
+        }
+        for (Iterator i = digraph.getAllEdges().iterator(); i.hasNext();) {
+            DirectedEdge de = (DirectedEdge) i.next();
+            Object c = component.get(de.getSource());
+            if (c.equals(component.get(de.getSink())))
+                ((Map) internal.get(((Integer) c).intValue())).put(de, de);
+            else {
+                /* cocycle */
+                List edge = new ArrayList(1);
+                edge.add(de);
+                cycles.add(graph(edge));
+            }
+        }
+        Set done = new HashSet();
+        for (Iterator i = digraph.getVerticesIterator(); i.hasNext();) {
+            Object v = i.next();
+            Integer c = (Integer) component.get(v);
+            if (done.add(c))
+                grow(v, (Map) internal.get(c.intValue()));
+        }
+        return cycles;
+    }
+
+    /**
+     * Adds the cycles closed by the ears of a strongly connected component,
+     * grown from one of its vertices.
+     * 
+     * @param remaining
+     *            the edges of the component, removed as they are covered by
+     *            ears.
+     */
+    private void grow(Object root, Map remaining) {
+        List grown = new ArrayList();
+        Set grownset = new HashSet();
+        Map covered = new IdentityHashMap();
 
-            // Get all of its adjacent vertices and push them onto the stack
-            // only if it has not been visited and it has not been stacked
-            List adj = digraph.getEdges(next);
-            Iterator iterator = adj.iterator();
-            while (iterator.hasNext()) {
-                DirectedEdge e = (DirectedEdge) iterator.next();
-                Object opp = e.getOppositeVertex(next);
-                if (!visited.contains(opp) && !stack.contains(opp)) {
-                    stack.push(opp);
-                    /* add to base */
-                    base.add(e);
-                    /* remove from remaining edges */
-                    edges.remove(e);
+        grown.add(root);
+        grownset.add(root);
+        for (int i = 0; i < grown.size(); i++) {
+            Object u = grown.get(i);
+            for (Iterator i2 = digraph.getOutgoingEdges(u).iterator(); i2
+                    .hasNext();) {
+                DirectedEdge de = (DirectedEdge) i2.next();
+                if (!remaining.containsKey(de))
+                    continue;
+                /* the ear: de then back to the grown part */
+                List ear = new ArrayList();
+                ear.add(de);
+                ear.addAll(path(de.getSink(), grownset, remaining));
+                Object end = ((DirectedEdge) ear.get(ear.size() - 1))
+                        .getSink();
+                Set from = new HashSet();
+                from.add(u);
+                List cycle = new ArrayList(ear);
+                cycle.addAll(path(end, from, covered));
+                for (Iterator i3 = ear.iterator(); i3.hasNext();) {
+                    DirectedEdge e = (DirectedEdge) i3.next();
+                    remaining.remove(e);
+                    covered.put(e, e);
+                    if (grownset.add(e.getSink()))
+                        grown.add(e.getSink());
                 }
+                cycles.add(graph(cycle));
             }
+        }
+    }
 
-        } while (!stack.isEmpty());
-        /* sort base */
-        Collections.sort(base, edgecomp);
-        List redges = new ArrayList(edges);
-        /* base contains a list of edges that covers all vertices in digraph */
-        /* compute cycles base by adding remaining edges one at a time and computing 
-         * resulting cycle
-         */
-        for (Iterator i = redges.iterator(); i.hasNext();) {
-            DirectedGraph dg = new DirectedGraphImpl();
-            DirectedEdge de = (DirectedEdge) i.next();
-            try {
-                dg.addEdge(de);
-            } catch (GraphException e) {
-                e.printStackTrace();
+    /**
+     * Returns the edges of a shortest path from a vertex to one of a set of
+     * vertices, using only the given edges, or an empty path if the vertex is
+     * in the set.
+     */
+    private List path(Object from, Set to, Map edges) {
+        Map /* < Object, DirectedEdge > */reached = new HashMap();
+        LinkedList queue = new LinkedList();
+        LinkedList path = new LinkedList();
+        Object cur = null;
+
+        reached.put(from, null);
+        queue.add(from);
+        while (!queue.isEmpty()) {
+            Object v = queue.removeFirst();
+            if (to.contains(v)) {
+                cur = v;
+                break;
             }
-            /*
-             * find edges in base that form a cycle and such that start and end
-             * vertex of de are in the cycle
-             */
-            Object src = de.getSource();
-            Object cur = de.getSink();
-            for (Iterator i2 = base.iterator(); i2.hasNext();) {
-                DirectedEdge bs = (DirectedEdge) i2.next();
-                if (bs.getSource().equals(cur)) {
-                    try {
-                        dg.addEdge(bs);
-                    } catch (GraphException e1) {
-                        e1.printStackTrace();
-                    }
-                    cur = bs.getSink();
-                    if (bs.getSink().equals(src))
-                        break;
+            for (Iterator i = digraph.getOutgoingEdges(v).iterator(); i
+                    .hasNext();) {
+                DirectedEdge de = (DirectedEdge) i.next();
+                if (edges.containsKey(de) && !reached.containsKey(de.getSink())) {
+                    reached.put(de.getSink(), de);
+                    queue.add(de.getSink());
                 }
             }
-            i.remove();
-            cycles.add(dg);
         }
-        /* 
-         * compute cocyles bases by removing one edge from base and
-         * computing edge in edges that cross the two components induced 
-         * by removing the base
-         */
-        for (Iterator i = base.iterator(); i.hasNext();) {
-            
+        /* the component is strongly connected, so cur is found */
+        for (DirectedEdge de = (DirectedEdge) reached.get(cur); de != null; de = (DirectedEdge) reached
+                .get(de.getSource()))
+            path.addFirst(de);
+        return path;
+    }
+
+    private static DirectedGraph graph(List edges) {
+        DirectedGraph dg = new DirectedGraphImpl();
+        for (Iterator i = edges.iterator(); i.hasNext();) {
+            try {
+                dg.addEdge((DirectedEdge) i.next());
+            } catch (GraphException e) {
+                e.printStackTrace();
+            }
         }
-        /* there may be remaining edges in base */
-//        while (!todo.isEmpty()) {
-//            DirectedGraph dg = new DirectedGraphImpl();
-//            Object cur = null;
-//            for (Iterator i = todo.iterator(); i.hasNext();) {
-//                DirectedEdge de = (DirectedEdge)i.next();
-//                if(cur == null || de.getSource().equals(cur)) {
-//                    cur = de.getSink();
-//                    try {
-//                        dg.addEdge(de);
-//                    } catch (GraphException e) {
-//                        e.printStackTrace();
-//                    }
-//                    i.remove();
-//                } 
-//            }
-//            cycles.add(dg);
-//        }
-        return null;
+        return dg;
     }
 
 }
@@ -11,6 +11,7 @@ import salvo.jesus.graph.Graph;
 import salvo.jesus.graph.NullVisitor;
 
 import salvo.jesus.graph.Visitor;
+import salvo.jesus.graph.primitive.IntDirectedGraph;
 
 /**
  * A concrete subclass of GraphTraversal that uses depth-first search
@@ -85,5 +86,42 @@ public class DepthFirstDirectedGraphTraversal extends GraphTraversal {
     this.traverse( startat, visited, visitor );
     return visited;
   }
+
+  /**
+   * Performs a depth first traversal of an IntDirectedGraph, respecting the
+   * direction of edges, without creating any object per vertex or edge.
+   * The vertices are visited in the same order as the Object-based traversal.
+   *
+   * @param graph     IntDirectedGraph on which the traversal will be performed.
+   * @param startat   Id of the vertex to start the traversal at.
+   * @return  Ids of the vertices in the order they were visited.
+   */
+  public static int[] traverse( IntDirectedGraph graph, int startat ) {
+    boolean stacked[] = new boolean[ graph.getVertexCapacity() ];
+    int stack[] = new int[ graph.getVertexCapacity() ];
+    int visited[] = new int[ graph.getVerticesCount() ];
+    int top = 0, count = 0;
+
+    stack[top++] = startat;
+    stacked[startat] = true;
+    do {
+      int next = stack[--top];
+      visited[count++] = next;
+
+      // Push the adjacent vertices that have never been stacked
+      int degree = graph.getOutDegree( next );
+      for( int i = 0; i < degree; i++ ) {
+        int adjacent = graph.getOutgoing( next, i );
+        if( !stacked[adjacent] ) {
+          stacked[adjacent] = true;
+          stack[top++] = adjacent;
+        }
+      }
+    } while( top > 0 );
+
+    int result[] = new int[ count ];
+    System.arraycopy( visited, 0, result, 0, count );
+    return result;
+  }
 }
 
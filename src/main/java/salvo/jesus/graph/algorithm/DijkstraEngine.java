@@ -0,0 +1,167 @@
+package salvo.jesus.graph.algorithm;
+
+import salvo.jesus.graph.FrozenGraph;
+import salvo.jesus.util.IndexedHeap;
+
+/**
+ * Runs Dijkstra's algorithm on the int ids of a FrozenGraph, following its
+ * outgoing entries: the incident edges of a FrozenGraph, and the outgoing
+ * edges of a FrozenDirectedGraph. Edges of a graph that is not weighted
+ * weigh 1.
+ * <p>
+ * An engine keeps the distances and predecessors of the vertices, and an
+ * {@link IndexedHeap} of the vertices being reached, in arrays of one entry
+ * per vertex, which it resets between queries in time proportional to the
+ * number of vertices reached. A query thus allocates nothing, and the
+ * {@link ShortestPathTree} it returns is overwritten by the next query of the
+ * same engine. Engines are not thread-safe, but several engines may share a
+ * FrozenGraph:
+ *
+ * <pre>
+ * FrozenGraph frozen = graph.freeze();
+ * DijkstraEngine engine = new DijkstraEngine(frozen);
+ * double d = engine.distance(from, to);
+ * List edges = engine.shortestPath(from, to).pathTo(to);
+ * </pre>
+ *
+ * @author nono
+ * @version $Id$
+ */
+public class DijkstraEngine {
+
+	private final FrozenGraph graph;
+
+	private final IndexedHeap heap;
+
+	private final ShortestPathTree tree;
+
+	/**
+	 * Creates an engine for a graph, with a heap of the default arity.
+	 *
+	 * @throws IllegalArgumentException
+	 *             if an edge has a negative weight.
+	 */
+	public DijkstraEngine(FrozenGraph graph) {
+		this(graph, IndexedHeap.DEFAULT_ARITY);
+	}
+
+	/**
+	 * Creates an engine for a graph, with a heap of the given arity.
+	 *
+	 * @throws IllegalArgumentException
+	 *             if an edge has a negative weight, or if the arity is less
+	 *             than 2.
+	 */
+	public DijkstraEngine(FrozenGraph graph, int arity) {
+		int n = graph.getVerticesCount();
+		if (n > 0)
+			for (int e = 0; e < graph.getOutgoingEnd(n - 1); e++)
+				if (graph.getOutgoingWeight(e) < 0)
+					throw new IllegalArgumentException("Negative weight: "
+							+ graph.getOutgoingEdge(e));
+		this.graph = graph;
+		this.heap = new IndexedHeap(n, arity);
+		this.tree = new ShortestPathTree(graph);
+	}
+
+	public FrozenGraph getGraph() {
+		return graph;
+	}
+
+	/**
+	 * Returns the shortest paths from a vertex to all the vertices it
+	 * reaches.
+	 *
+	 * @throws IllegalArgumentException
+	 *             if the vertex is not in the graph.
+	 */
+	public ShortestPathTree shortestPaths(Object source) {
+		return run(id(source), -1);
+	}
+
+	/**
+	 * Returns the shortest paths from a vertex id to all the vertices it
+	 * reaches.
+	 */
+	public ShortestPathTree shortestPaths(int source) {
+		return run(source, -1);
+	}
+
+	/**
+	 * Returns the shortest paths from a vertex, stopping as soon as the
+	 * shortest path to the target is known. The tree only holds the vertices
+	 * closer to the source than the target, and the target itself.
+	 *
+	 * @throws IllegalArgumentException
+	 *             if a vertex is not in the graph.
+	 */
+	public ShortestPathTree shortestPath(Object source, Object target) {
+		return run(id(source), id(target));
+	}
+
+	/**
+	 * Returns the length of the shortest path between two vertices, or
+	 * <tt>Double.POSITIVE_INFINITY</tt> if there is none.
+	 *
+	 * @throws IllegalArgumentException
+	 *             if a vertex is not in the graph.
+	 */
+	public double distance(Object source, Object target) {
+		int to = id(target);
+		return run(id(source), to).distanceTo(to);
+	}
+
+	private int id(Object v) {
+		int id = graph.getVertexId(v);
+		if (id < 0)
+			throw new IllegalArgumentException("Not in the graph: " + v);
+		return id;
+	}
+
+	/**
+	 * Runs Dijkstra's algorithm from a source, until the target is reached if
+	 * it is not negative.
+	 */
+	private ShortestPathTree run(int source, int target) {
+		ShortestPathTree tree = this.tree;
+		double[] dist = tree.dist;
+		int[] pred = tree.pred;
+		int[] predEntry = tree.predEntry;
+
+		tree.reset(source);
+		dist[source] = 0;
+		tree.reached(source);
+		heap.insert(source, 0);
+		while (!heap.isEmpty()) {
+			int v = heap.removeMin();
+			if (v == target)
+				break;
+			double d = dist[v];
+			for (int e = graph.getOutgoingStart(v), end = graph
+					.getOutgoingEnd(v); e < end; e++) {
+				int w = graph.getOutgoingTarget(e);
+				double dw = d + graph.getOutgoingWeight(e);
+				// an edge of infinite weight leads nowhere, so that an
+				// infinite distance always means not reached
+				if (dw == Double.POSITIVE_INFINITY)
+					continue;
+				if (dist[w] == Double.POSITIVE_INFINITY) {
+					tree.reached(w);
+					heap.insert(w, dw);
+				} else if (dw < dist[w] && heap.contains(w))
+					heap.decreaseKey(w, dw);
+				else
+					continue;
+				dist[w] = dw;
+				pred[w] = v;
+				predEntry[w] = e;
+			}
+		}
+
+		// vertices still in the heap have no shortest path yet
+		for (int i = 0; i < heap.size(); i++)
+			tree.unreach(heap.keyAt(i));
+		heap.clear();
+		return tree;
+	}
+}
@@ -6,11 +6,20 @@
 package salvo.jesus.graph.algorithm;
 
 import java.util.*;
+import salvo.jesus.graph.FrozenGraph;
 import salvo.jesus.graph.Graph;
 
 
 /**
  * A class for computing various metrics on graphs.
+ * <p>
+ * Built from a {@link GraphMatrix}, the distances are computed by
+ * {@link FloydWarshall}'s algorithm, in O(n<sup>3</sup>) time and
+ * O(n<sup>2</sup>) memory. Built from a {@link FrozenGraph} or an
+ * {@link AllPairsShortestPaths}, they are computed by a search from each
+ * vertex, and only the eccentricities are kept: the matrix is computed again
+ * if asked for. In both cases, the distance from a vertex to itself is the
+ * length of the shortest cycle through it.
  * 
  * @author nono
  * @version $Id$
@@ -38,35 +47,69 @@ public class Distance {
             g = im.getGraph();
             adjacency = im;
             computeDistances();
+            eccentricities = new double[vertices];
+            for (int i = 0; i < vertices; i++)
+                eccentricities[i] = eccentricity(flat, i * vertices, vertices);
         }
     }
 
+    /**
+     * Computes the eccentricities of the vertices of a graph by searches
+     * from each vertex.
+     */
+    public Distance(FrozenGraph graph) {
+        this(new AllPairsShortestPaths(graph));
+    }
+
+    /**
+     * Computes the eccentricities of the vertices of a graph with an
+     * all-pairs engine, streaming its rows.
+     */
+    public Distance(AllPairsShortestPaths paths) {
+        this.paths = paths;
+        final FrozenGraph frozen = paths.getGraph();
+        vertices = frozen.getVerticesCount();
+        g = frozen;
+        eccentricities = new double[vertices];
+        paths.run(new DistanceRowSink() {
+            public void row(int source, double[] distances) {
+                double cycle = cycle(frozen, source, distances);
+                eccentricities[source] = Math.max(eccentricity(distances, 0,
+                        vertices), cycle);
+            }
+        });
+    }
+
+    /**
+     * Returns the length of the shortest cycle through a vertex, given the
+     * distances from it.
+     */
+    private static double cycle(FrozenGraph graph, int v, double[] distances) {
+        double ret = Double.POSITIVE_INFINITY;
+        for (int e = graph.getIncomingStart(v); e < graph.getIncomingEnd(v); e++) {
+            double d = distances[graph.getIncomingSource(e)]
+                    + graph.getIncomingWeight(e);
+            if (d < ret)
+                ret = d;
+        }
+        return ret;
+    }
+
     private void computeDistances() {
         double from[][] = adjacency.getMatrix();
-        /* substitute 0 on non diagonal vertices with +infnty */
+        /* substitute 0 on vertices with +infnty, the diagonal included */
+        flat = new double[vertices * vertices];
         for (int i = 0; i < vertices; i++)
             for (int j = 0; j < vertices; j++)
-                if (from[i][j] == 0)
-                    from[i][j] = Double.POSITIVE_INFINITY;
-        double to[][] = new double[vertices][vertices];
-        double tmp[][] = (double[][]) null;
-        for (int k = 0; k < vertices; k++) {
-            for (int i = 0; i < vertices; i++) {
-                for (int j = 0; j < vertices; j++) {
-                    double dij = from[i][j];
-                    double cm = from[i][k] + from[k][j];
-                    to[i][j] = (dij < cm) ? dij : cm;
-                }
-            }
-            tmp = from;
-            from = to;
-            to = from;
-        }
-        distances = from;
+                flat[i * vertices + j] = from[i][j] == 0 ? Double.POSITIVE_INFINITY
+                        : from[i][j];
+        FloydWarshall.shortestPaths(flat, vertices, Runtime.getRuntime()
+                .availableProcessors());
     }
 
     public double eccentricity(Object v) {
-        int i = g.getAllVertices().indexOf(v);
+        int i = paths != null ? paths.getGraph().getVertexId(v) : g
+                .getAllVertices().indexOf(v);
         return eccentricity(i);
     }
 
@@ -97,17 +140,42 @@ public class Distance {
         return l;
     }
 
+    /**
+     * Returns the matrix of the distances between vertices, in the order of
+     * <tt>getAllVertices()</tt>. Built from a FrozenGraph, the matrix is
+     * computed on each call.
+     */
     public double[][] distances() {
-        return distances;
+        if (paths == null) {
+            if (distances == null) {
+                distances = new double[vertices][vertices];
+                for (int i = 0; i < vertices; i++)
+                    System.arraycopy(flat, i * vertices, distances[i], 0,
+                            vertices);
+            }
+            return distances;
+        }
+        final FrozenGraph frozen = paths.getGraph();
+        final double[][] ret = new double[vertices][];
+        paths.run(new DistanceRowSink() {
+            public void row(int source, double[] distances) {
+                ret[source] = distances.clone();
+                ret[source][source] = cycle(frozen, source, distances);
+            }
+        });
+        return ret;
     }
 
     private double eccentricity(int i) {
-        if (distances == null)
-            return 1.7976931348623157E+308D;
+        return eccentricities[i];
+    }
+
+    private static double eccentricity(double[] distances, int from,
+            int length) {
         double ret = 4.9406564584124654E-324D;
-        for (int j = 0; j < vertices; j++)
-            if (distances[i][j] > ret)
-                ret = distances[i][j];
+        for (int j = from; j < from + length; j++)
+            if (distances[j] > ret)
+                ret = distances[j];
 
         return ret;
     }
@@ -173,6 +241,7 @@ public class Distance {
     }
 
     public String toString() {
+        double distances[][] = distances();
         StringBuffer sb = new StringBuffer();
         String nl = System.getProperty("line.separator");
         for (int i = 0; i < vertices; i++) {
@@ -197,6 +266,15 @@ public class Distance {
 
     private double distances[][];
 
+    /**
+     * Distances computed from the matrix, row by row.
+     */
+    private double flat[];
+
+    private double eccentricities[];
+
+    private AllPairsShortestPaths paths;
+
     private GraphMatrix adjacency;
 
     private Graph g;
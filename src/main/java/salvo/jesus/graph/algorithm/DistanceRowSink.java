@@ -0,0 +1,24 @@
+package salvo.jesus.graph.algorithm;
+
+/**
+ * Receives the rows of an all-pairs distance matrix as they are computed by
+ * {@link AllPairsShortestPaths}.
+ *
+ * @author nono
+ * @version $Id$
+ */
+public interface DistanceRowSink {
+
+	/**
+	 * Receives the distances from a vertex to all the vertices, by id,
+	 * <tt>Double.POSITIVE_INFINITY</tt> for the vertices it does not reach.
+	 * Rows come in no particular order, from several threads at once, and
+	 * the array is reused for the next row once this method returns.
+	 *
+	 * @param source
+	 *            the id of the vertex.
+	 * @param distances
+	 *            the distances from the vertex.
+	 */
+	public void row(int source, double[] distances);
+}
@@ -0,0 +1,65 @@
+package salvo.jesus.graph.algorithm;
+
+import java.awt.geom.Rectangle2D;
+import java.util.Iterator;
+
+import salvo.jesus.graph.FrozenGraph;
+import salvo.jesus.graph.visual.VisualGraph;
+import salvo.jesus.graph.visual.VisualVertex;
+
+/**
+ * Estimates the length of shortest paths by the straight-line distance
+ * between the positions of vertices, multiplied by a scale. The estimate is
+ * consistent when no edge weighs less than the scaled distance between its
+ * vertices.
+ *
+ * @author nono
+ * @version $Id$
+ */
+public class EuclideanHeuristic implements AStarHeuristic {
+
+	private final double[] x;
+
+	private final double[] y;
+
+	private final double scale;
+
+	/**
+	 * Creates a heuristic from the coordinates of the vertices, by id.
+	 */
+	public EuclideanHeuristic(double[] x, double[] y, double scale) {
+		if (x.length != y.length)
+			throw new IllegalArgumentException("Coordinates: " + x.length
+					+ " x " + y.length);
+		this.x = x;
+		this.y = y;
+		this.scale = scale;
+	}
+
+	/**
+	 * Creates a heuristic from the centers of the VisualVertices of the
+	 * vertices of a frozen graph, as they are now. Vertices without a
+	 * VisualVertex are at the origin.
+	 */
+	public EuclideanHeuristic(FrozenGraph graph, VisualGraph visualGraph,
+			double scale) {
+		this(new double[graph.getVerticesCount()],
+				new double[graph.getVerticesCount()], scale);
+		for (Iterator i = visualGraph.getVisualVertices().iterator(); i
+				.hasNext();) {
+			VisualVertex vertex = (VisualVertex) i.next();
+			int id = graph.getVertexId(vertex.getVertex());
+			if (id >= 0) {
+				Rectangle2D bounds = vertex.getBounds2D();
+				x[id] = bounds.getCenterX();
+				y[id] = bounds.getCenterY();
+			}
+		}
+	}
+
+	public double estimate(int from, int to) {
+		double dx = x[from] - x[to];
+		double dy = y[from] - y[to];
+		return scale * Math.sqrt(dx * dx + dy * dy);
+	}
+}
@@ -0,0 +1,160 @@
+package salvo.jesus.graph.algorithm;
+
+import salvo.jesus.util.TaskPool;
+
+/**
+ * Floyd-Warshall's algorithm on dense matrices stored row by row in flat
+ * arrays, in place and on several threads.
+ * <p>
+ * Distances are computed block by block, in the three phases of G. Venkataraman,
+ * S. Sahni and S. Mukhopadhyaya, <i>A blocked all-pairs shortest-paths
+ * algorithm</i>, 2003: for each block of <tt>BLOCK</tt> intermediate vertices,
+ * the diagonal tile is closed first, then the tiles of its row and column,
+ * then all the other tiles, the tiles of each phase in parallel. Each tile is
+ * small enough to stay in cache while it is updated.
+ * <p>
+ * The transitive closure works on rows of bits, 64 columns to a long, and
+ * merges rows a word at a time. Rows are closed 64 intermediate vertices at a
+ * time, the rows of these vertices first, then all the others in parallel.
+ *
+ * @author nono
+ * @version $Id$
+ */
+public final class FloydWarshall {
+
+	/**
+	 * Size of the tiles of distance matrices.
+	 */
+	public static final int BLOCK = 64;
+
+	private FloydWarshall() {
+	}
+
+	/**
+	 * Replaces a matrix of edge weights by the matrix of shortest path
+	 * lengths. The weight from <tt>i</tt> to <tt>j</tt> is at
+	 * <tt>i * n + j</tt>, and is <tt>Double.POSITIVE_INFINITY</tt> if there is
+	 * no edge. The graph must not have a cycle of negative weight.
+	 *
+	 * @param threads
+	 *            the number of threads updating tiles.
+	 */
+	public static void shortestPaths(final double[] d, final int n, int threads) {
+		checkSize(d.length, (long) n * n);
+		final int blocks = (n + BLOCK - 1) / BLOCK;
+		TaskPool pool = new TaskPool(Math.min(threads, blocks));
+
+		try {
+			for (int b = 0; b < blocks; b++) {
+				final int kb = b;
+				final int k0 = kb * BLOCK, k1 = Math.min(n, k0 + BLOCK);
+				relax(d, n, k0, k1, k0, k1, k0, k1);
+				// tiles in the row and column of the diagonal tile
+				pool.run(blocks, new TaskPool.Task() {
+					public void run(int t) {
+						if (t == kb)
+							return;
+						int t0 = t * BLOCK, t1 = Math.min(n, t0 + BLOCK);
+						relax(d, n, k0, k1, k0, k1, t0, t1);
+						relax(d, n, t0, t1, k0, k1, k0, k1);
+					}
+				});
+				// all other tiles, a row of tiles at a time
+				pool.run(blocks, new TaskPool.Task() {
+					public void run(int t) {
+						if (t == kb)
+							return;
+						int i0 = t * BLOCK, i1 = Math.min(n, i0 + BLOCK);
+						for (int jb = 0; jb < blocks; jb++)
+							if (jb != kb)
+								relax(d, n, i0, i1, k0, k1, jb * BLOCK, Math
+										.min(n, (jb + 1) * BLOCK));
+					}
+				});
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Shortens the paths from rows <tt>i0</tt> to <tt>i1</tt> to columns
+	 * <tt>j0</tt> to <tt>j1</tt> through vertices <tt>k0</tt> to <tt>k1</tt>.
+	 */
+	private static void relax(double[] d, int n, int i0, int i1, int k0,
+			int k1, int j0, int j1) {
+		for (int k = k0; k < k1; k++) {
+			int rk = k * n;
+			for (int i = i0; i < i1; i++) {
+				int ri = i * n;
+				double dik = d[ri + k];
+				if (dik == Double.POSITIVE_INFINITY)
+					continue;
+				for (int j = j0; j < j1; j++) {
+					double dij = dik + d[rk + j];
+					if (dij < d[ri + j])
+						d[ri + j] = dij;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the number of longs in a row of bits of a matrix of <tt>n</tt>
+	 * columns.
+	 */
+	public static int words(int n) {
+		return (n + 63) >>> 6;
+	}
+
+	/**
+	 * Replaces a matrix of bits by its transitive closure. Row <tt>i</tt>
+	 * takes <tt>words(n)</tt> longs from <tt>i * words(n)</tt>, and column
+	 * <tt>j</tt> is bit <tt>j % 64</tt> of its long <tt>j / 64</tt>.
+	 *
+	 * @param threads
+	 *            the number of threads updating rows.
+	 */
+	public static void transitiveClosure(final long[] bits, final int n,
+			int threads) {
+		final int words = words(n);
+		checkSize(bits.length, (long) n * words);
+		TaskPool pool = new TaskPool(Math.min(threads, words));
+
+		try {
+			for (int b = 0; b < words; b++) {
+				final int kb = b;
+				final int k0 = kb << 6, k1 = Math.min(n, k0 + 64);
+				for (int k = k0; k < k1; k++)
+					for (int i = k0; i < k1; i++)
+						if ((bits[i * words + kb] & 1L << k) != 0)
+							or(bits, i * words, k * words, words);
+				// rows of the block are closed, and may be merged in any row
+				// after the steps of the block are over
+				pool.run(words, new TaskPool.Task() {
+					public void run(int t) {
+						if (t == kb)
+							return;
+						for (int i = t << 6, i1 = Math.min(n, i + 64); i < i1; i++)
+							for (int k = k0; k < k1; k++)
+								if ((bits[i * words + kb] & 1L << k) != 0)
+									or(bits, i * words, k * words, words);
+					}
+				});
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	private static void or(long[] bits, int to, int from, int words) {
+		for (int w = 0; w < words; w++)
+			bits[to + w] |= bits[from + w];
+	}
+
+	private static void checkSize(int length, long size) {
+		if (length < size)
+			throw new IllegalArgumentException("Matrix of " + length
+					+ " entries instead of " + size);
+	}
+}
@@ -1,8 +1,15 @@
 package salvo.jesus.graph.algorithm;
 
 import java.io.Serializable;
+import java.util.List;
 
+import salvo.jesus.graph.Edge;
+import salvo.jesus.graph.FrozenDirectedGraph;
+import salvo.jesus.graph.FrozenGraph;
+import salvo.jesus.graph.GraphBuilder;
+import salvo.jesus.graph.GraphException;
 import salvo.jesus.graph.WeightedGraph;
+import salvo.jesus.graph.WeightedGraphImpl;
 
 /**
  * Abstract class for an algorithm implementing the minimum spanning tree.
@@ -31,4 +38,30 @@ public abstract class MinimumSpanningTreeAlgorithm implements Serializable {
    * Abstract method to be implemented by subclasses.
    */
   public abstract WeightedGraph minimumSpanningTree();
+
+  /**
+   * Returns the graph frozen with all the incident edges of each vertex
+   * as its outgoing entries, so that the edges of a directed graph are
+   * taken as undirected. A FrozenGraph of an undirected graph is used as is.
+   */
+  FrozenGraph undirectedFrozenGraph() {
+    // A FrozenDirectedGraph only has outgoing edges as outgoing entries,
+    // whereas a FrozenGraph of any graph has all the incident edges.
+    if( this.wgraph instanceof FrozenGraph && !( this.wgraph instanceof FrozenDirectedGraph ))
+      return (FrozenGraph) this.wgraph;
+    return new FrozenGraph( this.wgraph );
+  }
+
+  /**
+   * Returns a new WeightedGraph of the edges of a spanning tree.
+   */
+  static WeightedGraph spanningTree( List<Edge> edges ) {
+    try {
+      return new GraphBuilder<WeightedGraphImpl>( new WeightedGraphImpl() )
+          .addEdges( edges ).build();
+    }
+    catch( GraphException ex ) {
+      throw new IllegalStateException( ex.toString() );
+    }
+  }
 }
\ No newline at end of file
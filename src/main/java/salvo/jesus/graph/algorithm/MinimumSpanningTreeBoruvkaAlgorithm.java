@@ -0,0 +1,227 @@
+package salvo.jesus.graph.algorithm;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import salvo.jesus.graph.Edge;
+import salvo.jesus.graph.FrozenGraph;
+import salvo.jesus.graph.WeightedGraph;
+import salvo.jesus.util.DisjointSets;
+import salvo.jesus.util.TaskPool;
+
+/**
+ * A MinimumSpanningTreeAlgorithm using Bor&#367;vka's method on several
+ * threads. Each round, the threads scan the edges still between different
+ * components, and each component keeps the lightest of its edges; these
+ * edges are then added to the tree, merging components. Each round at least
+ * halves the number of components, and drops the edges inside components.
+ * <p>
+ * Edges of equal weight are ordered as by
+ * {@link MinimumSpanningTreeKruskalAlgorithm}, so that both find the same
+ * tree. As with Kruskal's method, the edges of a directed graph are taken as
+ * undirected. Select it with
+ *
+ * <pre>
+ * graph.setMinimumSpanningTreeAlgorithm(new MinimumSpanningTreeBoruvkaAlgorithm(
+ * 		graph));
+ * </pre>
+ *
+ * @author nono
+ * @version $Id$
+ */
+public class MinimumSpanningTreeBoruvkaAlgorithm extends
+		MinimumSpanningTreeAlgorithm {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Smallest number of edges scanned by a task.
+	 */
+	private static final int MIN_CHUNK = 1 << 12;
+
+	private int threads = Runtime.getRuntime().availableProcessors();
+
+	public MinimumSpanningTreeBoruvkaAlgorithm(WeightedGraph wgraph) {
+		super(wgraph);
+	}
+
+	/**
+	 * Sets the number of threads scanning edges, by default the number of
+	 * processors.
+	 */
+	public void setThreads(int threads) {
+		if (threads < 1)
+			throw new IllegalArgumentException("Threads: " + threads);
+		this.threads = threads;
+	}
+
+	public int getThreads() {
+		return threads;
+	}
+
+	public WeightedGraph minimumSpanningTree() {
+		TaskPool pool = new TaskPool(threads);
+		try {
+			return new Run(undirectedFrozenGraph(), pool).spanningTree();
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * The state of a computation.
+	 */
+	private static class Run {
+
+		private final FrozenGraph graph;
+
+		private final TaskPool pool;
+
+		/**
+		 * Ends, weight and outgoing entry of each edge, numbered in the order
+		 * of the entries of their lower end.
+		 */
+		private final int[] sources, targets, entries;
+
+		private final double[] weights;
+
+		/**
+		 * Edges between different components, as of the last round.
+		 */
+		private final int[] alive;
+
+		private int aliveCount;
+
+		/**
+		 * Component of each vertex: the representative of its set.
+		 */
+		private final int[] component;
+
+		/**
+		 * Lightest edge of each component, or -1.
+		 */
+		private final AtomicIntegerArray lightest;
+
+		Run(FrozenGraph graph, TaskPool pool) {
+			int n = graph.getVerticesCount();
+			int count = 0;
+
+			this.graph = graph;
+			this.pool = pool;
+			// each edge has an entry at both ends: keep the one from the
+			// lower id, and drop loops
+			for (int v = 0; v < n; v++)
+				for (int e = graph.getOutgoingStart(v); e < graph
+						.getOutgoingEnd(v); e++)
+					if (v < graph.getOutgoingTarget(e))
+						count++;
+			sources = new int[count];
+			targets = new int[count];
+			entries = new int[count];
+			weights = new double[count];
+			alive = new int[count];
+			count = 0;
+			for (int v = 0; v < n; v++)
+				for (int e = graph.getOutgoingStart(v); e < graph
+						.getOutgoingEnd(v); e++)
+					if (v < graph.getOutgoingTarget(e)) {
+						sources[count] = v;
+						targets[count] = graph.getOutgoingTarget(e);
+						entries[count] = e;
+						weights[count] = graph.getOutgoingWeight(e);
+						alive[count] = count;
+						count++;
+					}
+			aliveCount = count;
+			component = new int[n];
+			for (int v = 0; v < n; v++)
+				component[v] = v;
+			lightest = new AtomicIntegerArray(n);
+		}
+
+		/**
+		 * Determines if an edge is lighter than another, which may be -1.
+		 */
+		private boolean lighter(int e, int f) {
+			return f < 0 || weights[e] < weights[f] || weights[e] == weights[f]
+					&& e < f;
+		}
+
+		private void offer(int c, int e) {
+			for (;;) {
+				int f = lightest.get(c);
+				if (!lighter(e, f) || lightest.compareAndSet(c, f, e))
+					return;
+			}
+		}
+
+		WeightedGraph spanningTree() {
+			int n = component.length;
+			DisjointSets sets = new DisjointSets(n);
+			List<Edge> tree = new ArrayList<Edge>(Math.max(0, n - 1));
+			int[] roots = new int[n];
+			int rootCount = n;
+
+			for (int v = 0; v < n; v++)
+				roots[v] = v;
+			while (aliveCount > 0 && tree.size() < n - 1) {
+				for (int i = 0; i < rootCount; i++)
+					lightest.set(roots[i], -1);
+				scan();
+				for (int i = 0; i < rootCount; i++) {
+					int e = lightest.get(roots[i]);
+					// both ends may have picked the same edge
+					if (e >= 0 && sets.union(sources[e], targets[e]))
+						tree.add(graph.getOutgoingEdge(entries[e]));
+				}
+				rootCount = 0;
+				for (int v = 0; v < n; v++)
+					if ((component[v] = sets.find(v)) == v)
+						roots[rootCount++] = v;
+			}
+			return MinimumSpanningTreeAlgorithm.spanningTree(tree);
+		}
+
+		/**
+		 * Offers each alive edge to the components of its ends, and drops the
+		 * edges inside a component. Each task packs the edges it keeps at the
+		 * start of its chunk, and the chunks are then packed together.
+		 */
+		private void scan() {
+			final int chunks = Math.max(1, Math.min(pool.getThreads() * 4,
+					aliveCount / MIN_CHUNK));
+			final int size = aliveCount;
+			final int[] kept = new int[chunks];
+
+			pool.run(chunks, new TaskPool.Task() {
+				public void run(int c) {
+					int from = bound(size, chunks, c);
+					int to = bound(size, chunks, c + 1);
+					int at = from;
+					for (int i = from; i < to; i++) {
+						int e = alive[i];
+						int cs = component[sources[e]];
+						int ct = component[targets[e]];
+						if (cs == ct)
+							continue;
+						offer(cs, e);
+						offer(ct, e);
+						alive[at++] = e;
+					}
+					kept[c] = at - from;
+				}
+			});
+			aliveCount = kept[0];
+			for (int c = 1; c < chunks; c++) {
+				System.arraycopy(alive, bound(size, chunks, c), alive,
+						aliveCount, kept[c]);
+				aliveCount += kept[c];
+			}
+		}
+
+		private static int bound(int size, int chunks, int chunk) {
+			return (int) ((long) size * chunk / chunks);
+		}
+	}
+}
@@ -1,29 +1,31 @@
 package salvo.jesus.graph.algorithm;
 
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
-import java.util.HashSet;
-import java.util.Iterator;
 import java.util.List;
 
 import salvo.jesus.graph.Edge;
-import salvo.jesus.graph.Graph;
-import salvo.jesus.graph.GraphImpl;
-
-import salvo.jesus.graph.WeightedEdge;
+import salvo.jesus.graph.FrozenGraph;
 import salvo.jesus.graph.WeightedGraph;
-import salvo.jesus.graph.WeightedGraphImpl;
+import salvo.jesus.util.DisjointSets;
+import salvo.jesus.util.KeySort;
 
 /**
  * A contrete implementation of the MinimumSpanningTreeAlgorithm using
  * Kruskal's method.
+ * <p>
+ * The graph is frozen, unless it is already a <tt>FrozenGraph</tt>, and each
+ * edge is taken once from the entries of its ends. Edges are sorted by weight
+ * as arrays of keys and entry numbers on several threads, and joined with
+ * <tt>DisjointSets</tt> of vertex ids until the tree spans all the vertices.
+ * As before, the edges of a directed graph are taken as undirected.
  *
  * @author Jesus M. Salvo Jr.
  */
 
 public class MinimumSpanningTreeKruskalAlgorithm extends MinimumSpanningTreeAlgorithm {
 
+  private int threads = Runtime.getRuntime().availableProcessors();
+
   /**
    * Creates an instance of MinimumSpanningTreeKruskalAlgorithm
    *
@@ -34,88 +36,58 @@ public class MinimumSpanningTreeKruskalAlgorithm extends MinimumSpanningTreeAlgo
   }
 
   /**
-   * Determine the minimum spanning tree of a weighted graph using Kruskal's method.
+   * Sets the number of threads sorting edges, by default the number of processors.
    */
-  public WeightedGraph minimumSpanningTree() {
-    HashSet   allEdges = new HashSet();
-    WeightedGraph  spanningtree = new WeightedGraphImpl();
-    Graph     spanningtestgraph = new GraphImpl();
-    List      addedvertices = new ArrayList( 10 );
-    Object    v1, v2;
-    Iterator  iterator;
-    List      incidentEdges;
-    Iterator  edgeiterator;
-    Edge      edge;
-
-    // Collate all edges in the graph.
-    // Use a HashSet to prevent the same Edge being stored twice.
-    iterator = this.wgraph.getVerticesIterator();
-    WeightedEdge  currentEdge;
-    while( iterator.hasNext() ) {
-      incidentEdges = wgraph.getEdges(  iterator.next());
-      edgeiterator = incidentEdges.iterator();
-      while( edgeiterator.hasNext() ) {
-        allEdges.add( (WeightedEdge) edgeiterator.next() );
-      }
-    }
-
-    // Copy the HashSet to a List so we can sort the edges using
-    // the sort() method of the Collections object.
-    List listEdges = new ArrayList( allEdges );
-    Collections.sort( listEdges,
-      new Comparator() {
-        public int compare( Object obj1, Object obj2 ) {
-          WeightedEdge edge1 = (WeightedEdge) obj1;
-          WeightedEdge edge2 = (WeightedEdge) obj2;
+  public void setThreads( int threads ) {
+    if( threads < 1 )
+      throw new IllegalArgumentException( "Threads: " + threads );
+    this.threads = threads;
+  }
 
-          if( edge1.getWeight() < edge2.getWeight() )
-            return -1;
-          else if( edge1.getWeight() > edge2.getWeight() )
-            return 1;
-          else
-            return 0;
-        }
+  public int getThreads() {
+    return this.threads;
+  }
 
-        public boolean equals( Object obj ) {
-          return obj.equals( this );
+  /**
+   * Determine the minimum spanning tree of a weighted graph using Kruskal's method.
+   */
+  public WeightedGraph minimumSpanningTree() {
+    FrozenGraph   frozen = undirectedFrozenGraph();
+    int n = frozen.getVerticesCount();
+
+    // Each edge has an entry at both ends: keep the one from the lower id.
+    // Loops are never in the tree.
+    int count = 0;
+    for( int v = 0; v < n; v++ )
+      for( int e = frozen.getOutgoingStart( v ); e < frozen.getOutgoingEnd( v ); e++ )
+        if( v < frozen.getOutgoingTarget( e ))
+          count++;
+
+    long[] keys = new long[count];
+    int[] order = new int[count];
+    int[] sources = new int[count];
+    int[] entries = new int[count];
+    count = 0;
+    for( int v = 0; v < n; v++ )
+      for( int e = frozen.getOutgoingStart( v ); e < frozen.getOutgoingEnd( v ); e++ )
+        if( v < frozen.getOutgoingTarget( e )) {
+          keys[count] = KeySort.key( frozen.getOutgoingWeight( e ));
+          order[count] = count;
+          sources[count] = v;
+          entries[count++] = e;
         }
-      });
-
-    iterator = listEdges.iterator();
-    // For each edge ...
-    while( iterator.hasNext()) {
-      edge = (WeightedEdge) iterator.next();
-
-      // We make use of a graph itself to test the feasibility
-      // of adding an edge into the spanning tree
-      v1 = edge.getVertexA();
-      v2 = edge.getVertexB();
-
-      try {
-          // Of courese, only add the vertex if it does not exist yet.
-          if( !addedvertices.contains( v1 ) ) {
-            spanningtestgraph.add( v1 );
-            addedvertices.add( v1 );
-          }
-          if( !addedvertices.contains( v2 ) ) {
-            spanningtestgraph.add( v2 );
-            addedvertices.add( v2 );
-          }
-
-          // ... if the edge will not cause a cycle among the edges
-          // in the spanning tree, add the edge to the spanning tree.
-          if( !spanningtestgraph.isConnected( v1, v2 ) ) {
-            spanningtestgraph.addEdge( v1, v2 );
-            spanningtree.addEdge( edge );
-          }
-      }
-      catch( Exception ex ) {
-        ex.printStackTrace();
-      }
-
+    KeySort.sort( keys, order, count, this.threads );
+    keys = null;
+
+    // For each edge, lightest first, add the edge to the spanning tree
+    // if it does not cause a cycle among the edges in the spanning tree.
+    DisjointSets  trees = new DisjointSets( n );
+    List<Edge>    spanningtree = new ArrayList<Edge>( Math.max( 0, n - 1 ));
+    for( int i = 0; i < count && spanningtree.size() < n - 1; i++ ) {
+      int edge = order[i];
+      if( trees.union( sources[edge], frozen.getOutgoingTarget( entries[edge] )))
+        spanningtree.add( frozen.getOutgoingEdge( entries[edge] ));
     }
-
-    spanningtestgraph = null;
-    return spanningtree;
+    return spanningTree( spanningtree );
   }
-}
\ No newline at end of file
+}
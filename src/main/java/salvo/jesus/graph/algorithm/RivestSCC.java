@@ -117,14 +117,6 @@ public class RivestSCC extends StronglyConnectedComponentsAlgorithm {
 				SCCData data = (SCCData) it.next();
 				Object v = data.v;
 				if (!visited.contains(v)) { // found an SCC root
-					System.err.println(
-						"Visit2 for "
-							+ data.v
-							+ " ("
-							+ data.start
-							+ ","
-							+ data.end
-							+ ")");
 					DirectedGraph sgraph = new DirectedGraphImpl();
 					visit2(v, sgraph);
 					sccs.add(sgraph);
@@ -178,8 +170,6 @@ public class RivestSCC extends StronglyConnectedComponentsAlgorithm {
 				visit1(new SCCData(opp));
 		}
 		data.end = ++datescc;
-		System.err.println(
-			"Data for " + data.v + " (" + data.start + "," + data.end + ")");
 		vertices.add(data);
 	}
 
@@ -195,11 +185,6 @@ public class RivestSCC extends StronglyConnectedComponentsAlgorithm {
 		visited.add(v);
 		// update mirror graph
 		sgraph.add(v);
-		System.err.println(
-			"Subgraph "
-				+ ((Object) sgraph).toString()
-				+ " : added vertex "
-				+ v);
 		// retriev all outgoing edges
 		Iterator it = mirror.getOutgoingEdges(v).iterator();
 		while (it.hasNext()) {
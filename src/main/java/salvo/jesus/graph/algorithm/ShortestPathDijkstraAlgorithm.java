@@ -1,56 +1,31 @@
 package salvo.jesus.graph.algorithm;
 
-import java.util.ArrayList;
-import java.util.Comparator;
-import java.util.Iterator;
-import java.util.List;
-
-
-import salvo.jesus.graph.WeightedEdge;
+import salvo.jesus.graph.FrozenDirectedGraph;
+import salvo.jesus.graph.FrozenGraph;
 import salvo.jesus.graph.WeightedGraph;
-import salvo.jesus.graph.WeightedGraphImpl;
-import salvo.jesus.util.Heap;
-import salvo.jesus.util.HeapNode;
 import salvo.jesus.util.HeapNodeComparator;
 
 /**
  * A concrete implementation of ShortestPathAlgorithm using Dijkstra's method.
+ * <p>
+ * The weighted graph is frozen, and the shortest path spanning tree is found
+ * by a <tt>DijkstraEngine</tt> on the int ids of the frozen graph. As before,
+ * the edges of a directed graph are followed in both directions. Use a
+ * <tt>DijkstraEngine</tt> on a <tt>FrozenDirectedGraph</tt> directly to
+ * follow them from source to sink, or to run many queries on the same graph.
  *
  * @author  Jesus M. Salvo Jr.
  */
 
 public class ShortestPathDijkstraAlgorithm extends ShortestPathAlgorithm {
-  /**
-   * List of vertices that has been added to the tree
-   */
-  private List  visited;
-
-  /**
-   * Heap of FringeObjects that are to be processed.
-   */
-  private Heap  fringe;
-
-  /**
-   * Subgraph forming the shortest spanning tree.
-   */
-  private WeightedGraph shortestpathtree;
-
-  /**
-   * Comparator used to be compare priorities in the fringe.
-   */
-  private HeapNodeComparator  comparator;
-
   /**
    * Creates an instance of ShortestPathDijkstraAlgorithm.
    *
    * @param wgraph  The WeightedGraph where a shortest path spanning tree will be determined.
-   * @param comparator  The HeapNodeComparator to be used to compare priorities of objects in the fringe/heap.
+   * @param comparator  Ignored: paths of least weight are always preferred.
    */
   public ShortestPathDijkstraAlgorithm( WeightedGraph wgraph, HeapNodeComparator comparator ) {
     super( wgraph );
-    this.visited = new ArrayList( 10 );
-    this.comparator = comparator;
-    this.fringe = new Heap( new HeapNodeComparator( 1 ));
   }
 
   /**
@@ -63,184 +38,16 @@ public class ShortestPathDijkstraAlgorithm extends ShortestPathAlgorithm {
    * to all other vertices.
    */
   public WeightedGraph shortestPath( Object from ) {
-    // clear the graph.
-    // this.shortestpathtree.clear();
-    this.shortestpathtree = new WeightedGraphImpl();
-
-    // Now add the vertex we are interested in to the fringe.
-    this.fringe.insert( new HeapNode( new FringeObject( from, null ), 0.0 ));
-
-    // Continually process while there are vertices in the heap.
-    while( !this.fringe.isEmpty() ) {
-
-      // Moves the highest priority node from the heap to the tree.
-      this.moveToVisited();
-    }
-
-    // Clear the vectors
-    this.visited.clear();
-    this.fringe.clear();
-
-    return shortestpathtree;
-  }
-
-  /**
-   * Moves the vertex that has the highest priority in the heap
-   * from the fringe to the tree,
-   */
-  private void moveToVisited() {
-    HeapNode  prioritynode;
-
-    // Remove the node with highest priority from the fringe ...
-    prioritynode = this.fringe.remove( );
-
-    FringeObject  fringeobject = (FringeObject) prioritynode.getObject();
-    Object    priorityvertex = fringeobject.vertex;
-
-    // ... and add it to the tree.
-    this.visited.add( priorityvertex );
-    if( fringeobject.edge != null ) {
-        try {
-            this.shortestpathtree.addEdge( fringeobject.edge );
-        }
-        catch( Exception ex ) {
-            ex.printStackTrace();
-        }
-    }
-
-    // ... then move all the adjacent vertices of the vertex
-    // we just moved to the tree and put them in the fringe.
-    this.moveAdjacentVerticesToFringe( prioritynode );
-  }
-
-  /**
-   * Gets all the adjacent vertices from unseen to the fringe.
-   * The parameter vertex must be a vertex that is being moved
-   * from the fringe to the tree. This method must only be called
-   * by the method moveToVisited().
-   *
-   * @param vertex  The vertex that is being moved from the fringe to the tree
-   * and whose adjacent vertices we want added to the fringe.
-   */
-  private void moveAdjacentVerticesToFringe( HeapNode prioritynode ) {
-    // Get the vertex encapsulated by the heap node
-    Object    priorityvertex = ((FringeObject) prioritynode.getObject()).vertex;
+    FrozenGraph   frozen;
 
-    // Then get the edges of the vertex
-    // We cant use wgraph.getAdjacentVertices() as that will
-    // not tell us what edge to use.
-    List    incidentedges = this.wgraph.getEdges( priorityvertex );
-
-    // Get the priority of the heap node
-    double    priority = prioritynode.getPriority();
-
-    // We need to iterate through the edges
-    Iterator  iterator = incidentedges.iterator();
-
-    // Because we are using HeapNodes in the fringe,
-    // we need a way to compare the object (a Vertex) encapsulated in a HeapNode in the
-    // fringe and a Vertex
-    HeapNodeObjectComparator  heapnodeobjectcomparator = new HeapNodeObjectComparator();
-
-    // The current incident edge iterated
-    WeightedEdge  incidentedge;
-
-    // The current adjacent vertex within the iteration
-    Object    adjacentvertex;
-
-    // Either an existing HeapNode or an exsting one in the fringe
-    HeapNode  heapnode;
-
-    // The new priority of a heapnode
-    double    fringepriority;
-
-    // For each edge of the vertex ...
-    while( iterator.hasNext() ) {
-      incidentedge = (WeightedEdge) iterator.next();
-
-      // ... get the vertex opposite to the priority vertex
-      // meaning get the adjacent vertex
-      adjacentvertex = incidentedge.getOppositeVertex( priorityvertex );
-
-      // ... check if the adjacent vertex has been visited
-      // If it has been visited, then proceed with the next edge
-      if( this.visited.contains( adjacentvertex )) continue;
-
-      // ... check if the adjacent vertex is already in the fringe
-      heapnode = (HeapNode) this.fringe.contains( adjacentvertex, heapnodeobjectcomparator );
-
-      // ... if it is not yet on the fringe, add it to the fringe
-      if( heapnode == null ) {
-        fringepriority = priority + incidentedge.getWeight();
-        heapnode = new HeapNode( new FringeObject( adjacentvertex, incidentedge ), fringepriority );
-        this.fringe.insert( heapnode );
-      }
-      // If it is already the fringe, reassign its priority,
-      // only if it will give it a "higher" priority.
-      // Use the HeapNodeComparator to determine which is "higher".
-      else {
-        fringepriority = priority + incidentedge.getWeight();
-        if( this.comparator.compare( new HeapNode( adjacentvertex, fringepriority), heapnode ) < 0 ) {
-          this.fringe.setPriority( heapnode, fringepriority );
-          // Also reassign the edge that is used to get the shortest path
-          FringeObject   fobject = (FringeObject) heapnode.getObject();
-          fobject.edge = incidentedge;
-        }
-      }
-
-    }
-  }
-
-}
-
-/**
- * A Comparator for comparing the Object in the FringObject of the HeapNode
- * against another Vertex.
- */
-class HeapNodeObjectComparator implements Comparator {
-
-  /**
-   * Compare a Object against the Object in the FringeObject of a HeapNode.
-   * The comparison is made using the == operator to compare the actual instance.
-   *
-   * @return  Returns 0 if they are the same object. Returns -1 otherwise.
-   */
-  public int compare( Object vertex, Object hnode ) {
-    Object    compareTo =  vertex;
-    HeapNode  heapnode = (HeapNode) hnode;
-    FringeObject  fringeobject = (FringeObject) heapnode.getObject();
-    Object    heapobject =  fringeobject.vertex;
-
-    if( compareTo == heapobject )
-      return 0;
+    // A FrozenDirectedGraph only has outgoing edges as outgoing entries,
+    // whereas a FrozenGraph of any graph has all the incident edges.
+    if( this.wgraph instanceof FrozenGraph && !( this.wgraph instanceof FrozenDirectedGraph ))
+      frozen = (FrozenGraph) this.wgraph;
     else
-      return -1;
-  }
-}
-
-/**
- * An Object encapsulated in a HeapNode, which in turn is added to the fringe.
- * The classical algorithm only mentions of storing vertices in the fringe, but
- * it is programatically difficult to determine what edge to add to the
- * shortest path spanning tree when moving a vertex from the fringe to the tree.
- * It is therefore easier to store the edge along with the vertex in the fringe.
- *
- * The edge stored along with the vertex in the fringe is the
- * edge connecting the vertex that has been moved from the fringe to the tree
- * and the vertex adjacent to the vertex that has been moved from the fringe
- * and being added to the fringe. Got that?
- *
- */
-class FringeObject {
-  Object        vertex;
-  WeightedEdge  edge;
+      frozen = new FrozenGraph( this.wgraph );
 
-  public FringeObject( Object vertex, WeightedEdge edge ) {
-    this.vertex = vertex;
-    this.edge = edge;
+    return new DijkstraEngine( frozen ).shortestPaths( from ).asWeightedGraph();
   }
 
-  public String toString() {
-    return "Vertex: " + vertex + "; Edge: " + edge;
-  }
 }
@@ -0,0 +1,189 @@
+package salvo.jesus.graph.algorithm;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+
+import salvo.jesus.graph.Edge;
+import salvo.jesus.graph.FrozenGraph;
+import salvo.jesus.graph.GraphBuilder;
+import salvo.jesus.graph.GraphException;
+import salvo.jesus.graph.WeightedGraph;
+import salvo.jesus.graph.WeightedGraphImpl;
+
+/**
+ * The shortest paths from a vertex of a FrozenGraph, as found by a
+ * {@link DijkstraEngine}. The tree stores the distance and the predecessor
+ * of each vertex by id, and builds paths and graphs only when asked for.
+ * <p>
+ * A ShortestPathTree belongs to its engine, and is overwritten by the
+ * engine's next query.
+ *
+ * @author nono
+ * @version $Id$
+ */
+public class ShortestPathTree {
+
+	private final FrozenGraph graph;
+
+	private int source = -1;
+
+	/**
+	 * Distance of each vertex from the source, infinite if not reached.
+	 */
+	final double[] dist;
+
+	/**
+	 * Predecessor of each vertex on its shortest path, or -1.
+	 */
+	final int[] pred;
+
+	/**
+	 * Outgoing entry of the predecessor leading to each vertex.
+	 */
+	final int[] predEntry;
+
+	/**
+	 * Vertices reached by the current query, to reset them.
+	 */
+	private int[] reached;
+
+	private int reachedCount;
+
+	ShortestPathTree(FrozenGraph graph) {
+		int n = graph.getVerticesCount();
+		this.graph = graph;
+		dist = new double[n];
+		pred = new int[n];
+		predEntry = new int[n];
+		reached = new int[Math.min(n, 16)];
+		Arrays.fill(dist, Double.POSITIVE_INFINITY);
+		Arrays.fill(pred, -1);
+	}
+
+	/**
+	 * Forgets the previous query.
+	 */
+	void reset(int source) {
+		for (int i = 0; i < reachedCount; i++)
+			unreach(reached[i]);
+		reachedCount = 0;
+		this.source = source;
+	}
+
+	void reached(int v) {
+		if (reachedCount == reached.length) {
+			int[] grown = new int[Math.min(reachedCount * 2, dist.length)];
+			System.arraycopy(reached, 0, grown, 0, reachedCount);
+			reached = grown;
+		}
+		reached[reachedCount++] = v;
+	}
+
+	void unreach(int v) {
+		dist[v] = Double.POSITIVE_INFINITY;
+		pred[v] = -1;
+	}
+
+	public FrozenGraph getGraph() {
+		return graph;
+	}
+
+	/**
+	 * Returns the source of the shortest paths.
+	 */
+	public Object getSource() {
+		return graph.getVertex(source);
+	}
+
+	/**
+	 * Returns the length of the shortest path from the source to a vertex, or
+	 * <tt>Double.POSITIVE_INFINITY</tt> if the vertex is not reached or not
+	 * in the graph.
+	 */
+	public double distanceTo(Object v) {
+		int id = graph.getVertexId(v);
+		return id < 0 ? Double.POSITIVE_INFINITY : dist[id];
+	}
+
+	/**
+	 * Returns the length of the shortest path from the source to a vertex id.
+	 */
+	public double distanceTo(int id) {
+		return dist[id];
+	}
+
+	/**
+	 * Determines if there is a path from the source to a vertex.
+	 */
+	public boolean hasPathTo(Object v) {
+		return distanceTo(v) != Double.POSITIVE_INFINITY;
+	}
+
+	/**
+	 * Returns the vertex before a vertex on its shortest path, or null if the
+	 * vertex is the source or is not reached.
+	 */
+	public Object getPredecessor(Object v) {
+		int id = graph.getVertexId(v);
+		return id < 0 || pred[id] < 0 ? null : graph.getVertex(pred[id]);
+	}
+
+	/**
+	 * Returns the last edge of the shortest path to a vertex, or null if the
+	 * vertex is the source or is not reached.
+	 */
+	public Edge getEdgeTo(Object v) {
+		int id = graph.getVertexId(v);
+		return id < 0 || pred[id] < 0 ? null : graph
+				.getOutgoingEdge(predEntry[id]);
+	}
+
+	/**
+	 * Returns the edges of the shortest path from the source to a vertex, in
+	 * order, or null if the vertex is not reached. The path to the source is
+	 * empty.
+	 */
+	public List pathTo(Object v) {
+		int id = graph.getVertexId(v);
+		if (id < 0 || dist[id] == Double.POSITIVE_INFINITY)
+			return null;
+		LinkedList path = new LinkedList();
+		for (; pred[id] >= 0; id = pred[id])
+			path.addFirst(graph.getOutgoingEdge(predEntry[id]));
+		return path;
+	}
+
+	/**
+	 * Returns the number of vertices reached from the source, the source
+	 * included.
+	 */
+	public int getReachedCount() {
+		int count = 0;
+		for (int i = 0; i < reachedCount; i++)
+			if (dist[reached[i]] != Double.POSITIVE_INFINITY)
+				count++;
+		return count;
+	}
+
+	/**
+	 * Returns a new WeightedGraph of the edges of the shortest paths, as
+	 * returned by <tt>WeightedGraph.shortestPath()</tt>. Its edges are those
+	 * of the original graph, and must not be modified.
+	 */
+	public WeightedGraph asWeightedGraph() {
+		List<Edge> edges = new ArrayList<Edge>(reachedCount);
+		for (int i = 0; i < reachedCount; i++) {
+			int v = reached[i];
+			if (pred[v] >= 0)
+				edges.add(graph.getOutgoingEdge(predEntry[v]));
+		}
+		try {
+			return new GraphBuilder<WeightedGraphImpl>(new WeightedGraphImpl())
+					.addEdges(edges).build();
+		} catch (GraphException e) {
+			throw new IllegalStateException(e.toString());
+		}
+	}
+}
@@ -35,18 +35,29 @@
  */
 package salvo.jesus.graph.algorithm;
 
-import java.util.Iterator;
-import java.util.List;
+import java.util.HashSet;
+import java.util.Set;
 
 import salvo.jesus.graph.DirectedEdge;
 import salvo.jesus.graph.DirectedGraph;
-import salvo.jesus.graph.DirectedGraphImpl;
-import salvo.jesus.graph.Graph;
-import salvo.jesus.graph.GraphException;
+import salvo.jesus.graph.DirectedGraphView;
+import salvo.jesus.graph.Edge;
 
 
 /**
  * An algorithm class for computing subgraphs of a given graph.
+ * <p>
+ * <tt>complement()</tt>, <tt>reachable()</tt> and
+ * <tt>reachableLoopFree()</tt> return read-only views of the given graph,
+ * which copy none of its vertices and edges, where they used to return new
+ * graphs. Methods modifying a view throw a GraphModificationException or an
+ * UnsupportedOperationException, so callers modifying the subgraph must
+ * first copy it with {@link DirectedGraphView#materialize()}.
+ * <p>
+ * The views reflect later changes of the given graph, except that the
+ * vertices of the reachable subgraphs are those reachable when the view is
+ * created: vertices reached later are not added, and vertices no longer
+ * reached are not dropped until they are removed from the graph.
  * 
  * @author nono
  * @version $Id$
@@ -66,95 +77,84 @@ public class Subgraph {
      * 
      * @param V
      *            the vertex to remove.
-     * @return a new DirectedGraph instance containing all vertices of original
-     *         graph minus <code>v</code> and all edges minus edges going to
-     *         or coming from <code>v</code>.
+     * @return a read-only view of all vertices of original graph minus
+     *         <code>v</code> and all edges minus edges going to or coming
+     *         from <code>v</code>.
      */
     public DirectedGraph complement(Object v) {
-        DirectedGraph dg = new DirectedGraphImpl();
-        /* iterate over vertices */
-        for (Iterator i = digraph.getAllVertices().iterator(); i.hasNext();) {
-            Object vv =  i.next();
-            if (vv.equals(v))
-                continue;
-            /* iterate over edges on vv */
-            for (Iterator i1 = digraph.getEdges(vv).iterator(); i1.hasNext();) {
-                DirectedEdge de = (DirectedEdge) i1.next();
-                if (de.getOppositeVertex(vv).equals(v))
-                    continue;
-                try {
-                    dg.addEdge(de);
-                } catch (GraphException e) {
-                    e.printStackTrace();
-                }
-            }
-        }
-        return dg;
+        return new DirectedGraphView(digraph, new WithoutVertex(v));
     }
 
     /**
-     * Computes the subgraph reachable from vertex <code>v</code>.
+     * Computes the subgraph reachable from vertex <code>v</code>. The
+     * vertices reachable from v are found when this method is called.
      * 
      * @param v
      *            a Object from underlying digraph.
-     * @return a new DirectedGraph instance that is the reachable subgraph from
-     *         v.
+     * @return a read-only view of the reachable subgraph from v.
      */
     public DirectedGraph reachable(Object v) {
-        DirectedGraph dg = new DirectedGraphImpl();
-        List l = new BreadthFirstDirectedGraphTraversal(digraph).traverse(v);
-        for (Iterator i = l.iterator(); i.hasNext();) {
-            Object vv =  i.next();
-            try {
-                /* add vertex */
-                dg.add(vv);
-            } catch (GraphException e) {
-                e.printStackTrace();
-            }
-            for (Iterator i2 = digraph.getOutgoingEdges(vv).iterator(); i2
-                    .hasNext();) {
-                DirectedEdge de = (DirectedEdge) i2.next();
-                try {
-                    dg.addEdge(de);
-                } catch (GraphException e1) {
-                    e1.printStackTrace();
-                }
-            }
-        }
-        return dg;
+        return new DirectedGraphView(digraph, new Reachable(v, null));
     }
 
     /**
-     * Compute cyclomatic complexity of reachable subgraph from v 
-     * excluding edges going to v.
+     * Computes the subgraph reachable from vertex <code>v</code>, excluding
+     * the edges going to v. The vertices reachable from v are found when this
+     * method is called.
      * 
      * @param v
-     * @return
+     *            a Object from underlying digraph.
+     * @return a read-only view of the reachable subgraph from v without the
+     *         edges going back to v.
      */
     public DirectedGraph reachableLoopFree(Object v) {
-        DirectedGraph dg = new DirectedGraphImpl();
-        List l = new BreadthFirstDirectedGraphTraversal(digraph).traverse(v);
-        for (Iterator i = l.iterator(); i.hasNext();) {
-            Object vv =  i.next();
-            try {
-                /* add vertex */
-                dg.add(vv);
-            } catch (GraphException e) {
-                e.printStackTrace();
-            }
-            for (Iterator i2 = digraph.getOutgoingEdges(vv).iterator(); i2
-                    .hasNext();) {
-                DirectedEdge de = (DirectedEdge) i2.next();
-                /* do not close loops to v*/
-                if(de.getOppositeVertex(vv).equals(v))
-                    continue;
-                try {
-                    dg.addEdge(de);
-                } catch (GraphException e1) {
-                    e1.printStackTrace();
-                }
-            }
+        return new DirectedGraphView(digraph, new Reachable(v, v));
+    }
+
+    /**
+     * Filter of all vertices but one.
+     */
+    private static class WithoutVertex implements GraphFilter {
+
+        private final Object vertex;
+
+        WithoutVertex(Object vertex) {
+            this.vertex = vertex;
+        }
+
+        public boolean filter(Object v) {
+            return !v.equals(vertex);
+        }
+
+        public boolean filter(Edge e) {
+            return true;
+        }
+    }
+
+    /**
+     * Filter of the vertices reachable from a vertex when the filter is
+     * created, and of the edges between them but those going to an excluded
+     * sink.
+     */
+    private class Reachable implements GraphFilter {
+
+        private final Set reached;
+
+        private final Object excludedSink;
+
+        Reachable(Object v, Object excludedSink) {
+            this.reached = new HashSet(new BreadthFirstDirectedGraphTraversal(
+                    digraph).traverse(v));
+            this.excludedSink = excludedSink;
+        }
+
+        public boolean filter(Object v) {
+            return reached.contains(v);
+        }
+
+        public boolean filter(Edge e) {
+            return excludedSink == null
+                    || !((DirectedEdge) e).getSink().equals(excludedSink);
         }
-        return dg;
     }
 }
@@ -10,6 +10,7 @@ import java.util.Stack;
 import salvo.jesus.graph.DirectedGraph;
 import salvo.jesus.graph.DirectedGraphImpl;
 import salvo.jesus.graph.Edge;
+import salvo.jesus.graph.primitive.IntDirectedGraph;
 
 /**
  * An implementation of the SCC algorithm based on Tarjan's algorithm
@@ -110,6 +111,79 @@ public class TarjanSCC extends StronglyConnectedComponentsAlgorithm {
 		return sccs;
 	}
 
+	/**
+	 * Computes the strongly connected components of an IntDirectedGraph
+	 * without creating any object per vertex or edge. The depth-first search
+	 * is run with an explicit stack, so that large graphs do not overflow the
+	 * call stack.
+	 * 
+	 * @param graph
+	 *            an IntDirectedGraph
+	 * @return the component of each vertex id, or -1 for ids that are not
+	 *         vertices of the graph. Components are numbered from 0 in reverse
+	 *         topological order: edges between components always go from a
+	 *         higher to a lower number.
+	 */
+	public static int[] SCC(IntDirectedGraph graph) {
+		int n = graph.getVertexCapacity();
+		int[] number = new int[n];
+		int[] link = new int[n];
+		int[] component = new int[n];
+		// vertices of the components being built
+		int[] stack = new int[n];
+		boolean[] stacked = new boolean[n];
+		// vertices being visited and index of their next outgoing edge
+		int[] visiting = new int[n];
+		int[] nextEdge = new int[n];
+		int date = 0, sp = 0, components = 0;
+
+		java.util.Arrays.fill(number, -1);
+		java.util.Arrays.fill(component, -1);
+		for (int root = 0; root < n; root++) {
+			if (!graph.containsVertex(root) || number[root] >= 0)
+				continue;
+			int depth = 0;
+			visiting[depth] = root;
+			nextEdge[depth++] = 0;
+			number[root] = link[root] = date++;
+			stack[sp++] = root;
+			stacked[root] = true;
+			while (depth > 0) {
+				int v = visiting[depth - 1];
+				if (nextEdge[depth - 1] < graph.getOutDegree(v)) {
+					int opp = graph.getOutgoing(v, nextEdge[depth - 1]++);
+					if (number[opp] < 0) {
+						// visit connected node
+						visiting[depth] = opp;
+						nextEdge[depth++] = 0;
+						number[opp] = link[opp] = date++;
+						stack[sp++] = opp;
+						stacked[opp] = true;
+					} else if (stacked[opp] && number[opp] < link[v])
+						// back link
+						link[v] = number[opp];
+					continue;
+				}
+				depth--;
+				if (link[v] == number[v]) { // root of SCC
+					int w;
+					do {
+						w = stack[--sp];
+						stacked[w] = false;
+						component[w] = components;
+					} while (w != v);
+					components++;
+				}
+				if (depth > 0) {
+					int parent = visiting[depth - 1];
+					link[parent] = link[v] < link[parent] ? link[v]
+							: link[parent];
+				}
+			}
+		}
+		return component;
+	}
+
 	// //////////////////////////////////////////////////////////////////
 	// PRIVATE METHODS
 	// //////////////////////////////////////////////////////////////////
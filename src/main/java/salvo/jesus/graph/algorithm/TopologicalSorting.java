@@ -5,10 +5,12 @@ import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 
+import salvo.jesus.graph.CycleException;
 import salvo.jesus.graph.DirectedAcyclicGraph;
 import salvo.jesus.graph.NullVisitor;
 
 import salvo.jesus.graph.Visitor;
+import salvo.jesus.graph.primitive.IntDirectedGraph;
 
 /**
  * A concrete subclass of GraphTraversal that performs a topological sort
@@ -159,4 +161,39 @@ public class TopologicalSorting extends GraphTraversal {
     Collections.reverse( sortSequence );
     return sortSequence;
   }
+
+  /**
+   * Performs a topological sort of an entire IntDirectedGraph, so that the
+   * source of every edge comes before its sink. The vertices are removed
+   * from the graph in turn as soon as they have no incoming edges left
+   * (Kahn's method), which takes time linear in the size of the graph.
+   *
+   * @param graph   IntDirectedGraph to sort.
+   * @return  Ids of all the vertices in topological order.
+   * @throws CycleException if the graph has a cycle.
+   */
+  public static int[] sort( IntDirectedGraph graph ) throws CycleException {
+    int indegree[] = new int[ graph.getVertexCapacity() ];
+    int sorted[] = new int[ graph.getVerticesCount() ];
+    int head = 0, tail = 0;
+
+    for( int v = 0; v < indegree.length; v++ ) {
+      if( !graph.containsVertex( v )) continue;
+      indegree[v] = graph.getInDegree( v );
+      if( indegree[v] == 0 )
+        sorted[tail++] = v;
+    }
+    while( head < tail ) {
+      int next = sorted[head++];
+      int degree = graph.getOutDegree( next );
+      for( int i = 0; i < degree; i++ ) {
+        int adjacent = graph.getOutgoing( next, i );
+        if( --indegree[adjacent] == 0 )
+          sorted[tail++] = adjacent;
+      }
+    }
+    if( tail < sorted.length )
+      throw new CycleException( "Graph has a cycle" );
+    return sorted;
+  }
 }
@@ -0,0 +1,80 @@
+package salvo.jesus.graph.generate;
+
+import java.util.Random;
+
+import salvo.jesus.graph.GraphException;
+
+/**
+ * Generates Barab&aacute;si-Albert scale-free graphs by preferential
+ * attachment. The first <tt>m</tt> vertices have no edges between them, the
+ * next vertex has an edge to each of them, and each following vertex has
+ * edges to <tt>m</tt> distinct earlier vertices drawn with a probability
+ * proportional to their degree. Edges go from the new vertex to the earlier
+ * ones.
+ * <p>
+ * Vertices are drawn in constant time by picking an end of an earlier edge
+ * at random, as in V. Batagelj and U. Brandes, <i>Efficient generation of
+ * large random networks</i>, Physical Review E 71, 2005. As the source of
+ * each edge follows from its rank, only the targets of the edges are kept,
+ * in an <tt>int[]</tt> of one entry per edge.
+ *
+ * @author nono
+ * @version $Id$
+ */
+public class BarabasiAlbertGenerator extends GraphGenerator {
+
+	private final int m;
+
+	private final long seed;
+
+	/**
+	 * @param m
+	 *            the number of edges of each new vertex.
+	 * @throws IllegalArgumentException
+	 *             if m is not between 1 and the number of vertices, or if
+	 *             there are too many edges to keep in an array.
+	 */
+	public BarabasiAlbertGenerator(int vertices, int m, long seed) {
+		super(vertices);
+		if (m < 1 || m >= vertices)
+			throw new IllegalArgumentException("Edges per vertex: " + m);
+		this.m = m;
+		if (getEdgesCount() > Integer.MAX_VALUE / 2)
+			throw new IllegalArgumentException("Too many edges: "
+					+ getEdgesCount());
+		this.seed = seed;
+	}
+
+	public long getEdgesCount() {
+		return (long) (getVerticesCount() - m) * m;
+	}
+
+	protected void edges(EdgeSink sink) throws GraphException {
+		int n = getVerticesCount();
+		Random random = new Random(seed);
+		int[] targets = new int[(int) getEdgesCount()];
+		int edges = 0;
+
+		for (int i = 0; i < m; i++) {
+			targets[edges++] = i;
+			sink.edge(m, i);
+		}
+		for (int v = m + 1; v < n; v++) {
+			int first = edges;
+			while (edges < first + m) {
+				// an end of the earlier edges: a target, or the source of
+				// the edge of that rank
+				int end = random.nextInt(2 * first);
+				int target = end < first ? targets[end] : m + (end - first)
+						/ m;
+				boolean drawn = false;
+				for (int i = first; i < edges && !drawn; i++)
+					drawn = targets[i] == target;
+				if (!drawn)
+					targets[edges++] = target;
+			}
+			for (int i = first; i < edges; i++)
+				sink.edge(v, targets[i]);
+		}
+	}
+}
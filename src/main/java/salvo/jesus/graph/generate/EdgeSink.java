@@ -0,0 +1,24 @@
+package salvo.jesus.graph.generate;
+
+import salvo.jesus.graph.GraphException;
+
+/**
+ * Receives the vertices and edges of a generated graph, as they are
+ * generated. Vertices are numbered from 0.
+ *
+ * @author nono
+ * @version $Id$
+ * @see GraphGenerator#generate(EdgeSink)
+ */
+public interface EdgeSink {
+
+	/**
+	 * Receives the number of vertices, before any edge.
+	 */
+	public void vertices(int count) throws GraphException;
+
+	/**
+	 * Receives an edge from a vertex to another.
+	 */
+	public void edge(int source, int target) throws GraphException;
+}
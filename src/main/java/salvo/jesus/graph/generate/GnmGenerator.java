@@ -0,0 +1,205 @@
+package salvo.jesus.graph.generate;
+
+import java.util.Random;
+
+import salvo.jesus.graph.GraphException;
+
+/**
+ * Generates Erd&#337;s-R&eacute;nyi random graphs G(n, m), whose
+ * <tt>m</tt> edges are drawn uniformly among the pairs of distinct vertices,
+ * without repetition. Undirected graphs have an edge from the lower to the
+ * higher vertex of each pair drawn.
+ * <p>
+ * The pairs are drawn in order by Vitter's method D of sequential random
+ * sampling, which skips over the pairs not drawn in constant time on average
+ * and needs no memory. Generation thus takes time linear in the number of
+ * vertices and edges.
+ *
+ * @author nono
+ * @version $Id$
+ * @see GnpGenerator
+ */
+public class GnmGenerator extends GraphGenerator {
+
+	/**
+	 * Method D samples the pairs one by one by method A when there are less
+	 * than this many pairs per edge left.
+	 */
+	private static final int ALPHA_INVERSE = 13;
+
+	private final long edges;
+
+	private final boolean directed;
+
+	private final long seed;
+
+	/**
+	 * @param directed
+	 *            whether <tt>(u, v)</tt> and <tt>(v, u)</tt> are distinct
+	 *            pairs.
+	 * @throws IllegalArgumentException
+	 *             if there are less pairs of distinct vertices than edges.
+	 */
+	public GnmGenerator(int vertices, long edges, boolean directed, long seed) {
+		super(vertices);
+		long pairs = new Pairs(vertices, directed).size();
+		if (edges < 0 || edges > pairs)
+			throw new IllegalArgumentException("Edges: " + edges + " among "
+					+ pairs + " pairs");
+		this.edges = edges;
+		this.directed = directed;
+		this.seed = seed;
+	}
+
+	public long getEdgesCount() {
+		return edges;
+	}
+
+	protected void edges(EdgeSink sink) throws GraphException {
+		Pairs pairs = new Pairs(getVerticesCount(), directed);
+		new Sampler(pairs, new Random(seed), sink).sample(edges, pairs
+				.size());
+	}
+
+	/**
+	 * Draws <tt>n</tt> numbers among <tt>N</tt> in order, as in J. S. Vitter,
+	 * <i>An efficient algorithm for sequential random sampling</i>, ACM
+	 * Transactions on Mathematical Software 13(1), 1987.
+	 */
+	private static class Sampler {
+
+		private final Pairs pairs;
+
+		private final Random random;
+
+		private final EdgeSink sink;
+
+		/**
+		 * The last number drawn.
+		 */
+		private long current = -1;
+
+		Sampler(Pairs pairs, Random random, EdgeSink sink) {
+			this.pairs = pairs;
+			this.random = random;
+			this.sink = sink;
+		}
+
+		/**
+		 * Draws the number following the next <tt>skip</tt> numbers.
+		 */
+		private void select(long skip) throws GraphException {
+			current += skip + 1;
+			pairs.moveTo(current);
+			sink.edge(pairs.source(), pairs.target());
+		}
+
+		/**
+		 * Returns a uniform number in (0, 1].
+		 */
+		private double uniform() {
+			return 1 - random.nextDouble();
+		}
+
+		/**
+		 * Method D.
+		 */
+		void sample(long n, long N) throws GraphException {
+			if (n == 0)
+				return;
+			double nreal = n;
+			double ninv = 1 / nreal;
+			double Nreal = N;
+			double vprime = Math.exp(Math.log(uniform()) * ninv);
+			long qu1 = N - n + 1;
+			double qu1real = Nreal - nreal + 1;
+			long threshold = ALPHA_INVERSE * n;
+
+			while (n > 1 && threshold < N) {
+				double nmin1inv = 1 / (nreal - 1);
+				long S;
+				double negSreal;
+				while (true) {
+					double X;
+					// D2: draw the skip from the continuous approximation
+					while (true) {
+						X = Nreal * (1 - vprime);
+						S = (long) X;
+						if (S < qu1)
+							break;
+						vprime = Math.exp(Math.log(uniform()) * ninv);
+					}
+					double U = uniform();
+					negSreal = -S;
+					double y1 = Math.exp(Math.log(U * Nreal / qu1real)
+							* nmin1inv);
+					vprime = y1 * (1 - X / Nreal)
+							* (qu1real / (negSreal + qu1real));
+					// D3: quick acceptance
+					if (vprime <= 1)
+						break;
+					// D4: exact acceptance test
+					double y2 = 1;
+					double top = Nreal - 1;
+					double bottom;
+					long limit;
+					if (n - 1 > S) {
+						bottom = Nreal - nreal;
+						limit = N - S;
+					} else {
+						bottom = Nreal + negSreal - 1;
+						limit = qu1;
+					}
+					for (long t = N - 1; t >= limit; t--) {
+						y2 = y2 * top / bottom;
+						top--;
+						bottom--;
+					}
+					if (Nreal / (Nreal - X) >= y1
+							* Math.exp(Math.log(y2) * nmin1inv)) {
+						vprime = Math.exp(Math.log(uniform()) * nmin1inv);
+						break;
+					}
+					vprime = Math.exp(Math.log(uniform()) * ninv);
+				}
+				// D5: skip S numbers and draw the next one
+				select(S);
+				N = N - 1 - S;
+				Nreal = Nreal - 1 + negSreal;
+				n--;
+				nreal--;
+				ninv = nmin1inv;
+				qu1 -= S;
+				qu1real += negSreal;
+				threshold -= ALPHA_INVERSE;
+			}
+			if (n > 1)
+				sampleA(n, N);
+			else
+				select(Math.min(N - 1, (long) (N * vprime)));
+		}
+
+		/**
+		 * Method A, for dense samples.
+		 */
+		private void sampleA(long n, long N) throws GraphException {
+			double top = N - n;
+			double Nreal = N;
+			while (n >= 2) {
+				double V = random.nextDouble();
+				long S = 0;
+				double quot = top / Nreal;
+				while (quot > V) {
+					S++;
+					top--;
+					Nreal--;
+					quot = quot * top / Nreal;
+				}
+				select(S);
+				Nreal--;
+				n--;
+			}
+			select((long) (Math.round(Nreal) * random.nextDouble()));
+		}
+	}
+}
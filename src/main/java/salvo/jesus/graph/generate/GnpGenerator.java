@@ -0,0 +1,69 @@
+package salvo.jesus.graph.generate;
+
+import java.util.Random;
+
+import salvo.jesus.graph.GraphException;
+
+/**
+ * Generates Erd&#337;s-R&eacute;nyi random graphs G(n, p), where each pair
+ * of distinct vertices is an edge with probability <tt>p</tt>. Undirected
+ * graphs have an edge from the lower to the higher vertex of each pair, so
+ * that they are acyclic when loaded into a directed graph.
+ * <p>
+ * Instead of drawing each of the <tt>n<sup>2</sup></tt> pairs, the number
+ * of pairs skipped before the next edge is drawn from its geometric
+ * distribution, which takes time linear in the number of vertices and
+ * edges.
+ *
+ * @author nono
+ * @version $Id$
+ * @see GnmGenerator
+ */
+public class GnpGenerator extends GraphGenerator {
+
+	private final double p;
+
+	private final boolean directed;
+
+	private final long seed;
+
+	/**
+	 * @param directed
+	 *            whether <tt>(u, v)</tt> and <tt>(v, u)</tt> are distinct
+	 *            pairs.
+	 * @throws IllegalArgumentException
+	 *             if p is not a probability.
+	 */
+	public GnpGenerator(int vertices, double p, boolean directed, long seed) {
+		super(vertices);
+		if (!(p >= 0 && p <= 1))
+			throw new IllegalArgumentException("Probability: " + p);
+		this.p = p;
+		this.directed = directed;
+		this.seed = seed;
+	}
+
+	protected void edges(EdgeSink sink) throws GraphException {
+		Pairs pairs = new Pairs(getVerticesCount(), directed);
+		sample(pairs, p, new Random(seed), sink);
+	}
+
+	/**
+	 * Sends each pair to a sink with probability p.
+	 */
+	static void sample(Pairs pairs, double p, Random random, EdgeSink sink)
+			throws GraphException {
+		if (p == 0)
+			return;
+		double log = Math.log1p(-p);
+		long size = pairs.size();
+		for (long number = -1;;) {
+			double skip = Math.floor(Math.log(1 - random.nextDouble()) / log);
+			if (skip >= size - 1 - number)
+				return;
+			number += 1 + (long) skip;
+			pairs.moveTo(number);
+			sink.edge(pairs.source(), pairs.target());
+		}
+	}
+}
@@ -0,0 +1,185 @@
+package salvo.jesus.graph.generate;
+
+import salvo.jesus.graph.Graph;
+import salvo.jesus.graph.GraphBuilder;
+import salvo.jesus.graph.GraphException;
+import salvo.jesus.graph.GraphImpl;
+import salvo.jesus.graph.Path;
+import salvo.jesus.graph.Tree;
+import salvo.jesus.graph.primitive.IntDirectedGraph;
+
+/**
+ * Generates graphs of a given number of vertices. Random generators are
+ * seeded, so that a generator gives the same graph each time it is run.
+ * <p>
+ * Edges are streamed to an {@link EdgeSink} as they are generated, and no
+ * generator collects them. A generated graph can thus be as large as its
+ * destination allows, which is far larger for an IntDirectedGraph than for a
+ * graph of objects. Typical use is:
+ *
+ * <pre>
+ * DirectedGraphImpl graph = new GnmGenerator(1000000, 10000000, true, 42)
+ * 		.generate(new DirectedGraphImpl());
+ * </pre>
+ *
+ * @author nono
+ * @version $Id$
+ */
+public abstract class GraphGenerator {
+
+	public static final int DEFAULT_BATCH_SIZE = 1 << 16;
+
+	private final int vertices;
+
+	private int batchSize = DEFAULT_BATCH_SIZE;
+
+	/**
+	 * @throws IllegalArgumentException
+	 *             if the number of vertices is negative.
+	 */
+	protected GraphGenerator(int vertices) {
+		if (vertices < 0)
+			throw new IllegalArgumentException("Vertices: " + vertices);
+		this.vertices = vertices;
+	}
+
+	/**
+	 * Returns the number of vertices of the generated graphs.
+	 */
+	public int getVerticesCount() {
+		return vertices;
+	}
+
+	/**
+	 * Sets the number of vertices and edges added at once to a GraphImpl.
+	 */
+	public void setBatchSize(int batchSize) {
+		if (batchSize < 1)
+			throw new IllegalArgumentException("Batch size: " + batchSize);
+		this.batchSize = batchSize;
+	}
+
+	public int getBatchSize() {
+		return batchSize;
+	}
+
+	/**
+	 * Generates a graph into a sink: its number of vertices, then its edges.
+	 */
+	public void generate(EdgeSink sink) throws GraphException {
+		sink.vertices(vertices);
+		edges(sink);
+	}
+
+	/**
+	 * Generates the edges of a graph into a sink.
+	 */
+	protected abstract void edges(EdgeSink sink) throws GraphException;
+
+	/**
+	 * Generates a graph into a Graph, its vertices being the Integers from 0.
+	 * The edges are created by the GraphFactory of the graph. A GraphImpl is
+	 * loaded by a {@link GraphBuilder}, in batches of
+	 * {@link #setBatchSize(int)}, and other graphs, as well as Trees and
+	 * Paths, by <tt>add()</tt> and <tt>addEdge()</tt>.
+	 *
+	 * @return the graph
+	 */
+	public <G extends Graph> G generate(G graph) throws GraphException {
+		if (graph instanceof GraphImpl && !(graph instanceof Tree)
+				&& !(graph instanceof Path)) {
+			BuilderSink sink = new BuilderSink((GraphImpl) graph, batchSize);
+			generate(sink);
+			sink.flush();
+		} else
+			generate(new GraphSink(graph));
+		return graph;
+	}
+
+	/**
+	 * Generates a graph into an IntDirectedGraph, adding new vertices to it.
+	 *
+	 * @return the graph
+	 */
+	public IntDirectedGraph generate(final IntDirectedGraph graph)
+			throws GraphException {
+		generate(new EdgeSink() {
+
+			private int[] ids;
+
+			public void vertices(int count) {
+				ids = new int[count];
+				for (int i = 0; i < count; i++)
+					ids[i] = graph.addVertex();
+			}
+
+			public void edge(int source, int target) {
+				graph.addEdge(ids[source], ids[target]);
+			}
+		});
+		return graph;
+	}
+
+	/**
+	 * Adds vertices and edges to a graph one by one.
+	 */
+	private static class GraphSink implements EdgeSink {
+
+		final Graph graph;
+
+		Integer[] vertices;
+
+		GraphSink(Graph graph) {
+			this.graph = graph;
+		}
+
+		public void vertices(int count) throws GraphException {
+			vertices = new Integer[count];
+			for (int i = 0; i < count; i++)
+				add(vertices[i] = new Integer(i));
+		}
+
+		void add(Integer vertex) throws GraphException {
+			graph.add(vertex);
+		}
+
+		public void edge(int source, int target) throws GraphException {
+			graph.addEdge(vertices[source], vertices[target]);
+		}
+	}
+
+	/**
+	 * Adds vertices and edges to a GraphImpl in batches.
+	 */
+	private static class BuilderSink extends GraphSink {
+
+		private final GraphBuilder<GraphImpl> builder;
+
+		private final int batchSize;
+
+		private int pending;
+
+		BuilderSink(GraphImpl graph, int batchSize) {
+			super(graph);
+			this.builder = new GraphBuilder<GraphImpl>(graph);
+			this.batchSize = batchSize;
+		}
+
+		void add(Integer vertex) throws GraphException {
+			builder.addVertex(vertex);
+			if (++pending == batchSize)
+				flush();
+		}
+
+		public void edge(int source, int target) throws GraphException {
+			builder.addEdge(vertices[source], vertices[target]);
+			if (++pending == batchSize)
+				flush();
+		}
+
+		void flush() throws GraphException {
+			builder.build();
+			pending = 0;
+		}
+	}
+}
@@ -0,0 +1,72 @@
+package salvo.jesus.graph.generate;
+
+import salvo.jesus.graph.GraphException;
+
+/**
+ * Generates 2D grids, and tori whose rows and columns wrap around. The
+ * vertex in row <tt>r</tt> and column <tt>c</tt> is
+ * <tt>r * columns + c</tt>, and has an edge to the vertex on its right and
+ * to the vertex below it. A torus wraps only rows and columns of at least 3
+ * vertices, so that it has neither loops nor parallel edges.
+ *
+ * @author nono
+ * @version $Id$
+ */
+public class GridGenerator extends GraphGenerator {
+
+	private final int rows;
+
+	private final int columns;
+
+	private final boolean torus;
+
+	/**
+	 * @throws IllegalArgumentException
+	 *             if there are more than <tt>Integer.MAX_VALUE</tt>
+	 *             vertices.
+	 */
+	public GridGenerator(int rows, int columns, boolean torus) {
+		super(count(rows, columns));
+		this.rows = rows;
+		this.columns = columns;
+		this.torus = torus;
+	}
+
+	private static int count(int rows, int columns) {
+		if (rows < 0 || columns < 0
+				|| (long) rows * columns > Integer.MAX_VALUE)
+			throw new IllegalArgumentException("Grid: " + rows + " x "
+					+ columns);
+		return rows * columns;
+	}
+
+	public int getRows() {
+		return rows;
+	}
+
+	public int getColumns() {
+		return columns;
+	}
+
+	public boolean isTorus() {
+		return torus;
+	}
+
+	protected void edges(EdgeSink sink) throws GraphException {
+		boolean wrapRows = torus && columns >= 3;
+		boolean wrapColumns = torus && rows >= 3;
+
+		for (int r = 0; r < rows; r++)
+			for (int c = 0; c < columns; c++) {
+				int v = r * columns + c;
+				if (c + 1 < columns)
+					sink.edge(v, v + 1);
+				else if (wrapRows)
+					sink.edge(v, r * columns);
+				if (r + 1 < rows)
+					sink.edge(v, v + columns);
+				else if (wrapColumns)
+					sink.edge(v, c);
+			}
+	}
+}
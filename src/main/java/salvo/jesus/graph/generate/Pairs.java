@@ -0,0 +1,70 @@
+package salvo.jesus.graph.generate;
+
+/**
+ * Numbers the pairs of distinct vertices among <tt>n</tt>, so that sampling
+ * pairs comes down to sampling numbers. Directed pairs <tt>(u, v)</tt> are
+ * numbered by source, then target. Undirected pairs are numbered as
+ * <tt>(u, v)</tt> with <tt>u &lt; v</tt>, by <tt>v</tt>, then <tt>u</tt>.
+ * <p>
+ * Pairs are looked up by increasing numbers, which takes constant time on
+ * average over all the pairs looked up.
+ *
+ * @author nono
+ * @version $Id$
+ */
+final class Pairs {
+
+	private final int n;
+
+	private final boolean directed;
+
+	private int source;
+
+	private int target;
+
+	/**
+	 * First number of the current row of undirected pairs, and of the next
+	 * row.
+	 */
+	private long rowStart, rowEnd;
+
+	Pairs(int n, boolean directed) {
+		this.n = n;
+		this.directed = directed;
+		this.target = 1;
+		this.rowEnd = 1;
+	}
+
+	/**
+	 * Returns the number of pairs.
+	 */
+	long size() {
+		return directed ? (long) n * (n - 1) : (long) n * (n - 1) / 2;
+	}
+
+	/**
+	 * Moves to the pair of a number, which must be at least the number of
+	 * the previous pair.
+	 */
+	void moveTo(long number) {
+		if (directed) {
+			source = (int) (number / (n - 1));
+			int rest = (int) (number % (n - 1));
+			target = rest < source ? rest : rest + 1;
+		} else {
+			while (number >= rowEnd) {
+				rowStart = rowEnd;
+				rowEnd += ++target;
+			}
+			source = (int) (number - rowStart);
+		}
+	}
+
+	int source() {
+		return source;
+	}
+
+	int target() {
+		return target;
+	}
+}
@@ -0,0 +1,55 @@
+package salvo.jesus.graph.generate;
+
+import java.util.Random;
+
+import salvo.jesus.graph.GraphException;
+
+/**
+ * Generates random directed acyclic graphs. The vertices are put in a random
+ * order, and each pair of vertices is an edge, from the first to the second
+ * in that order, with probability <tt>p</tt>. The order is kept in an
+ * <tt>int[]</tt> of one entry per vertex, and pairs are skipped as by
+ * {@link GnpGenerator}.
+ *
+ * @author nono
+ * @version $Id$
+ */
+public class RandomDagGenerator extends GraphGenerator {
+
+	private final double p;
+
+	private final long seed;
+
+	/**
+	 * @throws IllegalArgumentException
+	 *             if p is not a probability.
+	 */
+	public RandomDagGenerator(int vertices, double p, long seed) {
+		super(vertices);
+		if (!(p >= 0 && p <= 1))
+			throw new IllegalArgumentException("Probability: " + p);
+		this.p = p;
+		this.seed = seed;
+	}
+
+	protected void edges(final EdgeSink sink) throws GraphException {
+		int n = getVerticesCount();
+		Random random = new Random(seed);
+		final int[] order = new int[n];
+
+		for (int i = 0; i < n; i++) {
+			int j = random.nextInt(i + 1);
+			order[i] = order[j];
+			order[j] = i;
+		}
+		GnpGenerator.sample(new Pairs(n, false), p, random, new EdgeSink() {
+
+			public void vertices(int count) {
+			}
+
+			public void edge(int source, int target) throws GraphException {
+				sink.edge(order[source], order[target]);
+			}
+		});
+	}
+}
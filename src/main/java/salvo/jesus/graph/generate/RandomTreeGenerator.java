@@ -0,0 +1,32 @@
+package salvo.jesus.graph.generate;
+
+import java.util.Random;
+
+import salvo.jesus.graph.GraphException;
+
+/**
+ * Generates random recursive trees rooted at vertex 0: each other vertex has
+ * an edge from a parent drawn uniformly among the vertices before it. As
+ * parents come before their children, the edges can be added one by one to a
+ * Tree.
+ *
+ * @author nono
+ * @version $Id$
+ */
+public class RandomTreeGenerator extends GraphGenerator {
+
+	private final long seed;
+
+	public RandomTreeGenerator(int vertices, long seed) {
+		super(vertices);
+		this.seed = seed;
+	}
+
+	protected void edges(EdgeSink sink) throws GraphException {
+		int n = getVerticesCount();
+		Random random = new Random(seed);
+
+		for (int v = 1; v < n; v++)
+			sink.edge(random.nextInt(v), v);
+	}
+}
@@ -0,0 +1,94 @@
+package salvo.jesus.graph.generate;
+
+import java.util.Random;
+
+import salvo.jesus.graph.GraphException;
+
+/**
+ * Generates Watts-Strogatz small-world graphs. The vertices are laid on a
+ * ring, each with an edge to the <tt>k / 2</tt> vertices following it, and
+ * each edge is then rewired with probability <tt>beta</tt>: its target is
+ * replaced by a vertex drawn uniformly among those that are neither the
+ * source, nor among its <tt>k</tt> nearest neighbors on the ring, nor already
+ * drawn for the source.
+ * <p>
+ * Edges are generated vertex by vertex, remembering only the targets drawn
+ * for the current vertex, so two vertices may rarely draw each other and be
+ * joined by two edges, one in each direction. There are about
+ * <tt>(beta * k / 2)<sup>2</sup></tt> such pairs, whatever the number of
+ * vertices.
+ *
+ * @author nono
+ * @version $Id$
+ */
+public class WattsStrogatzGenerator extends GraphGenerator {
+
+	private final int k;
+
+	private final double beta;
+
+	private final long seed;
+
+	/**
+	 * @param k
+	 *            the even number of nearest neighbors of each vertex on the
+	 *            ring.
+	 * @param beta
+	 *            the probability of rewiring each edge.
+	 * @throws IllegalArgumentException
+	 *             if k is odd, negative, or not less than the number of
+	 *             vertices, or if beta is not a probability.
+	 */
+	public WattsStrogatzGenerator(int vertices, int k, double beta, long seed) {
+		super(vertices);
+		if (k < 0 || k % 2 != 0 || (k > 0 && k >= vertices))
+			throw new IllegalArgumentException("Neighbors: " + k);
+		if (!(beta >= 0 && beta <= 1))
+			throw new IllegalArgumentException("Probability: " + beta);
+		this.k = k;
+		this.beta = beta;
+		this.seed = seed;
+	}
+
+	public long getEdgesCount() {
+		return (long) getVerticesCount() * (k / 2);
+	}
+
+	protected void edges(EdgeSink sink) throws GraphException {
+		int n = getVerticesCount();
+		int half = k / 2;
+		Random random = new Random(seed);
+		int[] drawn = new int[half];
+
+		for (int u = 0; u < n; u++) {
+			int count = 0;
+			for (int j = 1; j <= half; j++) {
+				int target = (u + j) % n;
+				// vertices left to draw: not u, its neighbors, or drawn
+				if (random.nextDouble() < beta && n - 1 - k - count > 0) {
+					do
+						target = random.nextInt(n);
+					while (target == u || distance(u, target, n) <= half
+							|| contains(drawn, count, target));
+					drawn[count++] = target;
+				}
+				sink.edge(u, target);
+			}
+		}
+	}
+
+	/**
+	 * Returns the distance of two vertices on the ring.
+	 */
+	private static int distance(int u, int v, int n) {
+		int d = Math.abs(u - v);
+		return Math.min(d, n - d);
+	}
+
+	private static boolean contains(int[] drawn, int count, int target) {
+		for (int i = 0; i < count; i++)
+			if (drawn[i] == target)
+				return true;
+		return false;
+	}
+}
@@ -0,0 +1,266 @@
+package salvo.jesus.graph.io;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StreamCorruptedException;
+import java.util.zip.CRC32;
+
+/**
+ * Constants and section buffers of the binary graph format. A file starts
+ * with the magic bytes <tt>OJGB</tt> and a version byte, followed by
+ * sections:
+ *
+ * <pre>
+ * tag (byte) | length (int) | content (length bytes) | CRC32 of content (int)
+ * </pre>
+ *
+ * and ends with a section of tag {@link #END} and no content or checksum.
+ * Readers skip sections whose tag they do not know. The sections are, in
+ * order:
+ * <ul>
+ * <li>{@link #HEADER}: flags byte, class name of the graph as a UTF string,
+ * number of vertices and of edges as varints,</li>
+ * <li>{@link #VERTICES}: the vertices, by id, written by the PayloadCodec,</li>
+ * <li>{@link #EDGES}: for each vertex by id, the number of edges it is the
+ * first vertex (or source) of, as a varint, then for each of these edges by
+ * increasing id of the second vertex (or sink): the difference with the id of
+ * the previous second vertex, as a varint; the weight, as a zigzag varint if
+ * {@link #INTEGRAL_WEIGHTS} is set or else as a double, if {@link #WEIGHTED}
+ * is set; and if {@link #EDGE_DATA} is set, a byte that is 1 if the data of
+ * the edge follows, written by the PayloadCodec, and 0 if the edge has the
+ * data given by the GraphFactory,</li>
+ * <li>{@link #VISUAL}, optional: for each vertex by id, a byte telling which
+ * of fill color, outline color, font color and font follow, the coordinates
+ * of its center as doubles, then those of its colors as ints and its font as
+ * a UTF name, an int style and a float size.</li>
+ * </ul>
+ * Varints are unsigned, 7 bits per byte, least significant first.
+ *
+ * @author nono
+ * @version $Id$
+ */
+final class BinaryGraphFormat {
+
+	static final byte[] MAGIC = { 'O', 'J', 'G', 'B' };
+
+	static final int VERSION = 1;
+
+	static final int END = 0;
+
+	static final int HEADER = 1;
+
+	static final int VERTICES = 2;
+
+	static final int EDGES = 3;
+
+	static final int VISUAL = 4;
+
+	/*
+	 * header flags
+	 */
+
+	static final int DIRECTED = 1;
+
+	static final int WEIGHTED = 2;
+
+	static final int INTEGRAL_WEIGHTS = 4;
+
+	static final int EDGE_DATA = 8;
+
+	/*
+	 * visual flags
+	 */
+
+	static final int FILL_COLOR = 1;
+
+	static final int OUTLINE_COLOR = 2;
+
+	static final int FONT_COLOR = 4;
+
+	static final int FONT = 8;
+
+	private BinaryGraphFormat() {
+	}
+
+	static void writeStart(OutputStream out) throws IOException {
+		out.write(MAGIC);
+		out.write(VERSION);
+	}
+
+	static void readStart(DataInputStream in) throws IOException {
+		byte[] magic = new byte[MAGIC.length];
+		in.readFully(magic);
+		for (int i = 0; i < MAGIC.length; i++)
+			if (magic[i] != MAGIC[i])
+				throw new StreamCorruptedException("Not a binary graph");
+		int version = in.readUnsignedByte();
+		if (version > VERSION)
+			throw new StreamCorruptedException("Unsupported version: "
+					+ version);
+	}
+
+	/**
+	 * Content of a section being written, with a DataOutput view for codecs.
+	 */
+	static final class SectionOutput extends OutputStream {
+
+		private byte[] bytes = new byte[1 << 12];
+
+		private int size;
+
+		final DataOutputStream data = new DataOutputStream(this);
+
+		public void write(int b) {
+			if (size == bytes.length)
+				grow(1);
+			bytes[size++] = (byte) b;
+		}
+
+		public void write(byte[] b, int off, int len) {
+			if (size + len > bytes.length)
+				grow(len);
+			System.arraycopy(b, off, bytes, size, len);
+			size += len;
+		}
+
+		private void grow(int needed) {
+			byte[] grown = new byte[Math.max(bytes.length * 2, size + needed)];
+			System.arraycopy(bytes, 0, grown, 0, size);
+			bytes = grown;
+		}
+
+		void writeVarint(int value) {
+			if (size + 5 > bytes.length)
+				grow(5);
+			while ((value & ~0x7F) != 0) {
+				bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+				value >>>= 7;
+			}
+			bytes[size++] = (byte) value;
+		}
+
+		void writeVarlong(long value) {
+			if (size + 10 > bytes.length)
+				grow(10);
+			while ((value & ~0x7FL) != 0) {
+				bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+				value >>>= 7;
+			}
+			bytes[size++] = (byte) value;
+		}
+
+		void writeLong(long value) {
+			if (size + 8 > bytes.length)
+				grow(8);
+			for (int shift = 56; shift >= 0; shift -= 8)
+				bytes[size++] = (byte) (value >>> shift);
+		}
+
+		/**
+		 * Writes the section with its tag, length and checksum, and empties
+		 * this buffer.
+		 */
+		void writeTo(int tag, DataOutputStream out) throws IOException {
+			CRC32 crc = new CRC32();
+			crc.update(bytes, 0, size);
+			out.writeByte(tag);
+			out.writeInt(size);
+			out.write(bytes, 0, size);
+			out.writeInt((int) crc.getValue());
+			size = 0;
+		}
+	}
+
+	/**
+	 * Content of a section being read, with a DataInput view for codecs.
+	 */
+	static final class SectionInput extends InputStream {
+
+		final int tag;
+
+		private final byte[] bytes;
+
+		private int position;
+
+		final DataInputStream data = new DataInputStream(this);
+
+		/**
+		 * Reads the next section of a stream and checks its checksum.
+		 */
+		SectionInput(DataInputStream in) throws IOException {
+			tag = in.readUnsignedByte();
+			if (tag == END) {
+				bytes = new byte[0];
+				return;
+			}
+			int length = in.readInt();
+			if (length < 0)
+				throw new StreamCorruptedException("Negative section length");
+			bytes = new byte[length];
+			in.readFully(bytes);
+			CRC32 crc = new CRC32();
+			crc.update(bytes, 0, length);
+			if (in.readInt() != (int) crc.getValue())
+				throw new StreamCorruptedException("Checksum mismatch in section "
+						+ tag);
+		}
+
+		public int read() {
+			return position < bytes.length ? bytes[position++] & 0xFF : -1;
+		}
+
+		public int read(byte[] b, int off, int len) {
+			if (position == bytes.length)
+				return -1;
+			len = Math.min(len, bytes.length - position);
+			System.arraycopy(bytes, position, b, off, len);
+			position += len;
+			return len;
+		}
+
+		int readVarint() throws IOException {
+			int value = 0;
+			for (int shift = 0; shift < 35; shift += 7) {
+				if (position == bytes.length)
+					throw new EOFException();
+				int b = bytes[position++];
+				value |= (b & 0x7F) << shift;
+				if (b >= 0)
+					return value;
+			}
+			throw new StreamCorruptedException("Malformed varint");
+		}
+
+		long readVarlong() throws IOException {
+			long value = 0;
+			for (int shift = 0; shift < 70; shift += 7) {
+				if (position == bytes.length)
+					throw new EOFException();
+				int b = bytes[position++];
+				value |= (long) (b & 0x7F) << shift;
+				if (b >= 0)
+					return value;
+			}
+			throw new StreamCorruptedException("Malformed varint");
+		}
+
+		long readLong() throws IOException {
+			if (position + 8 > bytes.length)
+				throw new EOFException();
+			long value = 0;
+			for (int i = 0; i < 8; i++)
+				value = (value << 8) | (bytes[position++] & 0xFF);
+			return value;
+		}
+
+		int readByte() throws IOException {
+			if (position == bytes.length)
+				throw new EOFException();
+			return bytes[position++] & 0xFF;
+		}
+	}
+}
@@ -0,0 +1,307 @@
+package salvo.jesus.graph.io;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StreamCorruptedException;
+
+import salvo.jesus.graph.DirectedGraphImpl;
+import salvo.jesus.graph.Edge;
+import salvo.jesus.graph.GraphBuilder;
+import salvo.jesus.graph.GraphException;
+import salvo.jesus.graph.GraphFactory;
+import salvo.jesus.graph.GraphImpl;
+import salvo.jesus.graph.Path;
+import salvo.jesus.graph.Tree;
+import salvo.jesus.graph.WeightedEdge;
+import salvo.jesus.graph.WeightedGraphImpl;
+import salvo.jesus.graph.io.BinaryGraphFormat.SectionInput;
+import salvo.jesus.graph.primitive.IntDirectedGraph;
+import salvo.jesus.graph.visual.VisualGraph;
+import salvo.jesus.graph.visual.VisualVertex;
+
+/**
+ * Reads graphs written by {@link BinaryGraphWriter}. Each section is checked
+ * against its checksum before being decoded, so a corrupted or truncated
+ * stream fails with an IOException rather than giving a wrong graph, and
+ * sections unknown to this reader are skipped.
+ * <p>
+ * The header gives the number of vertices and edges, so the graph is built
+ * in one batch by a {@link GraphBuilder}, which sizes the adjacency lists of
+ * each vertex once. Loading very large graphs is bound by the cost of the
+ * objects of a GraphImpl; when only the structure is needed,
+ * {@link #readStructure(InputStream)} loads the edges into an
+ * {@link IntDirectedGraph} without creating any vertex or edge.
+ * <p>
+ * The reader must use the same {@link PayloadCodec} as the writer.
+ *
+ * @author nono
+ * @version $Id$
+ */
+public class BinaryGraphReader {
+
+	private final PayloadCodec codec;
+
+	/**
+	 * Creates a reader of graphs written with the {@link DefaultPayloadCodec}.
+	 */
+	public BinaryGraphReader() {
+		this(new DefaultPayloadCodec());
+	}
+
+	public BinaryGraphReader(PayloadCodec codec) {
+		this.codec = codec;
+	}
+
+	public PayloadCodec getPayloadCodec() {
+		return codec;
+	}
+
+	/**
+	 * Reads a graph into a new instance of the class it was written from. If
+	 * that class is not a GraphImpl with a public constructor without
+	 * arguments, the graph is read into a DirectedGraphImpl, a
+	 * WeightedGraphImpl or a GraphImpl, depending on its edges.
+	 *
+	 * @throws IOException
+	 *             if the stream cannot be read or is not a valid binary graph.
+	 * @throws GraphException
+	 *             if the graph rejects its vertices or edges.
+	 */
+	public GraphImpl read(InputStream in) throws IOException, GraphException {
+		Contents contents = new Contents(in);
+		return read(contents, contents.newGraph());
+	}
+
+	/**
+	 * Reads a graph and adds its vertices and edges to a given graph. Edges
+	 * are created by the graph's GraphFactory, and get their weight if they
+	 * are WeightedEdges.
+	 *
+	 * @return the graph.
+	 * @throws IOException
+	 *             if the stream cannot be read or is not a valid binary graph.
+	 * @throws GraphException
+	 *             if the graph rejects its vertices or edges.
+	 */
+	public <G extends GraphImpl> G read(InputStream in, G graph)
+			throws IOException, GraphException {
+		return read(new Contents(in), graph);
+	}
+
+	/**
+	 * Reads a graph into a VisualGraph, whose vertices get back the location,
+	 * colors and font they were written with, if they were written from a
+	 * VisualGraph.
+	 *
+	 * @throws IOException
+	 *             if the stream cannot be read or is not a valid binary graph.
+	 * @throws GraphException
+	 *             if the graph rejects its vertices or edges.
+	 */
+	public VisualGraph readVisual(InputStream in) throws IOException,
+			GraphException {
+		Contents contents = new Contents(in);
+		GraphImpl graph = contents.newGraph();
+		Object[] vertices = readVertices(contents);
+		VisualGraph visual = new VisualGraph(read(contents, vertices, graph));
+		if (contents.visual != null)
+			for (int i = 0; i < vertices.length; i++)
+				readVisual(visual.getVisualVertex(vertices[i]), contents.visual);
+		return visual;
+	}
+
+	/**
+	 * Reads the structure of a graph into an IntDirectedGraph, whose vertex
+	 * ids are the positions of the vertices in <tt>getAllVertices()</tt> of
+	 * the graph written. An undirected edge gives an edge in each direction,
+	 * save for loops. Vertices, weights and edge data are skipped.
+	 *
+	 * @throws IOException
+	 *             if the stream cannot be read or is not a valid binary graph.
+	 */
+	public IntDirectedGraph readStructure(InputStream in) throws IOException {
+		Contents contents = new Contents(in);
+		IntDirectedGraph graph = new IntDirectedGraph(contents.n);
+		for (int i = 0; i < contents.n; i++)
+			graph.addVertex();
+		boolean directed = (contents.flags & BinaryGraphFormat.DIRECTED) != 0;
+		SectionInput edges = contents.edges;
+		for (int i = 0; i < contents.n; i++) {
+			int degree = edges.readVarint(), target = 0;
+			for (int k = 0; k < degree; k++) {
+				target += edges.readVarint();
+				checkVertex(target, contents.n);
+				skipWeight(contents);
+				if (readsData(contents))
+					codec.read(edges.data);
+				graph.addEdge(i, target);
+				if (!directed && target != i)
+					graph.addEdge(target, i);
+			}
+		}
+		return graph;
+	}
+
+	private <G extends GraphImpl> G read(Contents contents, G graph)
+			throws IOException, GraphException {
+		return read(contents, readVertices(contents), graph);
+	}
+
+	private Object[] readVertices(Contents contents) throws IOException {
+		Object[] vertices = new Object[contents.n];
+		for (int i = 0; i < vertices.length; i++)
+			vertices[i] = codec.read(contents.vertices.data);
+		return vertices;
+	}
+
+	private <G extends GraphImpl> G read(Contents contents, Object[] vertices,
+			G graph) throws IOException, GraphException {
+		GraphFactory factory = graph.getGraphFactory();
+		SectionInput section = contents.edges;
+		Edge[] edges = new Edge[contents.m];
+		int j = 0;
+		for (int i = 0; i < vertices.length; i++) {
+			int degree = section.readVarint(), target = 0;
+			if (degree > edges.length - j)
+				throw new StreamCorruptedException("Too many edges");
+			for (int k = 0; k < degree; k++) {
+				target += section.readVarint();
+				checkVertex(target, vertices.length);
+				double weight = readWeight(contents);
+				Edge edge = readsData(contents) ? factory.createEdgeWith(
+						vertices[i], vertices[target], codec.read(section.data))
+						: factory.createEdge(vertices[i], vertices[target]);
+				if (edge instanceof WeightedEdge)
+					((WeightedEdge) edge).setWeight(weight);
+				edges[j++] = edge;
+			}
+		}
+		if (j != edges.length)
+			throw new StreamCorruptedException("Missing edges");
+		return new GraphBuilder<G>(graph).addVertices(vertices)
+				.addEdges(edges).build();
+	}
+
+	private static void checkVertex(int id, int n) throws IOException {
+		if (id < 0 || id >= n)
+			throw new StreamCorruptedException("Unknown vertex: " + id);
+	}
+
+	private static double readWeight(Contents contents) throws IOException {
+		if ((contents.flags & BinaryGraphFormat.WEIGHTED) == 0)
+			return 0;
+		if ((contents.flags & BinaryGraphFormat.INTEGRAL_WEIGHTS) == 0)
+			return Double.longBitsToDouble(contents.edges.readLong());
+		long zigzag = contents.edges.readVarlong();
+		return (zigzag >>> 1) ^ -(zigzag & 1);
+	}
+
+	private static void skipWeight(Contents contents) throws IOException {
+		if ((contents.flags & BinaryGraphFormat.WEIGHTED) == 0)
+			return;
+		if ((contents.flags & BinaryGraphFormat.INTEGRAL_WEIGHTS) == 0)
+			contents.edges.readLong();
+		else
+			contents.edges.readVarlong();
+	}
+
+	/**
+	 * Tells whether the next edge has its data written after it.
+	 */
+	private static boolean readsData(Contents contents) throws IOException {
+		return (contents.flags & BinaryGraphFormat.EDGE_DATA) != 0
+				&& contents.edges.readByte() != 0;
+	}
+
+	private static void readVisual(VisualVertex vertex, SectionInput section)
+			throws IOException {
+		int flags = section.readByte();
+		double x = section.data.readDouble();
+		double y = section.data.readDouble();
+		if ((flags & BinaryGraphFormat.FILL_COLOR) != 0)
+			vertex.setFillcolor(new Color(section.data.readInt(), true));
+		if ((flags & BinaryGraphFormat.OUTLINE_COLOR) != 0)
+			vertex.setOutlinecolor(new Color(section.data.readInt(), true));
+		if ((flags & BinaryGraphFormat.FONT_COLOR) != 0)
+			vertex.setFontcolor(new Color(section.data.readInt(), true));
+		if ((flags & BinaryGraphFormat.FONT) != 0) {
+			String name = section.data.readUTF();
+			int style = section.data.readInt();
+			float size = section.data.readFloat();
+			vertex.setFont(new Font(name, style, 1).deriveFont(size));
+		}
+		vertex.setLocation(x, y);
+	}
+
+	/**
+	 * The sections of a binary graph, checked and not decoded yet.
+	 */
+	private static final class Contents {
+
+		int flags;
+
+		String className;
+
+		int n;
+
+		int m;
+
+		SectionInput vertices;
+
+		SectionInput edges;
+
+		SectionInput visual;
+
+		Contents(InputStream in) throws IOException {
+			DataInputStream data = new DataInputStream(new BufferedInputStream(
+					in, 1 << 16));
+			BinaryGraphFormat.readStart(data);
+			SectionInput section = new SectionInput(data);
+			if (section.tag != BinaryGraphFormat.HEADER)
+				throw new StreamCorruptedException("Missing header");
+			flags = section.readByte();
+			className = section.data.readUTF();
+			n = section.readVarint();
+			m = section.readVarint();
+			if (n < 0 || m < 0)
+				throw new StreamCorruptedException("Negative size");
+			while ((section = new SectionInput(data)).tag != BinaryGraphFormat.END)
+				switch (section.tag) {
+				case BinaryGraphFormat.VERTICES:
+					vertices = section;
+					break;
+				case BinaryGraphFormat.EDGES:
+					edges = section;
+					break;
+				case BinaryGraphFormat.VISUAL:
+					visual = section;
+					break;
+				}
+			if (vertices == null || edges == null)
+				throw new StreamCorruptedException("Missing vertices or edges");
+		}
+
+		GraphImpl newGraph() {
+			try {
+				// not initialized, as the name comes from the stream
+				Class<?> type = Class.forName(className, false, GraphImpl.class
+						.getClassLoader());
+				if (GraphImpl.class.isAssignableFrom(type)
+						&& !Tree.class.isAssignableFrom(type)
+						&& !Path.class.isAssignableFrom(type))
+					return (GraphImpl) type.newInstance();
+			} catch (Exception e) {
+				// fall back on the plain graphs below
+			}
+			if ((flags & BinaryGraphFormat.DIRECTED) != 0)
+				return new DirectedGraphImpl();
+			if ((flags & BinaryGraphFormat.WEIGHTED) != 0)
+				return new WeightedGraphImpl();
+			return new GraphImpl();
+		}
+	}
+}
@@ -0,0 +1,237 @@
+package salvo.jesus.graph.io;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.geom.Rectangle2D;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import salvo.jesus.graph.DirectedGraph;
+import salvo.jesus.graph.Edge;
+import salvo.jesus.graph.Graph;
+import salvo.jesus.graph.GraphFactory;
+import salvo.jesus.graph.WeightedEdge;
+import salvo.jesus.graph.io.BinaryGraphFormat.SectionOutput;
+import salvo.jesus.graph.visual.VisualGraph;
+import salvo.jesus.graph.visual.VisualVertex;
+
+/**
+ * Writes graphs in the binary graph format described in
+ * {@link BinaryGraphFormat}, to be read back by {@link BinaryGraphReader}.
+ * <p>
+ * Vertices are numbered in the order of <tt>getAllVertices()</tt>, and edges
+ * are grouped by first vertex and sorted by second vertex, so that each edge
+ * costs the varint of a small difference of ids, plus its weight in weighted
+ * graphs. The data of edges is only written when it differs from the data
+ * the graph's GraphFactory gives to new edges. Vertices and edge data are
+ * written by a {@link PayloadCodec}.
+ * <p>
+ * Edges are written in one pass over a copy of their ids, so writing a graph
+ * of m edges needs about 16m bytes besides the output.
+ *
+ * @author nono
+ * @version $Id$
+ */
+public class BinaryGraphWriter {
+
+	private final PayloadCodec codec;
+
+	/**
+	 * Creates a writer of graphs whose vertices are handled by the
+	 * {@link DefaultPayloadCodec}.
+	 */
+	public BinaryGraphWriter() {
+		this(new DefaultPayloadCodec());
+	}
+
+	public BinaryGraphWriter(PayloadCodec codec) {
+		this.codec = codec;
+	}
+
+	public PayloadCodec getPayloadCodec() {
+		return codec;
+	}
+
+	/**
+	 * Writes a graph to a stream, which is flushed but not closed.
+	 */
+	public void write(Graph graph, OutputStream out) throws IOException {
+		write(graph, null, out);
+	}
+
+	/**
+	 * Writes the graph of a VisualGraph, with the location, colors and font
+	 * of its vertices, to a stream, which is flushed but not closed.
+	 */
+	public void write(VisualGraph visual, OutputStream out) throws IOException {
+		write(visual.getGraph(), visual, out);
+	}
+
+	private void write(Graph graph, VisualGraph visual, OutputStream out)
+			throws IOException {
+		DataOutputStream data = new DataOutputStream(new BufferedOutputStream(
+				out, 1 << 16));
+		SectionOutput section = new SectionOutput();
+		List vertices = graph.getAllVertices();
+		int n = vertices.size();
+		Map<Object, Integer> ids = new HashMap<Object, Integer>(n * 4 / 3 + 1);
+		for (int i = 0; i < n; i++)
+			ids.put(vertices.get(i), new Integer(i));
+
+		/*
+		 * sort the edges by first then second vertex: counting sort on the
+		 * first vertex, then sort of (second vertex, index) pairs in each
+		 * group
+		 */
+		int m = graph.getEdgesCount();
+		Edge[] edges = new Edge[m];
+		int[] first = new int[m];
+		int[] start = new int[n + 1];
+		int flags = graph instanceof DirectedGraph ? BinaryGraphFormat.DIRECTED
+				: 0;
+		boolean weighted = m > 0, integral = true, custom = false;
+		Object initial = null;
+		Iterator<Edge> iterator = graph.getAllEdges().iterator();
+		for (int j = 0; j < m; j++) {
+			Edge edge = edges[j] = iterator.next();
+			first[j] = id(ids, edge.getVertexA());
+			start[first[j] + 1]++;
+			if (edge instanceof WeightedEdge) {
+				double weight = ((WeightedEdge) edge).getWeight();
+				integral &= weight == (long) weight;
+			} else
+				weighted = false;
+			if (j == 0)
+				initial = defaultData(graph.getGraphFactory(), edge);
+			custom |= !isDefaultData(initial, edge);
+		}
+		for (int i = 0; i < n; i++)
+			start[i + 1] += start[i];
+		long[] sorted = new long[m];
+		int[] next = start.clone();
+		for (int j = 0; j < m; j++)
+			sorted[next[first[j]]++] = ((long) id(ids, edges[j].getVertexB()) << 32)
+					| j;
+		first = null;
+		next = null;
+		if (weighted)
+			flags |= BinaryGraphFormat.WEIGHTED
+					| (integral ? BinaryGraphFormat.INTEGRAL_WEIGHTS : 0);
+		if (custom)
+			flags |= BinaryGraphFormat.EDGE_DATA;
+
+		BinaryGraphFormat.writeStart(data);
+		section.write(flags);
+		section.data.writeUTF(graph.getClass().getName());
+		section.writeVarint(n);
+		section.writeVarint(m);
+		section.writeTo(BinaryGraphFormat.HEADER, data);
+
+		for (int i = 0; i < n; i++)
+			codec.write(vertices.get(i), section.data);
+		section.writeTo(BinaryGraphFormat.VERTICES, data);
+
+		for (int i = 0; i < n; i++) {
+			Arrays.sort(sorted, start[i], start[i + 1]);
+			section.writeVarint(start[i + 1] - start[i]);
+			int previous = 0;
+			for (int k = start[i]; k < start[i + 1]; k++) {
+				int target = (int) (sorted[k] >>> 32);
+				Edge edge = edges[(int) sorted[k]];
+				section.writeVarint(target - previous);
+				previous = target;
+				if (weighted) {
+					double weight = ((WeightedEdge) edge).getWeight();
+					if (integral)
+						section.writeVarlong(zigzag((long) weight));
+					else
+						section.writeLong(Double.doubleToLongBits(weight));
+				}
+				if (custom) {
+					if (isDefaultData(initial, edge))
+						section.write(0);
+					else {
+						section.write(1);
+						codec.write(edge.getData(), section.data);
+					}
+				}
+			}
+		}
+		section.writeTo(BinaryGraphFormat.EDGES, data);
+
+		if (visual != null) {
+			for (int i = 0; i < n; i++)
+				writeVisual(visual.getVisualVertex(vertices.get(i)), section);
+			section.writeTo(BinaryGraphFormat.VISUAL, data);
+		}
+
+		data.writeByte(BinaryGraphFormat.END);
+		data.flush();
+	}
+
+	private static int id(Map<Object, Integer> ids, Object vertex)
+			throws IOException {
+		Integer id = ids.get(vertex);
+		if (id == null)
+			throw new IOException("Edge to a vertex not in the graph: "
+					+ vertex);
+		return id.intValue();
+	}
+
+	/**
+	 * Returns the data the factory gives to a new edge between the vertices
+	 * of an edge. The factories give the same data to all new edges whatever
+	 * their vertices, so that it is found once for all the edges written.
+	 */
+	static Object defaultData(GraphFactory factory, Edge edge) {
+		Edge created = factory == null ? null : factory.createEdge(edge
+				.getVertexA(), edge.getVertexB());
+		return created == null ? null : created.getData();
+	}
+
+	/**
+	 * Tells whether the data of an edge is the one the factory gives to new
+	 * edges, as returned by {@link #defaultData(GraphFactory, Edge)}.
+	 */
+	static boolean isDefaultData(Object initial, Edge edge) {
+		Object data = edge.getData();
+		return data == null ? initial == null : data.equals(initial);
+	}
+
+	private static long zigzag(long value) {
+		return (value << 1) ^ (value >> 63);
+	}
+
+	private static void writeVisual(VisualVertex vertex, SectionOutput section)
+			throws IOException {
+		Color fill = vertex.getFillcolor();
+		Color outline = vertex.getOutlinecolor();
+		Color fontColor = vertex.getFontcolor();
+		Font font = vertex.getFont();
+		Rectangle2D bounds = vertex.getBounds2D();
+		section.write((fill != null ? BinaryGraphFormat.FILL_COLOR : 0)
+				| (outline != null ? BinaryGraphFormat.OUTLINE_COLOR : 0)
+				| (fontColor != null ? BinaryGraphFormat.FONT_COLOR : 0)
+				| (font != null ? BinaryGraphFormat.FONT : 0));
+		section.data.writeDouble(bounds.getCenterX());
+		section.data.writeDouble(bounds.getCenterY());
+		if (fill != null)
+			section.data.writeInt(fill.getRGB());
+		if (outline != null)
+			section.data.writeInt(outline.getRGB());
+		if (fontColor != null)
+			section.data.writeInt(fontColor.getRGB());
+		if (font != null) {
+			section.data.writeUTF(font.getName());
+			section.data.writeInt(font.getStyle());
+			section.data.writeFloat(font.getSize2D());
+		}
+	}
+}
@@ -0,0 +1,112 @@
+package salvo.jesus.graph.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.StreamCorruptedException;
+
+import salvo.jesus.graph.VertexImpl;
+
+/**
+ * Codec of Strings, Integers, Longs, Doubles, Booleans and VertexImpls, which
+ * are written with a one byte tag followed by their value. Other payloads are
+ * written with Java serialization, and must be Serializable.
+ *
+ * @author nono
+ * @version $Id$
+ */
+public class DefaultPayloadCodec implements PayloadCodec {
+
+	private static final int NULL = 0;
+
+	private static final int STRING = 1;
+
+	private static final int INTEGER = 2;
+
+	private static final int LONG = 3;
+
+	private static final int DOUBLE = 4;
+
+	private static final int BOOLEAN = 5;
+
+	private static final int VERTEX = 6;
+
+	private static final int SERIALIZED = 7;
+
+	public void write(Object payload, DataOutput out) throws IOException {
+		if (payload == null)
+			out.writeByte(NULL);
+		else if (payload instanceof String) {
+			byte[] bytes = ((String) payload).getBytes("UTF-8");
+			out.writeByte(STRING);
+			out.writeInt(bytes.length);
+			out.write(bytes);
+		} else if (payload instanceof Integer) {
+			out.writeByte(INTEGER);
+			out.writeInt(((Integer) payload).intValue());
+		} else if (payload instanceof Long) {
+			out.writeByte(LONG);
+			out.writeLong(((Long) payload).longValue());
+		} else if (payload instanceof Double) {
+			out.writeByte(DOUBLE);
+			out.writeDouble(((Double) payload).doubleValue());
+		} else if (payload instanceof Boolean) {
+			out.writeByte(BOOLEAN);
+			out.writeBoolean(((Boolean) payload).booleanValue());
+		} else if (payload.getClass() == VertexImpl.class) {
+			out.writeByte(VERTEX);
+			write(((VertexImpl) payload).getObject(), out);
+		} else {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			ObjectOutputStream objects = new ObjectOutputStream(bytes);
+			objects.writeObject(payload);
+			objects.close();
+			out.writeByte(SERIALIZED);
+			out.writeInt(bytes.size());
+			out.write(bytes.toByteArray());
+		}
+	}
+
+	public Object read(DataInput in) throws IOException {
+		int tag = in.readUnsignedByte();
+
+		switch (tag) {
+		case NULL:
+			return null;
+		case STRING:
+			return new String(readBytes(in), "UTF-8");
+		case INTEGER:
+			return new Integer(in.readInt());
+		case LONG:
+			return new Long(in.readLong());
+		case DOUBLE:
+			return new Double(in.readDouble());
+		case BOOLEAN:
+			return Boolean.valueOf(in.readBoolean());
+		case VERTEX:
+			Object object = read(in);
+			return object == null ? new VertexImpl() : new VertexImpl(object);
+		case SERIALIZED:
+			ObjectInputStream objects = new ObjectInputStream(
+					new ByteArrayInputStream(readBytes(in)));
+			try {
+				return objects.readObject();
+			} catch (ClassNotFoundException e) {
+				throw new StreamCorruptedException("Unknown payload class: "
+						+ e.getMessage());
+			}
+		default:
+			throw new StreamCorruptedException("Unknown payload tag: " + tag);
+		}
+	}
+
+	private static byte[] readBytes(DataInput in) throws IOException {
+		byte[] bytes = new byte[in.readInt()];
+		in.readFully(bytes);
+		return bytes;
+	}
+}
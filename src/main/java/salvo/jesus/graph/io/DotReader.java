@@ -0,0 +1,434 @@
+package salvo.jesus.graph.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+import salvo.jesus.graph.GraphException;
+import salvo.jesus.graph.GraphImpl;
+
+/**
+ * Reads graphs in the DOT language of Graphviz. Each node statement gives a
+ * vertex and each edge statement, including chains such as
+ * <tt>a -&gt; b -&gt; c</tt>, gives edges created by the GraphFactory of the
+ * graph. The <tt>weight</tt> attribute of an edge gives its weight if it is a
+ * WeightedEdge, and its <tt>label</tt> attribute gives its data. Other
+ * attributes and ports are ignored, subgraphs are read as part of the
+ * enclosing graph, and <tt>--</tt> and <tt>-&gt;</tt> both give edges from
+ * the left to the right vertex. Subgraphs used as edge endpoints are not
+ * supported.
+ * <p>
+ * Vertices are named by their id, unquoted. Ids made only of digits, and
+ * fitting in an <tt>int</tt>, are read as Integers and other ids as Strings,
+ * as in {@link EdgeListReader}. In quoted ids, <tt>\"</tt>, <tt>\\</tt> and
+ * <tt>\n</tt> stand for a quote, a backslash and a line feed.
+ * <p>
+ * The input is tokenized through a single buffer, and vertices and edges are
+ * added to the graph by a {@link salvo.jesus.graph.GraphBuilder} in batches
+ * of {@link #setBatchSize(int)}, so reading needs no memory beyond the graph
+ * and the names of its vertices.
+ *
+ * @author nono
+ * @version $Id$
+ * @see DotWriter
+ */
+public class DotReader {
+
+	private static final int EOF = -1;
+
+	private static final int ID = 0;
+
+	private static final int EDGE_OP = 1;
+
+	private int batchSize = EdgeListReader.DEFAULT_BATCH_SIZE;
+
+	private Reader in;
+
+	private final char[] buffer = new char[1 << 13];
+
+	private int position;
+
+	private int limit;
+
+	private int line;
+
+	/**
+	 * Type of the current token: EOF, ID, EDGE_OP or a punctuation char.
+	 */
+	private int token;
+
+	private boolean quoted;
+
+	private final StringBuilder text = new StringBuilder();
+
+	/**
+	 * Whether the current token was pushed back.
+	 */
+	private boolean pushed;
+
+	private EdgeBatch batch;
+
+	private double weight;
+
+	private String label;
+
+	/**
+	 * Sets the number of vertices and edges added to the graph at once.
+	 */
+	public void setBatchSize(int batchSize) {
+		if (batchSize < 1)
+			throw new IllegalArgumentException("Batch size: " + batchSize);
+		this.batchSize = batchSize;
+	}
+
+	public int getBatchSize() {
+		return batchSize;
+	}
+
+	/**
+	 * Reads a graph as UTF-8 from a stream. The stream is not closed.
+	 *
+	 * @return the graph
+	 * @throws IOException
+	 *             if the stream cannot be read or is not valid DOT.
+	 * @throws GraphException
+	 *             if the graph rejects a batch of vertices or edges.
+	 */
+	public <G extends GraphImpl> G read(InputStream in, G graph)
+			throws IOException, GraphException {
+		return read(new InputStreamReader(in, "UTF-8"), graph);
+	}
+
+	/**
+	 * Reads a graph from a character stream. The stream is not closed.
+	 *
+	 * @return the graph
+	 * @throws IOException
+	 *             if the stream cannot be read or is not valid DOT.
+	 * @throws GraphException
+	 *             if the graph rejects a batch of vertices or edges.
+	 */
+	public <G extends GraphImpl> G read(Reader in, G graph)
+			throws IOException, GraphException {
+		this.in = in;
+		position = limit = 0;
+		line = 1;
+		pushed = false;
+		batch = new EdgeBatch(graph, batchSize);
+		try {
+			if (next() == ID && !quoted && "strict".equalsIgnoreCase(text()))
+				next();
+			if (token != ID
+					|| quoted
+					|| !("graph".equalsIgnoreCase(text()) || "digraph"
+							.equalsIgnoreCase(text())))
+				throw error("expected graph or digraph");
+			if (next() == ID)
+				next();
+			expect('{');
+			statements();
+			batch.flush();
+			return graph;
+		} finally {
+			this.in = null;
+			batch = null;
+		}
+	}
+
+	/**
+	 * Reads statements up to the closing brace of the current graph,
+	 * including those of subgraphs.
+	 */
+	private void statements() throws IOException, GraphException {
+		int depth = 1;
+		List<String> chain = new ArrayList<String>();
+
+		while (depth > 0) {
+			switch (next()) {
+			case EOF:
+				throw error("missing }");
+			case '}':
+				depth--;
+				break;
+			case '{':
+				depth++;
+				break;
+			case ';':
+			case ',':
+				break;
+			case ID:
+				if (!quoted && "subgraph".equalsIgnoreCase(text())) {
+					if (next() != ID)
+						pushed = true;
+					break;
+				}
+				if (!quoted
+						&& ("graph".equalsIgnoreCase(text())
+								|| "node".equalsIgnoreCase(text()) || "edge"
+								.equalsIgnoreCase(text()))) {
+					if (next() == '[')
+						attributes();
+					else
+						throw error("expected [");
+					break;
+				}
+				String id = text();
+				if (next() == '=') {
+					if (next() != ID)
+						throw error("expected value of " + id);
+					break;
+				}
+				chain.clear();
+				chain.add(id);
+				skipPort();
+				while (token == EDGE_OP) {
+					if (next() != ID)
+						throw error(token == '{' ? "subgraph endpoints are not supported"
+								: "expected vertex");
+					chain.add(text());
+					next();
+					skipPort();
+				}
+				weight = Double.NaN;
+				label = null;
+				while (token == '[') {
+					attributes();
+					next();
+				}
+				pushed = true;
+				if (chain.size() == 1)
+					batch.vertex(id);
+				else
+					for (int i = 1; i < chain.size(); i++)
+						batch.edge(chain.get(i - 1), chain.get(i), weight,
+								label);
+				break;
+			default:
+				throw error("unexpected " + (char) token);
+			}
+		}
+	}
+
+	/**
+	 * Skips the port after a vertex id, if any, and reads the next token.
+	 */
+	private void skipPort() throws IOException {
+		while (token == ':') {
+			if (next() != ID)
+				throw error("expected port");
+			next();
+		}
+	}
+
+	/**
+	 * Reads an attribute list after its opening bracket, keeping the weight
+	 * and label.
+	 */
+	private void attributes() throws IOException {
+		while (next() != ']') {
+			if (token == ';' || token == ',')
+				continue;
+			if (token != ID)
+				throw error("expected attribute");
+			String name = text();
+			if (next() != '=') {
+				pushed = true;
+				continue;
+			}
+			if (next() != ID)
+				throw error("expected value of " + name);
+			if ("label".equals(name))
+				label = text();
+			else if ("weight".equals(name))
+				try {
+					weight = Double.parseDouble(text());
+				} catch (NumberFormatException e) {
+					throw error("malformed weight " + text());
+				}
+		}
+	}
+
+	private void expect(int expected) throws IOException {
+		if (token != expected)
+			throw error("expected " + (char) expected);
+	}
+
+	private String text() {
+		return text.toString();
+	}
+
+	// ------------------------ tokenizer
+
+	private int read() throws IOException {
+		if (position == limit) {
+			limit = in.read(buffer, 0, buffer.length);
+			position = 0;
+			if (limit <= 0) {
+				limit = 0;
+				return EOF;
+			}
+		}
+		int c = buffer[position++];
+		if (c == '\n')
+			line++;
+		return c;
+	}
+
+	/**
+	 * Returns the next char without reading it.
+	 */
+	private int peek() throws IOException {
+		if (position == limit) {
+			limit = in.read(buffer, 0, buffer.length);
+			position = 0;
+			if (limit <= 0) {
+				limit = 0;
+				return EOF;
+			}
+		}
+		return buffer[position];
+	}
+
+	/**
+	 * Reads the next token, or returns the current one again if it was pushed
+	 * back.
+	 */
+	private int next() throws IOException {
+		if (pushed) {
+			pushed = false;
+			return token;
+		}
+		int c = skipBlanks();
+		text.setLength(0);
+		quoted = false;
+		if (c == EOF)
+			return token = EOF;
+		if (c == '"') {
+			quoted = true;
+			quoted();
+			return token = ID;
+		}
+		if (c == '<') {
+			quoted = true;
+			html();
+			return token = ID;
+		}
+		if (c == '-' && (peek() == '-' || peek() == '>')) {
+			read();
+			return token = EDGE_OP;
+		}
+		if (isIdPart(c) || c == '-' || c == '.') {
+			text.append((char) c);
+			while (isIdPart(peek()) || peek() == '.')
+				text.append((char) read());
+			return token = ID;
+		}
+		return token = c;
+	}
+
+	/**
+	 * Skips blanks, comments and preprocessor lines.
+	 *
+	 * @return the first char after them.
+	 */
+	private int skipBlanks() throws IOException {
+		boolean lineStart = line == 1 && position == 0;
+		while (true) {
+			int c = read();
+			if (c == '\n')
+				lineStart = true;
+			else if (c == '#' && lineStart)
+				skipLine();
+			else if (c == '/' && peek() == '/')
+				skipLine();
+			else if (c == '/' && peek() == '*') {
+				read();
+				int previous = 0;
+				while ((c = read()) != EOF && !(previous == '*' && c == '/'))
+					previous = c;
+			} else if (c != ' ' && c != '\t' && c != '\r' && c != '\f')
+				return c;
+		}
+	}
+
+	private void skipLine() throws IOException {
+		int c;
+		while ((c = read()) != EOF && c != '\n')
+			;
+	}
+
+	private static boolean isIdPart(int c) {
+		return c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c >= '0'
+				&& c <= '9' || c == '_' || c >= 0x80;
+	}
+
+	/**
+	 * Reads a double-quoted string after its opening quote, and the strings
+	 * concatenated to it with <tt>+</tt>.
+	 */
+	private void quoted() throws IOException {
+		while (true) {
+			int c = read();
+			if (c == EOF)
+				throw error("unterminated string");
+			if (c == '"')
+				break;
+			if (c == '\\') {
+				int escaped = read();
+				if (escaped == '"' || escaped == '\\')
+					text.append((char) escaped);
+				else if (escaped == 'n')
+					text.append('\n');
+				else if (escaped == '\r' && peek() == '\n')
+					read();
+				else if (escaped != '\n') {
+					text.append('\\');
+					if (escaped != EOF)
+						text.append((char) escaped);
+				}
+			} else
+				text.append((char) c);
+		}
+		if (peekAfterBlanks() == '+') {
+			read();
+			if (skipBlanks() != '"')
+				throw error("expected string after +");
+			quoted();
+		}
+	}
+
+	/**
+	 * Skips the blanks, but not comments, before the next char, and returns
+	 * it without reading it.
+	 */
+	private int peekAfterBlanks() throws IOException {
+		int c;
+		while ((c = peek()) == ' ' || c == '\t' || c == '\r' || c == '\n')
+			read();
+		return c;
+	}
+
+	/**
+	 * Reads an HTML string after its opening angle bracket.
+	 */
+	private void html() throws IOException {
+		int depth = 1;
+		while (true) {
+			int c = read();
+			if (c == EOF)
+				throw error("unterminated HTML string");
+			if (c == '<')
+				depth++;
+			else if (c == '>' && --depth == 0)
+				return;
+			text.append((char) c);
+		}
+	}
+
+	private IOException error(String message) {
+		return new IOException("Line " + line + ": " + message);
+	}
+}
@@ -0,0 +1,108 @@
+package salvo.jesus.graph.io;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+
+import salvo.jesus.graph.Graph;
+
+/**
+ * Writes graphs in the DOT language of Graphviz, as a statement per vertex
+ * and per edge:
+ *
+ * <pre>
+ * digraph G {
+ *   &quot;a&quot;;
+ *   &quot;b&quot;;
+ *   &quot;a&quot; -&gt; &quot;b&quot; [weight=2.5, label=&quot;road&quot;];
+ * }
+ * </pre>
+ *
+ * Undirected graphs are written as <tt>graph</tt> with <tt>--</tt> edges.
+ * Vertices are identified by their String form, which should be unique. Only
+ * WeightedEdges have a weight, and only edges whose data differs from the
+ * data the graph's GraphFactory gives to new edges have a label.
+ * <p>
+ * The graph is walked vertex by vertex and written through a buffer, so
+ * writing needs no memory beyond the buffer whatever the size of the graph.
+ *
+ * @author nono
+ * @version $Id$
+ * @see DotReader
+ */
+public class DotWriter extends TextGraphWriter {
+
+	private String arrow;
+
+	/**
+	 * Writes a graph as UTF-8 to a stream, which is flushed but not closed.
+	 */
+	public void write(Graph graph, OutputStream out) throws IOException {
+		walk(graph, out);
+	}
+
+	/**
+	 * Writes a graph to a character stream, which is flushed but not closed.
+	 */
+	public void write(Graph graph, Writer out) throws IOException {
+		walk(graph, out);
+	}
+
+	void start(Graph graph, boolean directed, Writer out) throws IOException {
+		arrow = directed ? " -> " : " -- ";
+		out.write(directed ? "digraph G {\n" : "graph G {\n");
+	}
+
+	void vertex(Object vertex, Writer out) throws IOException {
+		out.write("  ");
+		quote(vertex.toString(), out);
+		out.write(";\n");
+	}
+
+	void edge(Object source, Object target, double weight, String label,
+			Writer out) throws IOException {
+		out.write("  ");
+		quote(source.toString(), out);
+		out.write(arrow);
+		quote(target.toString(), out);
+		if (!Double.isNaN(weight) || label != null) {
+			out.write(" [");
+			if (!Double.isNaN(weight)) {
+				out.write("weight=");
+				out.write(Double.toString(weight));
+				if (label != null)
+					out.write(", ");
+			}
+			if (label != null) {
+				out.write("label=");
+				quote(label, out);
+			}
+			out.write(']');
+		}
+		out.write(";\n");
+	}
+
+	void end(Writer out) throws IOException {
+		out.write("}\n");
+	}
+
+	/**
+	 * Writes text as a double-quoted DOT string.
+	 */
+	private static void quote(String text, Writer out) throws IOException {
+		out.write('"');
+		int length = text.length();
+		for (int i = 0; i < length; i++) {
+			char c = text.charAt(i);
+			if (c == '"' || c == '\\')
+				out.write('\\');
+			else if (c == '\n') {
+				out.write("\\n");
+				continue;
+			} else if (c == '\r')
+				continue;
+			out.write(c);
+		}
+		out.write('"');
+	}
+}
@@ -0,0 +1,102 @@
+package salvo.jesus.graph.io;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import salvo.jesus.graph.Edge;
+import salvo.jesus.graph.GraphBuilder;
+import salvo.jesus.graph.GraphException;
+import salvo.jesus.graph.GraphFactory;
+import salvo.jesus.graph.GraphImpl;
+import salvo.jesus.graph.WeightedEdge;
+
+/**
+ * Collects the vertices and edges read by the text readers, and adds them to
+ * a graph through a {@link GraphBuilder} in batches of a given size.
+ * Vertices are named by their String form: names made only of digits, and
+ * fitting in an <tt>int</tt>, give Integers and other names give Strings,
+ * as in {@link EdgeListReader}. Each name gives a single vertex.
+ *
+ * @author nono
+ * @version $Id$
+ */
+final class EdgeBatch {
+
+	private final GraphBuilder<?> builder;
+
+	private final GraphFactory factory;
+
+	private final int batchSize;
+
+	private final Map<String, Object> vertices = new HashMap<String, Object>();
+
+	private final List<Edge> edges;
+
+	/**
+	 * Number of vertices collected since the last flush.
+	 */
+	private int pending;
+
+	EdgeBatch(GraphImpl graph, int batchSize) {
+		this.builder = new GraphBuilder<GraphImpl>(graph);
+		this.factory = graph.getGraphFactory();
+		this.batchSize = batchSize;
+		this.edges = new ArrayList<Edge>(Math.min(batchSize,
+				EdgeListReader.DEFAULT_BATCH_SIZE));
+	}
+
+	/**
+	 * Returns the vertex of a name, collecting it the first time.
+	 */
+	Object vertex(String name) throws GraphException {
+		Object vertex = vertices.get(name);
+		if (vertex == null) {
+			vertex = parse(name);
+			vertices.put(name, vertex);
+			builder.addVertex(vertex);
+			if (++pending + edges.size() >= batchSize)
+				flush();
+		}
+		return vertex;
+	}
+
+	/**
+	 * Collects an edge between two named vertices, with a label as data if it
+	 * is not null, and a weight if it is not NaN and the edge is weighted.
+	 */
+	void edge(String source, String target, double weight, String label)
+			throws GraphException {
+		Object a = vertex(source);
+		Object b = vertex(target);
+		Edge edge = label == null ? factory.createEdge(a, b) : factory
+				.createEdgeWith(a, b, label);
+		if (!Double.isNaN(weight) && edge instanceof WeightedEdge)
+			((WeightedEdge) edge).setWeight(weight);
+		edges.add(edge);
+		if (pending + edges.size() >= batchSize)
+			flush();
+	}
+
+	void flush() throws GraphException {
+		if (pending == 0 && edges.isEmpty())
+			return;
+		builder.addEdges(edges).build();
+		edges.clear();
+		pending = 0;
+	}
+
+	private static Object parse(String name) {
+		int length = name.length();
+		if (length > 0 && length <= 10) {
+			long value = 0;
+			int i = 0;
+			for (; i < length && name.charAt(i) >= '0' && name.charAt(i) <= '9'; i++)
+				value = value * 10 + (name.charAt(i) - '0');
+			if (i == length && value <= Integer.MAX_VALUE)
+				return new Integer((int) value);
+		}
+		return name;
+	}
+}
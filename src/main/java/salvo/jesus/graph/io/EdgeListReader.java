@@ -0,0 +1,535 @@
+package salvo.jesus.graph.io;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+import salvo.jesus.graph.Edge;
+import salvo.jesus.graph.GraphBuilder;
+import salvo.jesus.graph.GraphException;
+import salvo.jesus.graph.GraphFactory;
+import salvo.jesus.graph.GraphImpl;
+import salvo.jesus.graph.WeightedEdge;
+
+/**
+ * Reads a graph from an edge list, one edge per line:
+ *
+ * <pre>
+ * source target [weight [label]]
+ * </pre>
+ *
+ * Fields are separated by tabs, spaces, commas or semicolons, or only by the
+ * separator given to {@link #setSeparator(char)}, which is needed for labels
+ * containing spaces. A third field that is not a number is the label of the
+ * edge. Blank lines and lines starting with <tt>#</tt> are skipped, and so is
+ * the first line if {@link #setHeader(boolean)} is set. Lines may end with
+ * <tt>\n</tt> or <tt>\r\n</tt> and are decoded as UTF-8.
+ * <p>
+ * Vertices made only of digits, and fitting in an <tt>int</tt>, are read as
+ * Integers and other vertices as Strings. Edges are created by the
+ * GraphFactory of the graph, with their label as data, and given their weight
+ * if they are WeightedEdges. The weights of other edges are ignored.
+ * <p>
+ * The input is streamed through a single buffer and parsed in place: no
+ * object is created for a line besides its Edge, its label, and vertices
+ * seen for the first time. Edges are added to the graph by a
+ * {@link GraphBuilder}, in batches of {@link #setBatchSize(int)} edges.
+ * Typical use is:
+ *
+ * <pre>
+ * WeightedGraphImpl graph = new EdgeListReader().read(file,
+ * 		new WeightedGraphImpl());
+ * </pre>
+ *
+ * @author nono
+ * @version $Id$
+ */
+public class EdgeListReader {
+
+	public static final int DEFAULT_BATCH_SIZE = 1 << 16;
+
+	public static final int DEFAULT_BUFFER_SIZE = 1 << 20;
+
+	/**
+	 * Largest powers of ten that are exact doubles.
+	 */
+	private static final double[] POWERS_OF_TEN = new double[23];
+
+	static {
+		POWERS_OF_TEN[0] = 1;
+		for (int i = 1; i < POWERS_OF_TEN.length; i++)
+			POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+	}
+
+	private char separator;
+
+	private boolean header;
+
+	private int batchSize = DEFAULT_BATCH_SIZE;
+
+	private int bufferSize = DEFAULT_BUFFER_SIZE;
+
+	/*
+	 * state of the current read
+	 */
+
+	private VertexTable vertices;
+
+	private GraphFactory factory;
+
+	private GraphBuilder<?> builder;
+
+	private List<Edge> batch;
+
+	private int line;
+
+	private boolean skipHeader;
+
+	/**
+	 * Start and end of the fields of the current line.
+	 */
+	private final int[] starts = new int[4];
+
+	private final int[] ends = new int[4];
+
+	/**
+	 * The last weight parsed.
+	 */
+	private double weight;
+
+	/**
+	 * Creates a reader of lines whose fields are separated by tabs, spaces,
+	 * commas or semicolons, without header.
+	 */
+	public EdgeListReader() {
+	}
+
+	/**
+	 * Sets the only character separating fields, or 0 for tabs, spaces,
+	 * commas and semicolons. Runs of the default separators count as one,
+	 * whereas a given separator may enclose empty fields.
+	 */
+	public void setSeparator(char separator) {
+		this.separator = separator;
+	}
+
+	public char getSeparator() {
+		return separator;
+	}
+
+	/**
+	 * Sets whether the first line is a header to be skipped.
+	 */
+	public void setHeader(boolean header) {
+		this.header = header;
+	}
+
+	public boolean isHeader() {
+		return header;
+	}
+
+	/**
+	 * Sets the number of edges added to the graph at once.
+	 */
+	public void setBatchSize(int batchSize) {
+		if (batchSize < 1)
+			throw new IllegalArgumentException("Batch size: " + batchSize);
+		this.batchSize = batchSize;
+	}
+
+	public int getBatchSize() {
+		return batchSize;
+	}
+
+	/**
+	 * Sets the initial size of the read buffer. It grows to hold lines
+	 * longer than that.
+	 */
+	public void setBufferSize(int bufferSize) {
+		if (bufferSize < 1)
+			throw new IllegalArgumentException("Buffer size: " + bufferSize);
+		this.bufferSize = bufferSize;
+	}
+
+	public int getBufferSize() {
+		return bufferSize;
+	}
+
+	/**
+	 * Reads the edges of a file into a graph.
+	 *
+	 * @return the graph
+	 * @throws IOException
+	 *             if the file cannot be read or a line is malformed.
+	 * @throws GraphException
+	 *             if the graph rejects a batch of edges.
+	 */
+	public <G extends GraphImpl> G read(File file, G graph)
+			throws IOException, GraphException {
+		FileInputStream in = new FileInputStream(file);
+
+		try {
+			FileChannel channel = in.getChannel();
+			// the whole file fits in the buffer if it is small
+			long size = channel.size();
+			int saved = bufferSize;
+			if (size < bufferSize)
+				bufferSize = (int) size + 1;
+			try {
+				return read(channel, graph);
+			} finally {
+				bufferSize = saved;
+			}
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * Reads edges from a channel into a graph, until the end of the channel.
+	 * The channel is not closed.
+	 *
+	 * @return the graph
+	 * @throws IOException
+	 *             if the channel cannot be read or a line is malformed.
+	 * @throws GraphException
+	 *             if the graph rejects a batch of edges.
+	 */
+	public <G extends GraphImpl> G read(ReadableByteChannel channel, G graph)
+			throws IOException, GraphException {
+		ByteBuffer buffer = ByteBuffer.allocate(bufferSize);
+
+		vertices = new VertexTable();
+		factory = graph.getGraphFactory();
+		builder = new GraphBuilder<G>(graph);
+		batch = new ArrayList<Edge>(Math.min(batchSize, DEFAULT_BATCH_SIZE));
+		line = 0;
+		skipHeader = header;
+		try {
+			boolean eof = false;
+			while (!eof) {
+				eof = channel.read(buffer) < 0;
+				byte[] bytes = buffer.array();
+				int end = buffer.position();
+				int start = 0;
+				for (int i = 0; i < end; i++)
+					if (bytes[i] == '\n') {
+						parseLine(bytes, start, i);
+						start = i + 1;
+					}
+				if (eof) {
+					if (start < end)
+						parseLine(bytes, start, end);
+				} else if (start == 0 && end == bytes.length) {
+					// the line is longer than the buffer
+					ByteBuffer grown = ByteBuffer.allocate(bytes.length * 2);
+					buffer.flip();
+					grown.put(buffer);
+					buffer = grown;
+				} else {
+					buffer.limit(end);
+					buffer.position(start);
+					buffer.compact();
+				}
+			}
+			flush();
+			return graph;
+		} finally {
+			vertices = null;
+			builder = null;
+			batch = null;
+		}
+	}
+
+	/**
+	 * Parses the line of bytes from start to end, excluding the line feed.
+	 */
+	private void parseLine(byte[] bytes, int start, int end)
+			throws IOException, GraphException {
+		line++;
+		if (end > start && bytes[end - 1] == '\r')
+			end--;
+		int fields = split(bytes, start, end);
+		if (fields == 0 || starts[0] < ends[0] && bytes[starts[0]] == '#')
+			return;
+		if (skipHeader) {
+			skipHeader = false;
+			return;
+		}
+		if (fields < 2 || starts[1] == ends[1])
+			throw error("missing target vertex");
+		if (starts[0] == ends[0])
+			throw error("missing source vertex");
+
+		Object source = vertices.get(bytes, starts[0], ends[0]);
+		Object target = vertices.get(bytes, starts[1], ends[1]);
+		double weight = 0;
+		boolean weighted = false;
+		String label = null;
+		if (fields >= 3 && starts[2] < ends[2]) {
+			weighted = parseDouble(bytes, starts[2], ends[2]);
+			weight = this.weight;
+			if (!weighted) {
+				if (fields == 4)
+					throw error("malformed weight");
+				label = decode(bytes, starts[2], ends[2]);
+			}
+		}
+		if (fields == 4 && starts[3] < ends[3])
+			label = decode(bytes, starts[3], ends[3]);
+
+		Edge edge = label == null ? factory.createEdge(source, target)
+				: factory.createEdgeWith(source, target, label);
+		if (weighted && edge instanceof WeightedEdge)
+			((WeightedEdge) edge).setWeight(weight);
+		batch.add(edge);
+		if (batch.size() >= batchSize)
+			flush();
+	}
+
+	/**
+	 * Finds the fields of a line, at most 4 of them. The last field extends to
+	 * the end of the line.
+	 *
+	 * @return the number of fields.
+	 */
+	private int split(byte[] bytes, int start, int end) {
+		int fields = 0;
+		int i = start;
+
+		if (separator == 0) {
+			while (i < end && fields < 4) {
+				while (i < end && isSeparator(bytes[i]))
+					i++;
+				if (i == end)
+					break;
+				starts[fields] = i;
+				if (fields == 3)
+					i = trim(bytes, i, end);
+				else
+					while (i < end && !isSeparator(bytes[i]))
+						i++;
+				ends[fields++] = i;
+			}
+			return fields;
+		}
+		if (start == end)
+			return 0;
+		while (fields < 4) {
+			starts[fields] = i;
+			if (fields < 3)
+				while (i < end && bytes[i] != separator)
+					i++;
+			else
+				i = end;
+			ends[fields++] = i;
+			if (i == end)
+				break;
+			i++;
+		}
+		return fields;
+	}
+
+	private static boolean isSeparator(byte b) {
+		return b == ' ' || b == '\t' || b == ',' || b == ';';
+	}
+
+	/**
+	 * Returns the end of the bytes from start to end without trailing
+	 * separators.
+	 */
+	private static int trim(byte[] bytes, int start, int end) {
+		while (end > start && isSeparator(bytes[end - 1]))
+			end--;
+		return end;
+	}
+
+	private void flush() throws GraphException {
+		if (batch.isEmpty())
+			return;
+		builder.addEdges(batch).build();
+		batch.clear();
+	}
+
+	private IOException error(String message) {
+		return new IOException("Line " + line + ": " + message);
+	}
+
+	private static String decode(byte[] bytes, int start, int end) {
+		try {
+			return new String(bytes, start, end - start, "UTF-8");
+		} catch (UnsupportedEncodingException e) {
+			throw new IllegalStateException(e.toString());
+		}
+	}
+
+	/**
+	 * Parses a decimal number into weight.
+	 *
+	 * @return false if the bytes are not a number.
+	 */
+	private boolean parseDouble(byte[] bytes, int start, int end) {
+		int i = start;
+		boolean negative = false;
+		long mantissa = 0;
+		int digits = 0, decimals = 0;
+
+		if (bytes[i] == '-' || bytes[i] == '+')
+			negative = bytes[i++] == '-';
+		for (; i < end && bytes[i] >= '0' && bytes[i] <= '9'; i++, digits++)
+			mantissa = mantissa * 10 + (bytes[i] - '0');
+		if (i < end && bytes[i] == '.')
+			for (i++; i < end && bytes[i] >= '0' && bytes[i] <= '9'; i++, decimals++)
+				mantissa = mantissa * 10 + (bytes[i] - '0');
+		if (i == end && digits + decimals > 0 && digits + decimals <= 15
+				&& decimals < POWERS_OF_TEN.length) {
+			// both are exact, so the quotient is correctly rounded
+			weight = mantissa / POWERS_OF_TEN[decimals];
+			if (negative)
+				weight = -weight;
+			return true;
+		}
+		// exponents, long mantissas, NaN and Infinity
+		try {
+			weight = Double.parseDouble(decode(bytes, start, end));
+			return true;
+		} catch (NumberFormatException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Hash table of the vertices read so far, keyed by their bytes, so that a
+	 * known vertex is found without creating an object.
+	 */
+	private static final class VertexTable {
+
+		/**
+		 * Index in the other arrays of the entry of each bucket, or -1.
+		 */
+		private int[] buckets = newBuckets(1 << 10);
+
+		/**
+		 * Keys of all entries, one after the other.
+		 */
+		private byte[] keys = new byte[1 << 12];
+
+		private int keysLength;
+
+		private int[] keyStarts = new int[1 << 9];
+
+		private int[] keyLengths = new int[1 << 9];
+
+		private int[] hashes = new int[1 << 9];
+
+		private Object[] values = new Object[1 << 9];
+
+		private int size;
+
+		private static int[] newBuckets(int length) {
+			int[] buckets = new int[length];
+			java.util.Arrays.fill(buckets, -1);
+			return buckets;
+		}
+
+		/**
+		 * Returns the vertex with the given bytes, creating it if it is new.
+		 */
+		Object get(byte[] bytes, int start, int end) {
+			int hash = 0;
+			for (int i = start; i < end; i++)
+				hash = 31 * hash + bytes[i];
+			hash ^= hash >>> 16;
+
+			int mask = buckets.length - 1;
+			for (int b = hash & mask;; b = (b + 1) & mask) {
+				int entry = buckets[b];
+				if (entry == -1) {
+					entry = add(bytes, start, end, hash);
+					buckets[b] = entry;
+					if (size * 2 > buckets.length)
+						rehash();
+					return values[entry];
+				}
+				if (hashes[entry] == hash && equals(entry, bytes, start, end))
+					return values[entry];
+			}
+		}
+
+		private boolean equals(int entry, byte[] bytes, int start, int end) {
+			int length = keyLengths[entry];
+			if (length != end - start)
+				return false;
+			for (int i = 0, k = keyStarts[entry]; i < length; i++, k++)
+				if (keys[k] != bytes[start + i])
+					return false;
+			return true;
+		}
+
+		private int add(byte[] bytes, int start, int end, int hash) {
+			int length = end - start;
+			if (size == values.length) {
+				int grown = size * 2;
+				keyStarts = copyOf(keyStarts, grown);
+				keyLengths = copyOf(keyLengths, grown);
+				hashes = copyOf(hashes, grown);
+				Object[] copy = new Object[grown];
+				System.arraycopy(values, 0, copy, 0, size);
+				values = copy;
+			}
+			if (keysLength + length > keys.length) {
+				byte[] copy = new byte[Math.max(keys.length * 2, keysLength
+						+ length)];
+				System.arraycopy(keys, 0, copy, 0, keysLength);
+				keys = copy;
+			}
+			System.arraycopy(bytes, start, keys, keysLength, length);
+			keyStarts[size] = keysLength;
+			keyLengths[size] = length;
+			hashes[size] = hash;
+			values[size] = vertex(bytes, start, end);
+			keysLength += length;
+			return size++;
+		}
+
+		private static int[] copyOf(int[] array, int length) {
+			int[] copy = new int[length];
+			System.arraycopy(array, 0, copy, 0, array.length);
+			return copy;
+		}
+
+		private void rehash() {
+			int[] grown = newBuckets(buckets.length * 2);
+			int mask = grown.length - 1;
+			for (int entry = 0; entry < size; entry++) {
+				int b = hashes[entry] & mask;
+				while (grown[b] != -1)
+					b = (b + 1) & mask;
+				grown[b] = entry;
+			}
+			buckets = grown;
+		}
+
+		/**
+		 * Returns an Integer if the bytes are digits fitting in an int, or
+		 * else a String.
+		 */
+		private static Object vertex(byte[] bytes, int start, int end) {
+			if (end - start <= 10) {
+				long value = 0;
+				int i = start;
+				for (; i < end && bytes[i] >= '0' && bytes[i] <= '9'; i++)
+					value = value * 10 + (bytes[i] - '0');
+				if (i == end && value <= Integer.MAX_VALUE)
+					return new Integer((int) value);
+			}
+			return decode(bytes, start, end);
+		}
+	}
+}
@@ -0,0 +1,180 @@
+package salvo.jesus.graph.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.xml.stream.Location;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import salvo.jesus.graph.GraphException;
+import salvo.jesus.graph.GraphImpl;
+
+/**
+ * Reads GraphML into a graph. Each <tt>node</tt> gives a vertex and each
+ * <tt>edge</tt> an edge created by the GraphFactory of the graph. The data of
+ * an edge whose key is named <tt>weight</tt> gives the weight of the edge if
+ * it is a WeightedEdge, and the data whose key is named <tt>label</tt> gives
+ * its data. Other data, nested graphs, ports and hyperedges are ignored:
+ * nested graphs are read as part of the enclosing graph.
+ * <p>
+ * Vertices are named by their <tt>id</tt>. Ids made only of digits, and
+ * fitting in an <tt>int</tt>, are read as Integers and other ids as Strings,
+ * as in {@link EdgeListReader}.
+ * <p>
+ * The document is streamed with StAX, and vertices and edges are added to
+ * the graph by a {@link salvo.jesus.graph.GraphBuilder} in batches of
+ * {@link #setBatchSize(int)}, so reading needs no memory beyond the graph
+ * and the names of its vertices.
+ *
+ * @author nono
+ * @version $Id$
+ * @see GraphMLWriter
+ */
+public class GraphMLReader {
+
+	private int batchSize = EdgeListReader.DEFAULT_BATCH_SIZE;
+
+	/**
+	 * Sets the number of vertices and edges added to the graph at once.
+	 */
+	public void setBatchSize(int batchSize) {
+		if (batchSize < 1)
+			throw new IllegalArgumentException("Batch size: " + batchSize);
+		this.batchSize = batchSize;
+	}
+
+	public int getBatchSize() {
+		return batchSize;
+	}
+
+	/**
+	 * Reads a document from a stream into a graph. The encoding is given by
+	 * the document, and the stream is not closed.
+	 *
+	 * @return the graph
+	 * @throws IOException
+	 *             if the stream cannot be read or is not valid GraphML.
+	 * @throws GraphException
+	 *             if the graph rejects a batch of vertices or edges.
+	 */
+	public <G extends GraphImpl> G read(InputStream in, G graph)
+			throws IOException, GraphException {
+		try {
+			return read(factory().createXMLStreamReader(in), graph);
+		} catch (XMLStreamException e) {
+			throw error(e);
+		}
+	}
+
+	/**
+	 * Reads a document from a character stream into a graph. The stream is
+	 * not closed.
+	 *
+	 * @return the graph
+	 * @throws IOException
+	 *             if the stream cannot be read or is not valid GraphML.
+	 * @throws GraphException
+	 *             if the graph rejects a batch of vertices or edges.
+	 */
+	public <G extends GraphImpl> G read(Reader in, G graph)
+			throws IOException, GraphException {
+		try {
+			return read(factory().createXMLStreamReader(in), graph);
+		} catch (XMLStreamException e) {
+			throw error(e);
+		}
+	}
+
+	private static XMLInputFactory factory() {
+		XMLInputFactory factory = XMLInputFactory.newInstance();
+		factory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+		factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES,
+				Boolean.FALSE);
+		factory.setProperty(XMLInputFactory.IS_COALESCING, Boolean.TRUE);
+		return factory;
+	}
+
+	private <G extends GraphImpl> G read(XMLStreamReader xml, G graph)
+			throws IOException, GraphException, XMLStreamException {
+		EdgeBatch batch = new EdgeBatch(graph, batchSize);
+		// name of the keys by id
+		Map<String, String> keys = new HashMap<String, String>();
+		String source = null, target = null, label = null;
+		double weight = Double.NaN;
+
+		try {
+			while (xml.hasNext()) {
+				int event = xml.next();
+				if (event == XMLStreamConstants.END_ELEMENT
+						&& "edge".equals(xml.getLocalName()) && source != null) {
+					batch.edge(source, target, weight, label);
+					source = null;
+					continue;
+				}
+				if (event != XMLStreamConstants.START_ELEMENT)
+					continue;
+				String element = xml.getLocalName();
+				if ("key".equals(element)) {
+					String id = xml.getAttributeValue(null, "id");
+					String name = xml.getAttributeValue(null, "attr.name");
+					if (id != null && name != null)
+						keys.put(id, name);
+				} else if ("node".equals(element))
+					batch.vertex(attribute(xml, "id"));
+				else if ("edge".equals(element)) {
+					source = attribute(xml, "source");
+					target = attribute(xml, "target");
+					weight = Double.NaN;
+					label = null;
+				} else if ("data".equals(element) && source != null) {
+					String name = keys.get(xml.getAttributeValue(null, "key"));
+					if ("weight".equals(name))
+						weight = parseWeight(xml);
+					else if ("label".equals(name))
+						label = xml.getElementText();
+				}
+			}
+			batch.flush();
+			return graph;
+		} finally {
+			xml.close();
+		}
+	}
+
+	private static String attribute(XMLStreamReader xml, String name)
+			throws IOException {
+		String value = xml.getAttributeValue(null, name);
+		if (value == null)
+			throw error(xml.getLocation(), "missing " + name + " of "
+					+ xml.getLocalName());
+		return value;
+	}
+
+	private static double parseWeight(XMLStreamReader xml) throws IOException,
+			XMLStreamException {
+		Location location = xml.getLocation();
+		String text = xml.getElementText().trim();
+		try {
+			return Double.parseDouble(text);
+		} catch (NumberFormatException e) {
+			throw error(location, "malformed weight " + text);
+		}
+	}
+
+	private static IOException error(Location location, String message) {
+		return new IOException("Line " + location.getLineNumber() + ": "
+				+ message);
+	}
+
+	private static IOException error(XMLStreamException e) {
+		IOException error = new IOException(e.getMessage());
+		error.initCause(e);
+		return error;
+	}
+}
@@ -0,0 +1,131 @@
+package salvo.jesus.graph.io;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+
+import salvo.jesus.graph.Graph;
+
+/**
+ * Writes graphs in GraphML, as a <tt>node</tt> element per vertex and an
+ * <tt>edge</tt> element per edge, with <tt>weight</tt> and <tt>label</tt>
+ * data:
+ *
+ * <pre>
+ * &lt;graphml xmlns=&quot;http://graphml.graphdrawing.org/xmlns&quot;&gt;
+ *   &lt;key id=&quot;weight&quot; for=&quot;edge&quot; attr.name=&quot;weight&quot; attr.type=&quot;double&quot;/&gt;
+ *   &lt;key id=&quot;label&quot; for=&quot;edge&quot; attr.name=&quot;label&quot; attr.type=&quot;string&quot;/&gt;
+ *   &lt;graph edgedefault=&quot;directed&quot;&gt;
+ *     &lt;node id=&quot;a&quot;/&gt;
+ *     &lt;node id=&quot;b&quot;/&gt;
+ *     &lt;edge source=&quot;a&quot; target=&quot;b&quot;&gt;&lt;data key=&quot;weight&quot;&gt;2.5&lt;/data&gt;&lt;/edge&gt;
+ *   &lt;/graph&gt;
+ * &lt;/graphml&gt;
+ * </pre>
+ *
+ * Vertices are identified by their String form, which should be unique. Only
+ * WeightedEdges have a weight, and only edges whose data differs from the
+ * data the graph's GraphFactory gives to new edges have a label.
+ * <p>
+ * The graph is walked vertex by vertex and written through a buffer, so
+ * writing needs no memory beyond the buffer whatever the size of the graph.
+ *
+ * @author nono
+ * @version $Id$
+ * @see GraphMLReader
+ */
+public class GraphMLWriter extends TextGraphWriter {
+
+	/**
+	 * Writes a graph as UTF-8 to a stream, which is flushed but not closed.
+	 */
+	public void write(Graph graph, OutputStream out) throws IOException {
+		walk(graph, out);
+	}
+
+	/**
+	 * Writes a graph to a character stream, which is flushed but not closed.
+	 */
+	public void write(Graph graph, Writer out) throws IOException {
+		walk(graph, out);
+	}
+
+	void start(Graph graph, boolean directed, Writer out) throws IOException {
+		out.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+		out.write("<graphml xmlns=\"http://graphml.graphdrawing.org/xmlns\">\n");
+		out.write("  <key id=\"weight\" for=\"edge\" attr.name=\"weight\" attr.type=\"double\"/>\n");
+		out.write("  <key id=\"label\" for=\"edge\" attr.name=\"label\" attr.type=\"string\"/>\n");
+		out.write("  <graph edgedefault=\"");
+		out.write(directed ? "directed" : "undirected");
+		out.write("\">\n");
+	}
+
+	void vertex(Object vertex, Writer out) throws IOException {
+		out.write("    <node id=\"");
+		escape(vertex.toString(), out);
+		out.write("\"/>\n");
+	}
+
+	void edge(Object source, Object target, double weight, String label,
+			Writer out) throws IOException {
+		out.write("    <edge source=\"");
+		escape(source.toString(), out);
+		out.write("\" target=\"");
+		escape(target.toString(), out);
+		if (Double.isNaN(weight) && label == null) {
+			out.write("\"/>\n");
+			return;
+		}
+		out.write("\">");
+		if (!Double.isNaN(weight)) {
+			out.write("<data key=\"weight\">");
+			out.write(Double.toString(weight));
+			out.write("</data>");
+		}
+		if (label != null) {
+			out.write("<data key=\"label\">");
+			escape(label, out);
+			out.write("</data>");
+		}
+		out.write("</edge>\n");
+	}
+
+	void end(Writer out) throws IOException {
+		out.write("  </graph>\n</graphml>\n");
+	}
+
+	/**
+	 * Writes text as XML character data or attribute value. Characters that
+	 * XML does not allow are dropped.
+	 */
+	private static void escape(String text, Writer out) throws IOException {
+		int length = text.length();
+		for (int i = 0; i < length; i++) {
+			char c = text.charAt(i);
+			switch (c) {
+			case '<':
+				out.write("&lt;");
+				break;
+			case '>':
+				out.write("&gt;");
+				break;
+			case '&':
+				out.write("&amp;");
+				break;
+			case '"':
+				out.write("&quot;");
+				break;
+			case '\t':
+			case '\n':
+			case '\r':
+				out.write("&#");
+				out.write(Integer.toString(c));
+				out.write(';');
+				break;
+			default:
+				if (c >= 0x20 && c != 0xFFFE && c != 0xFFFF)
+					out.write(c);
+			}
+		}
+	}
+}
@@ -0,0 +1,32 @@
+package salvo.jesus.graph.io;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Encodes the vertices and edge data of a graph in the binary graph format.
+ * A codec must read back exactly the bytes it wrote, and must accept null
+ * payloads.
+ * <p>
+ * Graphs whose vertices are Strings, numbers or VertexImpls are handled by
+ * {@link DefaultPayloadCodec}. Other graphs may provide a codec writing their
+ * vertices more compactly than Java serialization.
+ *
+ * @author nono
+ * @version $Id$
+ * @see BinaryGraphWriter
+ * @see BinaryGraphReader
+ */
+public interface PayloadCodec {
+
+	/**
+	 * Writes a vertex or edge data, which may be null.
+	 */
+	public void write(Object payload, DataOutput out) throws IOException;
+
+	/**
+	 * Reads a vertex or edge data written by <tt>write()</tt>.
+	 */
+	public Object read(DataInput in) throws IOException;
+}
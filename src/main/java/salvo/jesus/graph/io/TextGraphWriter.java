@@ -0,0 +1,104 @@
+package salvo.jesus.graph.io;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Iterator;
+import java.util.List;
+
+import salvo.jesus.graph.DirectedGraph;
+import salvo.jesus.graph.Edge;
+import salvo.jesus.graph.Graph;
+import salvo.jesus.graph.GraphFactory;
+import salvo.jesus.graph.WeightedEdge;
+
+/**
+ * Walks a graph for the text writers: each vertex, then each edge once, from
+ * the edge lists of its first vertex, without copying the vertices or edges
+ * of the graph.
+ *
+ * @author nono
+ * @version $Id$
+ */
+abstract class TextGraphWriter {
+
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	void walk(Graph graph, OutputStream out) throws IOException {
+		Writer writer = new OutputStreamWriter(out, "UTF-8");
+		walk(graph, writer);
+		writer.flush();
+	}
+
+	void walk(Graph graph, Writer out) throws IOException {
+		BufferedWriter writer = out instanceof BufferedWriter ? (BufferedWriter) out
+				: new BufferedWriter(out, BUFFER_SIZE);
+		boolean directed = graph instanceof DirectedGraph;
+		GraphFactory factory = graph.getGraphFactory();
+		Object initial = null;
+		boolean found = false;
+
+		start(graph, directed, writer);
+		for (Iterator vertices = graph.getVerticesIterator(); vertices
+				.hasNext();)
+			vertex(vertices.next(), writer);
+		for (Iterator vertices = graph.getVerticesIterator(); vertices
+				.hasNext();) {
+			Object vertex = vertices.next();
+			List edges = directed ? ((DirectedGraph) graph)
+					.getOutgoingEdges(vertex) : graph.getEdges(vertex);
+			for (int i = 0; i < edges.size(); i++) {
+				Edge edge = (Edge) edges.get(i);
+				if (!directed && !isFirst(vertex, edges, i))
+					continue;
+				double weight = edge instanceof WeightedEdge ? ((WeightedEdge) edge)
+						.getWeight()
+						: Double.NaN;
+				if (!found) {
+					initial = BinaryGraphWriter.defaultData(factory, edge);
+					found = true;
+				}
+				String label = BinaryGraphWriter.isDefaultData(initial, edge)
+						|| edge.getData() == null ? null : edge.getData()
+						.toString();
+				edge(edge.getVertexA(), edge.getVertexB(), weight, label,
+						writer);
+			}
+		}
+		end(writer);
+		writer.flush();
+	}
+
+	/**
+	 * Tells whether the i-th incident edge of a vertex in an undirected graph
+	 * is written from that vertex: the edge must start at the vertex, and a
+	 * loop, which is incident twice, is only written the first time.
+	 */
+	private static boolean isFirst(Object vertex, List edges, int i) {
+		Edge edge = (Edge) edges.get(i);
+		if (!vertex.equals(edge.getVertexA()))
+			return false;
+		if (!vertex.equals(edge.getVertexB()))
+			return true;
+		for (int j = 0; j < i; j++)
+			if (edges.get(j) == edge)
+				return false;
+		return true;
+	}
+
+	abstract void start(Graph graph, boolean directed, Writer out)
+			throws IOException;
+
+	abstract void vertex(Object vertex, Writer out) throws IOException;
+
+	/**
+	 * Writes an edge, with its weight if it is not NaN and its label if it is
+	 * not null.
+	 */
+	abstract void edge(Object source, Object target, double weight,
+			String label, Writer out) throws IOException;
+
+	abstract void end(Writer out) throws IOException;
+}
@@ -0,0 +1,120 @@
+package salvo.jesus.graph.primitive;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Number of edges from each vertex id to each other, in an open addressing
+ * hash table of <tt>long</tt> keys, so that the edges between two vertices
+ * are counted in constant time whatever their degrees. Pairs without edges
+ * take no room.
+ *
+ * @author nono
+ * @version $Id$
+ */
+final class EdgeCounts implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Key of the free slots. Keys of pairs of ids are never negative.
+	 */
+	private static final long FREE = -1;
+
+	private long[] keys;
+
+	private int[] counts;
+
+	private int size;
+
+	EdgeCounts() {
+		allocate(16);
+	}
+
+	private void allocate(int length) {
+		keys = new long[length];
+		Arrays.fill(keys, FREE);
+		counts = new int[length];
+	}
+
+	private static long key(int from, int to) {
+		return (long) from << 32 | to;
+	}
+
+	private static int hash(long key) {
+		return (int) (key * 0x9E3779B97F4A7C15L >>> 32);
+	}
+
+	/**
+	 * Returns the slot of a key, or the free slot where it would go.
+	 */
+	private int slot(long key) {
+		int mask = keys.length - 1;
+		int i = hash(key) & mask;
+
+		while (keys[i] != FREE && keys[i] != key)
+			i = (i + 1) & mask;
+		return i;
+	}
+
+	/**
+	 * Returns the number of edges from a vertex to another.
+	 */
+	int get(int from, int to) {
+		int i = slot(key(from, to));
+		return keys[i] == FREE ? 0 : counts[i];
+	}
+
+	/**
+	 * Counts one more edge from a vertex to another.
+	 */
+	void increment(int from, int to) {
+		long key = key(from, to);
+		int i = slot(key);
+
+		if (keys[i] != FREE) {
+			counts[i]++;
+			return;
+		}
+		keys[i] = key;
+		counts[i] = 1;
+		if (++size > keys.length * 3 / 4)
+			rehash(keys.length * 2);
+	}
+
+	/**
+	 * Counts one less edge from a vertex to another, if there was any.
+	 */
+	void decrement(int from, int to) {
+		int i = slot(key(from, to));
+
+		if (keys[i] == FREE || --counts[i] > 0)
+			return;
+		size--;
+		// shift back the following keys that cannot be found past the hole
+		int mask = keys.length - 1;
+		for (int j = (i + 1) & mask; keys[j] != FREE; j = (j + 1) & mask) {
+			int home = hash(keys[j]) & mask;
+			if (i <= j ? i < home && home <= j : i < home || home <= j)
+				continue;
+			keys[i] = keys[j];
+			counts[i] = counts[j];
+			i = j;
+		}
+		keys[i] = FREE;
+		counts[i] = 0;
+	}
+
+	private void rehash(int length) {
+		long[] oldKeys = keys;
+		int[] oldCounts = counts;
+
+		allocate(length);
+		for (int i = 0; i < oldKeys.length; i++)
+			if (oldKeys[i] != FREE) {
+				int j = slot(oldKeys[i]);
+				keys[j] = oldKeys[i];
+				counts[j] = oldCounts[i];
+			}
+	}
+}
@@ -0,0 +1,341 @@
+package salvo.jesus.graph.primitive;
+
+import java.io.Serializable;
+
+/**
+ * A directed graph whose vertices and edges are plain <tt>int</tt>s. Vertices
+ * are identified by ids allocated by {@link #addVertex()}, and the outgoing
+ * and incoming adjacency of each vertex is stored in a growable
+ * <tt>int[]</tt> of opposite vertex ids. There is no object per edge, so an
+ * edge costs 8 bytes (one outgoing and one incoming entry) plus the spare room
+ * of the arrays, which {@link #trimToSize()} releases.
+ * <p>
+ * Parallel edges and self-loops are allowed. Ids freed by
+ * {@link #removeVertex(int)} are reused by the next vertices added.
+ * <p>
+ * Use {@link IntDirectedGraphAdapter} to view an IntDirectedGraph as a
+ * <tt>DirectedGraph</tt> of arbitrary objects.
+ *
+ * @author nono
+ * @version $Id$
+ */
+public class IntDirectedGraph implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private static final int[] EMPTY = new int[0];
+
+	/**
+	 * Ids of the sinks of the outgoing edges of each vertex, or null if the id
+	 * is free.
+	 */
+	private int[][] out;
+
+	/**
+	 * Number of outgoing edges of each vertex.
+	 */
+	private int[] outDegree;
+
+	/**
+	 * Ids of the sources of the incoming edges of each vertex, or null if the
+	 * id is free.
+	 */
+	private int[][] in;
+
+	/**
+	 * Number of incoming edges of each vertex.
+	 */
+	private int[] inDegree;
+
+	/**
+	 * Number of ids allocated so far, free or not.
+	 */
+	private int capacity;
+
+	/**
+	 * Stack of free ids.
+	 */
+	private int[] free;
+
+	private int freeCount;
+
+	private int edgesCount;
+
+	/**
+	 * Creates a new, empty IntDirectedGraph.
+	 */
+	public IntDirectedGraph() {
+		this(10);
+	}
+
+	/**
+	 * Creates a new, empty IntDirectedGraph with room for the given number of
+	 * vertices.
+	 */
+	public IntDirectedGraph(int initialCapacity) {
+		initialCapacity = Math.max(initialCapacity, 1);
+		out = new int[initialCapacity][];
+		outDegree = new int[initialCapacity];
+		in = new int[initialCapacity][];
+		inDegree = new int[initialCapacity];
+		free = new int[10];
+	}
+
+	// ------------------------ vertices
+
+	/**
+	 * Adds a vertex with no edges.
+	 *
+	 * @return the id of the new vertex.
+	 */
+	public int addVertex() {
+		int v;
+
+		if (freeCount > 0)
+			v = free[--freeCount];
+		else {
+			v = capacity++;
+			if (v == out.length)
+				growVertices(v * 2);
+		}
+		out[v] = EMPTY;
+		in[v] = EMPTY;
+		return v;
+	}
+
+	/**
+	 * Removes a vertex and all its edges. Its id becomes free.
+	 *
+	 * @throws IllegalArgumentException
+	 *             if there is no such vertex.
+	 */
+	public void removeVertex(int v) {
+		checkVertex(v);
+		// Remove the vertex from the incoming edges of its sinks ...
+		for (int i = 0; i < outDegree[v]; i++) {
+			int w = out[v][i];
+			if (w != v)
+				inDegree[w] = removeAll(in[w], inDegree[w], v);
+		}
+		// ... and from the outgoing edges of its sources.
+		for (int i = 0; i < inDegree[v]; i++) {
+			int w = in[v][i];
+			if (w != v)
+				outDegree[w] = removeAll(out[w], outDegree[w], v);
+		}
+		edgesCount -= outDegree[v] + inDegree[v];
+		// Self-loops were counted twice
+		for (int i = 0; i < outDegree[v]; i++)
+			if (out[v][i] == v)
+				edgesCount++;
+		out[v] = null;
+		in[v] = null;
+		outDegree[v] = 0;
+		inDegree[v] = 0;
+		if (freeCount == free.length)
+			free = grow(free, freeCount * 2);
+		free[freeCount++] = v;
+	}
+
+	/**
+	 * Determines if the given id is the id of a vertex of the graph.
+	 */
+	public boolean containsVertex(int v) {
+		return v >= 0 && v < capacity && out[v] != null;
+	}
+
+	/**
+	 * Returns the number of vertices in the graph.
+	 */
+	public int getVerticesCount() {
+		return capacity - freeCount;
+	}
+
+	/**
+	 * Returns an upper bound of the ids of the vertices, suitable to size
+	 * arrays indexed by vertex id.
+	 */
+	public int getVertexCapacity() {
+		return capacity;
+	}
+
+	// ------------------------ edges
+
+	/**
+	 * Adds an edge from a vertex to another.
+	 *
+	 * @throws IllegalArgumentException
+	 *             if either vertex is not in the graph.
+	 */
+	public void addEdge(int from, int to) {
+		checkVertex(from);
+		checkVertex(to);
+		if (outDegree[from] == out[from].length)
+			out[from] = grow(out[from], Math.max(4, outDegree[from] * 2));
+		out[from][outDegree[from]++] = to;
+		if (inDegree[to] == in[to].length)
+			in[to] = grow(in[to], Math.max(4, inDegree[to] * 2));
+		in[to][inDegree[to]++] = from;
+		edgesCount++;
+	}
+
+	/**
+	 * Removes one edge from a vertex to another.
+	 *
+	 * @return true if there was such an edge.
+	 */
+	public boolean removeEdge(int from, int to) {
+		if (!containsVertex(from) || !containsVertex(to))
+			return false;
+		int i = indexOf(out[from], outDegree[from], to);
+		if (i < 0)
+			return false;
+		out[from][i] = out[from][--outDegree[from]];
+		int j = indexOf(in[to], inDegree[to], from);
+		in[to][j] = in[to][--inDegree[to]];
+		edgesCount--;
+		return true;
+	}
+
+	/**
+	 * Determines if there is an edge from a vertex to another.
+	 */
+	public boolean containsEdge(int from, int to) {
+		if (!containsVertex(from) || !containsVertex(to))
+			return false;
+		// Search the shorter of the two lists
+		if (outDegree[from] <= inDegree[to])
+			return indexOf(out[from], outDegree[from], to) >= 0;
+		return indexOf(in[to], inDegree[to], from) >= 0;
+	}
+
+	/**
+	 * Returns the number of edges in the graph.
+	 */
+	public int getEdgesCount() {
+		return edgesCount;
+	}
+
+	/**
+	 * Returns the number of outgoing edges of a vertex.
+	 */
+	public int getOutDegree(int v) {
+		checkVertex(v);
+		return outDegree[v];
+	}
+
+	/**
+	 * Returns the sink of the i-th outgoing edge of a vertex, for i from 0 to
+	 * <tt>getOutDegree(v) - 1</tt>. Removing an edge may change the order of
+	 * the remaining edges.
+	 */
+	public int getOutgoing(int v, int i) {
+		if (i >= outDegree[v])
+			throw new IndexOutOfBoundsException("Index: " + i + ", Size: "
+					+ outDegree[v]);
+		return out[v][i];
+	}
+
+	/**
+	 * Returns the number of incoming edges of a vertex.
+	 */
+	public int getInDegree(int v) {
+		checkVertex(v);
+		return inDegree[v];
+	}
+
+	/**
+	 * Returns the source of the i-th incoming edge of a vertex, for i from 0
+	 * to <tt>getInDegree(v) - 1</tt>.
+	 */
+	public int getIncoming(int v, int i) {
+		if (i >= inDegree[v])
+			throw new IndexOutOfBoundsException("Index: " + i + ", Size: "
+					+ inDegree[v]);
+		return in[v][i];
+	}
+
+	/**
+	 * Copies the sinks of the outgoing edges of a vertex into an array.
+	 *
+	 * @return the number of sinks copied, which is the out-degree of v.
+	 */
+	public int getOutgoing(int v, int[] sinks) {
+		checkVertex(v);
+		System.arraycopy(out[v], 0, sinks, 0, outDegree[v]);
+		return outDegree[v];
+	}
+
+	/**
+	 * Copies the sources of the incoming edges of a vertex into an array.
+	 *
+	 * @return the number of sources copied, which is the in-degree of v.
+	 */
+	public int getIncoming(int v, int[] sources) {
+		checkVertex(v);
+		System.arraycopy(in[v], 0, sources, 0, inDegree[v]);
+		return inDegree[v];
+	}
+
+	/**
+	 * Releases the spare room of all adjacency arrays.
+	 */
+	public void trimToSize() {
+		for (int v = 0; v < capacity; v++) {
+			if (out[v] == null)
+				continue;
+			if (out[v].length > outDegree[v])
+				out[v] = outDegree[v] == 0 ? EMPTY : grow(out[v], outDegree[v]);
+			if (in[v].length > inDegree[v])
+				in[v] = inDegree[v] == 0 ? EMPTY : grow(in[v], inDegree[v]);
+		}
+		if (out.length > capacity)
+			growVertices(Math.max(capacity, 1));
+	}
+
+	private void checkVertex(int v) {
+		if (!containsVertex(v))
+			throw new IllegalArgumentException("No vertex with id " + v);
+	}
+
+	private void growVertices(int length) {
+		int[][] grownOut = new int[length][];
+		int[][] grownIn = new int[length][];
+		int copied = Math.min(out.length, length);
+
+		System.arraycopy(out, 0, grownOut, 0, copied);
+		System.arraycopy(in, 0, grownIn, 0, copied);
+		out = grownOut;
+		in = grownIn;
+		outDegree = grow(outDegree, length);
+		inDegree = grow(inDegree, length);
+	}
+
+	private static int[] grow(int[] array, int length) {
+		int[] grown = new int[length];
+		System.arraycopy(array, 0, grown, 0, Math.min(array.length, length));
+		return grown;
+	}
+
+	private static int indexOf(int[] array, int size, int value) {
+		for (int i = 0; i < size; i++)
+			if (array[i] == value)
+				return i;
+		return -1;
+	}
+
+	/**
+	 * Removes all occurrences of a value from the first size elements of an
+	 * array, not keeping the order of the others.
+	 *
+	 * @return the new number of elements.
+	 */
+	private static int removeAll(int[] array, int size, int value) {
+		for (int i = 0; i < size;)
+			if (array[i] == value)
+				array[i] = array[--size];
+			else
+				i++;
+		return size;
+	}
+}
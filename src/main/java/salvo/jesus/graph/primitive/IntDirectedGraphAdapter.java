@@ -0,0 +1,694 @@
+package salvo.jesus.graph.primitive;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import salvo.jesus.graph.DirectedEdge;
+import salvo.jesus.graph.DirectedGraph;
+import salvo.jesus.graph.DirectedGraphImplFactory;
+import salvo.jesus.graph.Edge;
+import salvo.jesus.graph.Graph;
+import salvo.jesus.graph.GraphAddEdgeEvent;
+import salvo.jesus.graph.GraphAddEdgeListener;
+import salvo.jesus.graph.GraphAddVertexEvent;
+import salvo.jesus.graph.GraphAddVertexListener;
+import salvo.jesus.graph.GraphBatch;
+import salvo.jesus.graph.GraphException;
+import salvo.jesus.graph.GraphFactory;
+import salvo.jesus.graph.GraphModificationException;
+import salvo.jesus.graph.GraphRemoveEdgeEvent;
+import salvo.jesus.graph.GraphRemoveEdgeListener;
+import salvo.jesus.graph.GraphRemoveVertexEvent;
+import salvo.jesus.graph.GraphRemoveVertexListener;
+import salvo.jesus.graph.algorithm.DepthFirstGraphTraversal;
+import salvo.jesus.graph.algorithm.GraphTraversal;
+
+/**
+ * A DirectedGraph of arbitrary objects stored in an {@link IntDirectedGraph}.
+ * Each vertex object is mapped to the id of a vertex of the underlying
+ * IntDirectedGraph, and edges are stored as pairs of ids only.
+ * <p>
+ * Since no Edge object is kept, the edges returned by this graph are created
+ * by its GraphFactory each time they are asked for. They are equal to, but
+ * not the same as, the edges that were added, and any data attached to an
+ * added Edge is not retained. Algorithms that do not need Edge objects
+ * should work on {@link #getIntGraph()} directly, mapping vertices with
+ * {@link #getVertexId(Object)} and {@link #getVertex(int)}.
+ *
+ * @author nono
+ * @version $Id$
+ */
+public class IntDirectedGraphAdapter implements DirectedGraph {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * The graph storing the vertices and edges.
+	 */
+	private IntDirectedGraph graph;
+
+	/**
+	 * Number of edges between each pair of vertex ids.
+	 */
+	private EdgeCounts edgeCounts;
+
+	/**
+	 * Id of each vertex, in the order they were added.
+	 */
+	private Map<Object, Integer> ids;
+
+	/**
+	 * Vertex of each id.
+	 */
+	private Object[] vertices;
+
+	/**
+	 * Incremented each time an edge is added or removed.
+	 */
+	private int modCount;
+
+	/**
+	 * Connected set of each vertex id, computed when first needed after a
+	 * modification.
+	 */
+	private int[] connectedSetOf;
+
+	/**
+	 * Connected sets matching connectedSetOf.
+	 */
+	private List connectedSets;
+
+	/**
+	 * modCount when connectedSets were computed.
+	 */
+	private int connectedSetsModCount = -1;
+
+	/**
+	 * Changes made since <tt>beginBatch()</tt>, or null if there is no batch
+	 * in progress.
+	 */
+	private transient GraphBatch batch;
+
+	protected GraphFactory factory;
+
+	protected GraphTraversal traversal;
+
+	protected List addvertexlistener;
+
+	protected List addedgelistener;
+
+	protected List removevertexlistener;
+
+	protected List removeedgelistener;
+
+	/**
+	 * Creates a new, empty graph.
+	 */
+	public IntDirectedGraphAdapter() {
+		this(new IntDirectedGraph());
+	}
+
+	/**
+	 * Creates a graph whose vertices are the ids of the vertices of an
+	 * IntDirectedGraph. Each id, as an Integer, is mapped to itself.
+	 */
+	public IntDirectedGraphAdapter(IntDirectedGraph graph) {
+		this.graph = graph;
+		this.ids = new LinkedHashMap<Object, Integer>();
+		this.vertices = new Object[Math.max(graph.getVertexCapacity(), 10)];
+		for (int v = 0; v < graph.getVertexCapacity(); v++)
+			if (graph.containsVertex(v)) {
+				Integer id = new Integer(v);
+				ids.put(id, id);
+				vertices[v] = id;
+			}
+		this.edgeCounts = new EdgeCounts();
+		for (int v = 0; v < graph.getVertexCapacity(); v++)
+			if (graph.containsVertex(v))
+				for (int i = 0; i < graph.getOutDegree(v); i++)
+					edgeCounts.increment(v, graph.getOutgoing(v, i));
+
+		addvertexlistener = new ArrayList(10);
+		addedgelistener = new ArrayList(10);
+		removevertexlistener = new ArrayList(10);
+		removeedgelistener = new ArrayList(10);
+
+		factory = new DirectedGraphImplFactory();
+		traversal = new DepthFirstGraphTraversal(this);
+	}
+
+	// ------------------------ id mapping
+
+	/**
+	 * Returns the underlying IntDirectedGraph. Modifying it directly leaves
+	 * this graph in an inconsistent state.
+	 */
+	public IntDirectedGraph getIntGraph() {
+		return graph;
+	}
+
+	/**
+	 * Returns the id of a vertex in the underlying IntDirectedGraph.
+	 *
+	 * @return the id of the vertex, or -1 if it is not in the graph.
+	 */
+	public int getVertexId(Object v) {
+		Integer id = ids.get(v);
+		return id == null ? -1 : id.intValue();
+	}
+
+	/**
+	 * Returns the vertex with the given id in the underlying IntDirectedGraph.
+	 */
+	public Object getVertex(int id) {
+		return vertices[id];
+	}
+
+	private int checkVertexId(Object v) {
+		int id = getVertexId(v);
+
+		if (id < 0)
+			throw new IllegalArgumentException("Vertex " + v
+					+ " not in graph");
+		return id;
+	}
+
+	private DirectedEdge edge(int from, int to) {
+		return (DirectedEdge) factory.createEdge(vertices[from], vertices[to]);
+	}
+
+	// ------------------------ Graph methods
+
+	public int getVerticesCount() {
+		return ids.size();
+	}
+
+	public List getAllVertices() {
+		return new ArrayList(ids.keySet());
+	}
+
+	public int getEdgesCount() {
+		return graph.getEdgesCount();
+	}
+
+	public Collection<Edge> getAllEdges() {
+		List<Edge> edges = new ArrayList<Edge>(graph.getEdgesCount());
+
+		for (Iterator<Integer> it = ids.values().iterator(); it.hasNext();) {
+			int v = it.next().intValue();
+			for (int i = 0; i < graph.getOutDegree(v); i++)
+				edges.add(edge(v, graph.getOutgoing(v, i)));
+		}
+		return edges;
+	}
+
+	public GraphFactory getGraphFactory() {
+		return factory;
+	}
+
+	public void setGraphFactory(GraphFactory factory) {
+		this.factory = factory;
+	}
+
+	public void add(Object v) throws GraphException {
+		if (ids.containsKey(v))
+			return;
+		int id = graph.addVertex();
+		if (id >= vertices.length) {
+			Object[] grown = new Object[Math.max(id + 1, vertices.length * 2)];
+			System.arraycopy(vertices, 0, grown, 0, vertices.length);
+			vertices = grown;
+		}
+		vertices[id] = v;
+		ids.put(v, new Integer(id));
+		modCount++;
+
+		Iterator iterator = addvertexlistener.iterator();
+		while (iterator.hasNext()) {
+			Object listener = iterator.next();
+			if (GraphBatch.notifies(batch, listener))
+				((GraphAddVertexListener) listener)
+						.vertexAdded(new GraphAddVertexEvent(this, v));
+		}
+		if (batch != null)
+			batch.vertexAdded(v);
+	}
+
+	public void remove(Object v) throws GraphException {
+		if (!ids.containsKey(v))
+			return;
+		removeEdges(v);
+
+		Iterator iterator = removevertexlistener.iterator();
+		while (iterator.hasNext()) {
+			Object listener = iterator.next();
+			if (GraphBatch.notifies(batch, listener))
+				((GraphRemoveVertexListener) listener)
+						.vertexRemoved(new GraphRemoveVertexEvent(this, v));
+		}
+
+		int id = ids.remove(v).intValue();
+		graph.removeVertex(id);
+		vertices[id] = null;
+		modCount++;
+		if (batch != null)
+			batch.vertexRemoved(v);
+	}
+
+	public Iterator getVerticesIterator() {
+		return getAllVertices().iterator();
+	}
+
+	/**
+	 * @deprecated
+	 */
+	@Deprecated
+	public Edge createEdge(Object v1, Object v2) {
+		return factory.createEdge(v1, v2);
+	}
+
+	public Edge addEdge(Object v1, Object v2) throws GraphException {
+		Edge edge = factory.createEdge(v1, v2);
+
+		addEdge(edge);
+		return edge;
+	}
+
+	/**
+	 * Adds an edge from the source to the sink of a DirectedEdge, adding the
+	 * vertices if they are not yet in the graph. Only the endpoints of the
+	 * edge are retained, so adding an edge between two vertices that are
+	 * already connected in the same direction has no effect, even if its data
+	 * differ: parallel edges are only found in an IntDirectedGraph that had
+	 * them before it was adapted. Connected vertices are found in constant
+	 * time.
+	 */
+	public void addEdge(Edge e) throws GraphException {
+		DirectedEdge edge = (DirectedEdge) e;
+
+		if (edge.getSource() == null || edge.getSink() == null)
+			throw new GraphModificationException(
+					"Cannot add null vertices to graph");
+		add(edge.getSource());
+		add(edge.getSink());
+		int from = getVertexId(edge.getSource());
+		int to = getVertexId(edge.getSink());
+		if (edgeCounts.get(from, to) > 0)
+			return;
+		graph.addEdge(from, to);
+		edgeCounts.increment(from, to);
+		modCount++;
+
+		Iterator iterator = addedgelistener.iterator();
+		while (iterator.hasNext()) {
+			Object listener = iterator.next();
+			if (GraphBatch.notifies(batch, listener))
+				((GraphAddEdgeListener) listener)
+						.edgeAdded(new GraphAddEdgeEvent(this, e));
+		}
+		if (batch != null)
+			batch.edgeAdded(e);
+	}
+
+	/**
+	 * Removes one edge from the source to the sink of a DirectedEdge.
+	 */
+	public void removeEdge(Edge e) throws GraphException {
+		DirectedEdge edge = (DirectedEdge) e;
+		int from = getVertexId(edge.getSource());
+		int to = getVertexId(edge.getSink());
+
+		if (from < 0 || to < 0 || edgeCounts.get(from, to) == 0)
+			return;
+
+		Iterator iterator = removeedgelistener.iterator();
+		while (iterator.hasNext()) {
+			Object listener = iterator.next();
+			if (GraphBatch.notifies(batch, listener))
+				((GraphRemoveEdgeListener) listener)
+						.edgeRemoved(new GraphRemoveEdgeEvent(this, e));
+		}
+
+		graph.removeEdge(from, to);
+		edgeCounts.decrement(from, to);
+		modCount++;
+		if (batch != null)
+			batch.edgeRemoved(e);
+	}
+
+	public void removeEdges(Object v) throws GraphException {
+		Iterator iterator = getEdges(v).iterator();
+		while (iterator.hasNext())
+			removeEdge((Edge) iterator.next());
+	}
+
+	public int getDegree() {
+		int degree = 0;
+
+		for (Iterator<Integer> it = ids.values().iterator(); it.hasNext();) {
+			int v = it.next().intValue();
+			degree = Math.max(degree, graph.getOutDegree(v)
+					+ graph.getInDegree(v));
+		}
+		return degree;
+	}
+
+	public int getDegree(Object v) {
+		int id = checkVertexId(v);
+		return graph.getOutDegree(id) + graph.getInDegree(id);
+	}
+
+	public Set getVertices(int degree) {
+		Set verticesofsamedegree = new HashSet();
+
+		for (Iterator it = ids.keySet().iterator(); it.hasNext();) {
+			Object v = it.next();
+			if (getDegree(v) == degree)
+				verticesofsamedegree.add(v);
+		}
+		return verticesofsamedegree;
+	}
+
+	/**
+	 * Returns the outgoing then incoming edges of a vertex, or null if the
+	 * vertex is not in the graph.
+	 */
+	public List getEdges(Object v) {
+		if (!ids.containsKey(v))
+			return null;
+		List edges = new ArrayList(getOutgoingEdges(v));
+		edges.addAll(getIncomingEdges(v));
+		return edges;
+	}
+
+	public List getAdjacentVertices(Object v) {
+		List adjacentVertices = getOutgoingAdjacentVertices(v);
+		adjacentVertices.addAll(getIncomingAdjacentVertices(v));
+		return adjacentVertices;
+	}
+
+	public HashSet getAdjacentVertices(List vertices) {
+		HashSet adjacentVertices = new HashSet(this
+				.getAdjacentVertices(vertices.get(0)));
+		int i, size = vertices.size();
+
+		for (i = 1; i < size; i++) {
+			adjacentVertices.retainAll(this
+					.getAdjacentVertices(vertices.get(i)));
+		}
+
+		return adjacentVertices;
+	}
+
+	public List getConnectedSet() {
+		computeConnectedSets();
+		return connectedSets;
+	}
+
+	public List getConnectedSet(Object v) {
+		int id = getVertexId(v);
+
+		if (id < 0)
+			return null;
+		computeConnectedSets();
+		return (List) connectedSets.get(connectedSetOf[id]);
+	}
+
+	/**
+	 * Does nothing, as connected sets are computed from the edges of the
+	 * graph.
+	 */
+	public void mergeconnectedSet(Object v1, Object v2) {
+	}
+
+	/**
+	 * Labels the connected set of each vertex, if the graph was modified since
+	 * they were last computed. Connected sets list their vertices in the order
+	 * they were added.
+	 */
+	private void computeConnectedSets() {
+		if (connectedSetsModCount == modCount)
+			return;
+		int[] stack = new int[graph.getVertexCapacity()];
+		int count = 0;
+		connectedSetOf = new int[graph.getVertexCapacity()];
+		java.util.Arrays.fill(connectedSetOf, -1);
+		for (Iterator<Integer> it = ids.values().iterator(); it.hasNext();) {
+			int start = it.next().intValue();
+			if (connectedSetOf[start] >= 0)
+				continue;
+			int top = 0;
+			connectedSetOf[start] = count;
+			stack[top++] = start;
+			while (top > 0) {
+				int v = stack[--top];
+				for (int i = 0; i < graph.getOutDegree(v); i++) {
+					int w = graph.getOutgoing(v, i);
+					if (connectedSetOf[w] < 0) {
+						connectedSetOf[w] = count;
+						stack[top++] = w;
+					}
+				}
+				for (int i = 0; i < graph.getInDegree(v); i++) {
+					int w = graph.getIncoming(v, i);
+					if (connectedSetOf[w] < 0) {
+						connectedSetOf[w] = count;
+						stack[top++] = w;
+					}
+				}
+			}
+			count++;
+		}
+		connectedSets = new ArrayList(count);
+		for (int i = 0; i < count; i++)
+			connectedSets.add(new ArrayList());
+		for (Iterator<Integer> it = ids.values().iterator(); it.hasNext();) {
+			int v = it.next().intValue();
+			((List) connectedSets.get(connectedSetOf[v])).add(vertices[v]);
+		}
+		connectedSetsModCount = modCount;
+	}
+
+	public List traverse(Object startat) {
+		return traversal.traverse(startat);
+	}
+
+	public GraphTraversal getTraversal() {
+		return traversal;
+	}
+
+	public void setTraversal(GraphTraversal traversal) {
+		this.traversal = traversal;
+	}
+
+	public boolean isConnected(Object v1, Object v2) {
+		int id1 = getVertexId(v1);
+		int id2 = getVertexId(v2);
+
+		if (id1 < 0 || id2 < 0)
+			return false;
+		computeConnectedSets();
+		return connectedSetOf[id1] == connectedSetOf[id2];
+	}
+
+	public void addGraphAddVertexListener(GraphAddVertexListener listener) {
+		addvertexlistener.add(listener);
+	}
+
+	public void addGraphAddEdgeListener(GraphAddEdgeListener listener) {
+		addedgelistener.add(listener);
+	}
+
+	public void addGraphRemoveEdgeListener(GraphRemoveEdgeListener listener) {
+		removeedgelistener.add(listener);
+	}
+
+	public void addGraphRemoveVertexListener(GraphRemoveVertexListener listener) {
+		removevertexlistener.add(listener);
+	}
+
+	public void removeGraphAddVertexListener(GraphAddVertexListener listener) {
+		addvertexlistener.remove(listener);
+	}
+
+	public void removeGraphAddEdgeListener(GraphAddEdgeListener listener) {
+		addedgelistener.remove(listener);
+	}
+
+	public void removeGraphRemoveEdgeListener(GraphRemoveEdgeListener listener) {
+		removeedgelistener.remove(listener);
+	}
+
+	public void removeGraphRemoveVertexListener(
+			GraphRemoveVertexListener listener) {
+		removevertexlistener.remove(listener);
+	}
+
+	public void beginBatch() {
+		if (batch != null)
+			throw new IllegalStateException("Batch already in progress");
+		batch = new GraphBatch(this);
+	}
+
+	public void commit() {
+		GraphBatch committed = batch;
+
+		if (committed == null)
+			throw new IllegalStateException("No batch in progress");
+		batch = null;
+		GraphBatch.fire(committed.createEvent(), new List[] {
+				addvertexlistener, addedgelistener, removevertexlistener,
+				removeedgelistener });
+	}
+
+	public void rollback() throws GraphException {
+		if (batch == null)
+			throw new IllegalStateException("No batch in progress");
+		try {
+			batch.undo();
+		} finally {
+			batch = null;
+		}
+	}
+
+	public Graph same() {
+		Graph g = new IntDirectedGraphAdapter();
+		g.setGraphFactory(this.getGraphFactory());
+		return g;
+	}
+
+	public Object findVertex(Object o) {
+		int id = getVertexId(o);
+		return id < 0 ? null : vertices[id];
+	}
+
+	public String toString() {
+		return "Vertices= " + this.getAllVertices().toString() + ", Edges= "
+				+ this.getAllEdges().toString();
+	}
+
+	// ------------------------ DirectedGraph methods
+
+	/**
+	 * @throws IllegalArgumentException
+	 *             if the vertex is not in the graph.
+	 */
+	public List<DirectedEdge> getOutgoingEdges(Object v) {
+		int id = checkVertexId(v);
+		List<DirectedEdge> edges = new ArrayList<DirectedEdge>(graph
+				.getOutDegree(id));
+
+		for (int i = 0; i < graph.getOutDegree(id); i++)
+			edges.add(edge(id, graph.getOutgoing(id, i)));
+		return edges;
+	}
+
+	/**
+	 * @throws IllegalArgumentException
+	 *             if the vertex is not in the graph.
+	 */
+	public List<DirectedEdge> getIncomingEdges(Object v) {
+		int id = checkVertexId(v);
+		List<DirectedEdge> edges = new ArrayList<DirectedEdge>(graph
+				.getInDegree(id));
+
+		for (int i = 0; i < graph.getInDegree(id); i++)
+			edges.add(edge(graph.getIncoming(id, i), id));
+		return edges;
+	}
+
+	public List getOutgoingAdjacentVertices(Object v) {
+		int id = checkVertexId(v);
+		List adjacentVertices = new ArrayList(graph.getOutDegree(id));
+
+		for (int i = 0; i < graph.getOutDegree(id); i++)
+			adjacentVertices.add(vertices[graph.getOutgoing(id, i)]);
+		return adjacentVertices;
+	}
+
+	public List getIncomingAdjacentVertices(Object v) {
+		int id = checkVertexId(v);
+		List adjacentVertices = new ArrayList(graph.getInDegree(id));
+
+		for (int i = 0; i < graph.getInDegree(id); i++)
+			adjacentVertices.add(vertices[graph.getIncoming(id, i)]);
+		return adjacentVertices;
+	}
+
+	public DirectedEdge getEdge(Object fromvertex, Object tovertex) {
+		int from = getVertexId(fromvertex);
+		int to = getVertexId(tovertex);
+
+		if (from < 0 || to < 0 || edgeCounts.get(from, to) == 0)
+			return null;
+		return edge(from, to);
+	}
+
+	public boolean containsEdge(Object fromvertex, Object tovertex) {
+		int from = getVertexId(fromvertex);
+		int to = getVertexId(tovertex);
+
+		return from >= 0 && to >= 0 && edgeCounts.get(from, to) > 0;
+	}
+
+	/**
+	 * Returns an Edge from fromvertex to tovertex for each edge between them
+	 * in the IntDirectedGraph.
+	 */
+	public List<DirectedEdge> getEdges(Object fromvertex, Object tovertex) {
+		int from = getVertexId(fromvertex);
+		int to = getVertexId(tovertex);
+		int count = from < 0 || to < 0 ? 0 : edgeCounts.get(from, to);
+		List<DirectedEdge> edges = new ArrayList<DirectedEdge>(count);
+
+		for (int i = 0; i < count; i++)
+			edges.add(edge(from, to));
+		return edges;
+	}
+
+	public boolean isPath(Object fromVertex, Object toVertex) {
+		int from = getVertexId(fromVertex);
+		int to = getVertexId(toVertex);
+
+		if (from < 0 || to < 0)
+			return false;
+		return from == to || reaches(from, to);
+	}
+
+	public boolean isCycle(Object fromVertex) {
+		int from = checkVertexId(fromVertex);
+		return reaches(from, from);
+	}
+
+	/**
+	 * Determines if there is a path of at least one edge from a vertex to
+	 * another.
+	 */
+	private boolean reaches(int from, int to) {
+		boolean[] visited = new boolean[graph.getVertexCapacity()];
+		int[] stack = new int[graph.getVertexCapacity()];
+		int top = 0;
+
+		visited[from] = true;
+		stack[top++] = from;
+		while (top > 0) {
+			int v = stack[--top];
+			for (int i = 0; i < graph.getOutDegree(v); i++) {
+				int w = graph.getOutgoing(v, i);
+				if (w == to)
+					return true;
+				if (!visited[w]) {
+					visited[w] = true;
+					stack[top++] = w;
+				}
+			}
+		}
+		return false;
+	}
+}
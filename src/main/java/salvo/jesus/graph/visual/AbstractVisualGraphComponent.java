@@ -3,7 +3,7 @@ package salvo.jesus.graph.visual;
 import java.awt.Color;
 import java.awt.Font;
 import java.awt.FontMetrics;
-import java.awt.Panel;
+import java.awt.Graphics2D;
 import java.awt.Rectangle;
 import java.awt.event.KeyEvent;
 import java.awt.event.MouseEvent;
@@ -13,6 +13,7 @@ import java.awt.geom.AffineTransform;
 import java.awt.geom.GeneralPath;
 import java.awt.geom.PathIterator;
 import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
@@ -108,11 +109,25 @@ public abstract class AbstractVisualGraphComponent implements VisualGraphCompone
   String        label;
 
   /**
-   * FontMetrics so that we do not always create an instance
-   * of Panel() just to get a FontMetrics. The property
-   * fontMetrics ( e.g.: getFontMetrics()) is null unless setFont() is first called.
+   * Graphics of an offscreen image giving the FontMetrics of the components.
+   * Unlike a Panel, it needs no display, so that visual graphs can be laid
+   * out headless.
    */
-  transient FontMetrics fontMetrics = new Panel().getFontMetrics( this.getFont() );
+  private static final Graphics2D metricsGraphics =
+    new BufferedImage( 1, 1, BufferedImage.TYPE_INT_RGB ).createGraphics();
+
+  /**
+   * FontMetrics of the font, kept so that we do not compute them each time
+   * they are needed. Recomputed when the font changes or after
+   * deserialization.
+   */
+  transient FontMetrics fontMetrics = metricsOf( this.getFont() );
+
+  private static FontMetrics metricsOf( Font font ) {
+    synchronized( metricsGraphics ) {
+      return metricsGraphics.getFontMetrics( font );
+    }
+  }
 
   /**
    * Returns the text displayed for the VisualGraphComponent
@@ -154,6 +169,8 @@ public abstract class AbstractVisualGraphComponent implements VisualGraphCompone
    * of the component.
    */
   public FontMetrics getFontMetrics() {
+    if( this.fontMetrics == null )
+      this.fontMetrics = metricsOf( this.font );
     return this.fontMetrics;
   }
 
@@ -225,7 +242,7 @@ public abstract class AbstractVisualGraphComponent implements VisualGraphCompone
    */
   public void setFont( Font font ) {
     this.font = font;
-    this.fontMetrics = new Panel().getFontMetrics( this.font );
+    this.fontMetrics = metricsOf( this.font );
   }
 
   /**
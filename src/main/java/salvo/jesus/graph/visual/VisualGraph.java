@@ -13,7 +13,9 @@ import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
+import java.util.Map;
 
 import javax.swing.SwingUtilities;
 
@@ -23,6 +25,9 @@ import salvo.jesus.graph.GraphAddEdgeEvent;
 import salvo.jesus.graph.GraphAddEdgeListener;
 import salvo.jesus.graph.GraphAddVertexEvent;
 import salvo.jesus.graph.GraphAddVertexListener;
+import salvo.jesus.graph.GraphBatchEvent;
+import salvo.jesus.graph.GraphBatchListener;
+import salvo.jesus.graph.GraphMemoryStats;
 import salvo.jesus.graph.GraphRemoveEdgeEvent;
 import salvo.jesus.graph.GraphRemoveEdgeListener;
 import salvo.jesus.graph.GraphRemoveVertexEvent;
@@ -46,7 +51,7 @@ import salvo.jesus.graph.visual.layout.GraphLayoutManager;
 
 public class VisualGraph implements GraphAddVertexListener,
     GraphAddEdgeListener, GraphRemoveVertexListener, GraphRemoveEdgeListener,
-    Serializable {
+    GraphBatchListener, Serializable {
 
   /**
    * The Graph object that the VisualGraph encapsulates.
@@ -398,6 +403,39 @@ public class VisualGraph implements GraphAddVertexListener,
     return new ArrayList(this.visualEdges);
   }
 
+  /**
+   * Returns the estimated footprint of the Graph and of the visual vertices
+   * and edges, with their labels, colors, fonts, shapes and listener lists.
+   * Colors and fonts shared by several components are counted for each of
+   * them.
+   *
+   * @see GraphMemoryStats
+   */
+  public GraphMemoryStats getMemoryStats() {
+    GraphMemoryStats stats = GraphMemoryStats.of(this.graph);
+    long size = GraphMemoryStats.sizeOfList(this.visualVertices, false)
+        + GraphMemoryStats.shallowSizeOf(this.visualEdges.getClass())
+        + GraphMemoryStats.sizeOfHashMap(this.visualEdges.size());
+    for (Iterator i = visualVertices.iterator(); i.hasNext();)
+      size += sizeOf((AbstractVisualGraphComponent) i.next());
+    for (Iterator i = visualEdges.iterator(); i.hasNext();)
+      size += sizeOf((AbstractVisualGraphComponent) i.next());
+    stats.add(GraphMemoryStats.VISUAL_COMPONENTS, size);
+    return stats;
+  }
+
+  private static long sizeOf(AbstractVisualGraphComponent component) {
+    return GraphMemoryStats.sizeOf(component)
+        + GraphMemoryStats.sizeOf(component.label)
+        + GraphMemoryStats.sizeOf(component.fillcolor)
+        + GraphMemoryStats.sizeOf(component.outlinecolor)
+        + GraphMemoryStats.sizeOf(component.fontcolor)
+        + GraphMemoryStats.sizeOf(component.font)
+        + GraphMemoryStats.sizeOf(component.componentShape)
+        + GraphMemoryStats.sizeOfList(component.mouseListeners, false)
+        + GraphMemoryStats.sizeOfList(component.mouseMotionListeners, false);
+  }
+
   private void setLinetype(int linetype) {
     this.linetype = linetype;
     for (Iterator i = visualEdges.iterator(); i.hasNext();) {
@@ -528,7 +566,9 @@ public class VisualGraph implements GraphAddVertexListener,
 
   /**
    * Adds a Object object to the Graph object encapsulated by the VisualGraph
-   * object then set the Font used by corresponding VisualVertex object.
+   * object then set the Font used by corresponding VisualVertex object. This
+   * method cannot be used while a batch of changes is in progress on the
+   * Graph, as the VisualVertex is only created when the batch is committed.
    * 
    * @param vertex
    *          The Object object to be added to the graph
@@ -833,16 +873,7 @@ public class VisualGraph implements GraphAddVertexListener,
    *          added to the graph
    */
   public void vertexAdded(GraphAddVertexEvent e) {
-    // Do not call this.add().
-    // Otherwise, we would have a stack overflow. That is,
-    // Graph.add() -> VisualGraph.vertexAdded() -> VisualGraph.add() ->
-    // Graph.add() ad infinitum.
-    VisualVertex vvertex = graphComponentFactory.createVisualVertex(e
-        .getVertex(), this);
-
-    visualVertices.add(vvertex);
-    if (this.layoutManager != null)
-      this.layoutManager.addVertex(vvertex);
+    this.addVisualVertex(e.getVertex());
     this.repaint();
   }
 
@@ -855,82 +886,170 @@ public class VisualGraph implements GraphAddVertexListener,
    *          added to the graph
    */
   public void edgeAdded(GraphAddEdgeEvent e) {
+    this.addVisualEdge(e.getEdge());
+    this.repaint();
+  }
+
+  /**
+   * This method is automatically called whenever a Object is about to be
+   * removed from the Graph object encapsulated by the VisualGraph object.
+   * 
+   * @param e
+   *          GraphRemoveVertexEvent object that also specifies the Object that
+   *          is about to be removed from the graph
+   */
+  public void vertexRemoved(GraphRemoveVertexEvent e) {
+    Map toremove = new IdentityHashMap();
+
+    toremove.put(e.getVertex(), e.getVertex());
+    if (this.removeVisualVertices(toremove))
+      this.repaint();
+  }
+
+  /**
+   * This method is automatically called whenever an Edge is about to be removed
+   * from the Graph object encapsulated by the VisualGraph object.
+   * 
+   * @param e
+   *          GraphRemoveEdgeEvent object that also specifies the Edge that is
+   *          about to be removed from the graph
+   */
+  public void edgeRemoved(GraphRemoveEdgeEvent e) {
+    Map toremove = new IdentityHashMap();
+
+    toremove.put(e.getEdge(), e.getEdge());
+    if (this.removeVisualEdges(toremove))
+      this.repaint();
+  }
+
+  /**
+   * This method is automatically called once when a batch of changes has been
+   * made to the Graph object encapsulated by the VisualGraph object. The
+   * VisualVertex and VisualEdge objects of the removed vertices and edges are
+   * removed, those of the added vertices and edges are created, and the
+   * VisualGraph is repainted once.
+   * 
+   * @param e
+   *          GraphBatchEvent object that specifies the vertices and edges
+   *          added to and removed from the graph
+   */
+  public void batchCommitted(GraphBatchEvent e) {
+    Map toremove;
+    Iterator iterator;
+
+    // Removals first: a vertex may have been removed and added again.
+    toremove = new IdentityHashMap();
+    for (iterator = e.getRemovedEdges().iterator(); iterator.hasNext();) {
+      Object edge = iterator.next();
+      toremove.put(edge, edge);
+    }
+    this.removeVisualEdges(toremove);
+    toremove = new IdentityHashMap();
+    for (iterator = e.getRemovedVertices().iterator(); iterator.hasNext();) {
+      Object vertex = iterator.next();
+      toremove.put(vertex, vertex);
+    }
+    this.removeVisualVertices(toremove);
+
+    for (iterator = e.getAddedVertices().iterator(); iterator.hasNext();)
+      this.addVisualVertex(iterator.next());
+    for (iterator = e.getAddedEdges().iterator(); iterator.hasNext();)
+      this.addVisualEdge((Edge) iterator.next());
+    this.repaint();
+  }
+
+  /**
+   * Creates the VisualVertex of a vertex added to the Graph.
+   */
+  private void addVisualVertex(Object vertex) {
+    // Do not call this.add().
+    // Otherwise, we would have a stack overflow. That is,
+    // Graph.add() -> VisualGraph.vertexAdded() -> VisualGraph.add() ->
+    // Graph.add() ad infinitum.
+    VisualVertex vvertex = graphComponentFactory.createVisualVertex(vertex,
+        this);
+
+    visualVertices.add(vvertex);
+    if (this.layoutManager != null)
+      this.layoutManager.addVertex(vvertex);
+  }
+
+  /**
+   * Creates the VisualEdge of an edge added to the Graph.
+   */
+  private void addVisualEdge(Edge edge) {
     // Do not call this.addEdge().
     // Otherwise, we would have a stack overflow. That is,
     // Graph.addEdge() -> VisualGraph.edgeAdded() -> VisualGraph.addEdge()
     // ->
     // Graph.addEdge() ad infinitum.
-    VisualEdge vedge = graphComponentFactory
-        .createVisualEdge(e.getEdge(), this);
+    VisualEdge vedge = graphComponentFactory.createVisualEdge(edge, this);
     vedge.setLinetype(this.linetype);
 
     visualEdges.add(vedge);
     if (this.layoutManager != null)
       this.layoutManager.addEdge(vedge);
-    this.repaint();
   }
 
   /**
-   * This method is automatically called whenever a Object is about to be
-   * removed from the Graph object encapsulated by the VisualGraph object.
+   * Removes the VisualVertex objects representing the given vertices, in a
+   * single pass over the VisualVertex objects.
    * 
-   * @param e
-   *          GraphRemoveVertexEvent object that also specifies the Object that
-   *          is about to be removed from the graph
+   * @param toremove
+   *          IdentityHashMap whose keys are the vertices to remove
+   * @return true if any VisualVertex was removed.
    */
-  public void vertexRemoved(GraphRemoveVertexEvent e) {
-    Object vertextoremove;
+  private boolean removeVisualVertices(Map toremove) {
     VisualVertex visualvertex;
     Iterator iterator;
+    boolean removed = false;
 
-    // Find the visual vertex representing the vertex to be removed
-    // and remove it.
-    vertextoremove = e.getVertex();
+    if (toremove.isEmpty())
+      return false;
     iterator = visualVertices.iterator();
     while (iterator.hasNext()) {
       visualvertex = (VisualVertex) iterator.next();
-      if (visualvertex.getVertex() == vertextoremove) {
+      if (toremove.containsKey(visualvertex.getVertex())) {
         // Inform the layoutmanager first before removing the
         // VisualVertex
         if (this.layoutManager != null)
           this.layoutManager.removeVertex(visualvertex);
         // Now safe to remove the VisualVertex
-        visualVertices.remove(visualvertex);
-        this.repaint();
-        return;
+        iterator.remove();
+        removed = true;
       }
     }
+    return removed;
   }
 
   /**
-   * This method is automatically called whenever an Edge is about to be removed
-   * from the Graph object encapsulated by the VisualGraph object.
+   * Removes the VisualEdge objects representing the given edges, in a single
+   * pass over the VisualEdge objects.
    * 
-   * @param e
-   *          GraphRemoveEdgeEvent object that also specifies the Edge that is
-   *          about to be removed from the graph
+   * @param toremove
+   *          IdentityHashMap whose keys are the edges to remove
+   * @return true if any VisualEdge was removed.
    */
-  public void edgeRemoved(GraphRemoveEdgeEvent e) {
-    Edge edgetoremove;
+  private boolean removeVisualEdges(Map toremove) {
     VisualEdge visualedge;
     Iterator iterator;
+    boolean removed = false;
 
-    // Find the visual edge representing the edge to be removed
-    // and remove it.
-    edgetoremove = e.getEdge();
+    if (toremove.isEmpty())
+      return false;
     iterator = visualEdges.iterator();
     while (iterator.hasNext()) {
       visualedge = (VisualEdge) iterator.next();
-      if (visualedge.getEdge() == edgetoremove) {
+      if (toremove.containsKey(visualedge.getEdge())) {
         // Inform the layoutmanager first before removing the VisualEdge
         if (this.layoutManager != null)
           this.layoutManager.removeEdge(visualedge);
         // Now safe to remove the VisualEdge object.
-        visualEdges.remove(visualedge);
-        this.repaint();
-        return;
+        iterator.remove();
+        removed = true;
       }
     }
+    return removed;
   }
 
   /**
@@ -296,6 +296,22 @@ public class DigraphLayeredLayout implements GraphLayoutManager {
      */
     private boolean directed;
     
+    /*
+     * virtual vertices are distinct even at the same location, as
+     * Point2D.Double equality would merge them in the DAG
+     */
+    private static class VirtualVertex extends Point2D.Double {
+        private static final long serialVersionUID = 1L;
+
+        public boolean equals(Object o) {
+            return o == this;
+        }
+
+        public int hashCode() {
+            return System.identityHashCode(this);
+        }
+    }
+
     class MedianComparator implements Comparator {
 
         /* list of parent/child vertices */
@@ -678,7 +694,7 @@ public class DigraphLayeredLayout implements GraphLayoutManager {
                     Object cur = null;
                     path.add(de.getVertexA());
                     for (; k > 1; k--) {
-                        cur = new Point2D.Double();
+                        cur = new VirtualVertex();
                         lays[j - k + 1].add(cur);
                         path.add(cur);
                         dag.add(cur);
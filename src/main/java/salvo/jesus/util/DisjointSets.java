@@ -0,0 +1,86 @@
+package salvo.jesus.util;
+
+/**
+ * Disjoint sets of the ints from 0 to <tt>size - 1</tt>, initially one set
+ * for each, as used by Kruskal's algorithm. Sets are merged by rank and
+ * searched with path halving, so that any sequence of operations takes
+ * nearly constant time per operation. DisjointSets are not thread-safe.
+ *
+ * @author nono
+ * @version $Id$
+ */
+public class DisjointSets {
+
+	/**
+	 * Parent of each element, itself for the root of a set.
+	 */
+	private final int[] parent;
+
+	/**
+	 * Upper bound of the height of each root's tree.
+	 */
+	private final byte[] rank;
+
+	private int count;
+
+	public DisjointSets(int size) {
+		parent = new int[size];
+		rank = new byte[size];
+		for (int i = 0; i < size; i++)
+			parent[i] = i;
+		count = size;
+	}
+
+	/**
+	 * Returns the number of elements.
+	 */
+	public int size() {
+		return parent.length;
+	}
+
+	/**
+	 * Returns the number of disjoint sets.
+	 */
+	public int getSetsCount() {
+		return count;
+	}
+
+	/**
+	 * Returns the representative of the set of an element.
+	 */
+	public int find(int x) {
+		while (parent[x] != x) {
+			parent[x] = parent[parent[x]];
+			x = parent[x];
+		}
+		return x;
+	}
+
+	/**
+	 * Determines if two elements are in the same set.
+	 */
+	public boolean connected(int x, int y) {
+		return find(x) == find(y);
+	}
+
+	/**
+	 * Merges the sets of two elements.
+	 *
+	 * @return true if the elements were in different sets.
+	 */
+	public boolean union(int x, int y) {
+		x = find(x);
+		y = find(y);
+		if (x == y)
+			return false;
+		if (rank[x] < rank[y]) {
+			int swap = x;
+			x = y;
+			y = swap;
+		} else if (rank[x] == rank[y])
+			rank[x]++;
+		parent[y] = x;
+		count--;
+		return true;
+	}
+}
@@ -7,6 +7,13 @@ import java.util.List;
 
 /**
  * The Heap class implements a heap data structure, also called a priority queue.
+ * <p>
+ * The nodes are kept in an <tt>IndexedHeap</tt> of their index in the
+ * <tt>Heap</tt>, which each <tt>HeapNode</tt> remembers, so that
+ * <tt>setPriority()</tt> finds a node in constant time and moves it in
+ * O(log n). A <tt>HeapNode</tt> can therefore only be in one <tt>Heap</tt>
+ * at a time. Only the order of the <tt>HeapNodeComparator</tt> is used, not
+ * its <tt>compare()</tt> method.
  *
  * @author  Jesus M. Salvo Jr.
  */
@@ -14,15 +21,39 @@ import java.util.List;
 public class Heap implements Serializable {
 
   /**
-   * To hold the actual storage of the Heap class.
+   * Indices of the nodes of the Heap, ordered by priority.
    */
-  List  binarytree;
+  IndexedHeap  queue;
+
+  /**
+   * The nodes of the Heap, by index.
+   */
+  HeapNode[]  nodes;
+
+  /**
+   * Stack of the free indices below <tt>nextindex</tt>.
+   */
+  int[]  freeindices;
+
+  int  freecount;
+
+  /**
+   * The lowest index never used.
+   */
+  int  nextindex;
 
   /**
    * HeapNodeComparator to compare two heap nodes in the heap.
    */
   HeapNodeComparator  comparator;
 
+  /**
+   * 1 if numerically lower priorities are at the top of the heap, -1 otherwise.
+   * Priorities are multiplied by it in the IndexedHeap, which puts
+   * the lowest priority first.
+   */
+  int  sign;
+
   /**
    * Creates an instance of a Heap. Using this constructor will make use
    * of the default HeapNodeComparator. The HeapNodeConstructor created
@@ -31,8 +62,7 @@ public class Heap implements Serializable {
    *
    */
   public Heap(  ) {
-    this.binarytree = new ArrayList( 10 );
-    this.comparator = new HeapNodeComparator( -1 );
+    this( new HeapNodeComparator( -1 ));
   }
 
   /**
@@ -47,44 +77,58 @@ public class Heap implements Serializable {
    * the priorities of the nodes of the heap.
    */
   public Heap( HeapNodeComparator comparator ) {
-    this.binarytree = new ArrayList( 10 );
+    this.queue = new IndexedHeap( 10 );
+    this.nodes = new HeapNode[10];
+    this.freeindices = new int[10];
     this.comparator = comparator;
+    this.sign = comparator.order < 0 ? -1 : 1;
   }
 
   /**
    * Add a new item into the heap
+   *
+   * @throws IllegalArgumentException if the node is already in a heap.
    */
   public void insert( HeapNode node ) {
-    int   preinsertsize = binarytree.size();
-
-    this.binarytree.add( node );
+    if( node.index >= 0 )
+      throw new IllegalArgumentException( "Node already in a heap: " + node );
+
+    int   index;
+
+    // Reuse the index of a removed node if there is one
+    if( this.freecount > 0 )
+      index = this.freeindices[--this.freecount];
+    else {
+      index = this.nextindex++;
+      if( index == this.nodes.length ) {
+        HeapNode[]  grown = new HeapNode[index * 3 / 2 + 1];
+        System.arraycopy( this.nodes, 0, grown, 0, index );
+        this.nodes = grown;
+      }
+    }
 
-    // Fix up the heap due to the addition of a new node in the heap.
-    // Note that we do not add 1, because a List is 0-based and the
-    // method expects a 0-based index.
-    this.upHeap( preinsertsize );
+    this.nodes[index] = node;
+    node.index = index;
+    this.queue.insert( index, this.sign * node.getPriority() );
   }
 
   /**
    * Remove the item with the highest priority from the heap.
+   *
+   * @throws java.util.NoSuchElementException if the heap is empty.
    */
   public HeapNode remove() {
-    // Get the node at the top of the heap
-    HeapNode  topnode = (HeapNode) this.binarytree.get( 0 );
-    // Get the node at the bottom of the heap
-    HeapNode  endnode = (HeapNode) this.binarytree.get( this.binarytree.size() - 1 );
-
-    // Put the node that is at the bottom to the top of the heap.
-    this.binarytree.set( 0, endnode );
-    // Then reduce the size of the heap
-    this.binarytree.remove( this.binarytree.size() - 1 );
-
-    // Fix up the heap due to the removal of a node in the heap
-    // and due to the moving of the last node in the heap to the top of the heap.
-    // Note that we do not add 1, because a List is 0-based and the
-    // method expects a 0-based index.
-    if( this.binarytree.size() > 0 )
-      this.downHeap( 0 );
+    int       index = this.queue.removeMin();
+    HeapNode  topnode = this.nodes[index];
+
+    this.nodes[index] = null;
+    topnode.index = -1;
+    if( this.freecount == this.freeindices.length ) {
+      int[]   grown = new int[this.freecount * 3 / 2 + 1];
+      System.arraycopy( this.freeindices, 0, grown, 0, this.freecount );
+      this.freeindices = grown;
+    }
+    this.freeindices[this.freecount++] = index;
 
     return topnode;
   }
@@ -97,33 +141,42 @@ public class Heap implements Serializable {
    * @param priority The new priority that will be assigned to the heapnode.
    */
   public void setPriority( HeapNode node, double priority ) {
-    int index;
-
     // Check that it is a node in the heap
-    if( this.binarytree.contains( node )) {
-      // Change the priority of the node
+    if( this.isInHeap( node )) {
+      // Change the priority of the node, then fixup the heap
       node.setPriority( priority );
-
-      // Get the index of the node
-      index = this.binarytree.indexOf( node );
-      // Fixup the heap
-      index = this.upHeap( index );
-      this.downHeap( index );
+      this.queue.setPriority( node.index, this.sign * priority );
     }
   }
 
+  /**
+   * Returns true if the node is in this heap.
+   */
+  private boolean isInHeap( HeapNode node ) {
+    return node.index >= 0 && node.index < this.nextindex
+      && this.nodes[node.index] == node;
+  }
+
   /**
    * Clears the heap, removing all nodes in the heap.
    */
   public void clear() {
-    this.binarytree.clear();
+    for( int i = 0; i < this.nextindex; i++ ) {
+      if( this.nodes[i] != null ) {
+        this.nodes[i].index = -1;
+        this.nodes[i] = null;
+      }
+    }
+    this.queue.clear();
+    this.freecount = 0;
+    this.nextindex = 0;
   }
 
   /**
    * Checks if the heap is empty
    */
   public boolean isEmpty() {
-    return this.binarytree.isEmpty();
+    return this.queue.isEmpty();
   }
 
   /**
@@ -132,128 +185,25 @@ public class Heap implements Serializable {
    * is returned.
    */
   public HeapNode contains( Object object, Comparator heapnodeobjectcomparator ) {
-    return (HeapNode) salvo.jesus.util.Collections.contains( this.binarytree, object, heapnodeobjectcomparator );
-  }
+    HeapNode  node;
 
-  /**
-   * Move the node, specified by the index, up in the heap until
-   * heap condition is satisfied.
-   *
-   * @param  index  0-based index of the node we want to move up the heap.
-   * @return  The new index of the node that we have moved up the heap.
-   */
-  private int upHeap( int index ) {
-    HeapNode  current = (HeapNode) this.binarytree.get( index );
-    HeapNode  parent;
-    int       parentindex;
-
-    do {
-      // Do nothing if we are elready at the top of the heap
-      if( index == 0 ) break;
-
-      // Get the index of the parent object
-      parentindex = index / 2;
-      // Because List is 0-based, and even numbered index will have its
-      // parent as index / 2 - 1;
-      if( index % 2 == 0 )  parentindex--;
-      parent = (HeapNode) this.binarytree.get( parentindex );
-
-      // Compare the priorities of the current node against its parent.
-      // If the current node has a higher priority, then
-      // put the parent down to the position of the current node
-      if( this.comparator.compare( current, parent ) > 0 )
-        this.binarytree.set( index, parent );
-      else
-        // Heap condition satisfied
-        break;
-
-      // Move the index up
-      index = parentindex ;
-    } while( index > 0 );
-
-    // Value of index should now be <= the value of index when this method
-    // was called.
-    this.binarytree.set( index, current );
-
-    return index;
-  }
-
-  /**
-   * Move the node, specified by the index, down in the heap until
-   * the heap condition is satisfied.
-   *
-   * @param  index  0-based index of the node we want to move down the heap.
-   * @return  The new index of the node that we have moved down the heap.
-   */
-  private int downHeap( int index ) {
-    HeapNode  current = (HeapNode) this.binarytree.get( index );
-    HeapNode  leftchild, rightchild, higherprioritychild;
-    int       leftchildindex, rightchildindex, higherprioritychildindex;
-    int       treesize = this.binarytree.size();
-
-    do {
-      // If heap is empty or has only one, then exit
-      if( treesize <= 1 )
-        break;
-
-      leftchildindex = index * 2 + 1;
-      rightchildindex = index * 2 + 2;
-
-      // Get the left child of the current node
-      if( leftchildindex >= treesize )
-        leftchild = null;
-      else
-        leftchild = (HeapNode) this.binarytree.get( leftchildindex );
-
-      // Get the right child of the current node
-      if ( rightchildindex >= treesize )
-        rightchild = null;
-      else
-        rightchild = (HeapNode) this.binarytree.get( rightchildindex );
-
-      // If current node has no childen, exit loop
-      if( leftchild == null && rightchild == null )
-        break;
-      // If current node has only one child (the left child), get that
-      // as the child with the highest priority
-      else if( leftchild != null && rightchild == null )
-        higherprioritychildindex = leftchildindex;
-      // If current node has both a left and right child node,
-      // determine which of the two child nodes have higher priority
-      else if( this.comparator.compare( leftchild, rightchild ) < 0 )
-        higherprioritychildindex = rightchildindex;
-      else
-        higherprioritychildindex = leftchildindex;
-
-      // So get the child node that has higher priority.
-      higherprioritychild = (HeapNode) this.binarytree.get( higherprioritychildindex );
-
-      // Compare the priority of the current node with the priority
-      // of the child node that has higher priority.
-      if( this.comparator.compare( current, higherprioritychild ) < 0 )
-        // The child with the higher priority has a priority higher than
-        // the current node. So place the child node up in the heap.
-        this.binarytree.set( index, higherprioritychild );
-      else
-        // Heap condition satisfied
-        break;
-
-      // Move index down
-      index = higherprioritychildindex;
-
-    }while( index < treesize - 1 );
-
-    // The final position of the node down the heap.
-    this.binarytree.set( index, current );
-
-    return index;
+    for( int i = 0; i < this.queue.size(); i++ ) {
+      node = this.nodes[this.queue.keyAt( i )];
+      if( heapnodeobjectcomparator.compare( object, node ) == 0 )
+        return node;
+    }
+    return null;
   }
 
   /**
    * Returns a String representation of the Heap.
    */
   public String toString() {
-    return this.binarytree.toString();
+    List  binarytree = new ArrayList( this.queue.size() );
+
+    for( int i = 0; i < this.queue.size(); i++ )
+      binarytree.add( this.nodes[this.queue.keyAt( i )] );
+    return binarytree.toString();
   }
 
 }
\ No newline at end of file
@@ -20,6 +20,12 @@ public class HeapNode implements Serializable {
    */
   double    priority;
 
+  /**
+   * The index of the <tt>HeapNode</tt> in the <tt>Heap</tt> it is in,
+   * or -1 if it is in none.
+   */
+  int       index = -1;
+
   /**
    * Creates a <tt>HeapNode</tt> with a specified priority and encapsulating
    * an object.
@@ -0,0 +1,304 @@
+package salvo.jesus.util;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * A priority queue of <tt>int</tt> keys with <tt>double</tt> priorities, the
+ * lowest priority first. Keys are non-negative, and the queue grows to hold
+ * the largest key inserted.
+ * <p>
+ * The queue is a d-ary heap of keys in an <tt>int[]</tt>, with the
+ * priorities in a <tt>double[]</tt> and the position of each key in the heap
+ * in another <tt>int[]</tt>. {@link #contains(int)} is thus constant time,
+ * {@link #insert(int, double)}, {@link #decreaseKey(int, double)} and
+ * {@link #removeMin()} are O(log n), and no object is allocated per key. A
+ * heap of arity 4 is usually faster than a binary heap, as it is shallower
+ * and its children share cache lines.
+ *
+ * @author nono
+ * @version $Id$
+ */
+public class IndexedHeap implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	public static final int DEFAULT_ARITY = 4;
+
+	private final int arity;
+
+	/**
+	 * Keys in heap order.
+	 */
+	private int[] heap;
+
+	private int size;
+
+	/**
+	 * Position of each key in the heap, or -1 if the key is not queued.
+	 */
+	private int[] position;
+
+	/**
+	 * Priority of each queued key.
+	 */
+	private double[] priority;
+
+	/**
+	 * Creates a new, empty heap of the default arity with room for keys below
+	 * the given capacity.
+	 */
+	public IndexedHeap(int capacity) {
+		this(capacity, DEFAULT_ARITY);
+	}
+
+	/**
+	 * Creates a new, empty heap of the given arity with room for keys below
+	 * the given capacity.
+	 *
+	 * @throws IllegalArgumentException
+	 *             if the arity is less than 2.
+	 */
+	public IndexedHeap(int capacity, int arity) {
+		if (arity < 2)
+			throw new IllegalArgumentException("Arity: " + arity);
+		this.arity = arity;
+		capacity = Math.max(capacity, 1);
+		heap = new int[capacity];
+		position = new int[capacity];
+		priority = new double[capacity];
+		Arrays.fill(position, -1);
+	}
+
+	public int getArity() {
+		return arity;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Returns true if the key is queued.
+	 */
+	public boolean contains(int key) {
+		return key >= 0 && key < position.length && position[key] >= 0;
+	}
+
+	/**
+	 * Returns the priority of a queued key.
+	 *
+	 * @throws NoSuchElementException
+	 *             if the key is not queued.
+	 */
+	public double getPriority(int key) {
+		check(key);
+		return priority[key];
+	}
+
+	/**
+	 * Returns the key at a position of the heap, the first being the key of
+	 * lowest priority. Positions change as keys are queued and removed.
+	 */
+	public int keyAt(int index) {
+		if (index < 0 || index >= size)
+			throw new IndexOutOfBoundsException("Index: " + index);
+		return heap[index];
+	}
+
+	/**
+	 * Queues a key.
+	 *
+	 * @throws IllegalArgumentException
+	 *             if the key is negative or already queued.
+	 */
+	public void insert(int key, double priority) {
+		if (key < 0 || contains(key))
+			throw new IllegalArgumentException("Key: " + key);
+		if (key >= position.length)
+			growKeys(key + 1);
+		if (size == heap.length)
+			heap = grow(heap, size + 1);
+		this.priority[key] = priority;
+		up(key, size++);
+	}
+
+	/**
+	 * Lowers the priority of a queued key.
+	 *
+	 * @throws NoSuchElementException
+	 *             if the key is not queued.
+	 * @throws IllegalArgumentException
+	 *             if the priority is higher than the current one.
+	 */
+	public void decreaseKey(int key, double priority) {
+		check(key);
+		if (priority > this.priority[key])
+			throw new IllegalArgumentException("Priority " + priority
+					+ " is higher than " + this.priority[key]);
+		this.priority[key] = priority;
+		up(key, position[key]);
+	}
+
+	/**
+	 * Changes the priority of a queued key, higher or lower.
+	 *
+	 * @throws NoSuchElementException
+	 *             if the key is not queued.
+	 */
+	public void setPriority(int key, double priority) {
+		check(key);
+		double old = this.priority[key];
+		this.priority[key] = priority;
+		if (priority < old)
+			up(key, position[key]);
+		else
+			down(key, position[key]);
+	}
+
+	/**
+	 * Returns the key of lowest priority.
+	 *
+	 * @throws NoSuchElementException
+	 *             if the heap is empty.
+	 */
+	public int peek() {
+		if (size == 0)
+			throw new NoSuchElementException();
+		return heap[0];
+	}
+
+	/**
+	 * Removes and returns the key of lowest priority.
+	 *
+	 * @throws NoSuchElementException
+	 *             if the heap is empty.
+	 */
+	public int removeMin() {
+		int key = peek();
+		removeAt(0);
+		return key;
+	}
+
+	/**
+	 * Removes a key from the heap.
+	 *
+	 * @return false if the key was not queued.
+	 */
+	public boolean remove(int key) {
+		if (!contains(key))
+			return false;
+		removeAt(position[key]);
+		return true;
+	}
+
+	/**
+	 * Removes all keys, in time proportional to their number.
+	 */
+	public void clear() {
+		for (int i = 0; i < size; i++)
+			position[heap[i]] = -1;
+		size = 0;
+	}
+
+	private void removeAt(int index) {
+		int key = heap[index];
+		int last = heap[--size];
+		position[key] = -1;
+		if (index == size)
+			return;
+		if (priority[last] < priority[key])
+			up(last, index);
+		else
+			down(last, index);
+	}
+
+	/**
+	 * Moves a key up from a position of the heap until its parent has a
+	 * lower or equal priority.
+	 */
+	private void up(int key, int index) {
+		double p = priority[key];
+		while (index > 0) {
+			int parent = (index - 1) / arity;
+			int parentKey = heap[parent];
+			if (priority[parentKey] <= p)
+				break;
+			heap[index] = parentKey;
+			position[parentKey] = index;
+			index = parent;
+		}
+		heap[index] = key;
+		position[key] = index;
+	}
+
+	/**
+	 * Moves a key down from a position of the heap until its children have
+	 * higher or equal priorities.
+	 */
+	private void down(int key, int index) {
+		double p = priority[key];
+		while (true) {
+			int first = index * arity + 1;
+			if (first >= size)
+				break;
+			int last = Math.min(first + arity, size);
+			int child = first;
+			double childPriority = priority[heap[first]];
+			for (int i = first + 1; i < last; i++) {
+				double q = priority[heap[i]];
+				if (q < childPriority) {
+					child = i;
+					childPriority = q;
+				}
+			}
+			if (p <= childPriority)
+				break;
+			int childKey = heap[child];
+			heap[index] = childKey;
+			position[childKey] = index;
+			index = child;
+		}
+		heap[index] = key;
+		position[key] = index;
+	}
+
+	private void check(int key) {
+		if (!contains(key))
+			throw new NoSuchElementException("Key: " + key);
+	}
+
+	private void growKeys(int capacity) {
+		int old = position.length;
+		position = grow(position, capacity);
+		Arrays.fill(position, old, position.length, -1);
+		double[] newPriority = new double[position.length];
+		System.arraycopy(priority, 0, newPriority, 0, old);
+		priority = newPriority;
+	}
+
+	private static int[] grow(int[] array, int capacity) {
+		int[] grown = new int[Math.max(capacity, array.length * 3 / 2 + 1)];
+		System.arraycopy(array, 0, grown, 0, array.length);
+		return grown;
+	}
+
+	/**
+	 * Returns a String representation of the keys and priorities, in heap
+	 * order.
+	 */
+	public String toString() {
+		StringBuffer buffer = new StringBuffer("[");
+		for (int i = 0; i < size; i++) {
+			if (i > 0)
+				buffer.append(", ");
+			buffer.append(heap[i]).append('=').append(priority[heap[i]]);
+		}
+		return buffer.append(']').toString();
+	}
+}
@@ -0,0 +1,165 @@
+package salvo.jesus.util;
+
+import java.util.Arrays;
+
+/**
+ * Sorts int values by long keys, as parallel arrays, without boxing. Runs of
+ * the arrays are sorted by a radix sort on several threads, then merged
+ * pairwise, the merges of each round in parallel. Keys are compared as
+ * signed longs; <tt>key()</tt> turns doubles into keys of the same order.
+ *
+ * @author nono
+ * @version $Id$
+ */
+public final class KeySort {
+
+	/**
+	 * Smallest run sorted by a thread of its own.
+	 */
+	private static final int MIN_RUN = 1 << 16;
+
+	private static final int BITS = 11;
+
+	private static final int RADIX = 1 << BITS;
+
+	private KeySort() {
+	}
+
+	/**
+	 * Returns a key of a double, such that keys compare as signed longs in
+	 * the order of their doubles.
+	 */
+	public static long key(double value) {
+		long bits = Double.doubleToLongBits(value);
+		// negative doubles grow with their bits
+		return bits < 0 ? bits ^ Long.MAX_VALUE : bits;
+	}
+
+	/**
+	 * Sorts the first <tt>size</tt> keys in ascending order, moving the
+	 * values along with their keys. Values of equal keys are kept in the same
+	 * order.
+	 *
+	 * @param threads
+	 *            the number of threads sorting runs.
+	 */
+	public static void sort(final long[] keys, final int[] values,
+			final int size, int threads) {
+		if (keys.length < size || values.length < size)
+			throw new IllegalArgumentException("Fewer than " + size
+					+ " keys or values");
+		final int runs = Math.max(1, Math.min(threads, size / MIN_RUN));
+		final long[] keyBuffer = new long[size];
+		final int[] valueBuffer = new int[size];
+		TaskPool pool = new TaskPool(runs);
+
+		try {
+			pool.run(runs, new TaskPool.Task() {
+				public void run(int r) {
+					radixSort(keys, values, keyBuffer, valueBuffer, bound(size,
+							runs, r), bound(size, runs, r + 1));
+				}
+			});
+			long[] fromKeys = keys, toKeys = keyBuffer;
+			int[] fromValues = values, toValues = valueBuffer;
+			for (int width = 1; width < runs; width *= 2) {
+				final long[] k = fromKeys, kb = toKeys;
+				final int[] v = fromValues, vb = toValues;
+				final int w = width;
+				pool.run((runs + 2 * w - 1) / (2 * w), new TaskPool.Task() {
+					public void run(int pair) {
+						int first = 2 * w * pair;
+						merge(k, v, kb, vb, bound(size, runs, first), bound(
+								size, runs, Math.min(runs, first + w)), bound(
+								size, runs, Math.min(runs, first + 2 * w)));
+					}
+				});
+				fromKeys = kb;
+				toKeys = k;
+				fromValues = vb;
+				toValues = v;
+			}
+			if (fromKeys != keys) {
+				System.arraycopy(fromKeys, 0, keys, 0, size);
+				System.arraycopy(fromValues, 0, values, 0, size);
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Returns the start of a run.
+	 */
+	private static int bound(int size, int runs, int run) {
+		return (int) ((long) size * run / runs);
+	}
+
+	private static int digit(long key, int shift) {
+		return (int) ((key ^ Long.MIN_VALUE) >>> shift) & (RADIX - 1);
+	}
+
+	/**
+	 * Sorts a run by its keys, <tt>BITS</tt> bits at a time from the lowest,
+	 * skipping the digits all keys share.
+	 */
+	private static void radixSort(long[] keys, int[] values,
+			long[] keyBuffer, int[] valueBuffer, int from, int to) {
+		if (to - from < 2)
+			return;
+		long[] k = keys, kb = keyBuffer;
+		int[] v = values, vb = valueBuffer;
+		int[] count = new int[RADIX];
+
+		for (int shift = 0; shift < 64; shift += BITS) {
+			Arrays.fill(count, 0);
+			for (int i = from; i < to; i++)
+				count[digit(k[i], shift)]++;
+			if (count[digit(k[from], shift)] == to - from)
+				continue;
+			for (int d = 0, start = from; d < RADIX; d++) {
+				int c = count[d];
+				count[d] = start;
+				start += c;
+			}
+			for (int i = from; i < to; i++) {
+				int at = count[digit(k[i], shift)]++;
+				kb[at] = k[i];
+				vb[at] = v[i];
+			}
+			long[] swapKeys = k;
+			k = kb;
+			kb = swapKeys;
+			int[] swapValues = v;
+			v = vb;
+			vb = swapValues;
+		}
+		if (k != keys) {
+			System.arraycopy(k, from, keys, from, to - from);
+			System.arraycopy(v, from, values, from, to - from);
+		}
+	}
+
+	/**
+	 * Merges the sorted runs from <tt>from</tt> to <tt>middle</tt> and from
+	 * <tt>middle</tt> to <tt>to</tt> into the same range of the buffers.
+	 */
+	private static void merge(long[] keys, int[] values, long[] keyBuffer,
+			int[] valueBuffer, int from, int middle, int to) {
+		int i = from, j = middle, at = from;
+
+		while (i < middle && j < to)
+			if (keys[j] < keys[i]) {
+				keyBuffer[at] = keys[j];
+				valueBuffer[at++] = values[j++];
+			} else {
+				keyBuffer[at] = keys[i];
+				valueBuffer[at++] = values[i++];
+			}
+		System.arraycopy(keys, i, keyBuffer, at, middle - i);
+		System.arraycopy(values, i, valueBuffer, at, middle - i);
+		at += middle - i;
+		System.arraycopy(keys, j, keyBuffer, at, to - j);
+		System.arraycopy(values, j, valueBuffer, at, to - j);
+	}
+}
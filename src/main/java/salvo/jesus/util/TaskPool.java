@@ -0,0 +1,105 @@
+package salvo.jesus.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Threads running numbered tasks in parallel, a batch at a time. Each call to
+ * <tt>run()</tt> returns when all the tasks of the batch are done, so that
+ * algorithms working in phases may run each phase on the same threads:
+ *
+ * <pre>
+ * TaskPool pool = new TaskPool(threads);
+ * try {
+ * 	pool.run(tiles, phase);
+ * } finally {
+ * 	pool.shutdown();
+ * }
+ * </pre>
+ *
+ * A pool of one thread runs the tasks in the calling thread.
+ *
+ * @author nono
+ * @version $Id$
+ */
+public class TaskPool {
+
+	/**
+	 * A task of a batch, given its number.
+	 */
+	public interface Task {
+		void run(int index);
+	}
+
+	private final int threads;
+
+	private final ExecutorService executor;
+
+	/**
+	 * Creates a pool of threads, at least one.
+	 */
+	public TaskPool(int threads) {
+		this.threads = Math.max(1, threads);
+		executor = this.threads > 1 ? Executors
+				.newFixedThreadPool(this.threads) : null;
+	}
+
+	public int getThreads() {
+		return threads;
+	}
+
+	/**
+	 * Runs tasks numbered from 0 to <tt>tasks - 1</tt>, in any order, and
+	 * waits for all of them. A RuntimeException thrown by a task stops the
+	 * tasks not yet started, and is thrown back.
+	 */
+	public void run(final int tasks, final Task task) {
+		if (executor == null || tasks <= 1) {
+			for (int t = 0; t < tasks; t++)
+				task.run(t);
+			return;
+		}
+		final AtomicInteger next = new AtomicInteger();
+		Runnable worker = new Runnable() {
+			public void run() {
+				try {
+					for (int t = next.getAndIncrement(); t < tasks; t = next
+							.getAndIncrement())
+						task.run(t);
+				} catch (RuntimeException e) {
+					next.set(tasks);
+					throw e;
+				}
+			}
+		};
+		int count = Math.min(threads, tasks);
+		List<Future<?>> workers = new ArrayList<Future<?>>(count);
+		for (int i = 0; i < count; i++)
+			workers.add(executor.submit(worker));
+		try {
+			for (Future<?> f : workers)
+				f.get();
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof Error)
+				throw (Error) e.getCause();
+			throw (RuntimeException) e.getCause();
+		} catch (InterruptedException e) {
+			next.set(tasks);
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted");
+		}
+	}
+
+	/**
+	 * Stops the threads of the pool.
+	 */
+	public void shutdown() {
+		if (executor != null)
+			executor.shutdown();
+	}
+}
@@ -34,10 +34,128 @@ public abstract class AbstractGraphTest extends TestCase {
 		assertEquals("wrong number of edges", 1, g.getAllEdges().size());
 	}
 
+	/**
+	 * Equal edges should not be added twice to a vertex with many edges.
+	 *
+	 * @throws GraphException
+	 */
+	public void testUniqueEdgesOfLargeVertex() throws GraphException {
+		Graph g = getGraph();
+		Edge[] edges = new Edge[200];
+		for (int i = 0; i < edges.length; i++) {
+			edges[i] = makeEdge("hub", "data", "v" + i);
+			g.addEdge(edges[i]);
+		}
+		for (int i = 0; i < edges.length; i++)
+			g.addEdge(makeEdge("hub", "data", "v" + i));
+		assertEquals(200, g.getAllEdges().size());
+		for (int i = 0; i < edges.length; i += 2)
+			g.removeEdge(edges[i]);
+		assertEquals(100, g.getAllEdges().size());
+		for (int i = 0; i < edges.length; i++)
+			g.addEdge(makeEdge("hub", "data", "v" + i));
+		assertEquals(200, g.getAllEdges().size());
+	}
+
 	public void testUniqueVertices() throws GraphException {
 		Graph g = getGraph();
 		g.add("toto");
 		g.add("toto");
 		assertEquals("wrong number of nodes", 1, g.getAllVertices().size());
 	}
+
+	/**
+	 * Removing a vertex then adding new ones should keep insertion order of
+	 * vertices and the edges of remaining vertices.
+	 *
+	 * @throws GraphException
+	 */
+	public void testRemoveThenAddVertices() throws GraphException {
+		Graph g = getGraph();
+		g.add("toto");
+		g.add("tutu");
+		g.add("titi");
+		g.addEdge(makeEdge("toto", "data", "titi"));
+		g.addEdge(makeEdge("tutu", "data2", "titi"));
+		g.remove("tutu");
+		g.add("tata");
+		g.addEdge(makeEdge("tata", "data3", "toto"));
+		assertEquals("wrong vertices order", java.util.Arrays.asList(
+				new Object[] { "toto", "titi", "tata" }), g.getAllVertices());
+		assertEquals("wrong number of edges", 2, g.getAllEdges().size());
+		assertEquals(1, g.getEdges("titi").size());
+		assertEquals(2, g.getEdges("toto").size());
+		assertEquals(1, g.getEdges("tata").size());
+		assertNull(g.getEdges("tutu"));
+		assertEquals("toto", g.findVertex("toto"));
+		assertNull(g.findVertex("tutu"));
+	}
+
+	/**
+	 * Removing most vertices, then adding more, should keep insertion order
+	 * of the remaining vertices.
+	 *
+	 * @throws GraphException
+	 */
+	public void testRemoveManyVertices() throws GraphException {
+		Graph g = getGraph();
+		java.util.List expected = new java.util.ArrayList();
+		for (int i = 0; i < 100; i++)
+			g.add(new Integer(i));
+		for (int i = 0; i < 100; i++)
+			if (i % 3 != 0)
+				g.remove(new Integer(i));
+			else
+				expected.add(new Integer(i));
+		assertEquals(expected, g.getAllVertices());
+		for (int i = 100; i < 110; i++) {
+			g.add(new Integer(i));
+			expected.add(new Integer(i));
+		}
+		g.remove(new Integer(0));
+		expected.remove(0);
+		assertEquals(expected, g.getAllVertices());
+		assertEquals(expected.size(), g.getVerticesCount());
+	}
+
+	/**
+	 * Connected sets should be merged when adding edges and split when
+	 * removing the only edge between two parts of a set.
+	 *
+	 * @throws GraphException
+	 */
+	public void testConnectedSets() throws GraphException {
+		Graph g = getGraph();
+		g.add("toto");
+		g.add("tutu");
+		g.add("titi");
+		g.add("tata");
+		assertEquals(4, g.getConnectedSet().size());
+		g.addEdge(makeEdge("toto", "data1", "tutu"));
+		g.addEdge(makeEdge("tutu", "data2", "titi"));
+		Edge e = makeEdge("titi", "data3", "toto");
+		g.addEdge(e);
+		Edge bridge = makeEdge("tata", "data4", "titi");
+		g.addEdge(bridge);
+		assertEquals(1, g.getConnectedSet().size());
+		assertTrue(g.isConnected("toto", "tata"));
+		g.removeEdge(e);
+		assertEquals("edge in cycle should not split set", 1, g
+				.getConnectedSet().size());
+		g.removeEdge(bridge);
+		assertEquals(2, g.getConnectedSet().size());
+		assertFalse(g.isConnected("toto", "tata"));
+		assertTrue(g.isConnected("toto", "titi"));
+		assertEquals(java.util.Arrays.asList(new Object[] { "toto", "tutu",
+				"titi" }), g.getConnectedSet().get(0));
+		assertEquals(java.util.Arrays.asList(new Object[] { "tata" }), g
+				.getConnectedSet("tata"));
+		g.remove("tutu");
+		assertEquals(3, g.getConnectedSet().size());
+		assertFalse(g.isConnected("toto", "titi"));
+		g.remove("tata");
+		assertEquals(2, g.getConnectedSet().size());
+		assertEquals(java.util.Arrays.asList(new Object[] { "titi" }), g
+				.getConnectedSet("titi"));
+	}
 }
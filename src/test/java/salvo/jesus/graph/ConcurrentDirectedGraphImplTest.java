@@ -0,0 +1,277 @@
+package salvo.jesus.graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import salvo.jesus.graph.algorithm.DepthFirstGraphTraversal;
+
+/**
+ * Tests the concurrent directed graph implementation, alone and when
+ * modified and traversed by several threads.
+ *
+ * @author nono
+ * @version $Id$
+ */
+public class ConcurrentDirectedGraphImplTest extends AbstractGraphTest {
+
+	private static final int THREADS = 8;
+
+	private static final int VERTICES = 40;
+
+	private static final int OPERATIONS = 20000;
+
+	private ConcurrentDirectedGraphImpl graph;
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		this.graph = new ConcurrentDirectedGraphImpl();
+	}
+
+	@Override
+	Graph getGraph() {
+		return graph;
+	}
+
+	@Override
+	Edge makeEdge(Object from, Object data, Object to) {
+		return new DirectedEdgeImpl(from, to, data);
+	}
+
+	public void testSnapshots() throws Exception {
+		Edge ab = graph.addEdge("a", "b");
+		List<DirectedEdge> out = graph.getOutgoingEdges("a");
+		graph.addEdge("a", "c");
+		graph.removeEdge(ab);
+		assertEquals(Collections.singletonList(ab), out);
+		assertEquals(1, graph.getOutgoingEdges("a").size());
+		assertEquals(1, graph.getEdgesCount());
+		assertTrue(graph.getIncomingEdges("b").isEmpty());
+		try {
+			out.add(null);
+			fail("snapshots are immutable");
+		} catch (UnsupportedOperationException e) {
+		}
+		assertTrue(graph.isPath("a", "c"));
+		assertFalse(graph.isCycle("a"));
+		graph.addEdge("c", "a");
+		assertTrue(graph.isCycle("a"));
+	}
+
+	public void testEdgesOfLargeVertex() throws Exception {
+		DirectedEdge[] edges = new DirectedEdge[200];
+		for (int i = 0; i < edges.length; i++)
+			edges[i] = (DirectedEdge) graph.addEdge("hub", "v" + i);
+		DirectedEdge parallel = new DirectedEdgeImpl("hub", "v7", "other");
+		graph.addEdge(parallel);
+
+		assertSame(edges[150], graph.getEdge("hub", "v150"));
+		assertTrue(graph.containsEdge("hub", "v0"));
+		assertFalse(graph.containsEdge("hub", "hub"));
+		assertEquals(Arrays.asList(new Object[] { edges[7], parallel }), graph
+				.getEdges("hub", "v7"));
+		graph.removeEdge(edges[7]);
+		assertSame(parallel, graph.getEdge("hub", "v7"));
+		assertTrue(graph.getEdges("v7", "hub").isEmpty());
+	}
+
+	public void testBatch() throws Exception {
+		Edge ab = graph.addEdge("a", "b");
+		GraphBatchTest.BatchListener listener = new GraphBatchTest.BatchListener();
+		graph.addGraphAddVertexListener(listener);
+		graph.addGraphRemoveEdgeListener(listener);
+
+		graph.beginBatch();
+		try {
+			graph.beginBatch();
+			fail("batches do not nest");
+		} catch (IllegalStateException e) {
+		}
+		Edge cd = graph.addEdge("c", "d");
+		graph.removeEdge(ab);
+		graph.add("e");
+		graph.remove("e");
+		graph.commit();
+		assertEquals(0, listener.single);
+		assertEquals(1, listener.batches.size());
+		GraphBatchEvent e = listener.batches.get(0);
+		assertEquals(Arrays.asList(new Object[] { "c", "d" }), e
+				.getAddedVertices());
+		assertEquals(Arrays.asList(new Object[] { cd }), e.getAddedEdges());
+		assertEquals(Arrays.asList(new Object[] { ab }), e.getRemovedEdges());
+
+		graph.beginBatch();
+		graph.remove("c");
+		graph.addEdge("a", "b");
+		graph.rollback();
+		assertEquals(1, listener.batches.size());
+		assertEquals(4, graph.getVerticesCount());
+		assertEquals(1, graph.getEdgesCount());
+		assertSame(cd, graph.getEdge("c", "d"));
+		assertNull(graph.getEdge("a", "b"));
+		try {
+			graph.commit();
+			fail("no batch in progress");
+		} catch (IllegalStateException ise) {
+		}
+	}
+
+	/**
+	 * Other threads read the changes of a batch as they are made, but their
+	 * own changes wait for the batch to be over and are not part of it.
+	 */
+	public void testBatchLocksOutWriters() throws Exception {
+		GraphBatchTest.BatchListener listener = new GraphBatchTest.BatchListener();
+		final List<Throwable> failures = Collections
+				.synchronizedList(new ArrayList<Throwable>());
+		graph.addGraphAddVertexListener(listener);
+
+		graph.beginBatch();
+		graph.addEdge("a", "b");
+		Thread writer = new Thread() {
+			public void run() {
+				try {
+					assertEquals(1, graph.getOutgoingEdges("a").size());
+					graph.addEdge("b", "c");
+				} catch (Throwable e) {
+					failures.add(e);
+				}
+			}
+		};
+		writer.start();
+		writer.join(200);
+		assertTrue(writer.isAlive());
+		assertFalse(graph.containsEdge("b", "c"));
+		graph.commit();
+		writer.join();
+
+		if (!failures.isEmpty())
+			throw new AssertionError(failures.get(0));
+		assertTrue(graph.containsEdge("b", "c"));
+		assertEquals(1, listener.batches.size());
+		assertEquals(Arrays.asList(new Object[] { "a", "b" }),
+				listener.batches.get(0).getAddedVertices());
+		assertEquals(1, listener.single);
+	}
+
+	/**
+	 * Several threads add and remove edges and vertices while others read
+	 * the adjacency snapshots and traverse the graph. Once they are done,
+	 * the counts and both sides of every edge must agree.
+	 */
+	public void testStress() throws Exception {
+		final Integer[] vertices = new Integer[VERTICES];
+		for (int i = 0; i < VERTICES; i++) {
+			vertices[i] = new Integer(i);
+			graph.add(vertices[i]);
+		}
+		final List<Throwable> failures = Collections
+				.synchronizedList(new ArrayList<Throwable>());
+		final AtomicInteger traversals = new AtomicInteger();
+		final CountDownLatch start = new CountDownLatch(1);
+		Thread[] threads = new Thread[THREADS];
+
+		for (int t = 0; t < THREADS; t++) {
+			final boolean writer = t % 2 == 0;
+			final Random random = new Random(t);
+			threads[t] = new Thread() {
+				public void run() {
+					try {
+						start.await();
+						if (writer)
+							write(random, vertices);
+						else
+							read(random, vertices, traversals);
+					} catch (Throwable e) {
+						failures.add(e);
+					}
+				}
+			};
+			threads[t].start();
+		}
+		start.countDown();
+		for (int t = 0; t < THREADS; t++)
+			threads[t].join();
+
+		if (!failures.isEmpty())
+			throw new AssertionError(failures.get(0));
+		assertTrue(traversals.get() > 0);
+		checkInvariants();
+	}
+
+	private void write(Random random, Integer[] vertices)
+			throws GraphException {
+		for (int i = 0; i < OPERATIONS; i++) {
+			Integer from = vertices[random.nextInt(VERTICES)];
+			Integer to = vertices[random.nextInt(VERTICES)];
+			int op = random.nextInt(100);
+			if (op < 55)
+				graph.addEdge(new DirectedEdgeImpl(from, to, from + "-" + to));
+			else if (op < 95) {
+				DirectedEdge edge = graph.getEdge(from, to);
+				if (edge != null)
+					graph.removeEdge(edge);
+			} else if (op < 98)
+				graph.remove(from);
+			else
+				graph.add(from);
+		}
+	}
+
+	private void read(Random random, Integer[] vertices,
+			AtomicInteger traversals) {
+		DepthFirstGraphTraversal traversal = new DepthFirstGraphTraversal(
+				graph);
+		for (int i = 0; i < OPERATIONS / 10; i++) {
+			Integer v = vertices[random.nextInt(VERTICES)];
+			try {
+				for (DirectedEdge edge : graph.getOutgoingEdges(v))
+					assertEquals(v, edge.getSource());
+				for (DirectedEdge edge : graph.getIncomingEdges(v))
+					assertEquals(v, edge.getSink());
+				if (i % 10 == 0) {
+					assertEquals(v, traversal.traverse(v).get(0));
+					traversals.incrementAndGet();
+				}
+			} catch (IllegalArgumentException e) {
+				// the vertex has been removed by a writer
+			}
+			graph.isPath(v, vertices[random.nextInt(VERTICES)]);
+		}
+	}
+
+	private void checkInvariants() {
+		List vertices = graph.getAllVertices();
+		assertEquals(vertices.size(), graph.getVerticesCount());
+		assertEquals(vertices.size(), new HashSet(vertices).size());
+
+		int outgoing = 0, incoming = 0;
+		Set<Edge> edges = new HashSet<Edge>();
+		for (Object v : vertices) {
+			for (DirectedEdge edge : graph.getOutgoingEdges(v)) {
+				assertTrue(graph.getIncomingEdges(edge.getSink())
+						.contains(edge));
+				assertEquals(edge, graph.getEdge(v, edge.getSink()));
+				edges.add(edge);
+				outgoing++;
+			}
+			for (DirectedEdge edge : graph.getIncomingEdges(v)) {
+				assertTrue(graph.getOutgoingEdges(edge.getSource()).contains(
+						edge));
+				incoming++;
+			}
+		}
+		assertEquals(graph.getEdgesCount(), outgoing);
+		assertEquals(graph.getEdgesCount(), incoming);
+		assertEquals(graph.getEdgesCount(), graph.getAllEdges().size());
+		// no two edges between the same vertices
+		assertEquals(outgoing, edges.size());
+	}
+}
@@ -0,0 +1,125 @@
+package salvo.jesus.graph;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+/**
+ * Checks that the topological order maintained by DirectedAcyclicGraphImpl
+ * rejects exactly the edges closing a cycle and stays valid as vertices and
+ * edges are added and removed.
+ *
+ * @author nono
+ * @version $Id$
+ */
+public class DirectedAcyclicGraphImplTest extends TestCase {
+
+	private static final int VERTICES = 40;
+
+	public void testOrder() throws Exception {
+		DirectedAcyclicGraphImpl dag = new DirectedAcyclicGraphImpl();
+		dag.addEdge("c", "d");
+		dag.addEdge("b", "c");
+		dag.addEdge("a", "b");
+		assertEquals(Arrays.asList(new Object[] { "a", "b", "c", "d" }), dag
+				.topologicalSort());
+		assertEquals(Arrays.asList(new Object[] { "d", "c", "b", "a" }), dag
+				.reverseTopologicalSort());
+		try {
+			dag.addEdge("d", "a");
+			fail("cycle should be rejected");
+		} catch (CycleException e) {
+		}
+		try {
+			dag.addEdge("e", "e");
+			fail("loops are cycles");
+		} catch (CycleException e) {
+		}
+		assertNull(dag.findVertex("e"));
+		assertEquals(3, dag.getEdgesCount());
+	}
+
+	/**
+	 * Adds and removes random edges and vertices, comparing the edges
+	 * rejected with a search of the reference adjacency matrix.
+	 */
+	public void testRandom() throws Exception {
+		Random random = new Random(3);
+		DirectedAcyclicGraphImpl dag = new DirectedAcyclicGraphImpl();
+		boolean[][] edges = new boolean[VERTICES][VERTICES];
+		boolean[] present = new boolean[VERTICES];
+		Integer[] vertices = new Integer[VERTICES];
+		for (int i = 0; i < VERTICES; i++)
+			vertices[i] = new Integer(i);
+
+		for (int step = 0; step < 3000; step++) {
+			int from = random.nextInt(VERTICES);
+			int to = random.nextInt(VERTICES);
+			int op = random.nextInt(20);
+			if (op == 0 && present[from]) {
+				dag.remove(vertices[from]);
+				present[from] = false;
+				for (int i = 0; i < VERTICES; i++)
+					edges[from][i] = edges[i][from] = false;
+			} else if (op < 4 && edges[from][to]) {
+				dag.removeEdge(dag.getEdge(vertices[from], vertices[to]));
+				edges[from][to] = false;
+			} else if (!edges[from][to]) {
+				boolean cycle = from == to || reaches(edges, to, from);
+				try {
+					dag.addEdge(vertices[from], vertices[to]);
+					assertFalse("missed cycle", cycle);
+					edges[from][to] = true;
+					present[from] = present[to] = true;
+				} catch (CycleException e) {
+					assertTrue("no cycle", cycle);
+				}
+			}
+			if (step % 100 == 0)
+				checkOrder(dag, edges, present);
+		}
+		checkOrder(dag, edges, present);
+		checkOrder((DirectedAcyclicGraphImpl) dag.clone(), edges, present);
+	}
+
+	private static boolean reaches(boolean[][] edges, int from, int to) {
+		boolean[] visited = new boolean[edges.length];
+		int[] stack = new int[edges.length];
+		int top = 0;
+
+		visited[from] = true;
+		stack[top++] = from;
+		while (top > 0) {
+			int v = stack[--top];
+			if (v == to)
+				return true;
+			for (int w = 0; w < edges.length; w++)
+				if (edges[v][w] && !visited[w]) {
+					visited[w] = true;
+					stack[top++] = w;
+				}
+		}
+		return false;
+	}
+
+	private void checkOrder(DirectedAcyclicGraphImpl dag, boolean[][] edges,
+			boolean[] present) {
+		List sorted = dag.topologicalSort();
+		int[] at = new int[VERTICES];
+		int count = 0;
+
+		assertEquals(dag.getVerticesCount(), sorted.size());
+		for (int i = 0; i < sorted.size(); i++)
+			at[((Integer) sorted.get(i)).intValue()] = i;
+		for (int i = 0; i < VERTICES; i++) {
+			if (present[i])
+				count++;
+			for (int j = 0; j < VERTICES; j++)
+				if (edges[i][j])
+					assertTrue(i + "->" + j, at[i] < at[j]);
+		}
+		assertEquals(count, sorted.size());
+	}
+}
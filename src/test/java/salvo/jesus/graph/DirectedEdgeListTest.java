@@ -0,0 +1,69 @@
+package salvo.jesus.graph;
+
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+
+/**
+ * Checks that snapshots of edges find equal and parallel edges, and the
+ * edges to a sink, the same way below and above the threshold from which
+ * they are indexed by sink, and that older snapshots are not modified.
+ *
+ * @author nono
+ * @version $Id$
+ */
+public class DirectedEdgeListTest extends TestCase {
+
+	private static final int COUNT = 3 * DirectedEdgeList.INDEX_THRESHOLD;
+
+	public void testFind() {
+		DirectedEdgeList list = DirectedEdgeList.EMPTY_OUTGOING;
+		DirectedEdge[] edges = new DirectedEdge[COUNT];
+		DirectedEdge[] others = new DirectedEdge[COUNT];
+
+		for (int i = 0; i < COUNT; i++) {
+			edges[i] = new DirectedEdgeImpl("hub", "v" + i, "data");
+			others[i] = new DirectedEdgeImpl("hub", "v" + i, "other");
+			list = list.with(edges[i]);
+			if (i % 10 == 0)
+				list = list.with(others[i]);
+			for (int j = 0; j <= i; j += 7)
+				assertFound(list, edges[j], j % 10 == 0 ? others[j] : null);
+		}
+		DirectedEdgeList full = list;
+		for (int i = 0; i < COUNT; i += 2) {
+			list = list.without(edges[i]);
+			assertNull(list.find("v" + i, edges[i]));
+			assertSame(i % 10 == 0 ? others[i] : null, list.findFirst("v" + i));
+			assertSame(edges[i + 1], list.find("v" + (i + 1), edges[i + 1]));
+			if (i % 10 == 0)
+				assertSame(others[i], list.find("v" + i, others[i]));
+		}
+		for (int i = 0; i < COUNT; i++)
+			assertFound(full, edges[i], i % 10 == 0 ? others[i] : null);
+		for (int i = 0; i < COUNT; i++)
+			if (list.find("v" + i, edges[i]) != null)
+				list = list.without(edges[i]);
+			else
+				list = list.without(others[i]);
+		assertEquals(0, list.size());
+	}
+
+	private static void assertFound(DirectedEdgeList list, DirectedEdge edge,
+			DirectedEdge parallel) {
+		Object sink = edge.getSink();
+		assertSame(edge, list.findFirst(sink));
+		assertEquals(parallel == null ? Arrays.asList(edge) : Arrays.asList(
+				edge, parallel), list.findAll(sink));
+		assertSame(edge, list.find(sink, edge));
+		assertSame(edge, list.find(sink, new DirectedEdgeImpl("hub", sink,
+				"data")));
+		if (parallel != null) {
+			assertSame(parallel, list.find(sink, parallel));
+			assertSame(parallel, list.find(sink, new DirectedEdgeImpl("hub",
+					sink, "other")));
+		} else
+			assertNull(list.find(sink, new DirectedEdgeImpl("hub", sink,
+					"other")));
+	}
+}
@@ -25,4 +25,54 @@ public class DirectedGraphImplTest extends AbstractGraphTest {
 		return new DirectedEdgeImpl(from,to,data);
 	}
 
+	/**
+	 * Lookups by sink should give the same answers before and after the
+	 * outgoing edges of a vertex are indexed, and follow modifications.
+	 */
+	public void testEdgeIndex() throws GraphException {
+		graph.setEdgeIndexThreshold(4);
+		Edge ab1 = makeEdge("a", "1", "b");
+		Edge ab2 = makeEdge("a", "2", "b");
+		graph.addEdge(ab1);
+		graph.addEdge(ab2);
+		assertTrue(graph.containsEdge("a", "b"));
+		assertFalse(graph.containsEdge("b", "a"));
+		assertEquals(java.util.Arrays.asList(new Object[] { ab1, ab2 }), graph
+				.getEdges("a", "b"));
+
+		for (int i = 0; i < 10; i++)
+			graph.addEdge(makeEdge("a", "x" + i, "v" + i));
+		// The lookup indexes the outgoing edges of a
+		assertSame(ab1, graph.getEdge("a", "b"));
+		assertTrue(graph.containsEdge("a", "v9"));
+		assertTrue(graph.getEdges("a", "c").isEmpty());
+
+		graph.addEdge(makeEdge("a", "y", "c"));
+		assertTrue(graph.containsEdge("a", "c"));
+		graph.removeEdge(ab1);
+		assertEquals(java.util.Collections.singletonList(ab2), graph.getEdges(
+				"a", "b"));
+		graph.remove("v3");
+		assertFalse(graph.containsEdge("a", "v3"));
+		graph.remove("b");
+		assertFalse(graph.containsEdge("a", "b"));
+		assertEquals(10, graph.getOutgoingEdges("a").size());
+
+		graph.setEdgeIndexThreshold(Integer.MAX_VALUE);
+		assertTrue(graph.containsEdge("a", "c"));
+		assertFalse(graph.containsEdge("a", "v3"));
+	}
+
+	public void testCommonAdjacentVertices() throws GraphException {
+		graph.setEdgeIndexThreshold(2);
+		for (int i = 0; i < 20; i++)
+			graph.addEdge(makeEdge("hub", "h" + i, "v" + i));
+		graph.addEdge(makeEdge("v3", "d1", "x"));
+		graph.addEdge(makeEdge("x", "d2", "v4"));
+		graph.addEdge(makeEdge("x", "d3", "hub"));
+		assertEquals(new java.util.HashSet(java.util.Arrays
+				.asList(new Object[] { "v3", "v4" })), graph
+				.getAdjacentVertices(java.util.Arrays.asList(new Object[] {
+						"hub", "x" })));
+	}
 }
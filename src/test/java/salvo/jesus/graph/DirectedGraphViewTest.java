@@ -0,0 +1,146 @@
+package salvo.jesus.graph;
+
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+import salvo.jesus.graph.algorithm.GraphFilter;
+import salvo.jesus.graph.algorithm.Subgraph;
+import salvo.jesus.graph.algorithm.TarjanSCC;
+
+/**
+ * Checks that views of a directed graph show the filtered vertices and edges
+ * of the graph, follow its changes and cannot be modified.
+ *
+ * @author nono
+ * @version $Id$
+ */
+public class DirectedGraphViewTest extends TestCase {
+
+	private DirectedGraphImpl dg;
+
+	private DirectedEdge ab, bc, ca, cd, de;
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		this.dg = new DirectedGraphImpl();
+		ab = edge("a", "b");
+		bc = edge("b", "c");
+		ca = edge("c", "a");
+		cd = edge("c", "d");
+		de = edge("d", "e");
+	}
+
+	private DirectedEdge edge(Object from, Object to) throws GraphException {
+		DirectedEdge edge = new DirectedEdgeImpl(from, to, from + "-" + to);
+		dg.addEdge(edge);
+		return edge;
+	}
+
+	private static GraphFilter without(final Object vertex, final Edge edge) {
+		return new GraphFilter() {
+			public boolean filter(Object v) {
+				return !v.equals(vertex);
+			}
+
+			public boolean filter(Edge e) {
+				return e != edge;
+			}
+		};
+	}
+
+	public void testView() throws Exception {
+		DirectedGraphView view = GraphOps.view(dg, without("d", null));
+		assertEquals(Arrays.asList(new Object[] { "a", "b", "c", "e" }), view
+				.getAllVertices());
+		assertEquals(4, view.getVerticesCount());
+		assertEquals(3, view.getEdgesCount());
+		assertEquals(Arrays.asList(new Object[] { ca }), view
+				.getOutgoingEdges("c"));
+		assertTrue(view.getIncomingEdges("e").isEmpty());
+		assertNull(view.findVertex("d"));
+		assertFalse(view.containsEdge("c", "d"));
+		assertEquals(ab, view.getEdge("a", "b"));
+		assertTrue(view.isPath("a", "c"));
+		assertFalse(view.isPath("a", "e"));
+		assertTrue(view.isCycle("b"));
+		assertEquals(2, view.getConnectedSet().size());
+		assertEquals(2, new TarjanSCC(view).SCC().size());
+		try {
+			view.getOutgoingEdges("d");
+			fail("d is not in the view");
+		} catch (IllegalArgumentException e) {
+		}
+
+		// Changes of the graph show through the view
+		dg.removeEdge(ca);
+		edge("e", "a");
+		assertFalse(view.isCycle("b"));
+		assertTrue(view.containsEdge("e", "a"));
+		assertEquals(3, view.getEdgesCount());
+	}
+
+	public void testViewOfView() throws Exception {
+		DirectedGraphView view = new DirectedGraphView(GraphOps.view(dg,
+				without("e", null)), without("a", bc));
+		assertSame(dg, view.getGraph());
+		assertEquals(Arrays.asList(new Object[] { "b", "c", "d" }), view
+				.getAllVertices());
+		assertEquals(Arrays.asList(new Object[] { cd }), Arrays.asList(view
+				.getAllEdges().toArray()));
+	}
+
+	public void testReadOnly() throws Exception {
+		DirectedGraphView view = GraphOps.view(dg, without("d", null));
+		try {
+			view.addEdge("a", "e");
+			fail("views cannot be modified");
+		} catch (GraphModificationException e) {
+		}
+		try {
+			view.getOutgoingEdges("a").remove(0);
+			fail("views cannot be modified");
+		} catch (UnsupportedOperationException e) {
+		}
+		DirectedGraph copy = view.materialize();
+		assertTrue(copy instanceof DirectedGraphImpl);
+		assertEquals(view.getAllVertices(), copy.getAllVertices());
+		assertEquals(3, copy.getEdgesCount());
+		copy.remove("a");
+		assertTrue(dg.containsVertex("a"));
+	}
+
+	public void testSubgraph() throws Exception {
+		Subgraph sub = new Subgraph(dg);
+		DirectedGraph complement = sub.complement("c");
+		assertEquals(Arrays.asList(new Object[] { "a", "b", "d", "e" }),
+				complement.getAllVertices());
+		assertEquals(Arrays.asList(new Object[] { ab, de }), Arrays
+				.asList(complement.getAllEdges().toArray()));
+
+		DirectedGraph reachable = sub.reachable("d");
+		assertEquals(Arrays.asList(new Object[] { "d", "e" }), reachable
+				.getAllVertices());
+		assertEquals(5, sub.reachable("b").getEdgesCount());
+		DirectedGraph loopFree = sub.reachableLoopFree("a");
+		assertEquals(5, loopFree.getVerticesCount());
+		assertFalse(loopFree.containsEdge("c", "a"));
+		assertFalse(loopFree.isCycle("a"));
+	}
+
+	public void testReachableSnapshot() throws Exception {
+		DirectedGraph reachable = new Subgraph(dg).reachable("d");
+		DirectedEdge ed = edge("e", "d");
+		edge("e", "f");
+		assertTrue(reachable.getAllEdges().contains(ed));
+		assertFalse(reachable.getAllVertices().contains("f"));
+		dg.remove("e");
+		assertEquals(Arrays.asList(new Object[] { "d" }), reachable
+				.getAllVertices());
+		try {
+			reachable.add("g");
+			fail();
+		} catch (GraphModificationException e) {
+		}
+	}
+}
@@ -0,0 +1,171 @@
+package salvo.jesus.graph;
+
+import java.util.Arrays;
+import java.util.Iterator;
+
+import junit.framework.TestCase;
+import salvo.jesus.graph.algorithm.DirectedGraphAdjacencyMatrix;
+import salvo.jesus.graph.algorithm.Distance;
+import salvo.jesus.graph.algorithm.TarjanSCC;
+
+/**
+ * Checks that a frozen graph has the same structure as the graph it was
+ * frozen from and that algorithms run on it unchanged.
+ *
+ * @author nono
+ * @version $Id$
+ */
+public class FrozenGraphTest extends TestCase {
+
+	private DirectedGraphImpl dg;
+
+	protected void setUp() throws Exception {
+		super.setUp();
+		dg = new DirectedGraphImpl();
+		String[] names = { "a", "b", "c", "d", "e", "f", "g", "h", "j",
+				"k" };
+		for (int i = 0; i < names.length; i++)
+			dg.add(names[i]);
+		String[] edges = { "ab", "bc", "be", "cd", "dg", "df", "eh", "ea",
+				"fe", "fc", "gf", "gj", "ha", "hj", "jf" };
+		for (int i = 0; i < edges.length; i++)
+			dg.addEdge(edges[i].substring(0, 1).intern(), edges[i].substring(1)
+					.intern());
+	}
+
+	public void testDirectedStructure() throws Exception {
+		FrozenDirectedGraph frozen = dg.freeze();
+		assertEquals(dg.getAllVertices(), frozen.getAllVertices());
+		assertEquals(dg.getEdgesCount(), frozen.getEdgesCount());
+		for (Iterator it = dg.getVerticesIterator(); it.hasNext();) {
+			Object v = it.next();
+			assertEquals(dg.getOutgoingEdges(v), frozen.getOutgoingEdges(v));
+			assertEquals(dg.getIncomingEdges(v), frozen.getIncomingEdges(v));
+			assertEquals(dg.getOutgoingAdjacentVertices(v), frozen
+					.getOutgoingAdjacentVertices(v));
+			assertEquals(dg.getDegree(v), frozen.getDegree(v));
+		}
+		assertSame(dg.getEdge("g", "j"), frozen.getEdge("g", "j"));
+		assertNull(frozen.getEdge("j", "g"));
+		assertTrue(frozen.isPath("a", "j"));
+		assertFalse(frozen.isPath("a", "k"));
+		assertTrue(frozen.isCycle("f"));
+		assertFalse(frozen.isCycle("k"));
+		assertFalse(frozen.isWeighted());
+	}
+
+	public void testIntIdAccessors() throws Exception {
+		FrozenDirectedGraph frozen = dg.freeze();
+		int d = frozen.getVertexId("d");
+		assertEquals("d", frozen.getVertex(d));
+		assertEquals(2, frozen.getOutgoingEnd(d) - frozen.getOutgoingStart(d));
+		int e = frozen.getOutgoingStart(d);
+		assertEquals("g", frozen.getVertex(frozen.getOutgoingTarget(e)));
+		assertEquals(1.0, frozen.getOutgoingWeight(e), 0.0);
+		assertSame(dg.getEdge("d", "g"), frozen.getOutgoingEdge(e));
+		assertEquals(-1, frozen.getVertexId("z"));
+	}
+
+	public void testAbsentVertex() throws Exception {
+		FrozenDirectedGraph frozen = dg.freeze();
+		assertEquals(0, frozen.getDegree("z"));
+		assertNull(frozen.getClosest("z"));
+		assertNull(frozen.getEdges("z"));
+		assertTrue(frozen.getAdjacentVertices("z").isEmpty());
+		assertTrue(frozen.getOutgoingEdges("z").isEmpty());
+		assertTrue(frozen.getIncomingEdges("z").isEmpty());
+		assertTrue(frozen.getOutgoingAdjacentVertices("z").isEmpty());
+		assertTrue(frozen.getIncomingAdjacentVertices("z").isEmpty());
+		assertFalse(frozen.isCycle("z"));
+		assertFalse(frozen.isPath("a", "z"));
+	}
+
+	public void testAlgorithms() throws Exception {
+		dg.remove("k");
+		FrozenDirectedGraph frozen = dg.freeze();
+		Distance ds = new Distance(new DirectedGraphAdjacencyMatrix(frozen));
+		assertEquals(5D, ds.diameter(), 0.0D);
+		assertEquals(3D, ds.radius(), 0.0D);
+		assertEquals(new TarjanSCC(dg).SCC().size(), new TarjanSCC(frozen)
+				.SCC().size());
+		assertEquals(frozen.getVerticesCount(), frozen.traverse("a").size());
+		assertEquals(1, frozen.getConnectedSet().size());
+	}
+
+	public void testFrozenIsImmutable() throws Exception {
+		FrozenDirectedGraph frozen = dg.freeze();
+		try {
+			frozen.addEdge("a", "j");
+			fail("frozen graph should not be modified");
+		} catch (GraphModificationException e) {
+		}
+		try {
+			frozen.getOutgoingEdges("a").clear();
+			fail("frozen graph should not be modified");
+		} catch (UnsupportedOperationException e) {
+		}
+		dg.addEdge("j", "k");
+		assertFalse(frozen.isPath("j", "k"));
+		assertEquals(15, frozen.getEdgesCount());
+	}
+
+	public void testWeighted() throws Exception {
+		WeightedGraphImpl wg = new WeightedGraphImpl();
+		wg.addEdge("a", "b", 4);
+		wg.addEdge("a", "c", 1);
+		wg.addEdge("c", "b", 2);
+		wg.addEdge("b", "d", 5);
+		wg.add("e");
+		FrozenGraph frozen = wg.freeze();
+		assertTrue(frozen.isWeighted());
+		assertEquals("c", frozen.getClosest("a"));
+		assertEquals(2, frozen.getConnectedSet().size());
+		assertEquals(Arrays.asList(new Object[] { "a", "b", "c", "d" }),
+				frozen.getConnectedSet("d"));
+		assertTrue(frozen.isConnected("a", "d"));
+		assertFalse(frozen.isConnected("a", "e"));
+		assertEquals(3, frozen.minimumSpanningTree().getEdgesCount());
+		WeightedGraph tree = frozen.shortestPath("a");
+		assertEquals(3, tree.getEdgesCount());
+		assertNull(tree.getEdges("e"));
+	}
+
+	/**
+	 * A WeightedEdge keeping its own weight.
+	 */
+	static class CustomWeightedEdge extends EdgeImpl implements WeightedEdge {
+		double weight;
+
+		CustomWeightedEdge(Object a, Object b, double weight) {
+			super(a, b);
+			this.weight = weight;
+		}
+
+		public double getWeight() {
+			return weight;
+		}
+
+		public void setWeight(double weight) {
+			this.weight = weight;
+		}
+	}
+
+	public void testCurrentWeights() throws Exception {
+		WeightedGraphImpl wg = new WeightedGraphImpl();
+		WeightedEdge ab = wg.addEdge("a", "b", 4);
+		FrozenGraph frozen = wg.freeze();
+		assertTrue(frozen.hasCurrentWeights());
+		ab.setWeight(4);
+		assertFalse(frozen.hasCurrentWeights());
+
+		// other WeightedEdges are compared to their frozen weights
+		WeightedGraphImpl custom = new WeightedGraphImpl();
+		CustomWeightedEdge cd = new CustomWeightedEdge("c", "d", 2);
+		custom.addEdge(cd);
+		frozen = custom.freeze();
+		ab.setWeight(3);
+		assertTrue(frozen.hasCurrentWeights());
+		cd.setWeight(1);
+		assertFalse(frozen.hasCurrentWeights());
+	}
+}
@@ -0,0 +1,161 @@
+package salvo.jesus.graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import junit.framework.TestCase;
+import salvo.jesus.graph.visual.VisualGraph;
+
+/**
+ * Checks that changes made between beginBatch() and commit() are notified
+ * once to GraphBatchListeners and that rollback() undoes them.
+ *
+ * @author nono
+ * @version $Id$
+ */
+public class GraphBatchTest extends TestCase {
+
+	static class BatchListener implements GraphAddVertexListener,
+			GraphRemoveEdgeListener, GraphBatchListener {
+		List<GraphBatchEvent> batches = new ArrayList<GraphBatchEvent>();
+
+		int single;
+
+		public void vertexAdded(GraphAddVertexEvent e) {
+			single++;
+		}
+
+		public void edgeRemoved(GraphRemoveEdgeEvent e) {
+			single++;
+		}
+
+		public void batchCommitted(GraphBatchEvent e) {
+			batches.add(e);
+		}
+	}
+
+	static class Counter implements GraphAddEdgeListener,
+			GraphRemoveEdgeListener {
+		int added, removed;
+
+		public void edgeAdded(GraphAddEdgeEvent e) {
+			added++;
+		}
+
+		public void edgeRemoved(GraphRemoveEdgeEvent e) {
+			removed++;
+		}
+	}
+
+	private DirectedGraphImpl dg;
+
+	private Edge ab, bc;
+
+	protected void setUp() throws Exception {
+		super.setUp();
+		dg = new DirectedGraphImpl();
+		ab = dg.addEdge("a", "b");
+		bc = dg.addEdge("b", "c");
+	}
+
+	public void testCommit() throws Exception {
+		BatchListener batch = new BatchListener();
+		Counter counter = new Counter();
+		dg.addGraphAddVertexListener(batch);
+		dg.addGraphRemoveEdgeListener(batch);
+		dg.addGraphAddEdgeListener(counter);
+		dg.addGraphRemoveEdgeListener(counter);
+
+		dg.beginBatch();
+		Edge cd = dg.addEdge("c", "d");
+		dg.addEdge("d", "e");
+		dg.removeEdge(ab);
+		dg.remove("e");
+		dg.add("f");
+		assertEquals(2, counter.added);
+		assertEquals(2, counter.removed);
+		assertTrue(batch.batches.isEmpty());
+		dg.commit();
+
+		assertEquals(0, batch.single);
+		assertEquals(1, batch.batches.size());
+		GraphBatchEvent e = batch.batches.get(0);
+		assertSame(dg, e.getSource());
+		assertEquals(Arrays.asList(new Object[] { "d", "f" }), e
+				.getAddedVertices());
+		assertEquals(Arrays.asList(new Object[] { cd }), e.getAddedEdges());
+		assertTrue(e.getRemovedVertices().isEmpty());
+		assertEquals(Arrays.asList(new Object[] { ab }), e.getRemovedEdges());
+
+		// Outside of a batch, changes are notified one by one
+		dg.add("g");
+		assertEquals(1, batch.single);
+		assertEquals(1, batch.batches.size());
+	}
+
+	public void testEmptyBatch() throws Exception {
+		BatchListener batch = new BatchListener();
+		dg.addGraphAddVertexListener(batch);
+		dg.beginBatch();
+		dg.add("x");
+		dg.remove("x");
+		dg.commit();
+		assertTrue(batch.batches.isEmpty());
+		try {
+			dg.commit();
+			fail("no batch in progress");
+		} catch (IllegalStateException e) {
+		}
+	}
+
+	public void testRollback() throws Exception {
+		DirectedAcyclicGraphImpl dag = new DirectedAcyclicGraphImpl();
+		dag.addEdge("a", "b");
+		Edge bc = dag.addEdge("b", "c");
+		BatchListener batch = new BatchListener();
+		Counter counter = new Counter();
+		dag.addGraphAddVertexListener(batch);
+		dag.addGraphAddEdgeListener(counter);
+		dag.addGraphRemoveEdgeListener(counter);
+
+		dag.beginBatch();
+		try {
+			dag.removeEdge(bc);
+			dag.addEdge("c", "d");
+			dag.addEdge("d", "a");
+			dag.addEdge("b", "d");
+			dag.addEdge("d", "b");
+			dag.commit();
+			fail("cycle should be rejected");
+		} catch (CycleException e) {
+			dag.rollback();
+		}
+		assertTrue(batch.batches.isEmpty());
+		assertEquals(3, dag.getVerticesCount());
+		assertEquals(2, dag.getEdgesCount());
+		assertSame(bc, dag.getEdge("b", "c"));
+		assertTrue(dag.getOutgoingEdges("c").isEmpty());
+		assertTrue(dag.isConnected("a", "c"));
+		assertEquals(Arrays.asList(new Object[] { "a", "b", "c" }), dag
+				.topologicalSort());
+		// The listener not handling batches saw the changes and their undoing
+		assertEquals(3, counter.added);
+		assertEquals(3, counter.removed);
+	}
+
+	public void testVisualGraph() throws Exception {
+		VisualGraph vg = new VisualGraph(dg);
+		assertEquals(3, vg.getVisualVertices().size());
+		dg.beginBatch();
+		for (int i = 0; i < 10; i++)
+			dg.addEdge("c", "v" + i);
+		dg.remove("a");
+		assertEquals(3, vg.getVisualVertices().size());
+		dg.commit();
+		assertEquals(12, vg.getVisualVertices().size());
+		assertNull(vg.getVisualVertex("a"));
+		assertNotNull(vg.getVisualEdge(bc));
+		assertEquals(11, vg.getVisualEdges().size());
+	}
+}
@@ -0,0 +1,142 @@
+package salvo.jesus.graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+/**
+ * Checks that graphs loaded by a GraphBuilder are the same as graphs built
+ * edge by edge, and that listeners are notified once per batch.
+ *
+ * @author nono
+ * @version $Id$
+ */
+public class GraphBuilderTest extends TestCase {
+
+	private static final String[] EDGES = { "ab", "bc", "be", "cd", "dg",
+			"df", "eh", "fe", "gj", "hj" };
+
+	static class BatchListener implements GraphAddVertexListener,
+			GraphAddEdgeListener, GraphBatchListener {
+		List<GraphBatchEvent> batches = new ArrayList<GraphBatchEvent>();
+
+		int single;
+
+		public void vertexAdded(GraphAddVertexEvent e) {
+			single++;
+		}
+
+		public void edgeAdded(GraphAddEdgeEvent e) {
+			single++;
+		}
+
+		public void batchCommitted(GraphBatchEvent e) {
+			batches.add(e);
+		}
+	}
+
+	static class EdgeCounter implements GraphAddEdgeListener {
+		int edges;
+
+		public void edgeAdded(GraphAddEdgeEvent e) {
+			edges++;
+		}
+	}
+
+	private static String from(int i) {
+		return EDGES[i].substring(0, 1).intern();
+	}
+
+	private static String to(int i) {
+		return EDGES[i].substring(1).intern();
+	}
+
+	public void testUndirected() throws Exception {
+		GraphImpl g = new GraphImpl();
+		BatchListener batch = new BatchListener();
+		EdgeCounter counter = new EdgeCounter();
+		g.add("a");
+		g.addGraphAddVertexListener(batch);
+		g.addGraphAddEdgeListener(batch);
+		g.addGraphAddEdgeListener(counter);
+
+		GraphBuilder<GraphImpl> builder = new GraphBuilder<GraphImpl>(g);
+		builder.addVertices(new Object[] { "a", "z" });
+		for (int i = 0; i < EDGES.length; i++)
+			builder.addEdge(from(i), to(i));
+		assertSame(g, builder.build());
+
+		assertEquals(10, g.getVerticesCount());
+		assertEquals(10, g.getEdgesCount());
+		assertEquals(3, g.getDegree("b"));
+		assertEquals(2, g.getConnectedSet().size());
+		assertTrue(g.isConnected("a", "j"));
+		assertFalse(g.isConnected("a", "z"));
+
+		assertEquals(0, batch.single);
+		assertEquals(1, batch.batches.size());
+		GraphBatchEvent e = batch.batches.get(0);
+		assertEquals(9, e.getAddedVertices().size());
+		assertFalse(e.getAddedVertices().contains("a"));
+		assertEquals(10, e.getAddedEdges().size());
+		assertEquals(10, counter.edges);
+	}
+
+	public void testDirectedSameAsEdgeByEdge() throws Exception {
+		DirectedGraphImpl expected = new DirectedGraphImpl();
+		List<Edge> edges = new ArrayList<Edge>();
+		for (int i = 0; i < EDGES.length; i++)
+			edges.add(expected.addEdge(from(i), to(i)));
+
+		DirectedGraphImpl dg = new GraphBuilder<DirectedGraphImpl>(
+				new DirectedGraphImpl()).addEdges(edges).build();
+		assertEquals(expected.getAllVertices(), dg.getAllVertices());
+		for (Object v : expected.getAllVertices()) {
+			assertEquals(expected.getEdges(v), dg.getEdges(v));
+			assertEquals(expected.getOutgoingEdges(v), dg.getOutgoingEdges(v));
+			assertEquals(expected.getIncomingEdges(v), dg.getIncomingEdges(v));
+		}
+		assertTrue(dg.isPath("a", "j"));
+		assertEquals(1, dg.getConnectedSet().size());
+	}
+
+	public void testWeighted() throws Exception {
+		WeightedGraphImpl wg = new GraphBuilder<WeightedGraphImpl>(
+				new WeightedGraphImpl()).addEdge("a", "b", 4).addEdge("a",
+				"c", 1).addEdge("c", "b", 2).addEdge("b", "d", 5).build();
+		assertEquals("c", wg.getClosest("a"));
+		assertEquals(3, wg.minimumSpanningTree().getEdgesCount());
+	}
+
+	public void testAcyclic() throws Exception {
+		DirectedAcyclicGraphImpl dag = new DirectedAcyclicGraphImpl();
+		dag.addEdge("a", "b");
+		GraphBuilder<DirectedAcyclicGraphImpl> builder = new GraphBuilder<DirectedAcyclicGraphImpl>(
+				dag);
+		builder.addEdge("b", "c").addEdge("c", "d").addEdge("a", "d");
+		builder.build();
+		assertEquals(Arrays.asList(new Object[] { "a", "b", "c", "d" }), dag
+				.topologicalSort());
+
+		// The cycle goes through an edge already in the graph
+		builder.addEdge("d", "e").addEdge("e", "a");
+		try {
+			builder.build();
+			fail("cycle should be rejected");
+		} catch (CycleException e) {
+		}
+		assertEquals(4, dag.getVerticesCount());
+		assertEquals(4, dag.getEdgesCount());
+		assertTrue(dag.getOutgoingEdges("d").isEmpty());
+	}
+
+	public void testRejectsTrees() {
+		try {
+			new GraphBuilder<GraphImpl>(new TreeImpl());
+			fail("trees cannot be bulk loaded");
+		} catch (IllegalArgumentException e) {
+		}
+	}
+}
@@ -0,0 +1,102 @@
+package salvo.jesus.graph;
+
+import junit.framework.TestCase;
+
+/**
+ * Estimates the footprint of graphs, and trims them.
+ *
+ * @author nono
+ * @version $Id$
+ */
+public class GraphMemoryStatsTest extends TestCase {
+
+	public void testEstimates() {
+		assertEquals(16, GraphMemoryStats.sizeOf(new Integer(1000)));
+		assertEquals(32, GraphMemoryStats.sizeOfArray(int.class, 3));
+		assertEquals(24, GraphMemoryStats.sizeOfArray(Object.class, 2));
+		assertEquals(GraphMemoryStats.shallowSizeOf(String.class) + 24,
+				GraphMemoryStats.sizeOf("abc"));
+		assertEquals(GraphMemoryStats.shallowSizeOf(String.class) + 24,
+				GraphMemoryStats.sizeOf("\u4e2d\u6587"));
+		assertEquals(0, GraphMemoryStats.sizeOf(null));
+	}
+
+	private static DirectedGraphImpl load(DirectedGraphImpl graph, int n)
+			throws Exception {
+		GraphBuilder<DirectedGraphImpl> builder = new GraphBuilder<DirectedGraphImpl>(
+				graph);
+		for (int i = 0; i < n; i++)
+			builder.addEdge(new Integer(i), new Integer((i * 7 + 1) % n));
+		return builder.build();
+	}
+
+	public void testDirected() throws Exception {
+		DirectedGraphImpl graph = load(new DirectedGraphImpl(), 1000);
+		GraphMemoryStats stats = GraphMemoryStats.of(graph);
+		String[] structures = { GraphMemoryStats.VERTICES,
+				GraphMemoryStats.VERTEX_INDEX, GraphMemoryStats.ADJACENCY,
+				GraphMemoryStats.EDGES, GraphMemoryStats.EDGE_SET,
+				GraphMemoryStats.CONNECTED_SETS, GraphMemoryStats.SINK_INDEX };
+		long total = 0;
+		for (int i = 0; i < structures.length; i++) {
+			assertTrue(structures[i], stats.getBytes(structures[i]) >= 0);
+			total += stats.getBytes(structures[i]);
+		}
+		assertEquals(total, stats.getTotalBytes());
+		assertEquals(structures.length, stats.toMap().size());
+		assertTrue(stats.getBytes(GraphMemoryStats.EDGES) > 0);
+		assertEquals(0, stats.getBytes(GraphMemoryStats.VISUAL_COMPONENTS));
+		assertTrue(stats.toString().endsWith("total: " + total));
+
+		// 3 lists with room for 10 edges per vertex, holding 4 edges in all
+		long adjacency = stats.getBytes(GraphMemoryStats.ADJACENCY);
+		graph.trimToSize();
+		long trimmed = GraphMemoryStats.of(graph).getBytes(
+				GraphMemoryStats.ADJACENCY);
+		assertTrue(trimmed < adjacency * 2 / 3);
+
+		// the graph still works, and lists grow again
+		graph.addEdge(new Integer(0), new Integer(5));
+		graph.add("new");
+		graph.remove(new Integer(3));
+		assertTrue(graph.isConnected(new Integer(0), new Integer(5)));
+		assertEquals(2, graph.getOutgoingEdges(new Integer(0)).size());
+		assertTrue(GraphMemoryStats.of(graph).getBytes(
+				GraphMemoryStats.ADJACENCY) > trimmed);
+		graph.trimToSize();
+		graph.addEdge("new", new Integer(0));
+		assertTrue(graph.containsEdge("new", new Integer(0)));
+	}
+
+	public void testEmpty() throws Exception {
+		GraphImpl graph = new GraphImpl();
+		graph.trimToSize();
+		graph.add("a");
+		graph.addEdge("a", "b");
+		assertEquals(2, graph.getVerticesCount());
+		graph.remove("a");
+		graph.remove("b");
+		graph.trimToSize();
+		graph.add("c");
+		assertTrue(GraphMemoryStats.of(graph).getTotalBytes() > 0);
+	}
+
+	public void testSubclasses() throws Exception {
+		DirectedAcyclicGraphImpl dag = new DirectedAcyclicGraphImpl();
+		dag.addEdge("a", "b");
+		assertTrue(GraphMemoryStats.of(dag).getBytes(
+				GraphMemoryStats.TOPOLOGICAL_ORDER) > 0);
+
+		TreeImpl tree = new TreeImpl();
+		tree.addNode(null, "root");
+		tree.addNode("root", "leaf");
+		assertEquals(2, tree.getHeight());
+		assertTrue(GraphMemoryStats.of(tree).getBytes(
+				GraphMemoryStats.TREE_INDEX) > 0);
+
+		GraphMemoryStats frozen = GraphMemoryStats.of(load(
+				new DirectedGraphImpl(), 10).freeze());
+		assertTrue(frozen.getBytes(GraphMemoryStats.EDGES) > 0);
+		assertEquals(0, frozen.getBytes(GraphMemoryStats.ADJACENCY));
+	}
+}
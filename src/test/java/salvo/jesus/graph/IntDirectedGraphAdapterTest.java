@@ -0,0 +1,79 @@
+package salvo.jesus.graph;
+
+import salvo.jesus.graph.primitive.IntDirectedGraph;
+import salvo.jesus.graph.primitive.IntDirectedGraphAdapter;
+
+/**
+ * Tests directed graphs stored in an IntDirectedGraph.
+ * 
+ * @author nono
+ * @version $Id$
+ */
+public class IntDirectedGraphAdapterTest extends AbstractGraphTest {
+
+	private IntDirectedGraphAdapter graph;
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		this.graph = new IntDirectedGraphAdapter();
+	}
+
+	@Override
+	Graph getGraph() {
+		return graph;
+	}
+
+	@Override
+	Edge makeEdge(Object from, Object data, Object to) {
+		return new DirectedEdgeImpl(from, to, data);
+	}
+
+	public void testDirectedEdges() throws GraphException {
+		graph.addEdge("toto", "tutu");
+		graph.addEdge("tutu", "titi");
+		graph.addEdge("titi", "tutu");
+		assertEquals(new DirectedEdgeImpl("toto", "tutu"), graph.getEdge(
+				"toto", "tutu"));
+		assertNull(graph.getEdge("tutu", "toto"));
+		assertEquals(2, graph.getIncomingEdges("tutu").size());
+		assertEquals(1, graph.getOutgoingEdges("tutu").size());
+		assertEquals(3, graph.getDegree("tutu"));
+		assertTrue(graph.isPath("toto", "titi"));
+		assertFalse(graph.isPath("titi", "toto"));
+		assertTrue(graph.isCycle("titi"));
+		assertFalse(graph.isCycle("toto"));
+		graph.remove("tutu");
+		assertEquals(0, graph.getEdgesCount());
+		assertEquals(2, graph.getConnectedSet().size());
+	}
+
+	/**
+	 * Edges are only kept as pairs of vertices, so parallel edges are not
+	 * added, but those of an adapted IntDirectedGraph are kept.
+	 */
+	public void testParallelEdges() throws GraphException {
+		graph.addEdge(new DirectedEdgeImpl("a", "b", "x"));
+		graph.addEdge(new DirectedEdgeImpl("a", "b", "y"));
+		assertEquals(1, graph.getEdgesCount());
+		assertEquals(1, graph.getEdges("a", "b").size());
+
+		IntDirectedGraph ints = new IntDirectedGraph();
+		ints.addVertex();
+		ints.addVertex();
+		ints.addEdge(0, 1);
+		ints.addEdge(0, 1);
+		ints.addEdge(1, 1);
+		IntDirectedGraphAdapter adapter = new IntDirectedGraphAdapter(ints);
+		Integer v0 = new Integer(0), v1 = new Integer(1);
+		assertEquals(2, adapter.getEdges(v0, v1).size());
+		adapter.removeEdge(adapter.getEdge(v0, v1));
+		assertTrue(adapter.containsEdge(v0, v1));
+		adapter.addEdge(v0, v1);
+		assertEquals(2, adapter.getEdgesCount());
+		adapter.remove(v1);
+		assertEquals(0, ints.getEdgesCount());
+		adapter.addEdge(v0, new Integer(2));
+		assertFalse(adapter.containsEdge(v0, v1));
+	}
+}
@@ -0,0 +1,82 @@
+package salvo.jesus.graph;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+/**
+ * Checks the persistent map against a HashMap, including keys whose hash
+ * codes collide, and that old versions are not modified.
+ *
+ * @author nono
+ * @version $Id$
+ */
+public class PersistentMapTest extends TestCase {
+
+	/**
+	 * A key whose hash code is chosen by the test.
+	 */
+	static class Key {
+		final int id, hash;
+
+		Key(int id, int hash) {
+			this.id = id;
+			this.hash = hash;
+		}
+
+		public boolean equals(Object o) {
+			return o instanceof Key && ((Key) o).id == id;
+		}
+
+		public int hashCode() {
+			return hash;
+		}
+	}
+
+	public void testAgainstHashMap() {
+		Random random = new Random(7);
+		Map<Key, Integer> expected = new HashMap<Key, Integer>();
+		PersistentMap<Key, Integer> map = PersistentMap.empty();
+
+		for (int i = 0; i < 20000; i++) {
+			int id = random.nextInt(2000);
+			// few distinct hash codes, so that many keys collide
+			Key key = new Key(id, id % 3 == 0 ? id % 50 : id * 31);
+			if (random.nextInt(3) == 0) {
+				expected.remove(key);
+				map = map.without(key);
+			} else {
+				expected.put(key, new Integer(i));
+				map = map.with(key, new Integer(i));
+			}
+			assertEquals(expected.size(), map.size());
+			assertEquals(expected.get(key), map.get(key));
+		}
+		for (Map.Entry<Key, Integer> e : expected.entrySet())
+			assertEquals(e.getValue(), map.get(e.getKey()));
+		List<Integer> values = new ArrayList<Integer>();
+		map.values(values);
+		assertEquals(new HashSet<Integer>(expected.values()),
+				new HashSet<Integer>(values));
+	}
+
+	public void testVersions() {
+		PersistentMap<String, String> empty = PersistentMap.empty();
+		PersistentMap<String, String> one = empty.with("a", "1");
+		PersistentMap<String, String> two = one.with("b", "2").with("a", "3");
+
+		assertNull(empty.get("a"));
+		assertEquals("1", one.get("a"));
+		assertNull(one.get("b"));
+		assertEquals("3", two.get("a"));
+		assertEquals(2, two.size());
+		assertSame(two, two.without("c"));
+		assertEquals(1, two.without("a").size());
+		assertEquals("3", two.get("a"));
+	}
+}
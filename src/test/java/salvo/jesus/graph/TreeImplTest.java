@@ -0,0 +1,156 @@
+package salvo.jesus.graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+/**
+ * Checks the parents, depths and ancestors indexed by TreeImpl against the
+ * structure of the tree, as nodes are added and removed and the root moves.
+ *
+ * @author nono
+ * @version $Id$
+ */
+public class TreeImplTest extends TestCase {
+
+	private static final int NODES = 300;
+
+	private TreeImpl tree;
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		this.tree = new TreeImpl();
+		tree.addNode(null, "a");
+		tree.addNode("a", "b");
+		tree.addNode("a", "c");
+		tree.addNode("b", "d");
+		tree.addNode("b", "e");
+		tree.addNode("d", "f");
+	}
+
+	public void testStructure() throws Exception {
+		assertEquals("a", tree.getRoot());
+		assertNull(tree.getParent("a"));
+		assertEquals("d", tree.getParent("f"));
+		assertEquals(Arrays.asList(new Object[] { "b", "c" }), tree
+				.getChildren("a"));
+		assertEquals(Arrays.asList(new Object[] { "d", "e" }), tree
+				.getChildren("b"));
+		assertTrue(tree.getChildren("f").isEmpty());
+		assertEquals(1, tree.getDepth("a"));
+		assertEquals(4, tree.getDepth("f"));
+		assertEquals(4, tree.getHeight());
+		assertTrue(tree.isPath("f", "c"));
+	}
+
+	public void testAncestors() throws Exception {
+		assertEquals("b", tree.getLowestCommonAncestor("f", "e"));
+		assertEquals("a", tree.getLowestCommonAncestor("f", "c"));
+		assertEquals("d", tree.getLowestCommonAncestor("f", "d"));
+		assertEquals("f", tree.getAncestor("f", 0));
+		assertEquals("a", tree.getAncestor("f", 3));
+		assertNull(tree.getAncestor("f", 4));
+		assertTrue(tree.isAncestor("b", "f"));
+		assertTrue(tree.isAncestor("f", "f"));
+		assertFalse(tree.isAncestor("f", "b"));
+		assertFalse(tree.isAncestor("c", "f"));
+		try {
+			tree.getAncestor("z", 1);
+			fail("z is not in the tree");
+		} catch (NoSuchVertexException e) {
+		}
+	}
+
+	public void testModifications() throws Exception {
+		try {
+			tree.addEdge("f", "c");
+			fail("cycle should be rejected");
+		} catch (CycleException e) {
+		}
+		tree.remove("f");
+		assertEquals(3, tree.getHeight());
+		assertTrue(tree.getChildren("d").isEmpty());
+
+		tree.setRoot("d");
+		assertEquals(Arrays.asList(new Object[] { "b" }), tree
+				.getChildren("d"));
+		assertEquals("d", tree.getParent("b"));
+		assertEquals(4, tree.getDepth("c"));
+		assertEquals("b", tree.getLowestCommonAncestor("c", "e"));
+
+		// Splitting the tree leaves c out of reach of the root
+		tree.removeEdge((Edge) tree.getEdges("c").get(0));
+		assertNull(tree.getParent("c"));
+		assertNull(tree.getLowestCommonAncestor("c", "e"));
+		tree.addEdge("e", "c");
+		assertEquals("e", tree.getParent("c"));
+		assertEquals(4, tree.getDepth("c"));
+	}
+
+	/**
+	 * Builds a random tree, removes some of its leaves, and compares the
+	 * ancestors found by the index with those found by walking up parents.
+	 */
+	public void testRandom() throws Exception {
+		Random random = new Random(5);
+		TreeImpl tree = new TreeImpl();
+		List<Integer> nodes = new ArrayList<Integer>();
+		Integer[] parents = new Integer[NODES];
+
+		tree.addNode(null, new Integer(0));
+		nodes.add(new Integer(0));
+		for (int i = 1; i < NODES; i++) {
+			Integer parent = nodes.get(random.nextInt(nodes.size()));
+			// Mostly deep paths, so that there are many levels
+			if (random.nextInt(4) != 0)
+				parent = nodes.get(nodes.size() - 1);
+			Integer node = new Integer(i);
+			tree.addNode(parent, node);
+			parents[i] = parent;
+			nodes.add(node);
+		}
+		for (int i = 0; i < NODES / 10; i++) {
+			Integer node = nodes.get(random.nextInt(nodes.size()));
+			if (node.intValue() != 0 && tree.isLeaf(node)) {
+				tree.remove(node);
+				nodes.remove(node);
+			}
+		}
+
+		for (Integer node : nodes) {
+			assertEquals(parents[node.intValue()], tree.getParent(node));
+			assertEquals(path(parents, node).size(), tree.getDepth(node));
+		}
+		for (int i = 0; i < 500; i++) {
+			Integer node1 = nodes.get(random.nextInt(nodes.size()));
+			Integer node2 = nodes.get(random.nextInt(nodes.size()));
+			List<Integer> path1 = path(parents, node1);
+			List<Integer> path2 = path(parents, node2);
+			Object lca = null;
+			for (Integer ancestor : path1)
+				if (path2.contains(ancestor)) {
+					lca = ancestor;
+					break;
+				}
+			assertEquals(lca, tree.getLowestCommonAncestor(node1, node2));
+			assertEquals(path1.contains(node2), tree.isAncestor(node2, node1));
+			int distance = random.nextInt(path1.size() + 1);
+			assertEquals(distance < path1.size() ? path1.get(distance) : null,
+					tree.getAncestor(node1, distance));
+		}
+	}
+
+	/**
+	 * Returns the nodes from a node up to the root.
+	 */
+	private static List<Integer> path(Integer[] parents, Integer node) {
+		List<Integer> path = new ArrayList<Integer>();
+		for (; node != null; node = parents[node.intValue()])
+			path.add(node);
+		return path;
+	}
+}
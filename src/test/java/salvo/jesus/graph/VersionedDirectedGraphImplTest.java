@@ -0,0 +1,224 @@
+package salvo.jesus.graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Tests the versioned directed graph implementation and its snapshots.
+ *
+ * @author nono
+ * @version $Id$
+ */
+public class VersionedDirectedGraphImplTest extends AbstractGraphTest {
+
+	private VersionedDirectedGraphImpl graph;
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		this.graph = new VersionedDirectedGraphImpl();
+	}
+
+	@Override
+	Graph getGraph() {
+		return graph;
+	}
+
+	@Override
+	Edge makeEdge(Object from, Object data, Object to) {
+		return new DirectedEdgeImpl(from, to, data);
+	}
+
+	public void testSnapshot() throws Exception {
+		Edge ab = graph.addEdge("a", "b");
+		graph.addEdge("b", "c");
+		DirectedGraph snapshot = graph.snapshot();
+
+		graph.removeEdge(ab);
+		graph.remove("c");
+		graph.addEdge("c", "d");
+
+		assertEquals(Arrays.asList(new Object[] { "a", "b", "c" }), snapshot
+				.getAllVertices());
+		// the order computed once per version is not shared with callers
+		snapshot.getAllVertices().clear();
+		assertEquals(Arrays.asList(new Object[] { "a", "b", "c" }), snapshot
+				.getAllVertices());
+		assertEquals(2, snapshot.getEdgesCount());
+		assertSame(ab, snapshot.getEdge("a", "b"));
+		assertTrue(snapshot.isPath("a", "c"));
+		assertEquals(1, snapshot.getConnectedSet().size());
+
+		assertEquals(Arrays.asList(new Object[] { "a", "b", "c", "d" }),
+				graph.getAllVertices());
+		assertEquals(1, graph.getEdgesCount());
+		assertEquals(3, graph.getConnectedSet().size());
+		assertTrue(graph.getIncomingEdges("b").isEmpty());
+
+		try {
+			snapshot.addEdge("c", "a");
+			fail("snapshots are read-only");
+		} catch (GraphModificationException e) {
+		}
+		assertTrue(((VersionedDirectedGraphImpl) snapshot).isSnapshot());
+		assertFalse(graph.isSnapshot());
+	}
+
+	/**
+	 * Other threads see the changes of a batch only once it is committed,
+	 * and rolled back batches leave the graph as it was.
+	 */
+	public void testBatch() throws Exception {
+		final Edge ab = graph.addEdge("a", "b");
+		GraphBatchTest.BatchListener listener = new GraphBatchTest.BatchListener();
+		final List<Throwable> failures = Collections
+				.synchronizedList(new ArrayList<Throwable>());
+		graph.addGraphAddVertexListener(listener);
+		graph.addGraphRemoveEdgeListener(listener);
+
+		graph.beginBatch();
+		Edge cd = graph.addEdge("c", "d");
+		graph.removeEdge(ab);
+		assertEquals(4, graph.getVerticesCount());
+		assertNull(graph.getEdge("a", "b"));
+		Thread reader = new Thread() {
+			public void run() {
+				try {
+					assertEquals(2, graph.getVerticesCount());
+					assertSame(ab, graph.getEdge("a", "b"));
+				} catch (Throwable e) {
+					failures.add(e);
+				}
+			}
+		};
+		reader.start();
+		reader.join();
+		if (!failures.isEmpty())
+			throw new AssertionError(failures.get(0));
+		graph.commit();
+		assertEquals(0, listener.single);
+		assertEquals(1, listener.batches.size());
+		GraphBatchEvent e = listener.batches.get(0);
+		assertEquals(Arrays.asList(new Object[] { "c", "d" }), e
+				.getAddedVertices());
+		assertEquals(Arrays.asList(new Object[] { cd }), e.getAddedEdges());
+		assertEquals(Arrays.asList(new Object[] { ab }), e.getRemovedEdges());
+
+		graph.beginBatch();
+		try {
+			graph.beginBatch();
+			fail("batches do not nest");
+		} catch (IllegalStateException ise) {
+		}
+		graph.remove("a");
+		graph.addEdge("d", "e");
+		graph.rollback();
+		assertEquals(1, listener.batches.size());
+		assertEquals(Arrays.asList(new Object[] { "a", "b", "c", "d" }),
+				graph.getAllVertices());
+		assertSame(cd, graph.getEdge("c", "d"));
+		assertEquals(1, graph.getEdgesCount());
+		try {
+			graph.rollback();
+			fail("no batch in progress");
+		} catch (IllegalStateException ise) {
+		}
+	}
+
+	/**
+	 * A snapshot taken during a rolled back batch shares the arrays of the
+	 * published edge Lists, which must not be written again.
+	 */
+	public void testSnapshotOfRolledBackBatch() throws Exception {
+		Edge ab = graph.addEdge("a", "b");
+		graph.beginBatch();
+		Edge ac = graph.addEdge("a", "c");
+		DirectedGraph snapshot = graph.snapshot();
+		graph.rollback();
+		Edge ad = graph.addEdge("a", "d");
+
+		assertEquals(Arrays.asList(new Object[] { ab, ac }), snapshot
+				.getOutgoingEdges("a"));
+		assertEquals(Arrays.asList(new Object[] { ab, ad }), graph
+				.getOutgoingEdges("a"));
+	}
+
+	public void testLoops() throws Exception {
+		graph.addEdge("a", "a");
+		graph.addEdge("a", "b");
+		assertTrue(graph.isCycle("a"));
+		assertEquals(3, graph.getDegree("a"));
+		graph.remove("a");
+		assertEquals(0, graph.getEdgesCount());
+		assertTrue(graph.getIncomingEdges("b").isEmpty());
+	}
+
+	/**
+	 * A writer modifies the graph while a reader checks that each snapshot
+	 * it takes is consistent: counts agree with the edges of every vertex
+	 * and every edge is on both of its vertices.
+	 */
+	public void testSnapshotsDuringWrites() throws Exception {
+		final Integer[] vertices = new Integer[30];
+		for (int i = 0; i < vertices.length; i++)
+			vertices[i] = new Integer(i);
+		final List<Throwable> failures = Collections
+				.synchronizedList(new ArrayList<Throwable>());
+		Thread writer = new Thread() {
+			public void run() {
+				Random random = new Random(1);
+				try {
+					for (int i = 0; i < 30000; i++) {
+						Integer from = vertices[random.nextInt(vertices.length)];
+						Integer to = vertices[random.nextInt(vertices.length)];
+						int op = random.nextInt(100);
+						if (op < 55)
+							graph.addEdge(new DirectedEdgeImpl(from, to, from
+									+ "-" + to));
+						else if (op < 97) {
+							DirectedEdge edge = graph.getEdge(from, to);
+							if (edge != null)
+								graph.removeEdge(edge);
+						} else
+							graph.remove(from);
+					}
+				} catch (Throwable e) {
+					failures.add(e);
+				}
+			}
+		};
+		writer.start();
+		int snapshots = 0;
+		while (writer.isAlive() || snapshots == 0) {
+			checkConsistent(graph.snapshot());
+			snapshots++;
+		}
+		writer.join();
+		if (!failures.isEmpty())
+			throw new AssertionError(failures.get(0));
+		checkConsistent(graph);
+	}
+
+	private void checkConsistent(DirectedGraph g) {
+		List vertices = g.getAllVertices();
+		int outgoing = 0, incoming = 0;
+
+		assertEquals(vertices.size(), g.getVerticesCount());
+		for (Object v : vertices) {
+			for (DirectedEdge edge : g.getOutgoingEdges(v)) {
+				assertEquals(v, edge.getSource());
+				assertTrue(g.getIncomingEdges(edge.getSink()).contains(edge));
+				outgoing++;
+			}
+			for (DirectedEdge edge : g.getIncomingEdges(v)) {
+				assertEquals(v, edge.getSink());
+				incoming++;
+			}
+		}
+		assertEquals(g.getEdgesCount(), outgoing);
+		assertEquals(g.getEdgesCount(), incoming);
+	}
+}
@@ -0,0 +1,171 @@
+package salvo.jesus.graph.algorithm;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.util.Arrays;
+import java.util.Random;
+
+import junit.framework.TestCase;
+import salvo.jesus.graph.DirectedGraphImpl;
+import salvo.jesus.graph.DirectedWeightedEdgeImpl;
+import salvo.jesus.graph.FrozenDirectedGraph;
+import salvo.jesus.graph.FrozenGraph;
+import salvo.jesus.graph.GraphException;
+import salvo.jesus.graph.GraphImpl;
+import salvo.jesus.graph.generate.EdgeSink;
+import salvo.jesus.graph.generate.GnmGenerator;
+import salvo.jesus.graph.generate.GraphGenerator;
+import salvo.jesus.graph.generate.RandomDagGenerator;
+
+/**
+ * Checks the distances found by AllPairsShortestPaths against
+ * Floyd-Warshall's algorithm.
+ *
+ * @author nono
+ * @version $Id$
+ */
+public class AllPairsShortestPathsTest extends TestCase {
+
+	/**
+	 * Generates a directed graph with random weights between <tt>min</tt>
+	 * included and <tt>max</tt> excluded.
+	 */
+	private static DirectedGraphImpl directed(GraphGenerator generator,
+			final int min, final int max, final long seed) throws Exception {
+		final DirectedGraphImpl graph = new DirectedGraphImpl();
+		generator.generate(new EdgeSink() {
+			Random random = new Random(seed);
+
+			Integer[] vertices;
+
+			public void vertices(int count) throws GraphException {
+				vertices = new Integer[count];
+				for (int i = 0; i < count; i++)
+					graph.add(vertices[i] = new Integer(i));
+			}
+
+			public void edge(int source, int target) throws GraphException {
+				graph.addEdge(new DirectedWeightedEdgeImpl(vertices[source],
+						vertices[target], min + random.nextInt(max - min)));
+			}
+		});
+		return graph;
+	}
+
+	private static double[][] floydWarshall(FrozenGraph graph) {
+		int n = graph.getVerticesCount();
+		double[][] dist = new double[n][n];
+		for (int i = 0; i < n; i++) {
+			Arrays.fill(dist[i], Double.POSITIVE_INFINITY);
+			dist[i][i] = 0;
+			for (int e = graph.getOutgoingStart(i); e < graph.getOutgoingEnd(i); e++) {
+				int j = graph.getOutgoingTarget(e);
+				dist[i][j] = Math.min(dist[i][j], graph.getOutgoingWeight(e));
+			}
+		}
+		for (int k = 0; k < n; k++)
+			for (int i = 0; i < n; i++)
+				for (int j = 0; j < n; j++)
+					if (dist[i][k] + dist[k][j] < dist[i][j])
+						dist[i][j] = dist[i][k] + dist[k][j];
+		return dist;
+	}
+
+	private static void check(FrozenGraph graph) {
+		double[][] expected = floydWarshall(graph);
+		AllPairsShortestPaths paths = new AllPairsShortestPaths(graph);
+		for (int threads = 1; threads <= 4; threads += 3) {
+			paths.setThreads(threads);
+			double[][] actual = paths.toMatrix();
+			for (int i = 0; i < expected.length; i++)
+				for (int j = 0; j < expected.length; j++)
+					assertEquals(expected[i][j], actual[i][j], 1e-9);
+		}
+	}
+
+	public void testDirected() throws Exception {
+		check(directed(new GnmGenerator(120, 500, true, 1), 0, 20, 1).freeze());
+	}
+
+	public void testUnweighted() throws Exception {
+		GraphImpl graph = new GnmGenerator(150, 250, false, 2)
+				.generate(new GraphImpl());
+		FrozenGraph frozen = graph.freeze();
+		assertFalse(frozen.isWeighted());
+		check(frozen);
+	}
+
+	public void testNegativeWeights() throws Exception {
+		check(directed(new RandomDagGenerator(100, 0.1, 3), -10, 10, 3)
+				.freeze());
+	}
+
+	public void testInfiniteWeight() throws Exception {
+		check(DijkstraEngineTest.infiniteWeights());
+	}
+
+	public void testNegativeCycle() throws Exception {
+		DirectedGraphImpl graph = new DirectedGraphImpl();
+		graph.addEdge(new DirectedWeightedEdgeImpl("a", "b", 2));
+		graph.addEdge(new DirectedWeightedEdgeImpl("b", "c", -1));
+		graph.addEdge(new DirectedWeightedEdgeImpl("c", "a", -2));
+		try {
+			new AllPairsShortestPaths(graph.freeze());
+			fail();
+		} catch (IllegalArgumentException e) {
+		}
+	}
+
+	public void testWrite() throws Exception {
+		FrozenGraph graph = directed(new GnmGenerator(80, 300, true, 4), 1,
+				10, 4).freeze();
+		AllPairsShortestPaths paths = new AllPairsShortestPaths(graph);
+		double[][] expected = paths.toMatrix();
+		File file = File.createTempFile("distances", ".bin");
+		try {
+			paths.write(file);
+			assertEquals(8L * 80 * 80, file.length());
+			DataInputStream input = new DataInputStream(
+					new BufferedInputStream(new FileInputStream(file)));
+			try {
+				for (int i = 0; i < 80; i++)
+					for (int j = 0; j < 80; j++)
+						assertEquals(expected[i][j], input.readDouble(), 0);
+			} finally {
+				input.close();
+			}
+		} finally {
+			file.delete();
+		}
+	}
+
+	/**
+	 * Checks that streamed eccentricities are those of Floyd-Warshall's
+	 * algorithm on an adjacency matrix, the distance of a vertex to itself
+	 * being the length of the shortest cycle through it. Edges weigh 1, as in
+	 * the matrix.
+	 */
+	public void testDistance() throws Exception {
+		DirectedGraphImpl graph = directed(new GnmGenerator(60, 150, true, 5),
+				1, 2, 5);
+		Distance matrix = new Distance(new DirectedGraphAdjacencyMatrix(graph));
+		FrozenDirectedGraph frozen = graph.freeze();
+		Distance streamed = new Distance(frozen);
+
+		for (int i = 0; i < 60; i++) {
+			Object v = frozen.getVertex(i);
+			assertEquals(matrix.eccentricity(v), streamed.eccentricity(v), 0);
+		}
+		assertEquals(matrix.diameter(), streamed.diameter(), 0);
+		assertEquals(matrix.radius(), streamed.radius(), 0);
+		assertEquals(matrix.center(), streamed.center());
+		assertEquals(matrix.border(), streamed.border());
+		double[][] expected = matrix.distances();
+		double[][] actual = streamed.distances();
+		for (int i = 0; i < 60; i++)
+			for (int j = 0; j < 60; j++)
+				assertEquals(expected[i][j], actual[i][j], 0);
+	}
+}
@@ -0,0 +1,157 @@
+package salvo.jesus.graph.algorithm;
+
+import java.util.Iterator;
+import java.util.Random;
+
+import junit.framework.TestCase;
+import salvo.jesus.graph.DirectedGraphImpl;
+import salvo.jesus.graph.DirectedWeightedEdgeImpl;
+import salvo.jesus.graph.FrozenGraph;
+import salvo.jesus.graph.GraphException;
+import salvo.jesus.graph.Path;
+import salvo.jesus.graph.WeightedEdge;
+import salvo.jesus.graph.WeightedGraphImpl;
+import salvo.jesus.graph.generate.EdgeSink;
+import salvo.jesus.graph.generate.GnmGenerator;
+import salvo.jesus.graph.generate.GridGenerator;
+
+/**
+ * Checks the distances and paths found by bidirectional Dijkstra and A*
+ * searches against a DijkstraEngine.
+ *
+ * @author nono
+ * @version $Id$
+ */
+public class BidirectionalDijkstraEngineTest extends TestCase {
+
+	/**
+	 * Checks that a path goes from one vertex to the other, and weighs their
+	 * distance.
+	 */
+	private static void checkPath(Path path, Object from, Object to,
+			double distance) {
+		assertSame(from, path.getFirstVertex());
+		assertSame(to, path.getLastVertex());
+		double weight = 0;
+		for (Iterator i = path.getAllEdges().iterator(); i.hasNext();)
+			weight += ((WeightedEdge) i.next()).getWeight();
+		assertEquals(distance, weight, 1e-9);
+	}
+
+	private static void check(FrozenGraph graph, AStarHeuristic heuristic,
+			long seed) {
+		DijkstraEngine reference = new DijkstraEngine(graph);
+		BidirectionalDijkstraEngine engine = new BidirectionalDijkstraEngine(
+				graph, heuristic);
+		Random random = new Random(seed);
+		int n = graph.getVerticesCount();
+		for (int i = 0; i < 200; i++) {
+			Object from = graph.getVertex(random.nextInt(n));
+			Object to = graph.getVertex(random.nextInt(n));
+			double expected = reference.distance(from, to);
+			assertEquals(expected, engine.distance(from, to), 1e-9);
+			Path path = engine.shortestPath(from, to);
+			if (expected == Double.POSITIVE_INFINITY)
+				assertNull(path);
+			else
+				checkPath(path, from, to, expected);
+		}
+	}
+
+	public void testUndirected() throws Exception {
+		WeightedGraphImpl graph = new GnmGenerator(400, 700, false, 1)
+				.generate(new WeightedGraphImpl());
+		Random random = new Random(1);
+		for (Iterator i = graph.getAllEdges().iterator(); i.hasNext();)
+			((WeightedEdge) i.next()).setWeight(random.nextInt(20));
+		check(graph.freeze(), null, 1);
+	}
+
+	public void testDirected() throws Exception {
+		final DirectedGraphImpl graph = new DirectedGraphImpl();
+		final Random random = new Random(2);
+		new GnmGenerator(400, 1600, true, 2).generate(new EdgeSink() {
+			Integer[] vertices;
+
+			public void vertices(int count) throws GraphException {
+				vertices = new Integer[count];
+				for (int i = 0; i < count; i++)
+					graph.add(vertices[i] = new Integer(i));
+			}
+
+			public void edge(int source, int target) throws GraphException {
+				graph.addEdge(new DirectedWeightedEdgeImpl(vertices[source],
+						vertices[target], 1 + random.nextInt(20)));
+			}
+		});
+		check(graph.freeze(), null, 2);
+	}
+
+	/**
+	 * Searches a grid whose edges weigh at least the distance between their
+	 * vertices: A* finds the same distances as Dijkstra, settling fewer
+	 * vertices.
+	 */
+	public void testAStar() throws Exception {
+		int size = 60;
+		WeightedGraphImpl graph = new GridGenerator(size, size, false)
+				.generate(new WeightedGraphImpl());
+		Random random = new Random(3);
+		for (Iterator i = graph.getAllEdges().iterator(); i.hasNext();)
+			((WeightedEdge) i.next()).setWeight(1 + random.nextDouble());
+		FrozenGraph frozen = graph.freeze();
+		double[] x = new double[size * size];
+		double[] y = new double[size * size];
+		for (int id = 0; id < x.length; id++) {
+			int v = ((Integer) frozen.getVertex(id)).intValue();
+			x[id] = v % size;
+			y[id] = v / size;
+		}
+		EuclideanHeuristic heuristic = new EuclideanHeuristic(x, y, 1);
+		check(frozen, heuristic, 3);
+
+		BidirectionalDijkstraEngine dijkstra = new BidirectionalDijkstraEngine(
+				frozen);
+		BidirectionalDijkstraEngine astar = new BidirectionalDijkstraEngine(
+				frozen, heuristic);
+		Object from = frozen.getVertex(0);
+		Object to = frozen.getVertex(size * size - 1);
+		assertEquals(dijkstra.distance(from, to), astar.distance(from, to),
+				1e-9);
+		assertTrue(astar.getSettledCount() < dijkstra.getSettledCount());
+	}
+
+	public void testWeightedGraph() throws Exception {
+		WeightedGraphImpl graph = new WeightedGraphImpl();
+		graph.addEdge("a", "b", 4);
+		graph.addEdge("a", "c", 1);
+		graph.addEdge("c", "b", 2);
+		graph.addEdge("b", "d", 5);
+		graph.add("e");
+
+		Path path = graph.shortestPath("d", "a");
+		checkPath(path, "d", "a", 8);
+		assertEquals("d->b->c->a", path.toString());
+		assertEquals("a", graph.shortestPath("a", "a").toString());
+		assertNull(graph.shortestPath("a", "e"));
+		checkPath(graph.freeze().shortestPath("a", "d"), "a", "d", 8);
+
+		// the graph kept for queries follows changes
+		graph.addEdge("d", "e", 1);
+		checkPath(graph.shortestPath("a", "e"), "a", "e", 9);
+		((WeightedEdge) graph.getEdges("c").get(1)).setWeight(4);
+		checkPath(graph.shortestPath("d", "a"), "d", "a", 9);
+		assertEquals("d->b->a", graph.shortestPath("d", "a").toString());
+		graph.remove("d");
+		assertNull(graph.shortestPath("a", "e"));
+	}
+
+	public void testInfiniteWeight() throws Exception {
+		FrozenGraph graph = DijkstraEngineTest.infiniteWeights();
+		BidirectionalDijkstraEngine engine = new BidirectionalDijkstraEngine(
+				graph);
+		checkPath(engine.shortestPath("a", "b"), "a", "b", 2);
+		assertNull(engine.shortestPath("a", "d"));
+		assertNull(engine.shortestPath("c", "d"));
+	}
+}
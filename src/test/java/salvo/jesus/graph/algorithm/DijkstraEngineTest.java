@@ -0,0 +1,198 @@
+package salvo.jesus.graph.algorithm;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import junit.framework.TestCase;
+import salvo.jesus.graph.DirectedGraphImpl;
+import salvo.jesus.graph.DirectedWeightedEdgeImpl;
+import salvo.jesus.graph.Edge;
+import salvo.jesus.graph.FrozenGraph;
+import salvo.jesus.graph.GraphException;
+import salvo.jesus.graph.WeightedEdge;
+import salvo.jesus.graph.WeightedGraph;
+import salvo.jesus.graph.WeightedGraphImpl;
+import salvo.jesus.graph.generate.EdgeSink;
+import salvo.jesus.graph.generate.GnmGenerator;
+
+/**
+ * Checks the distances and paths found by a DijkstraEngine against
+ * Bellman-Ford's algorithm on random graphs.
+ *
+ * @author nono
+ * @version $Id$
+ */
+public class DijkstraEngineTest extends TestCase {
+
+	private static WeightedGraphImpl undirected(int n, long m, long seed)
+			throws Exception {
+		WeightedGraphImpl graph = new GnmGenerator(n, m, false, seed)
+				.generate(new WeightedGraphImpl());
+		Random random = new Random(seed);
+		for (Iterator i = graph.getAllEdges().iterator(); i.hasNext();)
+			((WeightedEdge) i.next()).setWeight(random.nextInt(20));
+		return graph;
+	}
+
+	private static DirectedGraphImpl directed(int n, long m, final long seed)
+			throws Exception {
+		final DirectedGraphImpl graph = new DirectedGraphImpl();
+		new GnmGenerator(n, m, true, seed).generate(new EdgeSink() {
+			Random random = new Random(seed);
+
+			Integer[] vertices;
+
+			public void vertices(int count) throws GraphException {
+				vertices = new Integer[count];
+				for (int i = 0; i < count; i++)
+					graph.add(vertices[i] = new Integer(i));
+			}
+
+			public void edge(int source, int target) throws GraphException {
+				graph.addEdge(new DirectedWeightedEdgeImpl(vertices[source],
+						vertices[target], 1 + random.nextInt(20)));
+			}
+		});
+		return graph;
+	}
+
+	/**
+	 * Returns the distances from a vertex id by Bellman-Ford's algorithm.
+	 */
+	private static double[] bellmanFord(FrozenGraph graph, int source) {
+		int n = graph.getVerticesCount();
+		double[] dist = new double[n];
+		Arrays.fill(dist, Double.POSITIVE_INFINITY);
+		dist[source] = 0;
+		for (boolean changed = true; changed;) {
+			changed = false;
+			for (int v = 0; v < n; v++)
+				for (int e = graph.getOutgoingStart(v); e < graph
+						.getOutgoingEnd(v); e++) {
+					int w = graph.getOutgoingTarget(e);
+					if (dist[v] + graph.getOutgoingWeight(e) < dist[w]) {
+						dist[w] = dist[v] + graph.getOutgoingWeight(e);
+						changed = true;
+					}
+				}
+		}
+		return dist;
+	}
+
+	private static void check(FrozenGraph graph, ShortestPathTree tree,
+			int source) {
+		double[] expected = bellmanFord(graph, source);
+		int reached = 0;
+		for (int v = 0; v < expected.length; v++) {
+			Object vertex = graph.getVertex(v);
+			assertEquals(expected[v], tree.distanceTo(vertex), 0);
+			List path = tree.pathTo(vertex);
+			if (expected[v] == Double.POSITIVE_INFINITY) {
+				assertNull(path);
+				continue;
+			}
+			reached++;
+			// the path goes from the source to the vertex, and weighs its
+			// distance
+			Object at = graph.getVertex(source);
+			double weight = 0;
+			for (Iterator i = path.iterator(); i.hasNext();) {
+				WeightedEdge edge = (WeightedEdge) i.next();
+				at = edge.getOppositeVertex(at);
+				weight += edge.getWeight();
+			}
+			assertSame(vertex, at);
+			assertEquals(expected[v], weight, 0);
+		}
+		assertEquals(reached, tree.getReachedCount());
+	}
+
+	public void testUndirected() throws Exception {
+		FrozenGraph graph = undirected(300, 600, 1).freeze();
+		DijkstraEngine engine = new DijkstraEngine(graph);
+		for (int source = 0; source < 300; source += 37)
+			check(graph, engine.shortestPaths(graph.getVertex(source)),
+					source);
+	}
+
+	public void testDirected() throws Exception {
+		FrozenGraph graph = directed(300, 900, 2).freeze();
+		for (int arity = 2; arity <= 8; arity *= 2) {
+			DijkstraEngine engine = new DijkstraEngine(graph, arity);
+			for (int source = 0; source < 300; source += 41)
+				check(graph, engine.shortestPaths(source), source);
+		}
+	}
+
+	public void testTarget() throws Exception {
+		FrozenGraph graph = directed(500, 2000, 3).freeze();
+		DijkstraEngine engine = new DijkstraEngine(graph);
+		double[] expected = bellmanFord(graph, 0);
+		for (int v = 0; v < 500; v++) {
+			Object source = graph.getVertex(0);
+			Object target = graph.getVertex(v);
+			assertEquals(expected[v], engine.distance(source, target), 0);
+			ShortestPathTree tree = engine.shortestPath(source, target);
+			assertEquals(expected[v], tree.distanceTo(target), 0);
+			// vertices not settled before the target are not in the tree
+			for (int w = 0; w < 500; w++)
+				if (tree.hasPathTo(graph.getVertex(w)))
+					assertEquals(expected[w], tree.distanceTo(w), 0);
+				else
+					assertTrue(expected[w] >= expected[v]);
+		}
+	}
+
+	public void testWeightedGraph() throws Exception {
+		WeightedGraphImpl graph = undirected(100, 150, 4);
+		Object source = graph.getAllVertices().get(0);
+		WeightedGraph tree = graph.shortestPath(source);
+		ShortestPathTree paths = new DijkstraEngine(graph.freeze())
+				.shortestPaths(source);
+
+		assertEquals(paths.getReachedCount() - 1, tree.getEdgesCount());
+		for (Iterator i = graph.getVerticesIterator(); i.hasNext();) {
+			Object v = i.next();
+			Edge edge = paths.getEdgeTo(v);
+			if (edge != null)
+				assertTrue(tree.getAllEdges().contains(edge));
+		}
+	}
+
+	public void testNegativeWeight() throws Exception {
+		WeightedGraphImpl graph = new WeightedGraphImpl();
+		graph.addEdge("a", "b", -1);
+		try {
+			new DijkstraEngine(graph.freeze());
+			fail();
+		} catch (IllegalArgumentException e) {
+		}
+	}
+
+	/**
+	 * Returns a graph where b is first reached through an edge of infinite
+	 * weight, and d only through such an edge.
+	 */
+	static FrozenGraph infiniteWeights() throws Exception {
+		DirectedGraphImpl graph = new DirectedGraphImpl();
+		graph.addEdge(new DirectedWeightedEdgeImpl("a", "b",
+				Double.POSITIVE_INFINITY));
+		graph.addEdge(new DirectedWeightedEdgeImpl("a", "c", 1));
+		graph.addEdge(new DirectedWeightedEdgeImpl("c", "b", 1));
+		graph.addEdge(new DirectedWeightedEdgeImpl("b", "d",
+				Double.POSITIVE_INFINITY));
+		return graph.freeze();
+	}
+
+	public void testInfiniteWeight() throws Exception {
+		DijkstraEngine engine = new DijkstraEngine(infiniteWeights());
+		ShortestPathTree tree = engine.shortestPaths("a");
+		assertEquals(2, tree.distanceTo("b"), 0);
+		assertEquals(2, tree.pathTo("b").size());
+		assertFalse(tree.hasPathTo("d"));
+		assertEquals(3, tree.getReachedCount());
+		assertEquals(Double.POSITIVE_INFINITY, engine.distance("a", "d"), 0);
+	}
+}
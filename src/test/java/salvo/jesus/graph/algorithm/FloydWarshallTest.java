@@ -0,0 +1,97 @@
+package salvo.jesus.graph.algorithm;
+
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+/**
+ * Checks the blocked kernels of FloydWarshall against the plain triple loops,
+ * on sizes that are not multiples of the tiles.
+ *
+ * @author nono
+ * @version $Id$
+ */
+public class FloydWarshallTest extends TestCase {
+
+	private static final int[] SIZES = { 0, 1, 63, 64, 130, 200 };
+
+	/**
+	 * Returns a random matrix where about one weight in <tt>sparsity</tt> is
+	 * finite. Weights are shifted by the difference of random potentials of
+	 * their ends, so that some are negative but no cycle is.
+	 */
+	private static double[] weights(int n, int sparsity, Random random) {
+		double[] d = new double[n * n];
+		int[] potential = new int[n];
+		for (int i = 0; i < n; i++)
+			potential[i] = random.nextInt(50);
+		for (int i = 0; i < n; i++)
+			for (int j = 0; j < n; j++)
+				d[i * n + j] = random.nextInt(sparsity) != 0 ? Double.POSITIVE_INFINITY
+						: random.nextInt(100) + potential[i] - potential[j];
+		return d;
+	}
+
+	private static double[] naive(double[] weights, int n) {
+		double[] d = (double[]) weights.clone();
+		for (int k = 0; k < n; k++)
+			for (int i = 0; i < n; i++)
+				for (int j = 0; j < n; j++)
+					if (d[i * n + k] + d[k * n + j] < d[i * n + j])
+						d[i * n + j] = d[i * n + k] + d[k * n + j];
+		return d;
+	}
+
+	public void testShortestPaths() {
+		Random random = new Random(1);
+		for (int s = 0; s < SIZES.length; s++) {
+			int n = SIZES[s];
+			for (int sparsity = 2; sparsity <= 20; sparsity *= 10) {
+				double[] weights = weights(n, sparsity, random);
+				double[] expected = naive(weights, n);
+				for (int threads = 1; threads <= 3; threads += 2) {
+					double[] d = (double[]) weights.clone();
+					FloydWarshall.shortestPaths(d, n, threads);
+					for (int i = 0; i < d.length; i++)
+						assertEquals(expected[i], d[i], 0);
+				}
+			}
+		}
+	}
+
+	public void testTransitiveClosure() {
+		Random random = new Random(2);
+		for (int s = 0; s < SIZES.length; s++) {
+			int n = SIZES[s];
+			int words = FloydWarshall.words(n);
+			boolean[][] expected = new boolean[n][n];
+			long[] bits = new long[n * words];
+			for (int i = 0; i < n; i++)
+				for (int j = 0; j < n; j++)
+					if (random.nextInt(2 * n) == 0) {
+						expected[i][j] = true;
+						bits[i * words + (j >>> 6)] |= 1L << j;
+					}
+			for (int k = 0; k < n; k++)
+				for (int i = 0; i < n; i++)
+					for (int j = 0; j < n; j++)
+						expected[i][j] |= expected[i][k] && expected[k][j];
+			for (int threads = 1; threads <= 3; threads += 2) {
+				long[] closure = (long[]) bits.clone();
+				FloydWarshall.transitiveClosure(closure, n, threads);
+				for (int i = 0; i < n; i++)
+					for (int j = 0; j < n; j++)
+						assertEquals(expected[i][j],
+								(closure[i * words + (j >>> 6)] & 1L << j) != 0);
+			}
+		}
+	}
+
+	public void testSize() {
+		try {
+			FloydWarshall.shortestPaths(new double[3], 2, 1);
+			fail();
+		} catch (IllegalArgumentException e) {
+		}
+	}
+}
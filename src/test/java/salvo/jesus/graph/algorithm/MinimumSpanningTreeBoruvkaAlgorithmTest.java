@@ -0,0 +1,71 @@
+package salvo.jesus.graph.algorithm;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Random;
+
+import junit.framework.TestCase;
+import salvo.jesus.graph.FrozenGraph;
+import salvo.jesus.graph.WeightedEdge;
+import salvo.jesus.graph.WeightedGraph;
+import salvo.jesus.graph.WeightedGraphImpl;
+import salvo.jesus.graph.generate.GnmGenerator;
+
+/**
+ * Checks that Bor&#367;vka's method finds the same trees as Kruskal's.
+ *
+ * @author nono
+ * @version $Id$
+ */
+public class MinimumSpanningTreeBoruvkaAlgorithmTest extends TestCase {
+
+	/**
+	 * Returns a random graph with few distinct weights, so that many edges
+	 * weigh the same.
+	 */
+	private static WeightedGraphImpl random(int n, long m, long seed)
+			throws Exception {
+		WeightedGraphImpl graph = new GnmGenerator(n, m, false, seed)
+				.generate(new WeightedGraphImpl());
+		Random random = new Random(seed);
+		for (Iterator i = graph.getAllEdges().iterator(); i.hasNext();)
+			((WeightedEdge) i.next()).setWeight(random.nextInt(10) - 2);
+		return graph;
+	}
+
+	private static void check(WeightedGraphImpl graph, int threads) {
+		FrozenGraph frozen = graph.freeze();
+		WeightedGraph expected = new MinimumSpanningTreeKruskalAlgorithm(
+				frozen).minimumSpanningTree();
+		MinimumSpanningTreeBoruvkaAlgorithm boruvka = new MinimumSpanningTreeBoruvkaAlgorithm(
+				frozen);
+		boruvka.setThreads(threads);
+		WeightedGraph tree = boruvka.minimumSpanningTree();
+		assertEquals(graph.getVerticesCount()
+				- frozen.getConnectedSet().size(), tree.getEdgesCount());
+		assertEquals(new HashSet(expected.getAllEdges()), new HashSet(tree
+				.getAllEdges()));
+	}
+
+	public void testSparse() throws Exception {
+		for (int seed = 0; seed < 4; seed++)
+			check(random(500, 400 + 200 * seed, seed), 1 + seed);
+	}
+
+	public void testDense() throws Exception {
+		check(random(3000, 40000, 5), 1);
+		check(random(3000, 40000, 5), 4);
+	}
+
+	public void testWeightedGraph() throws Exception {
+		WeightedGraphImpl graph = random(200, 600, 6);
+		WeightedGraph expected = graph.minimumSpanningTree();
+		graph.setMinimumSpanningTreeAlgorithm(new MinimumSpanningTreeBoruvkaAlgorithm(
+				graph));
+		assertEquals(new HashSet(expected.getAllEdges()), new HashSet(graph
+				.minimumSpanningTree().getAllEdges()));
+		assertEquals(0, new MinimumSpanningTreeBoruvkaAlgorithm(
+				new WeightedGraphImpl()).minimumSpanningTree()
+				.getEdgesCount());
+	}
+}
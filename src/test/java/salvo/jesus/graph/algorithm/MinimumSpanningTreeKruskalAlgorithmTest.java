@@ -0,0 +1,109 @@
+package salvo.jesus.graph.algorithm;
+
+import java.util.Iterator;
+import java.util.Arrays;
+import java.util.Random;
+
+import junit.framework.TestCase;
+import salvo.jesus.graph.DirectedGraphImpl;
+import salvo.jesus.graph.DirectedWeightedEdgeImpl;
+import salvo.jesus.graph.FrozenGraph;
+import salvo.jesus.graph.WeightedEdge;
+import salvo.jesus.graph.WeightedGraph;
+import salvo.jesus.graph.WeightedGraphImpl;
+import salvo.jesus.graph.generate.GnmGenerator;
+
+/**
+ * Checks the minimum spanning trees found by Kruskal's algorithm against
+ * Prim's algorithm.
+ *
+ * @author nono
+ * @version $Id$
+ */
+public class MinimumSpanningTreeKruskalAlgorithmTest extends TestCase {
+
+	private static WeightedGraphImpl random(int n, long m, long seed)
+			throws Exception {
+		WeightedGraphImpl graph = new GnmGenerator(n, m, false, seed)
+				.generate(new WeightedGraphImpl());
+		Random random = new Random(seed);
+		for (Iterator i = graph.getAllEdges().iterator(); i.hasNext();)
+			((WeightedEdge) i.next()).setWeight(random.nextInt(100) - 10);
+		return graph;
+	}
+
+	private static double weight(WeightedGraph tree) {
+		double weight = 0;
+		for (Iterator i = tree.getAllEdges().iterator(); i.hasNext();)
+			weight += ((WeightedEdge) i.next()).getWeight();
+		return weight;
+	}
+
+	/**
+	 * Returns the weight of a minimum spanning forest by Prim's algorithm on
+	 * each connected set, in O(n<sup>2</sup>).
+	 */
+	private static double prim(FrozenGraph graph) {
+		int n = graph.getVerticesCount();
+		double[] best = new double[n];
+		boolean[] done = new boolean[n];
+		double weight = 0;
+		Arrays.fill(best, Double.POSITIVE_INFINITY);
+		for (int round = 0; round < n; round++) {
+			int v = -1;
+			for (int w = 0; w < n; w++)
+				if (!done[w] && (v < 0 || best[w] < best[v]))
+					v = w;
+			done[v] = true;
+			if (best[v] != Double.POSITIVE_INFINITY)
+				weight += best[v];
+			for (int e = graph.getOutgoingStart(v); e < graph.getOutgoingEnd(v); e++) {
+				int w = graph.getOutgoingTarget(e);
+				if (!done[w] && graph.getOutgoingWeight(e) < best[w])
+					best[w] = graph.getOutgoingWeight(e);
+			}
+		}
+		return weight;
+	}
+
+	public void testRandom() throws Exception {
+		for (int seed = 0; seed < 5; seed++) {
+			WeightedGraphImpl graph = random(300, 1500, seed);
+			FrozenGraph frozen = graph.freeze();
+			MinimumSpanningTreeKruskalAlgorithm kruskal = new MinimumSpanningTreeKruskalAlgorithm(
+					graph);
+			kruskal.setThreads(1 + seed);
+			WeightedGraph tree = kruskal.minimumSpanningTree();
+			int components = frozen.getConnectedSet().size();
+			assertEquals(300 - components, tree.getEdgesCount());
+			assertEquals(prim(frozen), weight(tree), 0);
+			assertEquals(weight(tree), weight(frozen.minimumSpanningTree()), 0);
+			// the tree is made of the edges of the graph
+			for (Iterator i = tree.getAllEdges().iterator(); i.hasNext();)
+				assertTrue(graph.getAllEdges().contains(i.next()));
+		}
+	}
+
+	public void testEmpty() throws Exception {
+		assertEquals(0, new MinimumSpanningTreeKruskalAlgorithm(
+				new WeightedGraphImpl()).minimumSpanningTree()
+				.getVerticesCount());
+	}
+
+	/**
+	 * Edges of a directed graph are taken as undirected, even from a frozen
+	 * graph.
+	 */
+	public void testDirected() throws Exception {
+		DirectedGraphImpl graph = new DirectedGraphImpl();
+		graph.addEdge(new DirectedWeightedEdgeImpl("a", "b", 3));
+		graph.addEdge(new DirectedWeightedEdgeImpl("c", "b", 1));
+		graph.addEdge(new DirectedWeightedEdgeImpl("a", "c", 2));
+		graph.addEdge(new DirectedWeightedEdgeImpl("c", "c", 0));
+		graph.addEdge(new DirectedWeightedEdgeImpl("d", "a", 4));
+		WeightedGraph tree = new MinimumSpanningTreeKruskalAlgorithm(graph.freeze())
+				.minimumSpanningTree();
+		assertEquals(3, tree.getEdgesCount());
+		assertEquals(7, weight(tree), 0);
+	}
+}
@@ -0,0 +1,224 @@
+package salvo.jesus.graph.generate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import junit.framework.TestCase;
+import salvo.jesus.graph.DirectedAcyclicGraphImpl;
+import salvo.jesus.graph.DirectedGraphImpl;
+import salvo.jesus.graph.GraphImpl;
+import salvo.jesus.graph.TreeImpl;
+import salvo.jesus.graph.primitive.IntDirectedGraph;
+
+/**
+ * Checks the number and distribution of the edges of generated graphs, and
+ * that generators load the graphs they are given.
+ *
+ * @author nono
+ * @version $Id$
+ */
+public class GraphGeneratorTest extends TestCase {
+
+	/**
+	 * Collects the edges of a graph as source * vertices + target.
+	 */
+	static class EdgeCollector implements EdgeSink {
+		int vertices;
+
+		List<Long> edges = new ArrayList<Long>();
+
+		public void vertices(int count) {
+			vertices = count;
+		}
+
+		public void edge(int source, int target) {
+			assertTrue(source >= 0 && source < vertices);
+			assertTrue(target >= 0 && target < vertices);
+			assertTrue(source != target);
+			edges.add(new Long((long) source * vertices + target));
+		}
+
+		/**
+		 * Returns the distinct pairs of vertices, in either direction.
+		 */
+		Set<Long> pairs() {
+			Set<Long> pairs = new HashSet<Long>();
+			for (Long edge : edges) {
+				long source = edge.longValue() / vertices;
+				long target = edge.longValue() % vertices;
+				pairs.add(new Long(Math.min(source, target) * vertices
+						+ Math.max(source, target)));
+			}
+			return pairs;
+		}
+	}
+
+	private static EdgeCollector collect(GraphGenerator generator)
+			throws Exception {
+		EdgeCollector collector = new EdgeCollector();
+		generator.generate(collector);
+		assertEquals(generator.getVerticesCount(), collector.vertices);
+		return collector;
+	}
+
+	public void testSameSeedSameGraph() throws Exception {
+		assertEquals(collect(new GnpGenerator(200, 0.05, true, 7)).edges,
+				collect(new GnpGenerator(200, 0.05, true, 7)).edges);
+		assertEquals(collect(new GnmGenerator(200, 500, false, 7)).edges,
+				collect(new GnmGenerator(200, 500, false, 7)).edges);
+		assertFalse(collect(new GnmGenerator(200, 500, false, 7)).edges
+				.equals(collect(new GnmGenerator(200, 500, false, 8)).edges));
+		assertEquals(
+				collect(new BarabasiAlbertGenerator(200, 3, 7)).edges,
+				collect(new BarabasiAlbertGenerator(200, 3, 7)).edges);
+	}
+
+	public void testGnm() throws Exception {
+		EdgeCollector undirected = collect(new GnmGenerator(100, 2000, false,
+				1));
+		assertEquals(2000, undirected.edges.size());
+		assertEquals(2000, undirected.pairs().size());
+
+		EdgeCollector directed = collect(new GnmGenerator(50, 2450, true, 1));
+		assertEquals(2450, new HashSet<Long>(directed.edges).size());
+
+		try {
+			new GnmGenerator(10, 46, false, 1);
+			fail();
+		} catch (IllegalArgumentException e) {
+		}
+	}
+
+	/**
+	 * Draws 3 of the 6 edges of 4 vertices many times: each of the 20 graphs
+	 * should come about as often.
+	 */
+	public void testGnmUniform() throws Exception {
+		int[] counts = new int[1 << 16];
+		int runs = 20000;
+		for (int seed = 0; seed < runs; seed++) {
+			int graph = 0;
+			for (Long edge : collect(new GnmGenerator(4, 3, false, seed)).edges)
+				graph |= 1 << edge.intValue();
+			counts[graph]++;
+		}
+		int graphs = 0;
+		for (int i = 0; i < counts.length; i++)
+			if (counts[i] > 0) {
+				graphs++;
+				assertEquals(runs / 20, counts[i], runs / 20 / 5);
+			}
+		assertEquals(20, graphs);
+	}
+
+	public void testGnp() throws Exception {
+		EdgeCollector collector = collect(new GnpGenerator(1000, 0.01, false,
+				3));
+		// 4995 edges expected, with a standard deviation of about 70
+		assertEquals(4995, collector.edges.size(), 350);
+		assertEquals(collector.edges.size(), collector.pairs().size());
+
+		assertEquals(0, collect(new GnpGenerator(100, 0, true, 3)).edges
+				.size());
+		assertEquals(9900, collect(new GnpGenerator(100, 1, true, 3)).edges
+				.size());
+	}
+
+	public void testBarabasiAlbert() throws Exception {
+		BarabasiAlbertGenerator generator = new BarabasiAlbertGenerator(1000,
+				4, 5);
+		EdgeCollector collector = collect(generator);
+		assertEquals(generator.getEdgesCount(), collector.edges.size());
+		assertEquals(collector.edges.size(), collector.pairs().size());
+		// edges go from new vertices to older ones
+		for (Long edge : collector.edges)
+			assertTrue(edge.longValue() / 1000 > edge.longValue() % 1000);
+
+		// the first vertices attract the most edges
+		int[] degree = new int[1000];
+		for (Long edge : collector.edges)
+			degree[(int) (edge.longValue() % 1000)]++;
+		int first = 0, last = 0;
+		for (int i = 0; i < 100; i++) {
+			first += degree[i];
+			last += degree[900 + i];
+		}
+		assertTrue(first > 5 * last);
+	}
+
+	public void testWattsStrogatz() throws Exception {
+		EdgeCollector lattice = collect(new WattsStrogatzGenerator(100, 4, 0,
+				2));
+		assertEquals(200, lattice.pairs().size());
+		for (Long edge : lattice.edges) {
+			long source = edge.longValue() / 100;
+			long target = edge.longValue() % 100;
+			long d = (target - source + 100) % 100;
+			assertTrue(d == 1 || d == 2);
+		}
+
+		EdgeCollector rewired = collect(new WattsStrogatzGenerator(1000, 6,
+				0.2, 2));
+		assertEquals(3000, rewired.edges.size());
+		assertTrue(rewired.pairs().size() > 2990);
+		int far = 0;
+		for (Long edge : rewired.edges) {
+			long d = Math.abs(edge.longValue() / 1000 - edge.longValue()
+					% 1000);
+			if (Math.min(d, 1000 - d) > 3)
+				far++;
+		}
+		// 600 edges rewired expected
+		assertEquals(600, far, 100);
+	}
+
+	public void testGrid() throws Exception {
+		assertEquals(2 * 3 * 4 - 3 - 4, collect(new GridGenerator(3, 4,
+				false)).pairs().size());
+		assertEquals(2 * 3 * 4, collect(new GridGenerator(3, 4, true))
+				.pairs().size());
+		// a row of 2 columns does not wrap
+		assertEquals(2 * 2 * 3 - 3, collect(new GridGenerator(3, 2, true))
+				.pairs().size());
+	}
+
+	public void testRandomDag() throws Exception {
+		DirectedAcyclicGraphImpl dag = new RandomDagGenerator(100, 0.1, 4)
+				.generate(new DirectedAcyclicGraphImpl());
+		assertEquals(100, dag.getVerticesCount());
+		assertEquals(495, dag.getEdgesCount(), 100);
+	}
+
+	public void testRandomTree() throws Exception {
+		TreeImpl tree = new RandomTreeGenerator(200, 9)
+				.generate(new TreeImpl());
+		assertEquals(200, tree.getVerticesCount());
+		assertEquals(199, tree.getEdgesCount());
+		tree.setRoot(new Integer(0));
+		for (int i = 1; i < 200; i++)
+			assertTrue(tree.isConnected(tree.getRoot(), tree
+					.findVertex(new Integer(i))));
+	}
+
+	public void testGraphTargets() throws Exception {
+		GnmGenerator generator = new GnmGenerator(500, 3000, true, 11);
+		generator.setBatchSize(100);
+		DirectedGraphImpl directed = generator.generate(new DirectedGraphImpl());
+		assertEquals(500, directed.getVerticesCount());
+		assertEquals(3000, directed.getEdgesCount());
+
+		GraphImpl undirected = new GnmGenerator(500, 3000, false, 11)
+				.generate(new GraphImpl());
+		assertEquals(500, undirected.getVerticesCount());
+		assertEquals(3000, undirected.getEdgesCount());
+
+		IntDirectedGraph primitive = new IntDirectedGraph();
+		primitive.addVertex();
+		generator.generate(primitive);
+		assertEquals(501, primitive.getVerticesCount());
+		assertEquals(3000, primitive.getEdgesCount());
+		assertEquals(0, primitive.getOutDegree(0));
+	}
+}
@@ -0,0 +1,255 @@
+package salvo.jesus.graph.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.CRC32;
+
+import junit.framework.TestCase;
+import salvo.jesus.graph.DirectedGraphImpl;
+import salvo.jesus.graph.Edge;
+import salvo.jesus.graph.Graph;
+import salvo.jesus.graph.GraphImpl;
+import salvo.jesus.graph.VertexImpl;
+import salvo.jesus.graph.WeightedEdge;
+import salvo.jesus.graph.WeightedGraphImpl;
+import salvo.jesus.graph.primitive.IntDirectedGraph;
+
+/**
+ * Writes graphs in the binary format and reads them back.
+ *
+ * @author nono
+ * @version $Id$
+ */
+public class BinaryGraphTest extends TestCase {
+
+	private static boolean probeInitialized;
+
+	/**
+	 * A class that is not a graph, named in a stream.
+	 */
+	static class Probe {
+		static {
+			probeInitialized = true;
+		}
+	}
+
+	private static byte[] write(Graph graph) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		new BinaryGraphWriter().write(graph, out);
+		return out.toByteArray();
+	}
+
+	private static GraphImpl read(byte[] bytes) throws Exception {
+		return new BinaryGraphReader().read(new ByteArrayInputStream(bytes));
+	}
+
+	/**
+	 * Returns a copy of a written graph with another class name in its
+	 * header.
+	 */
+	private static byte[] withClassName(byte[] bytes, String className)
+			throws IOException {
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(
+				bytes, 6, bytes.length - 6));
+		byte[] content = new byte[in.readInt()];
+		in.readFully(content);
+		in.readInt();
+		byte[] rest = new byte[in.available()];
+		in.readFully(rest);
+		DataInputStream header = new DataInputStream(new ByteArrayInputStream(
+				content));
+		int flags = header.readUnsignedByte();
+		header.readUTF();
+		byte[] sizes = new byte[header.available()];
+		header.readFully(sizes);
+
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		DataOutputStream newHeader = new DataOutputStream(buffer);
+		newHeader.write(flags);
+		newHeader.writeUTF(className);
+		newHeader.write(sizes);
+		content = buffer.toByteArray();
+		CRC32 crc = new CRC32();
+		crc.update(content);
+		ByteArrayOutputStream copy = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(copy);
+		out.write(bytes, 0, 6);
+		out.writeInt(content.length);
+		out.write(content);
+		out.writeInt((int) crc.getValue());
+		out.write(rest);
+		return copy.toByteArray();
+	}
+
+	/**
+	 * Returns the edge between two vertices given by their String form.
+	 */
+	private static Edge edge(Graph graph, String a, String b) {
+		for (Edge edge : graph.getAllEdges())
+			if (edge.getVertexA().toString().equals(a)
+					&& edge.getVertexB().toString().equals(b))
+				return edge;
+		fail("no edge " + a + " - " + b);
+		return null;
+	}
+
+	public void testUndirected() throws Exception {
+		GraphImpl graph = new GraphImpl();
+		graph.addEdge("a", "b");
+		graph.addEdge("c", "a");
+		graph.add("d");
+		graph.addEdge("c", "c");
+
+		GraphImpl copy = read(write(graph));
+		assertSame(GraphImpl.class, copy.getClass());
+		assertEquals(graph.getAllVertices(), copy.getAllVertices());
+		assertEquals(3, copy.getEdgesCount());
+		assertEquals("a-b", edge(copy, "a", "b").getData());
+		assertEquals("c-a", edge(copy, "c", "a").getData());
+		assertEquals("c-c", edge(copy, "c", "c").getData());
+		assertEquals(0, copy.getDegree("d"));
+	}
+
+	public void testDirectedWithData() throws Exception {
+		DirectedGraphImpl graph = new DirectedGraphImpl();
+		graph.addEdge("x", "y");
+		graph.addEdge(graph.getGraphFactory().createEdgeWith("y", "x",
+				new Integer(42)));
+		graph.addEdge(graph.getGraphFactory().createEdgeWith("y", "z",
+				"long road"));
+		graph.addEdge(graph.getGraphFactory().createEdgeWith("z", "x", null));
+
+		DirectedGraphImpl copy = (DirectedGraphImpl) read(write(graph));
+		assertEquals(graph.getAllVertices(), copy.getAllVertices());
+		assertEquals(4, copy.getEdgesCount());
+		assertEquals("x->y", copy.getEdge("x", "y").getData());
+		assertEquals(new Integer(42), copy.getEdge("y", "x").getData());
+		assertEquals("long road", copy.getEdge("y", "z").getData());
+		assertNull(copy.getEdge("z", "x").getData());
+	}
+
+	public void testWeights() throws Exception {
+		WeightedGraphImpl graph = new WeightedGraphImpl();
+		graph.addEdge("p", "q");
+		graph.addEdge("q", "r");
+		((WeightedEdge) edge(graph, "p", "q")).setWeight(-3);
+		((WeightedEdge) edge(graph, "q", "r")).setWeight(1L << 40);
+
+		byte[] integral = write(graph);
+		WeightedGraphImpl copy = (WeightedGraphImpl) read(integral);
+		assertEquals(-3, ((WeightedEdge) edge(copy, "p", "q")).getWeight(), 0);
+		assertEquals(1L << 40, ((WeightedEdge) edge(copy, "q", "r"))
+				.getWeight(), 0);
+
+		((WeightedEdge) edge(graph, "p", "q")).setWeight(0.1);
+		byte[] fractional = write(graph);
+		assertTrue(fractional.length > integral.length);
+		copy = (WeightedGraphImpl) read(fractional);
+		assertEquals(0.1, ((WeightedEdge) edge(copy, "p", "q")).getWeight(), 0);
+		assertEquals(1L << 40, ((WeightedEdge) edge(copy, "q", "r"))
+				.getWeight(), 0);
+	}
+
+	public void testPayloads() throws Exception {
+		GraphImpl graph = new GraphImpl();
+		Object[] vertices = { new Integer(7), new Long(-1), new Double(2.5),
+				Boolean.TRUE, "caf\u00e9", new java.util.Date(0) };
+		for (int i = 0; i < vertices.length; i++)
+			graph.add(vertices[i]);
+		graph.add(new VertexImpl("boxed"));
+
+		List copy = read(write(graph)).getAllVertices();
+		for (int i = 0; i < vertices.length; i++)
+			assertEquals(vertices[i], copy.get(i));
+		assertEquals("boxed", ((VertexImpl) copy.get(vertices.length))
+				.getObject());
+	}
+
+	/**
+	 * Classes named in a stream are not initialized unless they are graphs.
+	 */
+	public void testClassName() throws Exception {
+		GraphImpl graph = new GraphImpl();
+		graph.addEdge("a", "b");
+		byte[] bytes = write(graph);
+
+		GraphImpl copy = read(withClassName(bytes, Probe.class.getName()));
+		assertFalse(probeInitialized);
+		assertSame(GraphImpl.class, copy.getClass());
+		assertEquals(1, copy.getEdgesCount());
+		copy = read(withClassName(bytes, DirectedGraphImpl.class.getName()));
+		assertSame(DirectedGraphImpl.class, copy.getClass());
+	}
+
+	/**
+	 * Flips each byte after the magic in turn: reading must fail.
+	 */
+	public void testCorruption() throws Exception {
+		DirectedGraphImpl graph = new DirectedGraphImpl();
+		graph.addEdge("a", "b");
+		graph.addEdge("b", "c");
+		byte[] bytes = write(graph);
+
+		for (int i = 5; i < bytes.length; i++) {
+			byte[] corrupted = bytes.clone();
+			corrupted[i] ^= 0x10;
+			try {
+				read(corrupted);
+				fail("byte " + i + " corrupted");
+			} catch (IOException e) {
+			}
+		}
+		try {
+			read(new byte[] { 'O', 'J', 'G', 'B', 1, 1, 0, 0 });
+			fail("truncated");
+		} catch (IOException e) {
+		}
+	}
+
+	/**
+	 * Reads the same random graph as objects and as ints.
+	 */
+	public void testStructure() throws Exception {
+		Random random = new Random(14);
+		DirectedGraphImpl graph = new DirectedGraphImpl();
+		int n = 300;
+		for (int i = 0; i < n; i++)
+			graph.add(new Integer(i));
+		for (int j = 0; j < 2000; j++) {
+			Integer from = new Integer(random.nextInt(n));
+			Integer to = new Integer(random.nextInt(n));
+			if (!graph.containsEdge(from, to))
+				graph.addEdge(from, to);
+		}
+		byte[] bytes = write(graph);
+
+		DirectedGraphImpl copy = (DirectedGraphImpl) read(bytes);
+		assertEquals(graph.getEdgesCount(), copy.getEdgesCount());
+		IntDirectedGraph ints = new BinaryGraphReader()
+				.readStructure(new ByteArrayInputStream(bytes));
+		assertEquals(n, ints.getVerticesCount());
+		assertEquals(graph.getEdgesCount(), ints.getEdgesCount());
+		for (int i = 0; i < n; i++) {
+			Integer v = new Integer(i);
+			assertEquals(graph.getOutgoingEdges(v).size(), ints.getOutDegree(i));
+			assertEquals(graph.getOutgoingEdges(v).size(), copy
+					.getOutgoingEdges(v).size());
+			for (int k = 0; k < ints.getOutDegree(i); k++)
+				assertTrue(graph.containsEdge(v, new Integer(ints.getOutgoing(
+						i, k))));
+		}
+
+		GraphImpl undirected = new GraphImpl();
+		undirected.addEdge("a", "b");
+		undirected.addEdge("b", "b");
+		ints = new BinaryGraphReader().readStructure(new ByteArrayInputStream(
+				write(undirected)));
+		assertEquals(3, ints.getEdgesCount());
+		assertTrue(ints.containsEdge(1, 0));
+	}
+}
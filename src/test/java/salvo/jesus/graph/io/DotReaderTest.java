@@ -0,0 +1,101 @@
+package salvo.jesus.graph.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+import salvo.jesus.graph.DirectedGraphImpl;
+import salvo.jesus.graph.GraphImpl;
+import salvo.jesus.graph.WeightedEdge;
+import salvo.jesus.graph.WeightedGraphImpl;
+
+/**
+ * Writes graphs in DOT and reads them back, and reads DOT written by hand.
+ *
+ * @author nono
+ * @version $Id$
+ */
+public class DotReaderTest extends TestCase {
+
+	private static DirectedGraphImpl read(String dot) throws Exception {
+		return new DotReader().read(new StringReader(dot),
+				new DirectedGraphImpl());
+	}
+
+	public void testDirected() throws Exception {
+		DirectedGraphImpl graph = new DirectedGraphImpl();
+		graph.addEdge("a", "b");
+		graph.addEdge(graph.getGraphFactory().createEdgeWith("b", "c",
+				"say \"hi\"\\n\nnow"));
+		graph.addEdge(new Integer(7), "a");
+		graph.add("lonely one");
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		new DotWriter().write(graph, out);
+		assertTrue(out.toString("UTF-8").startsWith("digraph G {"));
+		DirectedGraphImpl copy = new DotReader().read(new ByteArrayInputStream(
+				out.toByteArray()), new DirectedGraphImpl());
+		assertEquals(graph.getAllVertices(), copy.getAllVertices());
+		assertEquals(3, copy.getEdgesCount());
+		assertEquals("a->b", copy.getEdge("a", "b").getData());
+		assertEquals("say \"hi\"\\n\nnow", copy.getEdge("b", "c").getData());
+		assertTrue(copy.containsEdge(new Integer(7), "a"));
+	}
+
+	public void testUndirectedWeighted() throws Exception {
+		WeightedGraphImpl graph = new WeightedGraphImpl();
+		graph.addEdge("x", "y");
+		graph.addEdge("y", "y");
+		((WeightedEdge) GraphMLReaderTest.edge(graph, "x", "y"))
+				.setWeight(0.75);
+
+		StringWriter out = new StringWriter();
+		new DotWriter().write(graph, out);
+		assertTrue(out.toString().startsWith("graph G {"));
+		DotReader reader = new DotReader();
+		reader.setBatchSize(1);
+		WeightedGraphImpl copy = reader.read(new StringReader(out.toString()),
+				new WeightedGraphImpl());
+		assertEquals(2, copy.getEdgesCount());
+		assertEquals(0.75, ((WeightedEdge) GraphMLReaderTest.edge(copy, "x",
+				"y")).getWeight(), 0);
+		GraphMLReaderTest.edge(copy, "y", "y");
+	}
+
+	public void testSyntax() throws Exception {
+		DirectedGraphImpl graph = read("# preprocessor line\n"
+				+ "strict digraph \"my graph\" {\n"
+				+ "  graph [rankdir=LR]; node [shape=box]\n"
+				+ "  // a comment\n" + "  size = \"4,4\";\n"
+				+ "  a -> b -> c [label=\"long \" + \"road\", color=red]\n"
+				+ "  subgraph cluster_0 { d; e:port:n -> 12 }\n"
+				+ "  { f [weight=2] }\n" + "  /* block\n comment */\n"
+				+ "  <<b>html</b>> -> -1.5 [label=<x<i>y</i>>];\n" + "}\n");
+		assertEquals(Arrays.asList(new Object[] { "a", "b", "c", "d", "e",
+				new Integer(12), "f", "<b>html</b>", "-1.5" }), graph
+				.getAllVertices());
+		assertEquals(4, graph.getEdgesCount());
+		assertEquals("long road", graph.getEdge("a", "b").getData());
+		assertEquals("long road", graph.getEdge("b", "c").getData());
+		assertEquals("e->12", graph.getEdge("e", new Integer(12)).getData());
+		assertEquals("x<i>y</i>", graph.getEdge("<b>html</b>", "-1.5")
+				.getData());
+	}
+
+	public void testMalformed() throws Exception {
+		String[] malformed = { "digraph { a -> }", "digraph { a -> b",
+				"tree { }", "digraph { a -> {b c} }", "digraph { \"a }",
+				"digraph {\n a -> b [weight=heavy] }" };
+		for (int i = 0; i < malformed.length; i++)
+			try {
+				read(malformed[i]);
+				fail(malformed[i]);
+			} catch (IOException e) {
+				assertTrue(e.getMessage(), e.getMessage().startsWith("Line "));
+			}
+	}
+}
@@ -0,0 +1,127 @@
+package salvo.jesus.graph.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+import salvo.jesus.graph.DirectedEdge;
+import salvo.jesus.graph.DirectedGraphImpl;
+import salvo.jesus.graph.Edge;
+import salvo.jesus.graph.GraphImpl;
+import salvo.jesus.graph.WeightedEdge;
+import salvo.jesus.graph.WeightedGraphImpl;
+
+/**
+ * Reads edge lists in the supported formats, from files and channels, with
+ * buffers and batches smaller than the input.
+ *
+ * @author nono
+ * @version $Id$
+ */
+public class EdgeListReaderTest extends TestCase {
+
+	private EdgeListReader reader;
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		this.reader = new EdgeListReader();
+	}
+
+	private <G extends GraphImpl> G read(String text, G graph)
+			throws Exception {
+		return reader.read(Channels.newChannel(new ByteArrayInputStream(text
+				.getBytes("UTF-8"))), graph);
+	}
+
+	public void testWeighted() throws Exception {
+		WeightedGraphImpl graph = read("# comment\n" + "1\t2\t0.5\n"
+				+ "2 3 -12.25 heavy\r\n" + "\n" + "3,1,1e3\n" + "1;4",
+				new WeightedGraphImpl());
+		assertEquals(4, graph.getVerticesCount());
+		assertEquals(4, graph.getEdgesCount());
+		assertEquals(Arrays.asList(new Object[] { new Integer(1),
+				new Integer(2), new Integer(3), new Integer(4) }), graph
+				.getAllVertices());
+		assertEquals(0.5, weight(graph, "1", "2").getWeight(), 0);
+		WeightedEdge heavy = weight(graph, "2", "3");
+		assertEquals(-12.25, heavy.getWeight(), 0);
+		assertEquals("heavy", heavy.getData());
+		assertEquals(1000, weight(graph, "3", "1").getWeight(), 0);
+		assertEquals(0, weight(graph, "1", "4").getWeight(), 0);
+	}
+
+	/**
+	 * Returns the edge between two vertices given by their String form.
+	 */
+	private static WeightedEdge weight(GraphImpl graph, String a, String b) {
+		for (Edge edge : graph.getAllEdges())
+			if (edge.getVertexA().toString().equals(a)
+					&& edge.getVertexB().toString().equals(b))
+				return (WeightedEdge) edge;
+		fail("no edge " + a + " - " + b);
+		return null;
+	}
+
+	public void testLabelsAndSeparator() throws Exception {
+		reader.setSeparator(',');
+		reader.setHeader(true);
+		DirectedGraphImpl graph = read("from,to,weight,label\n"
+				+ "Paris,Lyon,,high speed\n" + "Lyon,Gen\u00e8ve,2,\n"
+				+ "Lyon,Paris,not a weight\n", new DirectedGraphImpl());
+		assertEquals(Arrays.asList(new Object[] { "Paris", "Lyon",
+				"Gen\u00e8ve" }), graph.getAllVertices());
+		DirectedEdge edge = graph.getEdge("Paris", "Lyon");
+		assertEquals("high speed", edge.getData());
+		assertTrue(graph.containsEdge("Lyon", "Gen\u00e8ve"));
+		assertEquals("not a weight", graph.getEdge("Lyon", "Paris")
+				.getData());
+	}
+
+	public void testMalformed() throws Exception {
+		try {
+			read("1 2\n3\n", new GraphImpl());
+			fail("line 2 has no target");
+		} catch (IOException e) {
+			assertTrue(e.getMessage().startsWith("Line 2"));
+		}
+		try {
+			read("1 2 x y\n", new WeightedGraphImpl());
+			fail("weight is not a number");
+		} catch (IOException e) {
+		}
+	}
+
+	/**
+	 * Reads a file with a buffer smaller than most lines and small batches,
+	 * and checks each edge.
+	 */
+	public void testSmallBuffers() throws Exception {
+		File file = File.createTempFile("edges", ".tsv");
+		file.deleteOnExit();
+		OutputStream out = new FileOutputStream(file);
+		int n = 5000;
+		for (int i = 0; i < n; i++)
+			out.write(("v" + i + "\t" + (i * 7919 % n) + "\t" + i + ".25\n")
+					.getBytes("UTF-8"));
+		out.close();
+
+		reader.setBufferSize(7);
+		reader.setBatchSize(100);
+		WeightedGraphImpl graph = reader.read(file, new WeightedGraphImpl());
+		assertEquals(n, graph.getEdgesCount());
+		boolean[] found = new boolean[n];
+		for (Edge edge : graph.getAllEdges()) {
+			int i = Integer.parseInt(((String) edge.getVertexA()).substring(1));
+			assertFalse(found[i]);
+			found[i] = true;
+			assertEquals(new Integer(i * 7919 % n), edge.getVertexB());
+			assertEquals(i + 0.25, ((WeightedEdge) edge).getWeight(), 0);
+		}
+	}
+}
@@ -0,0 +1,122 @@
+package salvo.jesus.graph.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+import salvo.jesus.graph.DirectedGraphImpl;
+import salvo.jesus.graph.Edge;
+import salvo.jesus.graph.Graph;
+import salvo.jesus.graph.GraphImpl;
+import salvo.jesus.graph.WeightedEdge;
+import salvo.jesus.graph.WeightedGraphImpl;
+
+/**
+ * Writes graphs in GraphML and reads them back, and reads GraphML written by
+ * other tools.
+ *
+ * @author nono
+ * @version $Id$
+ */
+public class GraphMLReaderTest extends TestCase {
+
+	/**
+	 * Returns the edge between two vertices given by their String form.
+	 */
+	static Edge edge(Graph graph, String a, String b) {
+		for (Edge edge : graph.getAllEdges())
+			if (edge.getVertexA().toString().equals(a)
+					&& edge.getVertexB().toString().equals(b))
+				return edge;
+		fail("no edge " + a + " - " + b);
+		return null;
+	}
+
+	public void testDirected() throws Exception {
+		DirectedGraphImpl graph = new DirectedGraphImpl();
+		graph.addEdge("a", "b");
+		graph.addEdge(graph.getGraphFactory().createEdgeWith("b", "c",
+				"<fast> & \"safe\"\n"));
+		graph.addEdge(new Integer(12), "a");
+		graph.add("lonely");
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		new GraphMLWriter().write(graph, out);
+		DirectedGraphImpl copy = new GraphMLReader().read(
+				new ByteArrayInputStream(out.toByteArray()),
+				new DirectedGraphImpl());
+		assertEquals(graph.getAllVertices(), copy.getAllVertices());
+		assertEquals(3, copy.getEdgesCount());
+		assertEquals("a->b", copy.getEdge("a", "b").getData());
+		assertEquals("<fast> & \"safe\"\n", copy.getEdge("b", "c").getData());
+		assertTrue(copy.containsEdge(new Integer(12), "a"));
+	}
+
+	/**
+	 * Writes an undirected graph with a loop and weights, and reads it back in
+	 * batches smaller than the graph.
+	 */
+	public void testUndirectedWeighted() throws Exception {
+		WeightedGraphImpl graph = new WeightedGraphImpl();
+		graph.addEdge("x", "y");
+		graph.addEdge("y", "y");
+		graph.addEdge("z", "x");
+		((WeightedEdge) edge(graph, "x", "y")).setWeight(1.5);
+		((WeightedEdge) edge(graph, "y", "y")).setWeight(-2);
+
+		StringWriter out = new StringWriter();
+		new GraphMLWriter().write(graph, out);
+		assertTrue(out.toString().indexOf("edgedefault=\"undirected\"") > 0);
+		GraphMLReader reader = new GraphMLReader();
+		reader.setBatchSize(2);
+		WeightedGraphImpl copy = reader.read(new StringReader(out.toString()),
+				new WeightedGraphImpl());
+		assertEquals(Arrays.asList(new Object[] { "x", "y", "z" }), copy
+				.getAllVertices());
+		assertEquals(3, copy.getEdgesCount());
+		assertEquals(1.5, ((WeightedEdge) edge(copy, "x", "y")).getWeight(), 0);
+		assertEquals(-2, ((WeightedEdge) edge(copy, "y", "y")).getWeight(), 0);
+		assertEquals(0, ((WeightedEdge) edge(copy, "z", "x")).getWeight(), 0);
+	}
+
+	public void testForeign() throws Exception {
+		String xml = "<?xml version=\"1.0\"?>\n"
+				+ "<graphml xmlns=\"http://graphml.graphdrawing.org/xmlns\">\n"
+				+ "<key id=\"d0\" for=\"node\" attr.name=\"color\" attr.type=\"string\"/>\n"
+				+ "<key id=\"d1\" for=\"edge\" attr.name=\"weight\" attr.type=\"double\"><default>1.0</default></key>\n"
+				+ "<graph id=\"G\" edgedefault=\"directed\">\n"
+				+ "<node id=\"1\"><data key=\"d0\">green</data></node>\n"
+				+ "<node id=\"n2\"><graph id=\"inner\"><node id=\"n2::a\"/></graph></node>\n"
+				+ "<edge id=\"e0\" source=\"1\" target=\"n2\"><data key=\"d1\">3.25</data></edge>\n"
+				+ "<edge source=\"n2::a\" target=\"1\"/>\n" + "</graph>\n"
+				+ "</graphml>\n";
+		WeightedGraphImpl graph = new GraphMLReader().read(new StringReader(
+				xml), new WeightedGraphImpl());
+		assertEquals(Arrays.asList(new Object[] { new Integer(1), "n2",
+				"n2::a" }), graph.getAllVertices());
+		assertEquals(3.25, ((WeightedEdge) edge(graph, "1", "n2")).getWeight(),
+				0);
+		assertEquals(2, graph.getEdgesCount());
+	}
+
+	public void testMalformed() throws Exception {
+		try {
+			new GraphMLReader().read(new StringReader(
+					"<graphml><graph><edge source=\"a\"/></graph></graphml>"),
+					new GraphImpl());
+			fail("edge without target");
+		} catch (IOException e) {
+			assertTrue(e.getMessage().startsWith("Line 1"));
+		}
+		try {
+			new GraphMLReader().read(new StringReader("<graphml><graph>"),
+					new GraphImpl());
+			fail("unterminated");
+		} catch (IOException e) {
+		}
+	}
+}
@@ -0,0 +1,58 @@
+package salvo.jesus.graph.primitive;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+/**
+ * Checks the edge counts against a HashMap through random increments and
+ * decrements, which grow the table and shift its keys back.
+ *
+ * @author nono
+ * @version $Id$
+ */
+public class EdgeCountsTest extends TestCase {
+
+	public void testRandom() {
+		EdgeCounts counts = new EdgeCounts();
+		Map<Long, Integer> expected = new HashMap<Long, Integer>();
+		Random random = new Random(4);
+
+		for (int i = 0; i < 200000; i++) {
+			int from = random.nextInt(100);
+			int to = random.nextInt(i < 100000 ? 100 : 20);
+			Long key = new Long((long) from << 32 | to);
+			Integer count = expected.get(key);
+			int c = count == null ? 0 : count.intValue();
+			if (random.nextInt(3) == 0) {
+				counts.increment(from, to);
+				expected.put(key, new Integer(c + 1));
+			} else {
+				counts.decrement(from, to);
+				if (c > 1)
+					expected.put(key, new Integer(c - 1));
+				else
+					expected.remove(key);
+			}
+			if (i % 1000 == 0)
+				for (int f = 0; f < 100; f++)
+					for (int t = 0; t < 100; t++) {
+						count = expected.get(new Long((long) f << 32 | t));
+						assertEquals(count == null ? 0 : count.intValue(),
+								counts.get(f, t));
+					}
+		}
+	}
+
+	public void testLargeIds() {
+		EdgeCounts counts = new EdgeCounts();
+		counts.increment(Integer.MAX_VALUE, 0);
+		counts.increment(0, Integer.MAX_VALUE);
+		counts.increment(0, Integer.MAX_VALUE);
+		assertEquals(1, counts.get(Integer.MAX_VALUE, 0));
+		assertEquals(2, counts.get(0, Integer.MAX_VALUE));
+		assertEquals(0, counts.get(0, 0));
+	}
+}
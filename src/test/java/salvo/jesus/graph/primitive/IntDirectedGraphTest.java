@@ -0,0 +1,97 @@
+package salvo.jesus.graph.primitive;
+
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+import salvo.jesus.graph.CycleException;
+import salvo.jesus.graph.algorithm.BreadthFirstDirectedGraphTraversal;
+import salvo.jesus.graph.algorithm.DepthFirstDirectedGraphTraversal;
+import salvo.jesus.graph.algorithm.TarjanSCC;
+import salvo.jesus.graph.algorithm.TopologicalSorting;
+
+/**
+ * Tests the primitive directed graph and the algorithms running on it.
+ * 
+ * @author nono
+ * @version $Id$
+ */
+public class IntDirectedGraphTest extends TestCase {
+
+	private IntDirectedGraph graph;
+
+	protected void setUp() throws Exception {
+		super.setUp();
+		graph = new IntDirectedGraph(2);
+		for (int i = 0; i < 6; i++)
+			graph.addVertex();
+		graph.addEdge(0, 1);
+		graph.addEdge(1, 2);
+		graph.addEdge(2, 0);
+		graph.addEdge(2, 3);
+		graph.addEdge(3, 4);
+		graph.addEdge(4, 3);
+		graph.addEdge(4, 5);
+	}
+
+	public void testEdges() {
+		assertEquals(6, graph.getVerticesCount());
+		assertEquals(7, graph.getEdgesCount());
+		assertTrue(graph.containsEdge(2, 3));
+		assertFalse(graph.containsEdge(3, 2));
+		assertEquals(2, graph.getOutDegree(2));
+		assertEquals(2, graph.getInDegree(3));
+		assertTrue(graph.removeEdge(2, 3));
+		assertFalse(graph.removeEdge(2, 3));
+		assertEquals(6, graph.getEdgesCount());
+		assertEquals(1, graph.getInDegree(3));
+		graph.trimToSize();
+		assertTrue(graph.containsEdge(4, 3));
+	}
+
+	public void testRemoveVertex() {
+		graph.addEdge(3, 3);
+		graph.removeVertex(3);
+		assertFalse(graph.containsVertex(3));
+		assertEquals(5, graph.getVerticesCount());
+		assertEquals(4, graph.getEdgesCount());
+		assertEquals(1, graph.getOutDegree(2));
+		assertEquals(0, graph.getInDegree(4));
+		assertEquals(3, graph.addVertex());
+		assertEquals(0, graph.getOutDegree(3));
+		try {
+			graph.addEdge(0, 42);
+			fail("vertex 42 does not exist");
+		} catch (IllegalArgumentException e) {
+		}
+	}
+
+	public void testTraversals() {
+		int[] dfs = DepthFirstDirectedGraphTraversal.traverse(graph, 3);
+		assertTrue(Arrays.equals(new int[] { 3, 4, 5 }, dfs));
+		int[] bfs = BreadthFirstDirectedGraphTraversal.traverse(graph, 0);
+		assertTrue(Arrays.equals(new int[] { 0, 1, 2, 3, 4, 5 }, bfs));
+	}
+
+	public void testSCC() {
+		int[] scc = TarjanSCC.SCC(graph);
+		assertEquals(scc[0], scc[1]);
+		assertEquals(scc[0], scc[2]);
+		assertEquals(scc[3], scc[4]);
+		assertTrue(scc[0] != scc[3]);
+		assertTrue(scc[5] != scc[3]);
+		// reverse topological numbering
+		assertTrue(scc[0] > scc[3] && scc[3] > scc[5]);
+	}
+
+	public void testTopologicalSort() throws CycleException {
+		try {
+			TopologicalSorting.sort(graph);
+			fail("graph has cycles");
+		} catch (CycleException e) {
+		}
+		graph.removeEdge(2, 0);
+		graph.removeEdge(4, 3);
+		int[] sorted = TopologicalSorting.sort(graph);
+		assertTrue(Arrays.equals(new int[] { 0, 1, 2, 3, 4, 5 }, sorted));
+	}
+}
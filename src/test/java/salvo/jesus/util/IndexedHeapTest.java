@@ -0,0 +1,165 @@
+package salvo.jesus.util;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+/**
+ * Checks that IndexedHeaps of all arities, and the Heaps on top of them, give
+ * their keys in order of priority.
+ *
+ * @author nono
+ * @version $Id$
+ */
+public class IndexedHeapTest extends TestCase {
+
+	private static final int[] ARITIES = { 2, 3, 4, 8 };
+
+	public void testRemoveInOrder() {
+		for (int a = 0; a < ARITIES.length; a++) {
+			Random random = new Random(a);
+			IndexedHeap heap = new IndexedHeap(1, ARITIES[a]);
+			double[] priorities = new double[1000];
+			for (int key = 0; key < priorities.length; key++) {
+				priorities[key] = random.nextInt(500);
+				heap.insert(key, priorities[key]);
+			}
+			assertEquals(1000, heap.size());
+			Arrays.sort(priorities);
+			for (int i = 0; i < priorities.length; i++) {
+				assertEquals(priorities[i], heap.getPriority(heap.peek()), 0);
+				int key = heap.removeMin();
+				assertFalse(heap.contains(key));
+			}
+			assertTrue(heap.isEmpty());
+		}
+	}
+
+	public void testChangePriorities() {
+		for (int a = 0; a < ARITIES.length; a++) {
+			Random random = new Random(a);
+			IndexedHeap heap = new IndexedHeap(10, ARITIES[a]);
+			double[] priorities = new double[500];
+			for (int key = 0; key < priorities.length; key++)
+				heap.insert(key, priorities[key] = random.nextDouble());
+			for (int i = 0; i < 2000; i++) {
+				int key = random.nextInt(priorities.length);
+				if (priorities[key] < 0)
+					continue;
+				switch (random.nextInt(3)) {
+				case 0:
+					priorities[key] *= random.nextDouble();
+					heap.decreaseKey(key, priorities[key]);
+					break;
+				case 1:
+					heap.setPriority(key, priorities[key] = random
+							.nextDouble());
+					break;
+				default:
+					assertTrue(heap.remove(key));
+					priorities[key] = -1;
+				}
+			}
+			double last = -1;
+			while (!heap.isEmpty()) {
+				assertEquals(priorities[heap.peek()], heap.getPriority(heap
+						.peek()), 0);
+				int key = heap.removeMin();
+				assertTrue(priorities[key] >= last);
+				last = priorities[key];
+				priorities[key] = -1;
+			}
+			for (int key = 0; key < priorities.length; key++)
+				assertEquals(-1, priorities[key], 0);
+		}
+	}
+
+	public void testErrors() {
+		IndexedHeap heap = new IndexedHeap(4);
+		heap.insert(2, 1.0);
+		try {
+			heap.insert(2, 0.0);
+			fail();
+		} catch (IllegalArgumentException e) {
+		}
+		try {
+			heap.decreaseKey(2, 2.0);
+			fail();
+		} catch (IllegalArgumentException e) {
+		}
+		try {
+			heap.decreaseKey(3, 0.0);
+			fail();
+		} catch (NoSuchElementException e) {
+		}
+		assertFalse(heap.remove(100));
+		heap.clear();
+		assertFalse(heap.contains(2));
+		try {
+			heap.removeMin();
+			fail();
+		} catch (NoSuchElementException e) {
+		}
+		heap.insert(2, 3.0);
+		assertEquals(2, heap.removeMin());
+	}
+
+	public void testHeapOrders() {
+		Heap highest = new Heap();
+		Heap lowest = new Heap(new HeapNodeComparator(1));
+		for (int i = 0; i < 100; i++) {
+			highest.insert(new HeapNode(new Integer(i), (i * 37) % 100));
+			lowest.insert(new HeapNode(new Integer(i), (i * 37) % 100));
+		}
+		for (int i = 0; i < 100; i++) {
+			assertEquals(99 - i, highest.remove().getPriority(), 0);
+			assertEquals(i, lowest.remove().getPriority(), 0);
+		}
+		assertTrue(highest.isEmpty());
+		assertTrue(lowest.isEmpty());
+	}
+
+	public void testHeapSetPriority() {
+		Heap heap = new Heap(new HeapNodeComparator(1));
+		HeapNode[] nodes = new HeapNode[10];
+		for (int i = 0; i < nodes.length; i++)
+			heap.insert(nodes[i] = new HeapNode("v" + i, 10 + i));
+		heap.setPriority(nodes[7], 1);
+		heap.setPriority(nodes[0], 30);
+		// not in the heap: ignored
+		heap.setPriority(new HeapNode("x", 0), 0);
+		assertSame(nodes[7], heap.remove());
+		assertEquals(1, nodes[7].getPriority(), 0);
+
+		Comparator byObject = new Comparator() {
+			public int compare(Object object, Object node) {
+				return object.equals(((HeapNode) node).getObject()) ? 0 : -1;
+			}
+		};
+		assertSame(nodes[3], heap.contains("v3", byObject));
+		assertNull(heap.contains("v7", byObject));
+
+		// removed nodes can be inserted again
+		heap.insert(nodes[7]);
+		try {
+			heap.insert(nodes[7]);
+			fail();
+		} catch (IllegalArgumentException e) {
+		}
+		assertSame(nodes[7], heap.remove());
+		for (int i = 1; i < nodes.length; i++)
+			if (i != 7)
+				assertSame(nodes[i], heap.remove());
+		assertSame(nodes[0], heap.remove());
+		assertTrue(heap.isEmpty());
+
+		heap.insert(nodes[1]);
+		heap.clear();
+		assertTrue(heap.isEmpty());
+		heap.insert(nodes[1]);
+		assertSame(nodes[1], heap.remove());
+	}
+}
@@ -0,0 +1,65 @@
+package salvo.jesus.util;
+
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+/**
+ * Checks that KeySort sorts values by their keys, on one run or many, and
+ * that DisjointSets merge sets as expected.
+ *
+ * @author nono
+ * @version $Id$
+ */
+public class KeySortTest extends TestCase {
+
+	private static void check(int size, int threads, Random random) {
+		long[] keys = new long[size];
+		int[] values = new int[size];
+		double[] weights = new double[size];
+		for (int i = 0; i < size; i++) {
+			weights[i] = random.nextInt(1000) - 500 + random.nextDouble();
+			keys[i] = KeySort.key(weights[i]);
+			values[i] = i;
+		}
+		KeySort.sort(keys, values, size, threads);
+		for (int i = 0; i < size; i++) {
+			assertEquals(KeySort.key(weights[values[i]]), keys[i]);
+			if (i > 0) {
+				assertTrue(weights[values[i - 1]] <= weights[values[i]]);
+				// equal keys keep their order
+				if (keys[i - 1] == keys[i])
+					assertTrue(values[i - 1] < values[i]);
+			}
+		}
+	}
+
+	public void testSort() {
+		Random random = new Random(1);
+		int[] sizes = { 0, 1, 2, 1000, 300000 };
+		for (int s = 0; s < sizes.length; s++)
+			for (int threads = 1; threads <= 5; threads += 2)
+				check(sizes[s], threads, random);
+	}
+
+	public void testKey() {
+		double[] ordered = { Double.NEGATIVE_INFINITY, -1e300, -2.5, -1,
+				-Double.MIN_VALUE, 0, Double.MIN_VALUE, 1, 2.5, 1e300,
+				Double.POSITIVE_INFINITY };
+		for (int i = 1; i < ordered.length; i++)
+			assertTrue(KeySort.key(ordered[i - 1]) < KeySort.key(ordered[i]));
+	}
+
+	public void testDisjointSets() {
+		DisjointSets sets = new DisjointSets(10);
+		assertEquals(10, sets.getSetsCount());
+		assertTrue(sets.union(1, 2));
+		assertTrue(sets.union(3, 4));
+		assertTrue(sets.union(2, 4));
+		assertFalse(sets.union(1, 3));
+		assertTrue(sets.connected(1, 4));
+		assertFalse(sets.connected(1, 5));
+		assertEquals(sets.find(2), sets.find(3));
+		assertEquals(7, sets.getSetsCount());
+	}
+}